@@ -3,9 +3,10 @@ package com.city_i.ai;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
-import android.graphics.Color;
 import android.util.Log;
 
+import com.city_i.platform.BitmapPixelSource;
+
 import org.tensorflow.lite.DataType;
 import org.tensorflow.lite.Interpreter;
 import org.tensorflow.lite.support.common.FileUtil;
@@ -28,12 +29,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-public class ImageClassifier {
+public class ImageClassifier implements ImageSeverityAnalyzer {
     private static final String TAG = "ImageClassifier";
 
     private Context context;
     private ModelManager modelManager;
     private Interpreter imageInterpreter;
+    private final ImageFeatureAnalyzer featureAnalyzer = new ImageFeatureAnalyzer();
 
     // Image dimensions for the model
     private static final int IMG_WIDTH = 224;
@@ -91,7 +93,8 @@ public class ImageClassifier {
     /**
      * Analyze image and return severity score (1-10)
      */
-    public int analyzeImageSeverity(String imagePath) {
+    @Override
+    public synchronized int analyzeImageSeverity(String imagePath) {
         try {
             Log.d(TAG, "Analyzing image: " + imagePath);
 
@@ -112,7 +115,7 @@ public class ImageClassifier {
                 return analyzeWithModel(bitmap);
             } else {
                 // Fallback to feature-based analysis
-                return analyzeImageFeatures(bitmap);
+                return featureAnalyzer.analyzeImageFeatures(new BitmapPixelSource(bitmap));
             }
 
         } catch (Exception e) {
@@ -147,7 +150,7 @@ public class ImageClassifier {
             float[][] output = new float[1][CATEGORIES.length];
 
             // Run inference
-            imageInterpreter.run(inputBuffer, output);
+            modelManager.runInference(ModelManager.IMAGE_CLASSIFIER_MODEL, imageInterpreter, inputBuffer, output);
 
             // Get top category
             int topCategoryIndex = getMaxIndex(output[0]);
@@ -166,89 +169,15 @@ public class ImageClassifier {
 
         } catch (Exception e) {
             Log.e(TAG, "Error in model analysis: " + e.getMessage());
-            return analyzeImageFeatures(bitmap);
+            return featureAnalyzer.analyzeImageFeatures(new BitmapPixelSource(bitmap));
         }
     }
 
-    /**
-     * Fallback method: Analyze image features
-     */
-    private int analyzeImageFeatures(Bitmap bitmap) {
-        int width = bitmap.getWidth();
-        int height = bitmap.getHeight();
-
-        // Calculate brightness
-        float brightness = calculateBrightness(bitmap);
-
-        // Calculate contrast
-        float contrast = calculateContrast(bitmap);
-
-        // Detect edges (simplified)
-        int edgeDensity = detectEdgeDensity(bitmap);
-
-        // Detect color patterns (looking for hazardous colors)
-        int hazardousColorScore = detectHazardousColors(bitmap);
-
-        // Calculate overall severity
-        int severity = 5; // Base
-
-        // Adjust based on features
-        if (edgeDensity > 1000) severity += 2; // Lots of edges = potential damage
-        if (hazardousColorScore > 30) severity += 2; // Hazardous colors present
-        if (brightness < 0.3) severity += 1; // Dark image might be dangerous area
-        if (contrast > 0.5) severity += 1; // High contrast might indicate damage
-
-        // Ensure within bounds
-        severity = Math.max(1, Math.min(10, severity));
-
-        Log.d(TAG, String.format(
-                "Feature analysis - Brightness: %.2f, Contrast: %.2f, Edges: %d, Hazard: %d, Severity: %d",
-                brightness, contrast, edgeDensity, hazardousColorScore, severity
-        ));
-
-        return severity;
-    }
-
     /**
      * Quick analysis for immediate feedback
      */
     public String quickAnalyze(Bitmap image) {
-        try {
-            if (image == null) {
-                return "No image to analyze";
-            }
-
-            // Simple analysis for immediate feedback
-            float brightness = calculateBrightness(image);
-            int edgeDensity = detectEdgeDensity(image);
-            int colorScore = detectHazardousColors(image);
-
-            StringBuilder result = new StringBuilder();
-
-            if (brightness < 0.3) {
-                result.append("• Low light detected\n");
-            }
-
-            if (edgeDensity > 800) {
-                result.append("• Possible structural damage\n");
-            }
-
-            if (colorScore > 25) {
-                result.append("• Hazardous conditions detected\n");
-            }
-
-            if (result.length() == 0) {
-                result.append("• Image quality is good\n");
-                result.append("• Ready for submission\n");
-            } else {
-                result.append("• Consider retaking photo\n");
-            }
-
-            return result.toString();
-
-        } catch (Exception e) {
-            return "Quick analysis unavailable";
-        }
+        return featureAnalyzer.quickAnalyze(image != null ? new BitmapPixelSource(image) : null);
     }
 
     /**
@@ -278,123 +207,6 @@ public class ImageClassifier {
         }
     }
 
-    /**
-     * Helper methods for image analysis
-     */
-    private float calculateBrightness(Bitmap bitmap) {
-        int width = bitmap.getWidth();
-        int height = bitmap.getHeight();
-        long totalBrightness = 0;
-        int sampleSize = 1000; // Sample points for performance
-
-        for (int i = 0; i < sampleSize; i++) {
-            int x = (int) (Math.random() * width);
-            int y = (int) (Math.random() * height);
-            int pixel = bitmap.getPixel(x, y);
-
-            int r = Color.red(pixel);
-            int g = Color.green(pixel);
-            int b = Color.blue(pixel);
-
-            // Calculate brightness using standard formula
-            totalBrightness += (int) (0.299 * r + 0.587 * g + 0.114 * b);
-        }
-
-        return totalBrightness / (float) (sampleSize * 255);
-    }
-
-    private float calculateContrast(Bitmap bitmap) {
-        int width = bitmap.getWidth();
-        int height = bitmap.getHeight();
-        int sampleSize = 500;
-
-        List<Integer> brightnessValues = new ArrayList<>();
-
-        for (int i = 0; i < sampleSize; i++) {
-            int x = (int) (Math.random() * width);
-            int y = (int) (Math.random() * height);
-            int pixel = bitmap.getPixel(x, y);
-
-            int r = Color.red(pixel);
-            int g = Color.green(pixel);
-            int b = Color.blue(pixel);
-
-            int brightness = (int) (0.299 * r + 0.587 * g + 0.114 * b);
-            brightnessValues.add(brightness);
-        }
-
-        // Simple contrast calculation (range of brightness)
-        Collections.sort(brightnessValues);
-        int min = brightnessValues.get(0);
-        int max = brightnessValues.get(brightnessValues.size() - 1);
-
-        return (max - min) / 255.0f;
-    }
-
-    private int detectEdgeDensity(Bitmap bitmap) {
-        // Simplified edge detection by sampling pixel differences
-        int width = bitmap.getWidth();
-        int height = bitmap.getHeight();
-        int edgeCount = 0;
-        int samples = 200;
-
-        for (int i = 0; i < samples; i++) {
-            int x = (int) (Math.random() * (width - 2));
-            int y = (int) (Math.random() * (height - 2));
-
-            int pixel1 = bitmap.getPixel(x, y);
-            int pixel2 = bitmap.getPixel(x + 1, y);
-            int pixel3 = bitmap.getPixel(x, y + 1);
-
-            // Calculate color differences
-            int diff1 = Math.abs(Color.red(pixel1) - Color.red(pixel2)) +
-                    Math.abs(Color.green(pixel1) - Color.green(pixel2)) +
-                    Math.abs(Color.blue(pixel1) - Color.blue(pixel2));
-
-            int diff2 = Math.abs(Color.red(pixel1) - Color.red(pixel3)) +
-                    Math.abs(Color.green(pixel1) - Color.green(pixel3)) +
-                    Math.abs(Color.blue(pixel1) - Color.blue(pixel3));
-
-            if (diff1 > 50 || diff2 > 50) { // Threshold for edge
-                edgeCount++;
-            }
-        }
-
-        return edgeCount * (width * height / samples); // Scale up to estimate total
-    }
-
-    private int detectHazardousColors(Bitmap bitmap) {
-        // Detect colors that might indicate hazardous conditions
-        // Red/Yellow for danger/warning, Brown for waste/sewage
-        int width = bitmap.getWidth();
-        int height = bitmap.getHeight();
-        int hazardousCount = 0;
-        int samples = 300;
-
-        for (int i = 0; i < samples; i++) {
-            int x = (int) (Math.random() * width);
-            int y = (int) (Math.random() * height);
-            int pixel = bitmap.getPixel(x, y);
-
-            int r = Color.red(pixel);
-            int g = Color.green(pixel);
-            int b = Color.blue(pixel);
-
-            // Detect red/orange/yellow (danger/warning)
-            if (r > 150 && g < 100 && b < 100) { // Red
-                hazardousCount++;
-            } else if (r > 150 && g > 100 && b < 50) { // Orange/Yellow
-                hazardousCount++;
-            }
-            // Detect brown (waste/sewage)
-            else if (r > 100 && r < 150 && g > 50 && g < 100 && b < 50) {
-                hazardousCount++;
-            }
-        }
-
-        return hazardousCount;
-    }
-
     private Bitmap loadAndPreprocessImage(String imagePath) {
         try {
             // First, decode with bounds to check memory
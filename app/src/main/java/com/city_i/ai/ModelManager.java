@@ -4,18 +4,26 @@ import android.content.Context;
 import android.content.res.AssetFileDescriptor;
 import android.util.Log;
 
+import com.city_i.platform.InferenceRunner;
+
 import org.tensorflow.lite.Interpreter;
 import org.tensorflow.lite.gpu.GpuDelegate;
 import org.tensorflow.lite.nnapi.NnApiDelegate;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class ModelManager {
@@ -24,15 +32,20 @@ public class ModelManager {
     private Context context;
 
     // Model file names
-    private static final String PRIORITY_MODEL = "priority_model.tflite";
-    private static final String IMAGE_CLASSIFIER_MODEL = "image_classifier.tflite";
-    private static final String TEXT_ANALYZER_MODEL = "text_analyzer.tflite";
+    static final String PRIORITY_MODEL = "priority_model.tflite";
+    static final String IMAGE_CLASSIFIER_MODEL = "image_classifier.tflite";
+    static final String TEXT_ANALYZER_MODEL = "text_analyzer.tflite";
+    private static final String TEXT_ANALYZER_VOCAB = "text_analyzer_vocab.txt";
 
     // Model cache
     private Map<String, Interpreter> modelCache;
     private GpuDelegate gpuDelegate;
     private NnApiDelegate nnApiDelegate;
 
+    // Inference instrumentation, null while disabled
+    private volatile InferenceMetrics inferenceMetrics;
+    private final Map<String, String> modelDelegates = new HashMap<>();
+
     // Model metadata
     private static final Map<String, ModelInfo> MODEL_INFO = new HashMap<String, ModelInfo>() {{
         put(PRIORITY_MODEL, new ModelInfo("Priority Predictor", "1.0", 5, 3));
@@ -143,6 +156,48 @@ public class ModelManager {
         return loadModel(TEXT_ANALYZER_MODEL);
     }
 
+    /**
+     * Load the text analyzer vocabulary (one token per line, id = line index)
+     */
+    public List<String> loadTextAnalyzerVocabulary() {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                context.getAssets().open(TEXT_ANALYZER_VOCAB), StandardCharsets.UTF_8))) {
+            List<String> vocabulary = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                vocabulary.add(line.trim());
+            }
+
+            Log.d(TAG, "Vocabulary loaded: " + vocabulary.size() + " tokens");
+            return vocabulary;
+
+        } catch (IOException e) {
+            Log.w(TAG, "Vocabulary not available: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Build the model-backed text urgency path, or return null if the text model
+     * or its vocabulary is missing
+     */
+    public TextUrgencyModel createTextUrgencyModel() {
+        List<String> vocabulary = loadTextAnalyzerVocabulary();
+        if (vocabulary == null || vocabulary.isEmpty()) {
+            Log.w(TAG, "Text analyzer vocabulary not available, model path disabled");
+            return null;
+        }
+
+        Interpreter interpreter = loadTextAnalyzerModel();
+        if (interpreter == null) {
+            Log.w(TAG, "Text analyzer model not available, model path disabled");
+            return null;
+        }
+
+        return new TextUrgencyModel(runnerFor(TEXT_ANALYZER_MODEL, interpreter),
+                new VocabularyTrie(vocabulary));
+    }
+
     /**
      * Generic model loader
      */
@@ -173,6 +228,7 @@ public class ModelManager {
                 Interpreter.Options options = createInterpreterOptions();
                 Interpreter interpreter = new Interpreter(modelBuffer, options);
                 modelCache.put(modelName, interpreter);
+                recordDelegate(modelName);
 
                 Log.d(TAG, "Model loaded from assets: " + modelName);
                 return interpreter;
@@ -195,6 +251,7 @@ public class ModelManager {
             Interpreter.Options options = createInterpreterOptions();
             Interpreter interpreter = new Interpreter(modelBuffer, options);
             modelCache.put(modelName, interpreter);
+            recordDelegate(modelName);
 
             Log.d(TAG, "Model loaded successfully: " + modelName);
             return interpreter;
@@ -276,6 +333,98 @@ public class ModelManager {
         return options;
     }
 
+    /**
+     * Describe the delegates attached by {@link #createInterpreterOptions()}
+     */
+    private String describeDelegates() {
+        StringBuilder delegates = new StringBuilder();
+        if (gpuDelegate != null) {
+            delegates.append("GPU+");
+        }
+        if (nnApiDelegate != null) {
+            delegates.append("NNAPI+");
+        }
+        delegates.append("XNNPACK");
+        return delegates.toString();
+    }
+
+    private void recordDelegate(String modelName) {
+        String delegate = describeDelegates();
+        synchronized (modelDelegates) {
+            modelDelegates.put(modelName, delegate);
+        }
+
+        InferenceMetrics metrics = inferenceMetrics;
+        if (metrics != null) {
+            metrics.setDelegate(modelName, delegate);
+        }
+    }
+
+    /**
+     * Run an interpreter, recording its latency when metrics are enabled.
+     * With metrics disabled this is a plain {@link Interpreter#run} call.
+     */
+    public void runInference(String modelName, Interpreter interpreter, Object input, Object output) {
+        InferenceMetrics metrics = inferenceMetrics;
+        if (metrics == null) {
+            interpreter.run(input, output);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            interpreter.run(input, output);
+            success = true;
+        } finally {
+            metrics.record(modelName, System.nanoTime() - start, success);
+        }
+    }
+
+    /**
+     * Expose an interpreter to core scoring code, instrumented like {@link #runInference}
+     */
+    public InferenceRunner runnerFor(String modelName, Interpreter interpreter) {
+        return (input, output) -> runInference(modelName, interpreter, input, output);
+    }
+
+    /**
+     * Turn inference latency recording on or off. Disabling drops recorded data.
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        if (!enabled) {
+            inferenceMetrics = null;
+            Log.d(TAG, "Inference metrics disabled");
+            return;
+        }
+
+        if (inferenceMetrics == null) {
+            InferenceMetrics metrics = new InferenceMetrics();
+            synchronized (modelDelegates) {
+                for (Map.Entry<String, String> entry : modelDelegates.entrySet()) {
+                    metrics.setDelegate(entry.getKey(), entry.getValue());
+                }
+            }
+            inferenceMetrics = metrics;
+            Log.d(TAG, "Inference metrics enabled");
+        }
+    }
+
+    public boolean isMetricsEnabled() {
+        return inferenceMetrics != null;
+    }
+
+    /**
+     * Structured per-model latency snapshot; empty while metrics are disabled
+     */
+    public List<InferenceMetrics.ModelSnapshot> getInferenceMetrics() {
+        InferenceMetrics metrics = inferenceMetrics;
+        if (metrics == null) {
+            return Collections.emptyList();
+        }
+        return metrics.snapshot();
+    }
+
     /**
      * Check if model is available
      */
@@ -408,6 +557,11 @@ public class ModelManager {
 
         stats.append("Cache Size: ").append(modelCache.size()).append(" models loaded\n");
 
+        InferenceMetrics metrics = inferenceMetrics;
+        if (metrics != null) {
+            stats.append("\n").append(metrics.dump());
+        }
+
         return stats.toString();
     }
 }
\ No newline at end of file
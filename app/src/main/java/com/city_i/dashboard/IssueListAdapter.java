@@ -1,4 +1,149 @@
 package com.city_i.dashboard;
 
-public class IssueListAdapter {
+import android.graphics.Bitmap;
+import android.view.Gravity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.city_i.media.ThumbnailDispatcher;
+import com.city_i.models.IssueModel;
+import com.city_i.paging.IssuePager;
+import com.city_i.services.Thumbnails;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Issue rows for long lists. New lists are diffed against the current one on a
+ * background thread by issue id, so a live update rebinds only the rows that
+ * changed, and binding near the end asks the {@link IssuePager} for the next page.
+ * Photos are shown as {@link Thumbnails}; a recycled row stops waiting for its one.
+ */
+public class IssueListAdapter extends ListAdapter<IssueModel, IssueListAdapter.IssueViewHolder> {
+
+    public interface OnIssueClickListener {
+        void onIssueClick(IssueModel issue);
+    }
+
+    private static final int THUMBNAIL_PX = 144;
+
+    private static final DiffUtil.ItemCallback<IssueModel> DIFF = new DiffUtil.ItemCallback<IssueModel>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull IssueModel oldItem, @NonNull IssueModel newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull IssueModel oldItem, @NonNull IssueModel newItem) {
+            // Only what the row shows
+            return Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                    && Objects.equals(oldItem.getStatus(), newItem.getStatus())
+                    && Objects.equals(oldItem.getCategory(), newItem.getCategory())
+                    && Objects.equals(oldItem.getImagePath(), newItem.getImagePath())
+                    && oldItem.getPriority() == newItem.getPriority();
+        }
+    };
+
+    private final OnIssueClickListener clickListener;
+    private final Map<String, Long> stableIds = new HashMap<>();
+    private IssuePager pager;
+    private Thumbnails thumbnails;
+
+    public IssueListAdapter(OnIssueClickListener clickListener) {
+        super(DIFF);
+        this.clickListener = clickListener;
+        setHasStableIds(true);
+    }
+
+    public void setPager(IssuePager pager) {
+        this.pager = pager;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        // Sequential ids per issue id, so unlike hashCode they never collide
+        String issueId = getItem(position).getId();
+        Long id = stableIds.get(issueId);
+        if (id == null) {
+            id = (long) stableIds.size();
+            stableIds.put(issueId, id);
+        }
+        return id;
+    }
+
+    @NonNull
+    @Override
+    public IssueViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        if (thumbnails == null) {
+            thumbnails = Thumbnails.getInstance(parent.getContext());
+        }
+        LinearLayout row = new LinearLayout(parent.getContext());
+        row.setOrientation(LinearLayout.HORIZONTAL);
+        row.setGravity(Gravity.CENTER_VERTICAL);
+        row.setLayoutParams(new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        row.setPadding(32, 24, 32, 24);
+
+        ImageView thumbnail = new ImageView(parent.getContext());
+        thumbnail.setScaleType(ImageView.ScaleType.CENTER_CROP);
+        row.addView(thumbnail, new LinearLayout.LayoutParams(THUMBNAIL_PX, THUMBNAIL_PX));
+
+        TextView text = new TextView(parent.getContext());
+        text.setPadding(24, 0, 0, 0);
+        row.addView(text, new LinearLayout.LayoutParams(0, ViewGroup.LayoutParams.WRAP_CONTENT, 1f));
+
+        IssueViewHolder holder = new IssueViewHolder(row, thumbnail, text);
+        row.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION && clickListener != null) {
+                clickListener.onIssueClick(getItem(position));
+            }
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull IssueViewHolder holder, int position) {
+        IssueModel issue = getItem(position);
+        holder.bind(issue);
+        holder.thumbnail.setVisibility(issue.getImagePath() != null ? View.VISIBLE : View.GONE);
+        thumbnails.load(issue, holder.thumbnailTarget);
+        if (pager != null) {
+            pager.onItemVisible(position);
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull IssueViewHolder holder) {
+        thumbnails.clear(holder.thumbnailTarget);
+    }
+
+    static class IssueViewHolder extends RecyclerView.ViewHolder {
+        private final ImageView thumbnail;
+        private final ThumbnailDispatcher.Target<Bitmap> thumbnailTarget;
+        private final TextView text;
+
+        IssueViewHolder(View itemView, ImageView thumbnail, TextView text) {
+            super(itemView);
+            this.thumbnail = thumbnail;
+            this.thumbnailTarget = Thumbnails.target(thumbnail);
+            this.text = text;
+        }
+
+        void bind(IssueModel issue) {
+            String title = issue.getTitle() != null ? issue.getTitle() : issue.getId();
+            String status = issue.getStatus() != null ? issue.getStatus() : "Pending";
+            String category = issue.getCategory() != null ? issue.getCategory() + " · " : "";
+            text.setText(title + "\n" + category + status + " · priority " + issue.getPriority());
+        }
+    }
 }
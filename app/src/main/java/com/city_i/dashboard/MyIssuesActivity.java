@@ -1,4 +1,148 @@
 package com.city_i.dashboard;
 
-public class MyIssuesActivity {
+import android.content.Intent;
+import android.os.Bundle;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.city_i.live.Change;
+import com.city_i.live.SnapshotMultiplexer;
+import com.city_i.models.IssueModel;
+import com.city_i.paging.IssuePager;
+import com.city_i.paging.ListPageSource;
+import com.city_i.services.IssueSync;
+import com.city_i.services.LiveIssues;
+import com.city_i.sync.IssueMirror;
+import com.city_i.tracking.TrackIssueActivity;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The signed-in user's reports, paged from the local mirror and kept current by
+ * delta sync and live updates.
+ */
+public class MyIssuesActivity extends AppCompatActivity {
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_DISTANCE = 15;
+
+    private final ExecutorService pageExecutor = Executors.newSingleThreadExecutor();
+    private IssueListAdapter adapter;
+    private String userId;
+    private IssueMirror mirror;
+    private IssuePager pager;
+    private SnapshotMultiplexer.Registration tracking;
+    private boolean started;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) {
+            Toast.makeText(this, "Please sign in to see your issues", Toast.LENGTH_SHORT).show();
+            finish();
+            return;
+        }
+        userId = user.getUid();
+
+        adapter = new IssueListAdapter(issue -> {
+            Intent intent = new Intent(this, TrackIssueActivity.class);
+            intent.putExtra(TrackIssueActivity.EXTRA_ISSUE_ID, issue.getId());
+            startActivity(intent);
+        });
+        RecyclerView recyclerView = new RecyclerView(this);
+        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        recyclerView.setHasFixedSize(true);
+        recyclerView.setAdapter(adapter);
+        setContentView(recyclerView);
+
+        IssueSync.getInstance(this).getMirror().thenAccept(loaded -> runOnUiThread(() -> {
+            if (isDestroyed()) {
+                return;
+            }
+            mirror = loaded;
+            pager = new IssuePager(
+                    new ListPageSource(loaded::getIssues, issue -> userId.equals(issue.getReportedByUserId())),
+                    PAGE_SIZE, PREFETCH_DISTANCE, pageExecutor, new IssuePager.Listener() {
+                        @Override
+                        public void onLoaded(List<IssueModel> items) {
+                            runOnUiThread(() -> adapter.submitList(items));
+                        }
+
+                        @Override
+                        public void onError(Exception error) {
+                            runOnUiThread(() -> Toast.makeText(MyIssuesActivity.this,
+                                    "Could not load issues", Toast.LENGTH_SHORT).show());
+                        }
+                    });
+            adapter.setPager(pager);
+            pager.start();
+            if (started) {
+                startUpdates();
+            }
+        }));
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        started = true;
+        if (pager != null) {
+            startUpdates();
+        }
+    }
+
+    @Override
+    protected void onStop() {
+        started = false;
+        if (tracking != null) {
+            tracking.remove();
+            tracking = null;
+        }
+        super.onStop();
+    }
+
+    @Override
+    protected void onDestroy() {
+        pageExecutor.shutdownNow();
+        super.onDestroy();
+    }
+
+    private void startUpdates() {
+        if (tracking != null) {
+            return;
+        }
+        IssueSync.getInstance(this).syncMine().thenAccept(changed -> {
+            if (changed > 0) {
+                pager.invalidate();
+            }
+        });
+        tracking = LiveIssues.getInstance(this).trackReportedBy(userId,
+                new SnapshotMultiplexer.Subscriber<IssueModel>() {
+                    @Override
+                    public void onChanges(List<Change<IssueModel>> changes) {
+                        boolean changed = false;
+                        for (Change<IssueModel> change : changes) {
+                            changed |= change.getType() == Change.Type.REMOVED
+                                    ? mirror.remove(change.getId())
+                                    : mirror.apply(change.getValue());
+                        }
+                        if (changed) {
+                            pager.invalidate();
+                        }
+                    }
+
+                    @Override
+                    public void onError(Exception error) {
+                        // Keep showing the mirror; delta sync catches up on the next start
+                    }
+                });
+    }
 }
@@ -1,13 +1,17 @@
 package com.city_i.dashboard;
 
 import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
+import androidx.core.content.FileProvider;
 import android.Manifest;
 import android.content.Intent;
 import android.content.pm.PackageManager;
+import android.graphics.Bitmap;
 import android.location.Location;
+import android.net.Uri;
 import android.os.Bundle;
 import android.provider.MediaStore;
 import android.widget.ArrayAdapter;
@@ -19,16 +23,35 @@ import android.widget.TextView;
 import android.widget.Toast;
 import com.city_i.R;
 import com.city_i.ai.AIPriorityEngine;
+import com.city_i.ai.PriorityResult;
+import com.city_i.dedup.DuplicateCandidate;
+import com.city_i.media.ThumbnailDispatcher;
+import com.city_i.models.IssueModel;
+import com.city_i.services.Duplicates;
+import com.city_i.services.Hotspots;
+import com.city_i.services.IssueSync;
+import com.city_i.services.SubmissionQueue;
+import com.city_i.services.Thumbnails;
+import com.city_i.tracking.TrackIssueActivity;
 import com.google.android.gms.location.FusedLocationProviderClient;
 import com.google.android.gms.location.LocationServices;
 import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import java.io.File;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class ReportIssueActivity extends AppCompatActivity {
 
     private static final int CAMERA_REQUEST = 100;
     private static final int LOCATION_PERMISSION = 101;
+    private static final long SCORING_DEADLINE_MS = 1500;
+    private static final int FALLBACK_PRIORITY = 5;
+    private static final String STATE_IMAGE_PATH = "image_path";
+    private static final String STATE_PENDING_PHOTO = "pending_photo";
 
     private EditText etDescription;
     private Spinner spinnerCategory;
@@ -38,7 +61,10 @@ public class ReportIssueActivity extends AppCompatActivity {
     private FusedLocationProviderClient fusedLocationClient;
     private double latitude, longitude;
     private String imagePath;
+    private File pendingPhoto;
+    private ThumbnailDispatcher.Target<Bitmap> previewTarget;
     private AIPriorityEngine aiPriorityEngine;
+    private CompletableFuture<PriorityResult> pendingScore;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -51,6 +77,22 @@ public class ReportIssueActivity extends AppCompatActivity {
         initializeUI();
         requestPermissions();
         getCurrentLocation();
+
+        if (savedInstanceState != null) {
+            String pending = savedInstanceState.getString(STATE_PENDING_PHOTO);
+            pendingPhoto = pending != null ? new File(pending) : null;
+            imagePath = savedInstanceState.getString(STATE_IMAGE_PATH);
+            if (imagePath != null) {
+                Thumbnails.getInstance(this).load(imagePath, previewTarget);
+            }
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putString(STATE_IMAGE_PATH, imagePath);
+        outState.putString(STATE_PENDING_PHOTO, pendingPhoto != null ? pendingPhoto.getPath() : null);
     }
 
     private void initializeUI() {
@@ -60,6 +102,7 @@ public class ReportIssueActivity extends AppCompatActivity {
         btnSubmit = findViewById(R.id.btnSubmit);
         ivPreview = findViewById(R.id.ivPreview);
         tvLocation = findViewById(R.id.tvLocation);
+        previewTarget = Thumbnails.target(ivPreview);
 
         // Issue categories
         List<String> categories = Arrays.asList(
@@ -103,6 +146,8 @@ public class ReportIssueActivity extends AppCompatActivity {
                             longitude = location.getLongitude();
                             tvLocation.setText(String.format("Location: %.4f, %.4f",
                                     latitude, longitude));
+                            Hotspots.getInstance(this).loadAround(latitude, longitude);
+                            IssueSync.getInstance(this).syncNearby(latitude, longitude);
                         }
                     });
         }
@@ -111,6 +156,17 @@ public class ReportIssueActivity extends AppCompatActivity {
     private void captureImage() {
         Intent takePictureIntent = new Intent(MediaStore.ACTION_IMAGE_CAPTURE);
         if (takePictureIntent.resolveActivity(getPackageManager()) != null) {
+            // Full-size photo into app storage; the camera's own result is only a tiny preview
+            File photos = new File(getFilesDir(), "photos");
+            if (!photos.isDirectory() && !photos.mkdirs()) {
+                Toast.makeText(this, "Cannot store photos", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            pendingPhoto = new File(photos, "IMG_" + System.currentTimeMillis() + ".jpg");
+            Uri photoUri = FileProvider.getUriForFile(this,
+                    getPackageName() + ".fileprovider", pendingPhoto);
+            takePictureIntent.putExtra(MediaStore.EXTRA_OUTPUT, photoUri);
+            takePictureIntent.addFlags(Intent.FLAG_GRANT_WRITE_URI_PERMISSION);
             startActivityForResult(takePictureIntent, CAMERA_REQUEST);
         }
     }
@@ -118,9 +174,19 @@ public class ReportIssueActivity extends AppCompatActivity {
     @Override
     protected void onActivityResult(int requestCode, int resultCode, Intent data) {
         super.onActivityResult(requestCode, resultCode, data);
-        if (requestCode == CAMERA_REQUEST && resultCode == RESULT_OK) {
-            // Image captured, you can process it here
+        if (requestCode == CAMERA_REQUEST && resultCode == RESULT_OK && pendingPhoto != null) {
+            imagePath = pendingPhoto.getPath();
+            pendingPhoto = null;
             Toast.makeText(this, "Image captured!", Toast.LENGTH_SHORT).show();
+
+            // Thumbnail now, off the UI thread, so lists never decode the full photo
+            String captured = imagePath;
+            Thumbnails thumbnails = Thumbnails.getInstance(this);
+            thumbnails.generate(captured).thenRun(() -> runOnUiThread(() -> {
+                if (!isDestroyed() && captured.equals(imagePath)) {
+                    thumbnails.load(captured, previewTarget);
+                }
+            }));
         }
     }
 
@@ -133,19 +199,89 @@ public class ReportIssueActivity extends AppCompatActivity {
             return;
         }
 
-        // Use AI to determine priority
-        int priorityLevel = aiPriorityEngine.calculatePriority(
-                category, description, imagePath, latitude, longitude
-        );
+        IssueModel issue = new IssueModel();
+        issue.setTitle(category);
+        issue.setDescription(description);
+        issue.setCategory(category);
+        issue.setImagePath(imagePath);
+        issue.setLatitude(latitude);
+        issue.setLongitude(longitude);
+        issue.setCreatedAt(new Date());
+        issue.setStatus("Pending");
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user != null) {
+            issue.setReportedByUserId(user.getUid());
+        }
 
-        Toast.makeText(this,
-                "Issue reported with priority level: " + priorityLevel,
-                Toast.LENGTH_SHORT).show();
+        // Offer an existing report of the same incident before scoring and sending another
+        btnSubmit.setEnabled(false);
+        Duplicates.getInstance(this).find(issue).whenComplete((candidates, error) -> runOnUiThread(() -> {
+            if (isFinishing() || isDestroyed()) {
+                return;
+            }
+            if (error == null && !candidates.isEmpty()) {
+                offerExisting(issue, candidates.get(0));
+            } else {
+                scoreAndQueue(issue);
+            }
+        }));
+    }
+
+    private void offerExisting(IssueModel issue, DuplicateCandidate existing) {
+        long minutes = existing.getTimeApartMs() / 60000;
+        new AlertDialog.Builder(this)
+                .setTitle("Already reported?")
+                .setMessage("A similar issue was reported " + Math.round(existing.getDistanceMeters())
+                        + " m from here, " + minutes + " min apart. Follow that report instead?")
+                .setPositiveButton("Follow it", (dialog, which) -> {
+                    Intent intent = new Intent(this, TrackIssueActivity.class);
+                    intent.putExtra(TrackIssueActivity.EXTRA_ISSUE_ID, existing.getIssueId());
+                    startActivity(intent);
+                    finish();
+                })
+                .setNegativeButton("Report anyway", (dialog, which) -> scoreAndQueue(issue))
+                .setOnCancelListener(dialog -> btnSubmit.setEnabled(true))
+                .show();
+    }
+
+    private void scoreAndQueue(IssueModel issue) {
+        // Use AI to determine priority off the UI thread
+        pendingScore = aiPriorityEngine.scoreAsync(issue, SCORING_DEADLINE_MS);
+        // The user already pressed submit: if the screen goes away first, onDestroy cancels
+        // the score and the report is still queued, with the fallback priority. The cancel
+        // runs these stages on the UI thread, so queueing itself happens on the queue's thread.
+        pendingScore.handle((result, error) -> error == null ? result.getPriority() : FALLBACK_PRIORITY)
+                .thenCompose(priorityLevel -> {
+                    issue.setPriority(priorityLevel);
+                    return SubmissionQueue.submitAsync(getApplicationContext(), issue);
+                })
+                .whenComplete((submission, error) -> runOnUiThread(() -> {
+                    if (isFinishing() || isDestroyed()) {
+                        return;
+                    }
 
-        // Save to Firebase (implement in FirebaseService)
-        // FirebaseService.saveIssue(...);
+                    if (error != null) {
+                        btnSubmit.setEnabled(true);
+                        Toast.makeText(this, "Could not save the report, please try again",
+                                Toast.LENGTH_SHORT).show();
+                        return;
+                    }
 
-        finish();
+                    Toast.makeText(this,
+                            "Issue reported with priority level: " + issue.getPriority(),
+                            Toast.LENGTH_SHORT).show();
+                    finish();
+                }));
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (pendingScore != null) {
+            pendingScore.cancel(true);
+        }
+        aiPriorityEngine.close();
+        Thumbnails.getInstance(this).clear(previewTarget);
+        super.onDestroy();
     }
 
     @Override
@@ -9,6 +9,8 @@ import com.city_i.fragments.HomeFragment;
 import com.city_i.fragments.ReportFragment;
 import com.city_i.fragments.TrackFragment;
 import com.city_i.fragments.ProfileFragment;
+import com.city_i.services.IssueSync;
+import com.city_i.services.SubmissionQueue;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
 public class UserDashboardActivity extends AppCompatActivity {
@@ -22,6 +24,10 @@ public class UserDashboardActivity extends AppCompatActivity {
 
         bottomNavigationView = findViewById(R.id.bottomNavigationView);
 
+        // Send any reports still queued from an earlier session
+        SubmissionQueue.resume(this);
+        IssueSync.getInstance(this).syncMine();
+
         // Load default fragment
         loadFragment(new HomeFragment());
 
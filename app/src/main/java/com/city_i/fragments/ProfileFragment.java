@@ -10,16 +10,56 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
+import com.city_i.models.UserModel;
+import com.city_i.services.UserRepository;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
 public class ProfileFragment extends Fragment {
+    private TextView tv;
+
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater,
                              @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
-        TextView tv = new TextView(requireContext());
+        tv = new TextView(requireContext());
         tv.setText("Profile");
         tv.setPadding(32, 32, 32, 32);
+
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user != null) {
+            // Cached profile right away; the repository refreshes it when it is stale
+            UserRepository users = UserRepository.getInstance(requireContext());
+            show(users.peekUser(user.getUid()));
+            TextView target = tv;
+            users.getUser(user.getUid()).thenAccept(profile -> target.post(() -> {
+                if (isAdded() && tv == target) {
+                    show(profile);
+                }
+            }));
+        }
         return tv;
     }
-}
 
+    @Override
+    public void onDestroyView() {
+        tv = null;
+        super.onDestroyView();
+    }
+
+    private void show(UserModel profile) {
+        if (profile == null) {
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        text.append(profile.getName() != null ? profile.getName() : "Profile");
+        if (profile.getEmail() != null) {
+            text.append('\n').append(profile.getEmail());
+        }
+        if (profile.getRole() != null) {
+            text.append('\n').append(profile.getRole());
+        }
+        tv.setText(text.toString());
+    }
+}
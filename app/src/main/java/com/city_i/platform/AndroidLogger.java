@@ -0,0 +1,24 @@
+package com.city_i.platform;
+
+/**
+ * Routes core logging to android.util.Log
+ */
+public class AndroidLogger implements Logger {
+
+    public static final AndroidLogger INSTANCE = new AndroidLogger();
+
+    @Override
+    public void d(String tag, String message) {
+        android.util.Log.d(tag, message);
+    }
+
+    @Override
+    public void w(String tag, String message) {
+        android.util.Log.w(tag, message);
+    }
+
+    @Override
+    public void e(String tag, String message) {
+        android.util.Log.e(tag, message);
+    }
+}
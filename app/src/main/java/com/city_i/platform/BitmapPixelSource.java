@@ -0,0 +1,29 @@
+package com.city_i.platform;
+
+import android.graphics.Bitmap;
+
+/**
+ * {@link PixelSource} view of an Android bitmap
+ */
+public class BitmapPixelSource implements PixelSource {
+    private final Bitmap bitmap;
+
+    public BitmapPixelSource(Bitmap bitmap) {
+        this.bitmap = bitmap;
+    }
+
+    @Override
+    public int getWidth() {
+        return bitmap.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return bitmap.getHeight();
+    }
+
+    @Override
+    public int getPixel(int x, int y) {
+        return bitmap.getPixel(x, y);
+    }
+}
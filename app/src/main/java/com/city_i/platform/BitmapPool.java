@@ -0,0 +1,54 @@
+package com.city_i.platform;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayDeque;
+
+/**
+ * Free bitmaps of one size, handed to the decoder as {@code inBitmap} so decoding
+ * a thumbnail reuses memory instead of allocating and later collecting it.
+ */
+public class BitmapPool {
+    private final int width;
+    private final int height;
+    private final Bitmap.Config config;
+    private final int maxSize;
+    private final ArrayDeque<Bitmap> free = new ArrayDeque<>();
+
+    public BitmapPool(int width, int height, Bitmap.Config config, int maxSize) {
+        this.width = width;
+        this.height = height;
+        this.config = config;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * A free bitmap to decode into, or null if there is none.
+     */
+    public synchronized Bitmap acquire() {
+        return free.pollFirst();
+    }
+
+    /**
+     * Give back a bitmap nothing shows any more. Bitmaps that do not fit the pool
+     * are recycled.
+     */
+    public synchronized void release(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) {
+            return;
+        }
+        if (free.size() < maxSize && bitmap.isMutable() && bitmap.getConfig() == config
+                && bitmap.getWidth() == width && bitmap.getHeight() == height) {
+            free.addFirst(bitmap);
+        } else {
+            bitmap.recycle();
+        }
+    }
+
+    public synchronized void clear() {
+        for (Bitmap bitmap : free) {
+            bitmap.recycle();
+        }
+        free.clear();
+    }
+}
@@ -1,4 +1,149 @@
 package com.city_i.tracking;
 
-public class LiveTrackingFragment {
+import android.content.Intent;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+import android.widget.ScrollView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+
+import com.city_i.live.Change;
+import com.city_i.live.SnapshotMultiplexer;
+import com.city_i.models.IssueModel;
+import com.city_i.services.LiveIssues;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live status of every issue the signed-in user reported. Only rows whose issue
+ * changed are touched.
+ */
+public class LiveTrackingFragment extends Fragment {
+    private LinearLayout rows;
+    private TextView tvEmpty;
+    private final Map<String, TextView> rowViews = new HashMap<>();
+    private SnapshotMultiplexer.Registration tracking;
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater,
+                             @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        ScrollView scroll = new ScrollView(requireContext());
+        rows = new LinearLayout(requireContext());
+        rows.setOrientation(LinearLayout.VERTICAL);
+        rows.setPadding(32, 32, 32, 32);
+
+        tvEmpty = new TextView(requireContext());
+        tvEmpty.setText("No reported issues yet");
+        rows.addView(tvEmpty);
+
+        scroll.addView(rows);
+        return scroll;
+    }
+
+    @Override
+    public void onStart() {
+        super.onStart();
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) {
+            tvEmpty.setText("Sign in to track your issues");
+            return;
+        }
+        // The new subscription replays every current issue, and says nothing of ones
+        // deleted while stopped
+        clearRows();
+        tracking = LiveIssues.getInstance(requireContext()).trackReportedBy(user.getUid(),
+                new SnapshotMultiplexer.Subscriber<IssueModel>() {
+                    @Override
+                    public void onChanges(List<Change<IssueModel>> changes) {
+                        apply(changes);
+                    }
+
+                    @Override
+                    public void onError(Exception error) {
+                        tvEmpty.setText("Live updates unavailable: " + error.getMessage());
+                        tvEmpty.setVisibility(View.VISIBLE);
+                    }
+                });
+    }
+
+    @Override
+    public void onStop() {
+        if (tracking != null) {
+            tracking.remove();
+            tracking = null;
+        }
+        super.onStop();
+    }
+
+    @Override
+    public void onDestroyView() {
+        // A new view starts empty and is filled from the next subscription
+        rowViews.clear();
+        super.onDestroyView();
+    }
+
+    private void clearRows() {
+        for (TextView row : rowViews.values()) {
+            rows.removeView(row);
+        }
+        rowViews.clear();
+        tvEmpty.setVisibility(View.VISIBLE);
+    }
+
+    private void apply(List<Change<IssueModel>> changes) {
+        if (rows == null) {
+            return;
+        }
+        for (Change<IssueModel> change : changes) {
+            String issueId = change.getId();
+            TextView row = rowViews.get(issueId);
+            switch (change.getType()) {
+                case ADDED:
+                case MODIFIED:
+                    if (row == null) {
+                        row = createRow(issueId);
+                    }
+                    bind(row, change.getValue());
+                    break;
+                case REMOVED:
+                    if (row != null) {
+                        rows.removeView(row);
+                        rowViews.remove(issueId);
+                    }
+                    break;
+            }
+        }
+        tvEmpty.setVisibility(rowViews.isEmpty() ? View.VISIBLE : View.GONE);
+    }
+
+    private TextView createRow(String issueId) {
+        TextView row = new TextView(requireContext());
+        row.setPadding(0, 16, 0, 16);
+        row.setOnClickListener(v -> {
+            Intent intent = new Intent(requireContext(), TrackIssueActivity.class);
+            intent.putExtra(TrackIssueActivity.EXTRA_ISSUE_ID, issueId);
+            startActivity(intent);
+        });
+        rows.addView(row);
+        rowViews.put(issueId, row);
+        return row;
+    }
+
+    private static void bind(TextView row, IssueModel issue) {
+        String title = issue.getTitle() != null ? issue.getTitle() : issue.getId();
+        String status = issue.getStatus() != null ? issue.getStatus() : "Pending";
+        row.setText(title + " — " + status + " (priority " + issue.getPriority() + ")");
+    }
 }
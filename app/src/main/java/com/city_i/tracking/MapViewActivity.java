@@ -1,4 +1,202 @@
 package com.city_i.tracking;
 
-public class MapViewActivity {
+import android.content.Intent;
+import android.os.Bundle;
+import android.widget.LinearLayout;
+import android.widget.ScrollView;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.city_i.ai.LocationAnalyzer;
+import com.city_i.geo.ClusterIndex;
+import com.city_i.geo.Geohash;
+import com.city_i.geo.IssueCluster;
+import com.city_i.live.Change;
+import com.city_i.live.SnapshotMultiplexer;
+import com.city_i.models.IssueModel;
+import com.city_i.services.LiveIssues;
+import com.city_i.services.NearbyIssues;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Issue markers for a map viewport, clustered by {@link ClusterIndex}. Until a map
+ * SDK is added the markers are listed; tapping a cluster zooms into it and tapping
+ * a single issue opens it.
+ */
+public class MapViewActivity extends AppCompatActivity {
+    public static final String EXTRA_ZOOM = "ZOOM";
+    public static final String EXTRA_WEST = "WEST";
+    public static final String EXTRA_SOUTH = "SOUTH";
+    public static final String EXTRA_EAST = "EAST";
+    public static final String EXTRA_NORTH = "NORTH";
+
+    private static final int DEFAULT_ZOOM = 10;
+
+    private final ExecutorService indexExecutor = Executors.newSingleThreadExecutor();
+    private final ClusterIndex index = new ClusterIndex();
+    private LinearLayout rows;
+    private int zoom;
+    private double west, south, east, north;
+    private boolean loaded;
+    private SnapshotMultiplexer.Registration tracking;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        Intent intent = getIntent();
+        zoom = intent.getIntExtra(EXTRA_ZOOM, DEFAULT_ZOOM);
+        // All of Goa unless zoomed in
+        west = intent.getDoubleExtra(EXTRA_WEST, LocationAnalyzer.GOA_MIN_LONGITUDE);
+        south = intent.getDoubleExtra(EXTRA_SOUTH, LocationAnalyzer.GOA_MIN_LATITUDE);
+        east = intent.getDoubleExtra(EXTRA_EAST, LocationAnalyzer.GOA_MAX_LONGITUDE);
+        north = intent.getDoubleExtra(EXTRA_NORTH, LocationAnalyzer.GOA_MAX_LATITUDE);
+
+        ScrollView scroll = new ScrollView(this);
+        rows = new LinearLayout(this);
+        rows.setOrientation(LinearLayout.VERTICAL);
+        rows.setPadding(32, 32, 32, 32);
+        scroll.addView(rows);
+        setContentView(scroll);
+        showMessage("Loading issues…");
+
+        // Everyone's issues in the viewport. Clustering tens of thousands of them takes
+        // a moment; keep it off the main thread
+        double latitude = (south + north) / 2;
+        double longitude = (west + east) / 2;
+        double radiusMeters = Geohash.distanceMeters(latitude, longitude, north, east);
+        NearbyIssues.find(latitude, longitude, radiusMeters).thenAcceptAsync(issues -> {
+            index.load(issues);
+            List<IssueCluster> clusters = query();
+            runOnUiThread(() -> {
+                loaded = true;
+                render(clusters);
+            });
+        }, indexExecutor).exceptionally(e -> {
+            runOnUiThread(() -> showMessage("Could not load issues: " + e.getMessage()));
+            return null;
+        });
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) {
+            return;
+        }
+        // The user's own reports change live on top of that
+        tracking = LiveIssues.getInstance(this).trackReportedBy(user.getUid(),
+                new SnapshotMultiplexer.Subscriber<IssueModel>() {
+                    @Override
+                    public void onChanges(List<Change<IssueModel>> changes) {
+                        indexExecutor.execute(() -> {
+                            for (Change<IssueModel> change : changes) {
+                                if (change.getType() == Change.Type.REMOVED) {
+                                    index.remove(change.getId());
+                                } else {
+                                    index.put(change.getValue());
+                                }
+                            }
+                            List<IssueCluster> clusters = query();
+                            runOnUiThread(() -> {
+                                if (loaded) {
+                                    render(clusters);
+                                }
+                            });
+                        });
+                    }
+
+                    @Override
+                    public void onError(Exception error) {
+                        // The clusters already loaded stay on screen
+                    }
+                });
+    }
+
+    @Override
+    protected void onStop() {
+        if (tracking != null) {
+            tracking.remove();
+            tracking = null;
+        }
+        super.onStop();
+    }
+
+    @Override
+    protected void onDestroy() {
+        indexExecutor.shutdownNow();
+        super.onDestroy();
+    }
+
+    private List<IssueCluster> query() {
+        return index.getClusters(west, south, east, north, zoom);
+    }
+
+    private void render(List<IssueCluster> clusters) {
+        if (isDestroyed()) {
+            return;
+        }
+        rows.removeAllViews();
+        if (clusters.isEmpty()) {
+            showMessage("No issues in this area");
+            return;
+        }
+        for (IssueCluster cluster : clusters) {
+            TextView row = new TextView(this);
+            row.setPadding(0, 16, 0, 16);
+            row.setText(describe(cluster));
+            row.setOnClickListener(v -> open(cluster));
+            rows.addView(row);
+        }
+    }
+
+    private void open(IssueCluster cluster) {
+        if (!cluster.isCluster()) {
+            Intent intent = new Intent(this, TrackIssueActivity.class);
+            intent.putExtra(TrackIssueActivity.EXTRA_ISSUE_ID, cluster.getIssueId());
+            startActivity(intent);
+            return;
+        }
+        // Zoom in around the cluster: the viewport shrinks by a factor of two per zoom level
+        double scale = Math.pow(2, zoom - cluster.getExpansionZoom()) / 2;
+        double halfWidth = (east - west) * scale;
+        double halfHeight = (north - south) * scale;
+        Intent intent = new Intent(this, MapViewActivity.class);
+        intent.putExtra(EXTRA_ZOOM, cluster.getExpansionZoom());
+        intent.putExtra(EXTRA_WEST, cluster.getLongitude() - halfWidth);
+        intent.putExtra(EXTRA_EAST, cluster.getLongitude() + halfWidth);
+        intent.putExtra(EXTRA_SOUTH, cluster.getLatitude() - halfHeight);
+        intent.putExtra(EXTRA_NORTH, cluster.getLatitude() + halfHeight);
+        startActivity(intent);
+    }
+
+    private static String describe(IssueCluster cluster) {
+        String place = String.format(Locale.US, "%.4f, %.4f", cluster.getLatitude(), cluster.getLongitude());
+        if (!cluster.isCluster()) {
+            return "1 issue at " + place + " · priority " + cluster.getMaxPriority();
+        }
+        StringBuilder text = new StringBuilder()
+                .append(cluster.getCount()).append(" issues near ").append(place)
+                .append(" · highest priority ").append(cluster.getMaxPriority());
+        for (Map.Entry<String, Integer> category : cluster.getCategoryCounts().entrySet()) {
+            text.append("\n").append(category.getKey()).append(": ").append(category.getValue());
+        }
+        return text.toString();
+    }
+
+    private void showMessage(String message) {
+        rows.removeAllViews();
+        TextView text = new TextView(this);
+        text.setText(message);
+        rows.addView(text);
+    }
 }
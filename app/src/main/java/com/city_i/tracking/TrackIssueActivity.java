@@ -1,4 +1,102 @@
 package com.city_i.tracking;
 
-public class TrackIssueActivity {
+import android.os.Bundle;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.city_i.live.Change;
+import com.city_i.live.SnapshotMultiplexer;
+import com.city_i.models.IssueModel;
+import com.city_i.services.IssueRepository;
+import com.city_i.services.LiveIssues;
+
+import java.text.DateFormat;
+import java.util.List;
+
+/**
+ * Live status of one issue. Shows the cached copy straight away and follows
+ * changes through {@link LiveIssues} while visible.
+ */
+public class TrackIssueActivity extends AppCompatActivity {
+    public static final String EXTRA_ISSUE_ID = "ISSUE_ID";
+
+    private String issueId;
+    private TextView tvStatus;
+    private SnapshotMultiplexer.Registration tracking;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        issueId = getIntent().getStringExtra(EXTRA_ISSUE_ID);
+        if (issueId == null) {
+            finish();
+            return;
+        }
+
+        tvStatus = new TextView(this);
+        tvStatus.setPadding(32, 32, 32, 32);
+        setContentView(tvStatus);
+
+        IssueModel cached = IssueRepository.getInstance(this).peekIssue(issueId);
+        if (cached != null) {
+            render(cached);
+        } else {
+            tvStatus.setText("Loading issue…");
+        }
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        if (issueId == null) {
+            return;
+        }
+        tracking = LiveIssues.getInstance(this).trackIssue(issueId,
+                new SnapshotMultiplexer.Subscriber<IssueModel>() {
+                    @Override
+                    public void onChanges(List<Change<IssueModel>> changes) {
+                        for (Change<IssueModel> change : changes) {
+                            if (change.getType() == Change.Type.REMOVED) {
+                                tvStatus.setText("This issue is no longer available");
+                            } else {
+                                render(change.getValue());
+                                IssueRepository.getInstance(TrackIssueActivity.this)
+                                        .putIssue(change.getValue());
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void onError(Exception error) {
+                        tvStatus.setText("Live updates unavailable: " + error.getMessage());
+                    }
+                });
+    }
+
+    @Override
+    protected void onStop() {
+        if (tracking != null) {
+            tracking.remove();
+            tracking = null;
+        }
+        super.onStop();
+    }
+
+    private void render(IssueModel issue) {
+        StringBuilder text = new StringBuilder();
+        text.append(issue.getTitle() != null ? issue.getTitle() : "Issue").append('\n');
+        text.append("Status: ").append(issue.getStatus() != null ? issue.getStatus() : "Pending").append('\n');
+        text.append("Priority: ").append(issue.getPriority()).append('\n');
+        if (issue.getUpdatedAt() != null) {
+            text.append("Updated: ")
+                    .append(DateFormat.getDateTimeInstance().format(issue.getUpdatedAt()))
+                    .append('\n');
+        }
+        if (issue.getDescription() != null) {
+            text.append('\n').append(issue.getDescription());
+        }
+        tvStatus.setText(text);
+    }
 }
@@ -0,0 +1,75 @@
+package com.city_i.services;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.city_i.dedup.DuplicateCandidate;
+import com.city_i.dedup.DuplicateDetector;
+import com.city_i.models.IssueModel;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Checks a new report against recent reports around it before it is scored and
+ * sent, so people can follow an existing report instead of filing the same
+ * incident again.
+ */
+public final class Duplicates {
+    private static final String TAG = "Duplicates";
+
+    private static Duplicates instance;
+
+    private final DuplicateDetector detector = new DuplicateDetector();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "duplicates");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final CompletableFuture<Void> loaded;
+
+    private Duplicates(Context context) {
+        loaded = IssueSync.getInstance(context).getMirror()
+                .thenAcceptAsync(mirror -> detector.addAll(mirror.getIssues()), executor)
+                .exceptionally(e -> {
+                    Log.w(TAG, "Could not load own reports: " + e.getMessage());
+                    return null;
+                });
+    }
+
+    public static synchronized Duplicates getInstance(Context context) {
+        if (instance == null) {
+            instance = new Duplicates(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Earlier reports that look like the same incident, most similar first. Reports
+     * by other people near the location are fetched first; those fetches are cached
+     * per area, so repeated checks around one spot do not query again.
+     */
+    public CompletableFuture<List<DuplicateCandidate>> find(IssueModel issue) {
+        return NearbyIssues.find(issue.getLatitude(), issue.getLongitude(),
+                        DuplicateDetector.DEFAULT_MAX_DISTANCE_METERS)
+                .exceptionally(e -> {
+                    Log.w(TAG, "Nearby reports unavailable: " + e.getMessage());
+                    return Collections.emptyList();
+                })
+                .thenCombine(loaded, (nearby, ignored) -> nearby)
+                .thenApplyAsync(nearby -> {
+                    detector.addAll(nearby);
+                    return detector.probe(issue);
+                }, executor);
+    }
+
+    /**
+     * Make a submitted report findable right away, before it reaches the server.
+     */
+    public void record(IssueModel issue) {
+        executor.execute(() -> detector.add(issue));
+    }
+}
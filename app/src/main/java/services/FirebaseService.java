@@ -1,11 +1,37 @@
 package com.city_i.services;
 
+import android.net.Uri;
+import android.util.Log;
+
+import com.city_i.geo.Geohash;
+import com.city_i.models.IssueModel;
+import com.city_i.sync.DocumentWrite;
+import com.city_i.sync.Submission;
+import com.city_i.sync.WriteCoalescer;
+import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.WriteBatch;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageReference;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class FirebaseService {
+    private static final String TAG = "FirebaseService";
     private static final FirebaseAuth AUTH = FirebaseAuth.getInstance();
     private static final FirebaseFirestore DB = FirebaseFirestore.getInstance();
+    private static final FirebaseStorage STORAGE = FirebaseStorage.getInstance();
+    private static final WriteCoalescer WRITES = new WriteCoalescer(FirebaseService::commitWrites);
 
     /**
      * Callback used by auth screens.
@@ -46,6 +72,124 @@ public class FirebaseService {
                 .addOnFailureListener(e -> callback.onFailure(e.getMessage()));
     }
 
+    /**
+     * Upload a queued report's photo and get its download URL. The object is named
+     * after the idempotency key, so a retried upload replaces the earlier one.
+     */
+    public static Task<Uri> uploadIssueImage(String key, File image) {
+        StorageReference reference = STORAGE.getReference().child("issues/" + key + ".jpg");
+        return reference.putFile(Uri.fromFile(image)).continueWithTask(upload -> {
+            if (!upload.isSuccessful()) {
+                throw upload.getException();
+            }
+            return reference.getDownloadUrl();
+        });
+    }
+
+    /**
+     * Write queued reports in one batch. Each issue is stored under its idempotency
+     * key, so resending a batch after a lost response overwrites rather than duplicates.
+     *
+     * @param imageUrls download URLs of already uploaded photos by key; the photo
+     *                  paths on the device are never written
+     */
+    public static Task<Void> saveIssues(List<Submission> submissions, Map<String, String> imageUrls) {
+        WriteBatch batch = DB.batch();
+        for (Submission submission : submissions) {
+            // The queued issue stays as it was logged; a retried batch starts from it again
+            IssueModel issue = new IssueModel(submission.getIssue());
+            if (issue.getId() == null) {
+                issue.setId(submission.getKey());
+            }
+            issue.setImagePath(imageUrls.get(submission.getKey()));
+            String geohash = Geohash.encode(issue.getLatitude(), issue.getLongitude(),
+                    NearbyIssues.INDEX_PRECISION);
+            issue.setGeohash(geohash);
+            DocumentReference document = DB.collection("issues").document(submission.getKey());
+            batch.set(document, issue);
+            // Server time, so delta sync watermarks are not thrown off by device clocks
+            batch.update(document, "updatedAt", FieldValue.serverTimestamp(),
+                    IssueSync.NEARBY_CELL_FIELD, geohash.substring(0, IssueSync.NEARBY_CELL_PRECISION));
+        }
+        return batch.commit();
+    }
+
+    /**
+     * Queue a status change. Changes to many issues are sent as a few batched writes.
+     */
+    public static CompletableFuture<Void> updateIssueStatus(String issueId, String status) {
+        return updateIssue(issueId, "status", status);
+    }
+
+    /**
+     * Queue a priority change, e.g. from a re-triage run.
+     */
+    public static CompletableFuture<Void> updateIssuePriority(String issueId, int priority) {
+        return updateIssue(issueId, "priority", priority);
+    }
+
+    /**
+     * Send queued issue updates now instead of after the linger time.
+     */
+    public static CompletableFuture<Void> flushWrites() {
+        return WRITES.flush();
+    }
+
+    private static CompletableFuture<Void> updateIssue(String issueId, String field, Object value) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put(field, value);
+        fields.put("updatedAt", FieldValue.serverTimestamp());
+        return WRITES.update("issues/" + issueId, fields);
+    }
+
+    private static CompletableFuture<Void> commitWrites(List<DocumentWrite> writes) {
+        WriteBatch batch = DB.batch();
+        for (DocumentWrite write : writes) {
+            // An update, not a merging set: a set would create a stub for a deleted issue,
+            // which delta sync would then mirror
+            batch.update(DB.document(write.getPath()), write.getFields());
+        }
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        batch.commit()
+                .addOnSuccessListener(aVoid -> result.complete(null))
+                .addOnFailureListener(e -> {
+                    if (isNotFound(e)) {
+                        // The batch is all or nothing: apply the rest one by one, dropping the missing
+                        commitEach(writes, result);
+                    } else {
+                        result.completeExceptionally(e);
+                    }
+                });
+        return result;
+    }
+
+    private static void commitEach(List<DocumentWrite> writes, CompletableFuture<Void> result) {
+        AtomicInteger remaining = new AtomicInteger(writes.size());
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        for (DocumentWrite write : writes) {
+            DB.document(write.getPath()).update(write.getFields()).addOnCompleteListener(task -> {
+                Exception error = task.getException();
+                if (isNotFound(error)) {
+                    Log.w(TAG, "Dropping update to missing " + write.getPath());
+                } else if (error != null) {
+                    failure.compareAndSet(null, error);
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    if (failure.get() != null) {
+                        result.completeExceptionally(failure.get());
+                    } else {
+                        result.complete(null);
+                    }
+                }
+            });
+        }
+    }
+
+    private static boolean isNotFound(Exception e) {
+        return e instanceof FirebaseFirestoreException
+                && ((FirebaseFirestoreException) e).getCode() == FirebaseFirestoreException.Code.NOT_FOUND;
+    }
+
     // User model class (kept here for simplicity)
     public static class User {
         private String id;
@@ -0,0 +1,114 @@
+package com.city_i.services;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.city_i.ai.LocationAnalyzer;
+import com.city_i.geo.HotspotDetector;
+import com.city_i.geo.HotspotMap;
+import com.city_i.models.IssueModel;
+import com.city_i.store.IssueStore;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dense clusters of reports around the user's area, used to raise the priority of
+ * new reports that land inside one.
+ *
+ * Clusters are found in the background from everyone's reports near the user, as
+ * fetched by {@link NearbyIssues}, and kept up to date as reports are submitted.
+ * Until the first area is loaded no boost is applied.
+ */
+public final class Hotspots implements LocationAnalyzer.PriorityBoost {
+    private static final String TAG = "Hotspots";
+
+    /** Radius of reports clustered around the user, well past any one hotspot. */
+    public static final double AREA_RADIUS_METERS = 2000;
+
+    private static Hotspots instance;
+
+    private final HotspotDetector detector = new HotspotDetector();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "hotspots");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger queued = new AtomicInteger();
+    private volatile HotspotMap map;
+
+    private Hotspots() {
+    }
+
+    public static synchronized Hotspots getInstance(Context context) {
+        if (instance == null) {
+            instance = new Hotspots();
+        }
+        return instance;
+    }
+
+    /**
+     * Cluster the reports within {@link #AREA_RADIUS_METERS} of a point, e.g. the
+     * user's location. Areas already fetched come from the shared nearby cache;
+     * reports already counted are skipped and resolved ones taken out.
+     */
+    public CompletableFuture<Void> loadAround(double latitude, double longitude) {
+        return NearbyIssues.find(latitude, longitude, AREA_RADIUS_METERS)
+                .thenAcceptAsync(issues -> {
+                    int before = detector.size();
+                    for (IssueModel issue : issues) {
+                        String id = issue.getId();
+                        if (id == null) {
+                            continue;
+                        }
+                        if (IssueStore.STATUS_RESOLVED.equalsIgnoreCase(issue.getStatus())) {
+                            detector.remove(id);
+                        } else if (!detector.contains(id)) {
+                            detector.add(issue);
+                        }
+                    }
+                    map = detector.snapshot();
+                    Log.d(TAG, "Clustered " + detector.size() + " issues, "
+                            + (detector.size() - before) + " new");
+                }, executor)
+                .exceptionally(e -> {
+                    Log.w(TAG, "Could not load hotspots: " + e.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Count a newly submitted report. The snapshot is refreshed in the background,
+     * once for any number of reports recorded in the meantime.
+     */
+    public void record(IssueModel issue) {
+        if (issue.getId() == null) {
+            return;
+        }
+        queued.incrementAndGet();
+        executor.execute(() -> {
+            detector.add(issue);
+            // The last queued report refreshes for all of them
+            if (queued.decrementAndGet() == 0) {
+                map = detector.snapshot();
+            }
+        });
+    }
+
+    @Override
+    public int boostAt(double latitude, double longitude) {
+        HotspotMap current = map;
+        return current != null ? current.boostAt(latitude, longitude) : 0;
+    }
+
+    /**
+     * Changes whenever a new snapshot is published, so cached scores are redone.
+     */
+    @Override
+    public long version() {
+        HotspotMap current = map;
+        return current != null ? current.version() : 0;
+    }
+}
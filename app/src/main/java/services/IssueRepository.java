@@ -0,0 +1,93 @@
+package com.city_i.services;
+
+import android.content.Context;
+
+import com.city_i.models.IssueModel;
+import com.city_i.repository.Codecs;
+import com.city_i.repository.FileDisk;
+import com.city_i.repository.Repository;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared, cached access to issue documents. Screens opening the same issue at the
+ * same time share one Firestore read, and a recently seen issue shows instantly.
+ */
+public final class IssueRepository {
+    private static final int MAX_ENTRIES = 500;
+    private static final long FRESH_MS = 30 * 1000;
+    private static final long MAX_STALE_MS = 24 * 60 * 60 * 1000;
+    private static final long FETCH_TIMEOUT_SECONDS = 30;
+
+    private static IssueRepository instance;
+
+    private final Repository<IssueModel> repository;
+
+    private IssueRepository(Context context) {
+        ExecutorService executor = Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "issue-repository");
+            thread.setDaemon(true);
+            return thread;
+        });
+        repository = new Repository<>("issues", IssueRepository::fetch,
+                new FileDisk<>(new File(context.getCacheDir(), "issues"), Codecs.ISSUE),
+                executor, MAX_ENTRIES, FRESH_MS, MAX_STALE_MS);
+    }
+
+    public static synchronized IssueRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new IssueRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * The issue, possibly a cached copy that is being refreshed. Null if it does not exist.
+     */
+    public CompletableFuture<IssueModel> getIssue(String issueId) {
+        return repository.get(issueId);
+    }
+
+    /**
+     * Cached copy without any I/O, or null.
+     */
+    public IssueModel peekIssue(String issueId) {
+        return repository.peek(issueId);
+    }
+
+    public CompletableFuture<IssueModel> refreshIssue(String issueId) {
+        return repository.refresh(issueId);
+    }
+
+    /**
+     * Cache an issue obtained elsewhere, e.g. from a list query.
+     */
+    public void putIssue(IssueModel issue) {
+        repository.put(issue.getId(), issue);
+    }
+
+    public void invalidate(String issueId) {
+        repository.invalidate(issueId);
+    }
+
+    private static IssueModel fetch(String issueId) throws Exception {
+        DocumentSnapshot document = Tasks.await(
+                FirebaseFirestore.getInstance().collection("issues").document(issueId).get(),
+                FETCH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (!document.exists()) {
+            return null;
+        }
+        IssueModel issue = document.toObject(IssueModel.class);
+        if (issue != null) {
+            issue.setId(document.getId());
+        }
+        return issue;
+    }
+}
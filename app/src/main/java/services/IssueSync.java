@@ -0,0 +1,167 @@
+package com.city_i.services;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.city_i.geo.Geohash;
+import com.city_i.models.IssueModel;
+import com.city_i.sync.ChangeFeed;
+import com.city_i.sync.DeltaSync;
+import com.city_i.sync.IssueMirror;
+import com.city_i.sync.Watermark;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a local {@link IssueMirror} of the signed-in user's issues, and of the
+ * issues around them, fresh by fetching only documents whose {@code updatedAt}
+ * moved past the last watermark.
+ */
+public final class IssueSync {
+    private static final String TAG = "IssueSync";
+    private static final String MIRROR_DIR = "mirror";
+    private static final long QUERY_TIMEOUT_SECONDS = 30;
+
+    /**
+     * Coarse geohash stored on each issue next to the full one. A range filter on
+     * the full geohash cannot share a query with the updatedAt ordering, an
+     * equality filter on this can.
+     */
+    public static final String NEARBY_CELL_FIELD = "geocell";
+    /** Length of {@link #NEARBY_CELL_FIELD}, cells of about 5 km. */
+    public static final int NEARBY_CELL_PRECISION = 5;
+
+    private static IssueSync instance;
+
+    private final File mirrorDir;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "issue-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private DeltaSync sync;
+
+    private IssueSync(Context context) {
+        mirrorDir = new File(context.getFilesDir(), MIRROR_DIR);
+    }
+
+    public static synchronized IssueSync getInstance(Context context) {
+        if (instance == null) {
+            instance = new IssueSync(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Pull changes to the current user's issues in the background.
+     *
+     * @return number of mirrored issues that changed, 0 when signed out
+     */
+    public CompletableFuture<Integer> syncMine() {
+        return CompletableFuture.supplyAsync(() -> {
+            FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+            if (user == null) {
+                return 0;
+            }
+            Query mine = FirebaseFirestore.getInstance().collection("issues")
+                    .whereEqualTo("reportedByUserId", user.getUid());
+            try {
+                return delta().sync("mine:" + user.getUid(), feed(mine));
+            } catch (Exception e) {
+                Log.w(TAG, "Sync failed: " + e.getMessage());
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Pull changes to issues in the cell around a point and the cells next to it.
+     * Each cell is its own scope, so coming back to an area only fetches what
+     * changed there since the last visit.
+     *
+     * @return number of mirrored issues that changed
+     */
+    public CompletableFuture<Integer> syncNearby(double latitude, double longitude) {
+        return CompletableFuture.supplyAsync(() -> {
+            String cell = Geohash.encode(latitude, longitude, NEARBY_CELL_PRECISION);
+            Query nearby = FirebaseFirestore.getInstance().collection("issues")
+                    .whereIn(NEARBY_CELL_FIELD, Geohash.neighborhood(cell));
+            try {
+                return delta().sync("nearby:" + cell, feed(nearby));
+            } catch (Exception e) {
+                Log.w(TAG, "Nearby sync failed: " + e.getMessage());
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Mirror as of the last sync; loads it from disk on first use.
+     */
+    public CompletableFuture<IssueMirror> getMirror() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return delta().getMirror();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    // Only touched from the executor thread
+    private DeltaSync delta() throws IOException {
+        if (sync == null) {
+            sync = new DeltaSync(IssueMirror.open(mirrorDir));
+        }
+        return sync;
+    }
+
+    /**
+     * Firestore needs a composite index on the query's filters plus updatedAt for this.
+     * The cursor keeps the server timestamp's full precision: IssueModel only holds
+     * milliseconds, and a truncated cursor would return the last document again.
+     */
+    static ChangeFeed feed(Query base) {
+        return (after, limit) -> {
+            Query query = base.orderBy("updatedAt").orderBy(FieldPath.documentId());
+            if (!after.isStart()) {
+                query = query.startAfter(new Timestamp(after.getSeconds(), after.getNanos()), after.getId());
+            }
+            QuerySnapshot snapshot = Tasks.await(query.limit(limit).get(),
+                    QUERY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            List<IssueModel> issues = new ArrayList<>(snapshot.size());
+            Watermark end = null;
+            for (DocumentSnapshot document : snapshot.getDocuments()) {
+                // Every document moves the cursor, even one that fails to convert
+                Timestamp updatedAt = document.getTimestamp("updatedAt");
+                end = updatedAt != null
+                        ? new Watermark(updatedAt.getSeconds(), updatedAt.getNanoseconds(), document.getId())
+                        : new Watermark(Long.MIN_VALUE, 0, document.getId());
+                IssueModel issue = document.toObject(IssueModel.class);
+                if (issue != null) {
+                    issue.setId(document.getId());
+                    issues.add(issue);
+                }
+            }
+            return new ChangeFeed.Page(issues, end);
+        };
+    }
+}
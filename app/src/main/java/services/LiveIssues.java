@@ -0,0 +1,168 @@
+package com.city_i.services;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.ProcessLifecycleOwner;
+
+import com.city_i.live.Change;
+import com.city_i.live.SnapshotMultiplexer;
+import com.city_i.models.IssueModel;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Live issue updates for the UI. Screens watching the same issue or list share one
+ * Firestore listener, get changes at most once per frame, and listeners are dropped
+ * after the app has been in the background for a while.
+ */
+public final class LiveIssues {
+    private static final long GRACE_MS = SnapshotMultiplexer.DEFAULT_GRACE_MS;
+    private static final String ISSUE_PREFIX = "issue/";
+    private static final String REPORTED_BY_PREFIX = "reportedBy/";
+
+    private static LiveIssues instance;
+
+    private final SnapshotMultiplexer<IssueModel> multiplexer;
+
+    // Main thread only, as ProcessLifecycleOwner requires
+    private LiveIssues() {
+        multiplexer = new SnapshotMultiplexer<>(LiveIssues::listen,
+                new MainThreadScheduler(), LiveIssues::sameContent, GRACE_MS);
+        // The process lifecycle, not our own count of activity starts: it already knows
+        // about activities started before this was created, replays ON_START to a late
+        // observer, and waits out configuration changes before reporting ON_STOP
+        ProcessLifecycleOwner.get().getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onStart(@NonNull LifecycleOwner owner) {
+                multiplexer.onForeground();
+            }
+
+            @Override
+            public void onStop(@NonNull LifecycleOwner owner) {
+                multiplexer.onBackground();
+            }
+        });
+    }
+
+    public static synchronized LiveIssues getInstance(Context context) {
+        if (instance == null) {
+            instance = new LiveIssues();
+        }
+        return instance;
+    }
+
+    /**
+     * Follow one issue. Remove the registration when the screen stops.
+     */
+    public SnapshotMultiplexer.Registration trackIssue(String issueId,
+                                                       SnapshotMultiplexer.Subscriber<IssueModel> subscriber) {
+        return multiplexer.subscribe(ISSUE_PREFIX + issueId, subscriber);
+    }
+
+    /**
+     * Follow every issue reported by a user.
+     */
+    public SnapshotMultiplexer.Registration trackReportedBy(String userId,
+                                                            SnapshotMultiplexer.Subscriber<IssueModel> subscriber) {
+        return multiplexer.subscribe(REPORTED_BY_PREFIX + userId, subscriber);
+    }
+
+    private static SnapshotMultiplexer.Registration listen(String query,
+                                                           SnapshotMultiplexer.Sink<IssueModel> sink) {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        ListenerRegistration registration;
+
+        if (query.startsWith(ISSUE_PREFIX)) {
+            String issueId = query.substring(ISSUE_PREFIX.length());
+            registration = db.collection("issues").document(issueId)
+                    .addSnapshotListener((snapshot, error) -> {
+                        if (error != null) {
+                            sink.onError(error);
+                            return;
+                        }
+                        IssueModel issue = snapshot != null && snapshot.exists()
+                                ? snapshot.toObject(IssueModel.class) : null;
+                        if (issue == null) {
+                            sink.onChanges(Collections.singletonList(Change.removed(issueId)));
+                            return;
+                        }
+                        issue.setId(issueId);
+                        sink.onChanges(Collections.singletonList(Change.added(issueId, issue)));
+                    });
+        } else if (query.startsWith(REPORTED_BY_PREFIX)) {
+            String userId = query.substring(REPORTED_BY_PREFIX.length());
+            registration = db.collection("issues").whereEqualTo("reportedByUserId", userId)
+                    .addSnapshotListener((snapshot, error) -> {
+                        if (error != null) {
+                            sink.onError(error);
+                            return;
+                        }
+                        if (snapshot == null) {
+                            return;
+                        }
+                        List<Change<IssueModel>> changes = new ArrayList<>();
+                        for (DocumentChange change : snapshot.getDocumentChanges()) {
+                            changes.add(toChange(change));
+                        }
+                        sink.onChanges(changes);
+                    });
+        } else {
+            throw new IllegalArgumentException("Unknown live query " + query);
+        }
+        return registration::remove;
+    }
+
+    private static Change<IssueModel> toChange(DocumentChange change) {
+        QueryDocumentSnapshot document = change.getDocument();
+        if (change.getType() == DocumentChange.Type.REMOVED) {
+            return Change.removed(document.getId());
+        }
+        IssueModel issue = document.toObject(IssueModel.class);
+        issue.setId(document.getId());
+        return change.getType() == DocumentChange.Type.ADDED
+                ? Change.added(document.getId(), issue)
+                : Change.modified(document.getId(), issue);
+    }
+
+    // The fields the tracking screens show
+    private static boolean sameContent(IssueModel a, IssueModel b) {
+        return Objects.equals(a.getUpdatedAt(), b.getUpdatedAt())
+                && Objects.equals(a.getStatus(), b.getStatus())
+                && a.getPriority() == b.getPriority();
+    }
+
+    /**
+     * Delivers on the main thread, batched to the next Choreographer frame.
+     */
+    private static final class MainThreadScheduler implements SnapshotMultiplexer.Scheduler {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void postFrame(Runnable task) {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                Choreographer.getInstance().postFrameCallback(frameTimeNanos -> task.run());
+            } else {
+                handler.post(() -> postFrame(task));
+            }
+        }
+
+        @Override
+        public SnapshotMultiplexer.Registration postDelayed(Runnable task, long delayMs) {
+            handler.postDelayed(task, delayMs);
+            return () -> handler.removeCallbacks(task);
+        }
+    }
+}
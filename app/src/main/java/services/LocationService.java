@@ -20,16 +20,26 @@ import com.google.android.gms.location.LocationCallback;
 import com.google.android.gms.location.LocationRequest;
 import com.google.android.gms.location.LocationResult;
 import com.google.android.gms.location.LocationServices;
+import com.city_i.models.IssueModel;
+import com.city_i.store.IssueStore;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.GeoPoint;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class LocationService extends Service {
     private static final String TAG = "LocationService";
     private static final long UPDATE_INTERVAL = 10000; // 10 seconds
     private static final long FASTEST_INTERVAL = 5000; // 5 seconds
     private static final float MIN_DISTANCE = 10; // 10 meters
+    private static final double ALERT_RADIUS_METERS = 500;
+    private static final int ALERT_MIN_PRIORITY = 8;
 
     private final IBinder binder = new LocalBinder();
     private LocationManager locationManager;
@@ -39,6 +49,8 @@ public class LocationService extends Service {
 
     // Listeners for location updates
     private List<LocationUpdateListener> listeners = new ArrayList<>();
+    // High-priority issues already alerted on, so moving around does not repeat them
+    private final Set<String> alertedIssues = ConcurrentHashMap.newKeySet();
 
     public interface LocationUpdateListener {
         void onLocationUpdated(Location location);
@@ -100,6 +112,7 @@ public class LocationService extends Service {
                     if (location != null) {
                         currentLocation = location;
                         notifyLocationUpdate(location);
+                        alertNearbyHighPriority();
                         Log.d(TAG, "New location: " + location.getLatitude() + ", " + location.getLongitude());
                     }
                 }
@@ -182,6 +195,7 @@ public class LocationService extends Service {
         public void onLocationChanged(Location location) {
             currentLocation = location;
             notifyLocationUpdate(location);
+            alertNearbyHighPriority();
             Log.d(TAG, "Location changed: " + location.getLatitude() + ", " + location.getLongitude());
         }
 
@@ -246,6 +260,38 @@ public class LocationService extends Service {
         return results[0];
     }
 
+    /**
+     * Issues within {@code radiusMeters} of the current location, nearest first.
+     */
+    public CompletableFuture<List<IssueModel>> findNearbyIssues(double radiusMeters) {
+        if (currentLocation == null) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        return NearbyIssues.find(currentLocation.getLatitude(), currentLocation.getLongitude(),
+                radiusMeters);
+    }
+
+    // Nearby cells are cached, so checking on every location update stays cheap
+    private void alertNearbyHighPriority() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        String userId = user != null ? user.getUid() : null;
+        findNearbyIssues(ALERT_RADIUS_METERS).thenAccept(issues -> {
+            for (IssueModel issue : issues) {
+                if (issue.getId() == null || issue.getPriority() < ALERT_MIN_PRIORITY
+                        || IssueStore.STATUS_RESOLVED.equalsIgnoreCase(issue.getStatus())
+                        || (userId != null && userId.equals(issue.getReportedByUserId()))) {
+                    continue;
+                }
+                if (alertedIssues.add(issue.getId())) {
+                    NotificationService.sendPriorityAlert(this, issue.getId(), "High");
+                }
+            }
+        }).exceptionally(e -> {
+            Log.w(TAG, "Nearby issues unavailable: " + e.getMessage());
+            return null;
+        });
+    }
+
     // Listener management
     public void addLocationListener(LocationUpdateListener listener) {
         if (!listeners.contains(listener)) {
@@ -0,0 +1,77 @@
+package com.city_i.services;
+
+import com.city_i.geo.GeoCellCache;
+import com.city_i.models.IssueModel;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Radius queries over the issues collection using its {@code geohash} field.
+ * Fetched cells are cached for the whole app, so panning and repeated alerts
+ * reuse them.
+ */
+public final class NearbyIssues {
+    /** Geohash length stored on each issue, about 5 m. */
+    public static final int INDEX_PRECISION = 9;
+
+    private static final long QUERY_TIMEOUT_SECONDS = 30;
+
+    private static final GeoCellCache CACHE = new GeoCellCache(NearbyIssues::fetchRange);
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "nearby-issues");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private NearbyIssues() {
+    }
+
+    /**
+     * Issues within {@code radiusMeters} of the point, nearest first.
+     */
+    public static CompletableFuture<List<IssueModel>> find(double latitude, double longitude,
+                                                           double radiusMeters) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return CACHE.near(latitude, longitude, radiusMeters);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, EXECUTOR);
+    }
+
+    /**
+     * Forget cached results around a point that just changed.
+     */
+    public static void invalidate(double latitude, double longitude) {
+        CACHE.invalidate(latitude, longitude);
+    }
+
+    private static List<IssueModel> fetchRange(String start, String end) throws Exception {
+        QuerySnapshot snapshot = Tasks.await(FirebaseFirestore.getInstance().collection("issues")
+                        .whereGreaterThanOrEqualTo("geohash", start)
+                        .whereLessThan("geohash", end)
+                        .get(),
+                QUERY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        List<IssueModel> issues = new ArrayList<>(snapshot.size());
+        for (DocumentSnapshot document : snapshot.getDocuments()) {
+            IssueModel issue = document.toObject(IssueModel.class);
+            if (issue != null) {
+                issue.setId(document.getId());
+                issues.add(issue);
+            }
+        }
+        return issues;
+    }
+}
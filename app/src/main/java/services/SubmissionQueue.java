@@ -0,0 +1,158 @@
+package com.city_i.services;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.Uri;
+import android.util.Log;
+
+import com.city_i.models.IssueModel;
+import com.city_i.sync.Submission;
+import com.city_i.sync.SubmissionDrainer;
+import com.city_i.sync.SubmissionLog;
+import com.google.android.gms.tasks.Tasks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline-first path for new reports: they are written to a {@link SubmissionLog}
+ * in app storage and pushed to Firestore in the background, in batches, whenever
+ * the network is available. Reports queued before the process died are sent once
+ * the queue is opened again.
+ */
+public final class SubmissionQueue {
+    private static final String TAG = "SubmissionQueue";
+    private static final String LOG_FILE = "submissions.log";
+    private static final long COMMIT_TIMEOUT_SECONDS = 30;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "submission-queue");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static SubmissionQueue instance;
+
+    private final SubmissionLog log;
+    private final SubmissionDrainer drainer;
+    private final Hotspots hotspots;
+    private final Duplicates duplicates;
+
+    private SubmissionQueue(Context context) throws IOException {
+        log = SubmissionLog.open(new File(context.getFilesDir(), LOG_FILE));
+        drainer = new SubmissionDrainer(log, SubmissionQueue::send);
+        hotspots = Hotspots.getInstance(context);
+        duplicates = Duplicates.getInstance(context);
+        watchConnectivity(context);
+        drainer.kick();
+    }
+
+    /**
+     * Opens the log on first use, which reads it from disk: call off the UI thread.
+     */
+    public static synchronized SubmissionQueue getInstance(Context context) throws IOException {
+        if (instance == null) {
+            instance = new SubmissionQueue(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Open the queue in the background so reports left over from an earlier run get sent.
+     */
+    public static void resume(Context context) {
+        Context appContext = context.getApplicationContext();
+        new Thread(() -> {
+            try {
+                getInstance(appContext);
+            } catch (IOException e) {
+                Log.e(TAG, "Could not open submission log: " + e.getMessage());
+            }
+        }, "submission-resume").start();
+    }
+
+    /**
+     * {@link #submit} on the queue's own thread, opening the queue first if needed.
+     * Safe to call from the UI thread.
+     */
+    public static CompletableFuture<Submission> submitAsync(Context context, IssueModel issue) {
+        Context appContext = context.getApplicationContext();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return getInstance(appContext).submit(issue);
+            } catch (IOException e) {
+                Log.e(TAG, "Could not queue report: " + e.getMessage());
+                throw new CompletionException(e);
+            }
+        }, EXECUTOR);
+    }
+
+    /**
+     * Persist the report and start sending it. Returns once it is on disk; blocks
+     * on an fsync, so keep it off the UI thread.
+     */
+    public Submission submit(IssueModel issue) throws IOException {
+        Submission submission = log.append(issue, issue.getImagePath());
+        // The queued copy carries the id it is stored under; senders never see this object
+        issue.setId(submission.getIssue().getId());
+        drainer.kick();
+        hotspots.record(submission.getIssue());
+        duplicates.record(submission.getIssue());
+        return submission;
+    }
+
+    public int getPendingCount() {
+        return log.pendingCount();
+    }
+
+    private static List<String> send(List<Submission> batch) throws Exception {
+        // Photos first, so the documents can point at them; a failed upload retries the batch
+        Map<String, String> imageUrls = new HashMap<>();
+        for (Submission submission : batch) {
+            if (submission.getImageRef() == null) {
+                continue;
+            }
+            File image = new File(submission.getImageRef());
+            if (!image.isFile()) {
+                Log.w(TAG, "Photo for " + submission.getKey() + " is gone, sending without it");
+                continue;
+            }
+            Uri url = Tasks.await(FirebaseService.uploadIssueImage(submission.getKey(), image),
+                    COMMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            imageUrls.put(submission.getKey(), url.toString());
+        }
+        // A WriteBatch commits atomically, so either every key is accepted or none
+        Tasks.await(FirebaseService.saveIssues(batch, imageUrls), COMMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        List<String> keys = new ArrayList<>(batch.size());
+        for (Submission submission : batch) {
+            keys.add(submission.getKey());
+            // Cached nearby results from before the commit are missing this report
+            NearbyIssues.invalidate(submission.getIssue().getLatitude(), submission.getIssue().getLongitude());
+        }
+        return keys;
+    }
+
+    private void watchConnectivity(Context context) {
+        ConnectivityManager connectivity =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivity == null) {
+            return;
+        }
+        connectivity.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(Network network) {
+                drainer.kick();
+            }
+        });
+    }
+}
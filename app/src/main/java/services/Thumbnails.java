@@ -0,0 +1,262 @@
+package com.city_i.services;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.widget.ImageView;
+
+import com.city_i.media.SampleSize;
+import com.city_i.models.IssueModel;
+import com.city_i.media.ThumbnailDiskCache;
+import com.city_i.media.ThumbnailDispatcher;
+import com.city_i.platform.BitmapPool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Square WebP thumbnails of issue photos for lists and maps.
+ *
+ * Thumbnails are made once, when the photo is captured, and kept on disk; lists
+ * decode the small WebP into pooled bitmaps instead of decoding the full camera
+ * photo on the main thread. Photos without a thumbnail yet (e.g. from before this
+ * existed, or reported on another device) get one on first display, downloading
+ * the photo first when the issue only has its Storage URL.
+ *
+ * An issue's thumbnail is cached under its local photo path while it has one and
+ * under its id once the photo is only in Storage, never under the URL itself.
+ */
+public final class Thumbnails {
+    private static final String TAG = "Thumbnails";
+
+    public static final int SIZE_PX = 256;
+    private static final int QUALITY = 80;
+    private static final long DISK_BYTES = 32L * 1024 * 1024;
+    private static final int POOL_SIZE = 16;
+    private static final int TIMEOUT_MS = 15_000;
+    private static final int MAX_DOWNLOAD_BYTES = 16 * 1024 * 1024;
+
+    private static Thumbnails instance;
+
+    private final ThumbnailDiskCache disk;
+    private final BitmapPool pool = new BitmapPool(SIZE_PX, SIZE_PX, Bitmap.Config.ARGB_8888, POOL_SIZE);
+    private final ExecutorService generator = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "thumbnail-generator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ThumbnailDispatcher<Bitmap> dispatcher;
+
+    private Thumbnails(Context context) {
+        disk = new ThumbnailDiskCache(new File(context.getCacheDir(), "thumbnails"), ".webp", DISK_BYTES);
+        ExecutorService decoder = Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "thumbnail-decoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        // An eighth of the heap, the usual budget for an image memory cache
+        long memoryBytes = Runtime.getRuntime().maxMemory() / 8;
+        dispatcher = new ThumbnailDispatcher<>(memoryBytes, Bitmap::getAllocationByteCount, this::load,
+                decoder, mainHandler::post, pool::release);
+    }
+
+    public static synchronized Thumbnails getInstance(Context context) {
+        if (instance == null) {
+            instance = new Thumbnails(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Make the thumbnail for a freshly captured photo in the background.
+     */
+    public CompletableFuture<Void> generate(String imagePath) {
+        return CompletableFuture.runAsync(() -> {
+            if (disk.contains(imagePath)) {
+                return;
+            }
+            try {
+                pool.release(createThumbnail(imagePath, imagePath));
+            } catch (IOException e) {
+                Log.w(TAG, "Could not create thumbnail for " + imagePath + ": " + e.getMessage());
+            }
+        }, generator);
+    }
+
+    /**
+     * Show the thumbnail of the photo at {@code imagePath} on this device in
+     * {@code target}. Call on the main thread.
+     */
+    public void load(String imagePath, ThumbnailDispatcher.Target<Bitmap> target) {
+        dispatcher.load(imagePath, target);
+    }
+
+    /**
+     * Show the thumbnail of the issue's photo, local or already uploaded, in
+     * {@code target}. Call on the main thread.
+     */
+    public void load(IssueModel issue, ThumbnailDispatcher.Target<Bitmap> target) {
+        String imagePath = issue.getImagePath();
+        dispatcher.load(cacheKey(issue.getId(), imagePath), imagePath, target);
+    }
+
+    /**
+     * Stop loading into {@code target} and release what it shows, e.g. when its row is recycled.
+     */
+    public void clear(ThumbnailDispatcher.Target<Bitmap> target) {
+        dispatcher.clear(target);
+    }
+
+    public void trimMemory() {
+        dispatcher.trimMemory();
+        pool.clear();
+    }
+
+    /**
+     * {@link ThumbnailDispatcher.Target} for an image view.
+     */
+    public static ThumbnailDispatcher.Target<Bitmap> target(ImageView view) {
+        return new ThumbnailDispatcher.Target<Bitmap>() {
+            @Override
+            public void show(Bitmap value) {
+                view.setImageBitmap(value);
+            }
+
+            @Override
+            public void clear() {
+                view.setImageDrawable(null);
+            }
+        };
+    }
+
+    private static String cacheKey(String issueId, String imagePath) {
+        if (imagePath == null || !isRemote(imagePath) || issueId == null) {
+            return imagePath;
+        }
+        return "issue:" + issueId;
+    }
+
+    private static boolean isRemote(String imagePath) {
+        return imagePath.startsWith("https://") || imagePath.startsWith("http://");
+    }
+
+    // Runs on a decoder thread
+    private Bitmap load(String key, String imagePath) throws IOException {
+        File file = disk.get(key);
+        if (file == null) {
+            return createThumbnail(key, imagePath);
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        options.inMutable = true;
+        options.inBitmap = pool.acquire();
+        Bitmap bitmap;
+        try {
+            bitmap = BitmapFactory.decodeFile(file.getPath(), options);
+        } catch (IllegalArgumentException e) {
+            // The pooled bitmap did not fit this image
+            pool.release(options.inBitmap);
+            options.inBitmap = null;
+            bitmap = BitmapFactory.decodeFile(file.getPath(), options);
+        }
+        if (bitmap == null) {
+            disk.remove(key);
+            throw new IOException("Unreadable thumbnail " + file);
+        }
+        return bitmap;
+    }
+
+    private Bitmap createThumbnail(String key, String imagePath) throws IOException {
+        Decoder decoder;
+        if (isRemote(imagePath)) {
+            byte[] photo = download(imagePath);
+            decoder = options -> BitmapFactory.decodeByteArray(photo, 0, photo.length, options);
+        } else {
+            decoder = options -> BitmapFactory.decodeFile(imagePath, options);
+        }
+
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        decoder.decode(bounds);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Not an image: " + imagePath);
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = SampleSize.calculate(bounds.outWidth, bounds.outHeight, SIZE_PX, SIZE_PX);
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        Bitmap sampled = decoder.decode(options);
+        if (sampled == null) {
+            throw new IOException("Could not decode " + imagePath);
+        }
+
+        // Centre crop to a square, then scale to the thumbnail size
+        int side = Math.min(sampled.getWidth(), sampled.getHeight());
+        Bitmap cropped = Bitmap.createBitmap(sampled, (sampled.getWidth() - side) / 2,
+                (sampled.getHeight() - side) / 2, side, side);
+        Bitmap thumbnail = Bitmap.createScaledBitmap(cropped, SIZE_PX, SIZE_PX, true);
+        if (cropped != sampled && cropped != thumbnail) {
+            cropped.recycle();
+        }
+        if (sampled != thumbnail) {
+            sampled.recycle();
+        }
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(16 * 1024);
+        thumbnail.compress(webp(), QUALITY, encoded);
+        disk.put(key, encoded.toByteArray());
+        return thumbnail;
+    }
+
+    private static byte[] download(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(TIMEOUT_MS);
+        connection.setReadTimeout(TIMEOUT_MS);
+        try {
+            int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("HTTP " + status + " for " + url);
+            }
+            int expected = connection.getContentLength();
+            ByteArrayOutputStream body = new ByteArrayOutputStream(
+                    expected > 0 && expected <= MAX_DOWNLOAD_BYTES ? expected : 64 * 1024);
+            byte[] buffer = new byte[16 * 1024];
+            try (InputStream in = connection.getInputStream()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    if (body.size() + read > MAX_DOWNLOAD_BYTES) {
+                        throw new IOException("Photo too large: " + url);
+                    }
+                    body.write(buffer, 0, read);
+                }
+            }
+            return body.toByteArray();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private interface Decoder {
+        Bitmap decode(BitmapFactory.Options options);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Bitmap.CompressFormat webp() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY
+                : Bitmap.CompressFormat.WEBP;
+    }
+}
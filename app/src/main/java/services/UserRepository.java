@@ -0,0 +1,93 @@
+package com.city_i.services;
+
+import android.content.Context;
+
+import com.city_i.models.UserModel;
+import com.city_i.repository.Codecs;
+import com.city_i.repository.FileDisk;
+import com.city_i.repository.Repository;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared, cached access to user profiles, which change rarely and are shown on
+ * many screens (reporter names, the profile tab).
+ */
+public final class UserRepository {
+    private static final int MAX_ENTRIES = 200;
+    private static final long FRESH_MS = 5 * 60 * 1000;
+    private static final long MAX_STALE_MS = 24 * 60 * 60 * 1000;
+    private static final long FETCH_TIMEOUT_SECONDS = 30;
+
+    private static UserRepository instance;
+
+    private final Repository<UserModel> repository;
+
+    private UserRepository(Context context) {
+        ExecutorService executor = Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "user-repository");
+            thread.setDaemon(true);
+            return thread;
+        });
+        repository = new Repository<>("users", UserRepository::fetch,
+                new FileDisk<>(new File(context.getCacheDir(), "users"), Codecs.USER),
+                executor, MAX_ENTRIES, FRESH_MS, MAX_STALE_MS);
+    }
+
+    public static synchronized UserRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new UserRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * The profile, possibly a cached copy that is being refreshed. Null if it does not exist.
+     */
+    public CompletableFuture<UserModel> getUser(String userId) {
+        return repository.get(userId);
+    }
+
+    /**
+     * Cached copy without any I/O, or null.
+     */
+    public UserModel peekUser(String userId) {
+        return repository.peek(userId);
+    }
+
+    public CompletableFuture<UserModel> refreshUser(String userId) {
+        return repository.refresh(userId);
+    }
+
+    /**
+     * Cache a profile obtained elsewhere, e.g. right after registering.
+     */
+    public void putUser(UserModel user) {
+        repository.put(user.getId(), user);
+    }
+
+    public void invalidate(String userId) {
+        repository.invalidate(userId);
+    }
+
+    private static UserModel fetch(String userId) throws Exception {
+        DocumentSnapshot document = Tasks.await(
+                FirebaseFirestore.getInstance().collection("users").document(userId).get(),
+                FETCH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (!document.exists()) {
+            return null;
+        }
+        UserModel user = document.toObject(UserModel.class);
+        if (user != null) {
+            user.setId(document.getId());
+        }
+        return user;
+    }
+}
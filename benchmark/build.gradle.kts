@@ -0,0 +1,44 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    jmhImplementation(project(":core"))
+}
+
+val jmhResults = layout.buildDirectory.file("results/jmh/results.json")
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    fork.set(1)
+    warmupIterations.set(3)
+    warmup.set("1s")
+    iterations.set(5)
+    timeOnIteration.set("1s")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(jmhResults)
+}
+
+// Compare the last `jmh` run against the checked-in baseline:
+//   ./gradlew :benchmark:jmh :benchmark:jmhCompare
+tasks.register<JavaExec>("jmhCompare") {
+    description = "Compares JMH results with baseline/jmh-baseline.json"
+    group = "benchmark"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.city_i.benchmark.BaselineComparator")
+    args(
+        file("baseline/jmh-baseline.json").absolutePath,
+        jmhResults.get().asFile.absolutePath
+    )
+}
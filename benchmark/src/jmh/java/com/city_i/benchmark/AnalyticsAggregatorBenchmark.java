@@ -0,0 +1,62 @@
+package com.city_i.benchmark;
+
+import com.city_i.models.AnalyticsModel;
+import com.city_i.models.IssueModel;
+import com.city_i.store.AnalyticsAggregator;
+import com.city_i.store.IssueStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dashboard totals over 50,000 issues: the running aggregator against a full
+ * store scan, and the cost of one status change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AnalyticsAggregatorBenchmark {
+
+    private AnalyticsAggregator aggregator;
+    private IssueStore store;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        IssueModel[] issues = Fixtures.issues(50_000);
+        aggregator = new AnalyticsAggregator();
+        store = new IssueStore(issues.length);
+        for (int i = 0; i < issues.length; i++) {
+            issues[i].setId("issue-" + i);
+            issues[i].setStatus(i % 3 == 0 ? IssueStore.STATUS_RESOLVED : "Pending");
+            issues[i].setUpdatedAt(new Date(issues[i].getCreatedAt().getTime() + 3_600_000L));
+            aggregator.put(issues[i]);
+            store.append(issues[i]);
+        }
+    }
+
+    @Benchmark
+    public AnalyticsModel aggregatorSnapshot() {
+        return aggregator.snapshot("bench", null);
+    }
+
+    @Benchmark
+    public AnalyticsModel storeSummarize() {
+        return store.summarize("bench", null);
+    }
+
+    @Benchmark
+    public boolean statusChange() {
+        int i = next++ % 50_000;
+        return aggregator.statusChanged("issue-" + i, (next & 1) == 0 ? IssueStore.STATUS_RESOLVED : "Pending",
+                1_700_000_000_000L);
+    }
+}
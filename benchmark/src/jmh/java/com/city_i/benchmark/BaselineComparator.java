@@ -0,0 +1,229 @@
+package com.city_i.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files and fails when a benchmark got slower, or
+ * allocates more per operation, than the allowed tolerance.
+ *
+ * <p>Usage: {@code BaselineComparator <baseline.json> <results.json> [tolerance]}, where
+ * tolerance is a fraction (default 0.25, runs on shared machines are noisy).
+ */
+public final class BaselineComparator {
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+    private static final double DEFAULT_TOLERANCE = 0.25;
+    // Ignore allocation noise below this many bytes per operation
+    private static final double ALLOC_SLACK_BYTES = 16;
+
+    private BaselineComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparator <baseline.json> <results.json> [tolerance]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE;
+
+        Map<String, Result> baseline = load(args[0]);
+        Map<String, Result> current = load(args[1]);
+
+        int regressions = 0;
+        System.out.println(String.format(Locale.US, "%-70s %12s %12s %8s %10s %10s",
+                "benchmark", "base", "now", "delta", "B/op base", "B/op now"));
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.println(String.format(Locale.US, "%-70s %12s %12.3f %8s (new)",
+                        entry.getKey(), "-", now.score, "-"));
+                continue;
+            }
+
+            double delta = (now.score - base.score) / base.score;
+            boolean slower = delta > tolerance;
+            boolean allocates = now.allocPerOp > base.allocPerOp * (1 + tolerance) + ALLOC_SLACK_BYTES;
+            if (slower || allocates) {
+                regressions++;
+            }
+            System.out.println(String.format(Locale.US, "%-70s %12.3f %12.3f %+7.1f%% %10.0f %10.0f%s",
+                    entry.getKey(), base.score, now.score, delta * 100,
+                    base.allocPerOp, now.allocPerOp,
+                    slower || allocates ? "  REGRESSION" : ""));
+        }
+
+        if (regressions > 0) {
+            System.err.println(regressions + " benchmark(s) regressed beyond "
+                    + Math.round(tolerance * 100) + "%");
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Result> load(String path) throws IOException {
+        String json = new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8);
+        Object root = new JsonReader(json).read();
+
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (Object item : (List<?>) root) {
+            Map<?, ?> run = (Map<?, ?>) item;
+            String name = (String) run.get("benchmark");
+            Object params = run.get("params");
+            if (params instanceof Map) {
+                name += " " + params;
+            }
+
+            Map<?, ?> primary = (Map<?, ?>) run.get("primaryMetric");
+            double score = ((Number) primary.get("score")).doubleValue();
+
+            double alloc = Double.NaN;
+            Object secondary = run.get("secondaryMetrics");
+            if (secondary instanceof Map) {
+                for (Map.Entry<?, ?> metric : ((Map<?, ?>) secondary).entrySet()) {
+                    if (((String) metric.getKey()).endsWith(ALLOC_METRIC)) {
+                        alloc = ((Number) ((Map<?, ?>) metric.getValue()).get("score")).doubleValue();
+                    }
+                }
+            }
+            results.put(name, new Result(score, alloc));
+        }
+        return results;
+    }
+
+    private static final class Result {
+        final double score;
+        final double allocPerOp;
+
+        Result(double score, double allocPerOp) {
+            this.score = score;
+            this.allocPerOp = allocPerOp;
+        }
+    }
+
+    /** Just enough JSON to read JMH output; "NaN" strings become Double.NaN. */
+    private static final class JsonReader {
+        private final String in;
+        private int pos;
+
+        JsonReader(String in) {
+            this.in = in;
+        }
+
+        Object read() {
+            skipWhitespace();
+            char c = in.charAt(pos);
+            if (c == '{') {
+                return readObject();
+            } else if (c == '[') {
+                return readArray();
+            } else if (c == '"') {
+                String s = readString();
+                return "NaN".equals(s) ? Double.NaN : s;
+            } else if (in.startsWith("true", pos)) {
+                pos += 4;
+                return Boolean.TRUE;
+            } else if (in.startsWith("false", pos)) {
+                pos += 5;
+                return Boolean.FALSE;
+            } else if (in.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            return readNumber();
+        }
+
+        private Map<String, Object> readObject() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            pos++;
+            skipWhitespace();
+            if (in.charAt(pos) == '}') {
+                pos++;
+                return map;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = readString();
+                skipWhitespace();
+                expect(':');
+                map.put(key, read());
+                skipWhitespace();
+                if (in.charAt(pos++) == '}') {
+                    return map;
+                }
+            }
+        }
+
+        private List<Object> readArray() {
+            List<Object> list = new ArrayList<>();
+            pos++;
+            skipWhitespace();
+            if (in.charAt(pos) == ']') {
+                pos++;
+                return list;
+            }
+            while (true) {
+                list.add(read());
+                skipWhitespace();
+                if (in.charAt(pos++) == ']') {
+                    return list;
+                }
+            }
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = in.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c == '\\') {
+                    char escaped = in.charAt(pos++);
+                    switch (escaped) {
+                        case 'n': sb.append('\n'); break;
+                        case 't': sb.append('\t'); break;
+                        case 'r': sb.append('\r'); break;
+                        case 'b': sb.append('\b'); break;
+                        case 'f': sb.append('\f'); break;
+                        case 'u':
+                            sb.append((char) Integer.parseInt(in.substring(pos, pos + 4), 16));
+                            pos += 4;
+                            break;
+                        default: sb.append(escaped);
+                    }
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+
+        private Double readNumber() {
+            int start = pos;
+            while (pos < in.length() && "+-0123456789.eE".indexOf(in.charAt(pos)) >= 0) {
+                pos++;
+            }
+            return Double.parseDouble(in.substring(start, pos));
+        }
+
+        private void expect(char c) {
+            if (in.charAt(pos) != c) {
+                throw new IllegalStateException("Expected '" + c + "' at " + pos);
+            }
+            pos++;
+        }
+
+        private void skipWhitespace() {
+            while (pos < in.length() && Character.isWhitespace(in.charAt(pos))) {
+                pos++;
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.city_i.benchmark;
+
+import com.city_i.geo.ClusterIndex;
+import com.city_i.geo.IssueCluster;
+import com.city_i.models.IssueModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Viewport queries against 50,000 clustered issues.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ClusterIndexBenchmark {
+
+    @Param({"11", "14", "16"})
+    public int zoom;
+
+    private ClusterIndex index;
+
+    @Setup
+    public void setUp() {
+        IssueModel[] issues = Fixtures.issues(50_000);
+        for (int i = 0; i < issues.length; i++) {
+            issues[i].setId("issue-" + i);
+            issues[i].setPriority(1 + i % 10);
+        }
+        index = new ClusterIndex();
+        index.load(Arrays.asList(issues));
+    }
+
+    @Benchmark
+    public List<IssueCluster> panajiViewport() {
+        return index.getClusters(73.78, 15.45, 73.86, 15.52, zoom);
+    }
+}
@@ -0,0 +1,56 @@
+package com.city_i.benchmark;
+
+import com.city_i.dedup.DuplicateCandidate;
+import com.city_i.dedup.DuplicateDetector;
+import com.city_i.models.IssueModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Duplicate probe for a new report against a week of 50,000 reports, all worded
+ * alike so every report nearby in the last few hours is a candidate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DuplicateDetectorBenchmark {
+
+    private DuplicateDetector detector;
+    private IssueModel report;
+
+    @Setup
+    public void setUp() {
+        IssueModel[] issues = Fixtures.issues(50_000);
+        long newest = 0;
+        for (int i = 0; i < issues.length; i++) {
+            issues[i].setId("issue-" + i);
+            newest = Math.max(newest, issues[i].getCreatedAt().getTime());
+        }
+        // Oldest first, as they would arrive
+        Arrays.sort(issues, (a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt()));
+        detector = new DuplicateDetector();
+        detector.addAll(Arrays.asList(issues));
+
+        report = new IssueModel();
+        report.setDescription(Fixtures.description("short"));
+        report.setLatitude(15.4909);
+        report.setLongitude(73.8278);
+        report.setCreatedAt(new Date(newest));
+    }
+
+    @Benchmark
+    public List<DuplicateCandidate> probePanaji() {
+        return detector.probe(report);
+    }
+}
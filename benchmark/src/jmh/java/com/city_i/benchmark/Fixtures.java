@@ -0,0 +1,89 @@
+package com.city_i.benchmark;
+
+import com.city_i.models.IssueModel;
+
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * Deterministic inputs shared by the benchmarks.
+ */
+final class Fixtures {
+    private static final long SEED = 42L;
+
+    private static final String SHORT =
+            "Pothole near the bus stop";
+
+    private static final String LONG =
+            "There is a large pothole on the main road near Miramar circle which has been " +
+            "growing for the last two weeks. Water collects in it whenever it rains and " +
+            "two-wheelers have already skidded while trying to avoid it at night because " +
+            "the street light next to it is also not working. The garbage bin beside the " +
+            "footpath is overflowing and blocking part of the lane, so buses have to swerve " +
+            "into oncoming traffic. Residents have complained to the ward office but nothing " +
+            "has been done yet. Please repair before someone gets hurt.";
+
+    private static final String SHOUTY =
+            "URGENT!!! ELECTRIC WIRE FALLEN ON ROAD NEAR SCHOOL, SPARKS AND FIRE, " +
+            "CHILDREN IN DANGER, EMERGENCY, PLEASE HELP IMMEDIATELY!!!";
+
+    private static final String[] CATEGORIES = {
+            "Accident", "Fire", "Electric Hazard", "Severe Pothole", "Garbage Pileup",
+            "Street Light Out", "Minor Pothole", "Drainage Blockage", "Stray Animals", "Other"
+    };
+
+    // Bounding box roughly covering Panaji, Margao and Vasco
+    private static final double MIN_LAT = 15.30;
+    private static final double MAX_LAT = 15.60;
+    private static final double MIN_LON = 73.70;
+    private static final double MAX_LON = 74.00;
+
+    private Fixtures() {
+    }
+
+    static String description(String kind) {
+        switch (kind) {
+            case "short":
+                return SHORT;
+            case "long":
+                return LONG;
+            case "shouty":
+                return SHOUTY;
+            default:
+                throw new IllegalArgumentException("Unknown input: " + kind);
+        }
+    }
+
+    static double[][] goaGrid() {
+        int steps = 16;
+        double[][] grid = new double[steps * steps][];
+        for (int i = 0; i < steps; i++) {
+            for (int j = 0; j < steps; j++) {
+                grid[i * steps + j] = new double[]{
+                        MIN_LAT + (MAX_LAT - MIN_LAT) * i / (steps - 1),
+                        MIN_LON + (MAX_LON - MIN_LON) * j / (steps - 1)
+                };
+            }
+        }
+        return grid;
+    }
+
+    static IssueModel[] issues(int count) {
+        Random random = new Random(SEED);
+        String[] texts = {SHORT, LONG, SHOUTY};
+        long base = 1_700_000_000_000L;
+        IssueModel[] issues = new IssueModel[count];
+        for (int i = 0; i < count; i++) {
+            IssueModel issue = new IssueModel();
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            issue.setTitle(category);
+            issue.setCategory(category);
+            issue.setDescription(texts[random.nextInt(texts.length)]);
+            issue.setLatitude(MIN_LAT + (MAX_LAT - MIN_LAT) * random.nextDouble());
+            issue.setLongitude(MIN_LON + (MAX_LON - MIN_LON) * random.nextDouble());
+            issue.setCreatedAt(new Date(base + (long) random.nextInt(7 * 24) * 3_600_000L));
+            issues[i] = issue;
+        }
+        return issues;
+    }
+}
@@ -0,0 +1,54 @@
+package com.city_i.benchmark;
+
+import com.city_i.geo.HotspotDetector;
+import com.city_i.geo.HotspotMap;
+import com.city_i.models.IssueModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clustering 50,000 issues from scratch, and the hotspot lookup done per scored report.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HotspotDetectorBenchmark {
+
+    private List<IssueModel> issues;
+    private HotspotMap map;
+
+    @Setup
+    public void setUp() {
+        IssueModel[] fixtures = Fixtures.issues(50_000);
+        for (int i = 0; i < fixtures.length; i++) {
+            fixtures[i].setId("issue-" + i);
+            fixtures[i].setPriority(1 + i % 10);
+        }
+        issues = Arrays.asList(fixtures);
+        HotspotDetector detector = new HotspotDetector();
+        detector.load(issues);
+        map = detector.snapshot();
+    }
+
+    @Benchmark
+    public HotspotMap cluster() {
+        HotspotDetector detector = new HotspotDetector();
+        detector.load(issues);
+        return detector.snapshot();
+    }
+
+    @Benchmark
+    public int boostAtPanaji() {
+        return map.boostAt(15.4909, 73.8278);
+    }
+}
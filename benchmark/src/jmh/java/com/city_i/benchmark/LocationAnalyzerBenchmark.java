@@ -0,0 +1,39 @@
+package com.city_i.benchmark;
+
+import com.city_i.ai.LocationAnalyzer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Location priority over a fixed grid of points around Goa.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LocationAnalyzerBenchmark {
+
+    private LocationAnalyzer analyzer;
+    private double[][] grid;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        analyzer = new LocationAnalyzer();
+        grid = Fixtures.goaGrid();
+    }
+
+    @Benchmark
+    public int calculateLocationPriority() {
+        double[] point = grid[next];
+        next = (next + 1) % grid.length;
+        return analyzer.calculateLocationPriority(point[0], point[1]);
+    }
+}
@@ -0,0 +1,78 @@
+package com.city_i.benchmark;
+
+import com.city_i.ai.LocationAnalyzer;
+import com.city_i.ai.PriorityFeatures;
+import com.city_i.ai.PriorityScorer;
+import com.city_i.ai.TextAnalyzer;
+import com.city_i.models.IssueModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end scoring without the image or TFLite components, which need a device.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PriorityScorerBenchmark {
+
+    private PriorityScorer scorer;
+    private IssueModel[] issues;
+    private PriorityFeatures[] features;
+    private Date[] times;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        scorer = new PriorityScorer(new TextAnalyzer(), new LocationAnalyzer(), null, null);
+        issues = Fixtures.issues(64);
+        features = new PriorityFeatures[issues.length];
+        times = new Date[issues.length];
+        for (int i = 0; i < issues.length; i++) {
+            features[i] = scorer.extractFeatures(issues[i], null);
+            times[i] = issues[i].getCreatedAt();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        scorer.close();
+    }
+
+    private int advance() {
+        int index = next;
+        next = (next + 1) % issues.length;
+        return index;
+    }
+
+    @Benchmark
+    public int calculateIssuePriority() {
+        return scorer.calculateIssuePriority(issues[advance()]);
+    }
+
+    @Benchmark
+    public PriorityFeatures extractFeaturesUnchanged() {
+        int index = advance();
+        return scorer.extractFeatures(issues[index], features[index]);
+    }
+
+    @Benchmark
+    public int combine() {
+        return scorer.combine(features[advance()]);
+    }
+
+    @Benchmark
+    public int calculateTimePriority() {
+        return scorer.calculateTimePriority(times[advance()]);
+    }
+}
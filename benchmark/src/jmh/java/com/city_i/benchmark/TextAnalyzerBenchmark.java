@@ -0,0 +1,45 @@
+package com.city_i.benchmark;
+
+import com.city_i.ai.TextAnalyzer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyword urgency scoring over report descriptions of different shapes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TextAnalyzerBenchmark {
+
+    @Param({"short", "long", "shouty"})
+    public String input;
+
+    private TextAnalyzer analyzer;
+    private String text;
+
+    @Setup
+    public void setUp() {
+        analyzer = new TextAnalyzer();
+        text = Fixtures.description(input);
+    }
+
+    @Benchmark
+    public int analyzeUrgency() {
+        return analyzer.analyzeUrgency(text);
+    }
+
+    @Benchmark
+    public String getAnalysisSummary() {
+        return analyzer.getAnalysisSummary(text);
+    }
+}
@@ -0,0 +1,226 @@
+package com.city_i.ai;
+
+import com.city_i.platform.Log;
+import com.city_i.platform.PixelSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Model-free image heuristics used when the image classifier is unavailable,
+ * and for immediate feedback on a freshly captured photo.
+ */
+public class ImageFeatureAnalyzer {
+    private static final String TAG = "ImageFeatureAnalyzer";
+
+    /**
+     * Estimate severity (1-10) from brightness, contrast, edges and hazardous colors
+     */
+    public int analyzeImageFeatures(PixelSource image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        // Calculate brightness
+        float brightness = calculateBrightness(image);
+
+        // Calculate contrast
+        float contrast = calculateContrast(image);
+
+        // Detect edges (simplified)
+        int edgeDensity = detectEdgeDensity(image);
+
+        // Detect color patterns (looking for hazardous colors)
+        int hazardousColorScore = detectHazardousColors(image);
+
+        // Calculate overall severity
+        int severity = 5; // Base
+
+        // Adjust based on features
+        if (edgeDensity > 1000) severity += 2; // Lots of edges = potential damage
+        if (hazardousColorScore > 30) severity += 2; // Hazardous colors present
+        if (brightness < 0.3) severity += 1; // Dark image might be dangerous area
+        if (contrast > 0.5) severity += 1; // High contrast might indicate damage
+
+        // Ensure within bounds
+        severity = Math.max(1, Math.min(10, severity));
+
+        Log.d(TAG, String.format(
+                "Feature analysis - Brightness: %.2f, Contrast: %.2f, Edges: %d, Hazard: %d, Severity: %d",
+                brightness, contrast, edgeDensity, hazardousColorScore, severity
+        ));
+
+        return severity;
+    }
+
+    /**
+     * Quick analysis for immediate feedback
+     */
+    public String quickAnalyze(PixelSource image) {
+        try {
+            if (image == null) {
+                return "No image to analyze";
+            }
+
+            // Simple analysis for immediate feedback
+            float brightness = calculateBrightness(image);
+            int edgeDensity = detectEdgeDensity(image);
+            int colorScore = detectHazardousColors(image);
+
+            StringBuilder result = new StringBuilder();
+
+            if (brightness < 0.3) {
+                result.append("• Low light detected\n");
+            }
+
+            if (edgeDensity > 800) {
+                result.append("• Possible structural damage\n");
+            }
+
+            if (colorScore > 25) {
+                result.append("• Hazardous conditions detected\n");
+            }
+
+            if (result.length() == 0) {
+                result.append("• Image quality is good\n");
+                result.append("• Ready for submission\n");
+            } else {
+                result.append("• Consider retaking photo\n");
+            }
+
+            return result.toString();
+
+        } catch (Exception e) {
+            return "Quick analysis unavailable";
+        }
+    }
+
+    /**
+     * Helper methods for image analysis
+     */
+    private float calculateBrightness(PixelSource image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        long totalBrightness = 0;
+        int sampleSize = 1000; // Sample points for performance
+
+        for (int i = 0; i < sampleSize; i++) {
+            int x = (int) (Math.random() * width);
+            int y = (int) (Math.random() * height);
+            int pixel = image.getPixel(x, y);
+
+            int r = red(pixel);
+            int g = green(pixel);
+            int b = blue(pixel);
+
+            // Calculate brightness using standard formula
+            totalBrightness += (int) (0.299 * r + 0.587 * g + 0.114 * b);
+        }
+
+        return totalBrightness / (float) (sampleSize * 255);
+    }
+
+    private float calculateContrast(PixelSource image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int sampleSize = 500;
+
+        List<Integer> brightnessValues = new ArrayList<>();
+
+        for (int i = 0; i < sampleSize; i++) {
+            int x = (int) (Math.random() * width);
+            int y = (int) (Math.random() * height);
+            int pixel = image.getPixel(x, y);
+
+            int r = red(pixel);
+            int g = green(pixel);
+            int b = blue(pixel);
+
+            int brightness = (int) (0.299 * r + 0.587 * g + 0.114 * b);
+            brightnessValues.add(brightness);
+        }
+
+        // Simple contrast calculation (range of brightness)
+        Collections.sort(brightnessValues);
+        int min = brightnessValues.get(0);
+        int max = brightnessValues.get(brightnessValues.size() - 1);
+
+        return (max - min) / 255.0f;
+    }
+
+    private int detectEdgeDensity(PixelSource image) {
+        // Simplified edge detection by sampling pixel differences
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int edgeCount = 0;
+        int samples = 200;
+
+        for (int i = 0; i < samples; i++) {
+            int x = (int) (Math.random() * (width - 2));
+            int y = (int) (Math.random() * (height - 2));
+
+            int pixel1 = image.getPixel(x, y);
+            int pixel2 = image.getPixel(x + 1, y);
+            int pixel3 = image.getPixel(x, y + 1);
+
+            // Calculate color differences
+            int diff1 = Math.abs(red(pixel1) - red(pixel2)) +
+                    Math.abs(green(pixel1) - green(pixel2)) +
+                    Math.abs(blue(pixel1) - blue(pixel2));
+
+            int diff2 = Math.abs(red(pixel1) - red(pixel3)) +
+                    Math.abs(green(pixel1) - green(pixel3)) +
+                    Math.abs(blue(pixel1) - blue(pixel3));
+
+            if (diff1 > 50 || diff2 > 50) { // Threshold for edge
+                edgeCount++;
+            }
+        }
+
+        return edgeCount * (width * height / samples); // Scale up to estimate total
+    }
+
+    private int detectHazardousColors(PixelSource image) {
+        // Detect colors that might indicate hazardous conditions
+        // Red/Yellow for danger/warning, Brown for waste/sewage
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int hazardousCount = 0;
+        int samples = 300;
+
+        for (int i = 0; i < samples; i++) {
+            int x = (int) (Math.random() * width);
+            int y = (int) (Math.random() * height);
+            int pixel = image.getPixel(x, y);
+
+            int r = red(pixel);
+            int g = green(pixel);
+            int b = blue(pixel);
+
+            // Detect red/orange/yellow (danger/warning)
+            if (r > 150 && g < 100 && b < 100) { // Red
+                hazardousCount++;
+            } else if (r > 150 && g > 100 && b < 50) { // Orange/Yellow
+                hazardousCount++;
+            }
+            // Detect brown (waste/sewage)
+            else if (r > 100 && r < 150 && g > 50 && g < 100 && b < 50) {
+                hazardousCount++;
+            }
+        }
+
+        return hazardousCount;
+    }
+
+    private static int red(int pixel) {
+        return (pixel >> 16) & 0xFF;
+    }
+
+    private static int green(int pixel) {
+        return (pixel >> 8) & 0xFF;
+    }
+
+    private static int blue(int pixel) {
+        return pixel & 0xFF;
+    }
+}
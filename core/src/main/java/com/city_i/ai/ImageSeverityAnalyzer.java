@@ -0,0 +1,12 @@
+package com.city_i.ai;
+
+/**
+ * Scores an issue photo. Implemented on device by the TensorFlow Lite image classifier.
+ */
+public interface ImageSeverityAnalyzer {
+
+    /**
+     * Analyze image and return severity score (1-10)
+     */
+    int analyzeImageSeverity(String imagePath);
+}
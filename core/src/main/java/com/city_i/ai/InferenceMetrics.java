@@ -0,0 +1,263 @@
+package com.city_i.ai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histograms for TensorFlow Lite inferences, one per model.
+ *
+ * Latencies are recorded in microseconds into log-linear buckets (8 sub-buckets per
+ * power of two, so percentiles are accurate to ~12%). Recording is a handful of atomic
+ * increments and never blocks the inference thread.
+ */
+public class InferenceMetrics {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Enough buckets to cover ~60 seconds; slower calls land in the last bucket
+    private static final int BUCKET_COUNT = 200;
+
+    private final Map<String, ModelHistogram> histograms = new ConcurrentHashMap<>();
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Record one inference call
+     */
+    public void record(String modelName, long elapsedNanos, boolean success) {
+        histogramFor(modelName).record(elapsedNanos, success);
+    }
+
+    /**
+     * Remember which delegate the interpreter for this model was created with
+     */
+    public void setDelegate(String modelName, String delegate) {
+        histogramFor(modelName).delegate = delegate;
+    }
+
+    /**
+     * Structured snapshot of all models that have been recorded so far
+     */
+    public List<ModelSnapshot> snapshot() {
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        List<ModelSnapshot> snapshots = new ArrayList<>();
+
+        for (Map.Entry<String, ModelHistogram> entry : histograms.entrySet()) {
+            snapshots.add(entry.getValue().snapshot(entry.getKey(), elapsedSeconds));
+        }
+
+        Collections.sort(snapshots, (a, b) -> a.getModelName().compareTo(b.getModelName()));
+        return snapshots;
+    }
+
+    /**
+     * Human readable dump, appended to the model statistics screen
+     */
+    public String dump() {
+        StringBuilder dump = new StringBuilder();
+        dump.append("=== Inference Metrics ===\n\n");
+
+        List<ModelSnapshot> snapshots = snapshot();
+        if (snapshots.isEmpty()) {
+            dump.append("No inferences recorded\n");
+            return dump.toString();
+        }
+
+        for (ModelSnapshot snapshot : snapshots) {
+            dump.append("Model: ").append(snapshot.getModelName()).append("\n");
+            dump.append("Delegate: ").append(snapshot.getDelegate()).append("\n");
+            dump.append("Count: ").append(snapshot.getCount())
+                    .append(" (errors: ").append(snapshot.getErrorCount()).append(")\n");
+            dump.append(String.format(Locale.US, "Throughput: %.2f inferences/s\n",
+                    snapshot.getThroughputPerSecond()));
+            dump.append(String.format(Locale.US,
+                    "Latency: mean %.2f ms, p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, max %.2f ms\n",
+                    snapshot.getMeanMicros() / 1000.0,
+                    snapshot.getP50Micros() / 1000.0,
+                    snapshot.getP95Micros() / 1000.0,
+                    snapshot.getP99Micros() / 1000.0,
+                    snapshot.getMaxMicros() / 1000.0));
+            dump.append("\n");
+        }
+
+        return dump.toString();
+    }
+
+    /**
+     * Drop everything recorded so far
+     */
+    public void reset() {
+        histograms.clear();
+    }
+
+    private ModelHistogram histogramFor(String modelName) {
+        ModelHistogram histogram = histograms.get(modelName);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(modelName, name -> new ModelHistogram());
+        }
+        return histogram;
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) Math.max(0, micros);
+        }
+
+        int msb = 63 - Long.numberOfLeadingZeros(micros);
+        int shift = msb - SUB_BUCKET_BITS;
+        int subBucket = (int) ((micros >>> shift) & (SUB_BUCKETS - 1));
+
+        return Math.min(BUCKET_COUNT - 1, (shift + 1) * SUB_BUCKETS + subBucket);
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKETS - 1;
+        int subBucket = index % SUB_BUCKETS;
+
+        return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+
+    private static final class ModelHistogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong errorCount = new AtomicLong();
+        private final AtomicLong totalMicros = new AtomicLong();
+        private final AtomicLong maxMicros = new AtomicLong();
+        private volatile String delegate = "CPU";
+
+        void record(long elapsedNanos, boolean success) {
+            long micros = elapsedNanos / 1000;
+
+            buckets.incrementAndGet(bucketIndex(micros));
+            totalMicros.addAndGet(micros);
+            if (!success) {
+                errorCount.incrementAndGet();
+            }
+
+            long currentMax = maxMicros.get();
+            while (micros > currentMax && !maxMicros.compareAndSet(currentMax, micros)) {
+                currentMax = maxMicros.get();
+            }
+        }
+
+        ModelSnapshot snapshot(String modelName, double elapsedSeconds) {
+            long[] counts = new long[BUCKET_COUNT];
+            long total = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+
+            // Bucket upper bounds can overshoot the slowest call actually seen
+            long max = maxMicros.get();
+
+            return new ModelSnapshot(
+                    modelName,
+                    delegate,
+                    total,
+                    errorCount.get(),
+                    total > 0 ? totalMicros.get() / (double) total : 0,
+                    Math.min(max, percentile(counts, total, 0.50)),
+                    Math.min(max, percentile(counts, total, 0.95)),
+                    Math.min(max, percentile(counts, total, 0.99)),
+                    max,
+                    elapsedSeconds > 0 ? total / elapsedSeconds : 0
+            );
+        }
+
+        private static long percentile(long[] counts, long total, double percentile) {
+            if (total == 0) {
+                return 0;
+            }
+
+            long target = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return bucketUpperBound(i);
+                }
+            }
+            return bucketUpperBound(counts.length - 1);
+        }
+    }
+
+    /**
+     * Point-in-time view of one model's latency distribution
+     */
+    public static class ModelSnapshot {
+        private final String modelName;
+        private final String delegate;
+        private final long count;
+        private final long errorCount;
+        private final double meanMicros;
+        private final long p50Micros;
+        private final long p95Micros;
+        private final long p99Micros;
+        private final long maxMicros;
+        private final double throughputPerSecond;
+
+        ModelSnapshot(String modelName, String delegate, long count, long errorCount,
+                      double meanMicros, long p50Micros, long p95Micros, long p99Micros,
+                      long maxMicros, double throughputPerSecond) {
+            this.modelName = modelName;
+            this.delegate = delegate;
+            this.count = count;
+            this.errorCount = errorCount;
+            this.meanMicros = meanMicros;
+            this.p50Micros = p50Micros;
+            this.p95Micros = p95Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+            this.throughputPerSecond = throughputPerSecond;
+        }
+
+        public String getModelName() {
+            return modelName;
+        }
+
+        public String getDelegate() {
+            return delegate;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        public double getMeanMicros() {
+            return meanMicros;
+        }
+
+        public long getP50Micros() {
+            return p50Micros;
+        }
+
+        public long getP95Micros() {
+            return p95Micros;
+        }
+
+        public long getP99Micros() {
+            return p99Micros;
+        }
+
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+
+        public double getThroughputPerSecond() {
+            return throughputPerSecond;
+        }
+    }
+}
@@ -1,20 +1,15 @@
 package com.city_i.ai;
 
-import android.content.Context;
-import android.location.Location;
-import android.util.Log;
-
-import com.city_i.services.LocationService;
-
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import com.city_i.platform.Log;
 
 public class LocationAnalyzer {
     private static final String TAG = "LocationAnalyzer";
 
-    private Context context;
-    private LocationService locationService;
+    // Rough boundaries of Goa
+    public static final double GOA_MIN_LATITUDE = 14.9;
+    public static final double GOA_MAX_LATITUDE = 15.8;
+    public static final double GOA_MIN_LONGITUDE = 73.7;
+    public static final double GOA_MAX_LONGITUDE = 74.3;
 
     // Coordinates for important locations in Goa (approximate)
     private static final double[][] HOSPITALS = {
@@ -64,13 +59,52 @@ public class LocationAnalyzer {
     private static final int HIGH_PRIORITY_DISTANCE = 1000; // 1km from important locations
     private static final int MEDIUM_PRIORITY_DISTANCE = 2000; // 2km
 
-    public LocationAnalyzer(Context context) {
-        this.context = context;
+    /**
+     * Extra location priority from outside the analyzer, such as detected hotspots.
+     */
+    public interface PriorityBoost {
+        int boostAt(double latitude, double longitude);
+
+        /**
+         * Changes whenever {@link #boostAt} may answer differently, so location scores
+         * cached under an older version are recomputed.
+         */
+        default long version() {
+            return 0;
+        }
+    }
+
+    private volatile PriorityBoost priorityBoost;
+
+    public LocationAnalyzer() {
         Log.d(TAG, "Location analyzer initialized");
     }
 
-    public void setLocationService(LocationService locationService) {
-        this.locationService = locationService;
+    /**
+     * Add {@code boost} to every location priority, or remove it with null.
+     */
+    public void setPriorityBoost(PriorityBoost boost) {
+        this.priorityBoost = boost;
+    }
+
+    /**
+     * Identifies the boost in effect; location priorities computed under another
+     * value may be out of date. Read it before scoring.
+     */
+    public long getBoostVersion() {
+        PriorityBoost boost = priorityBoost;
+        return boost != null ? System.identityHashCode(boost) * 31L + boost.version() : 0;
+    }
+
+    /**
+     * City centres (Panaji, Margao, Vasco) as {latitude, longitude} pairs.
+     */
+    public static double[][] getCityCentres() {
+        double[][] centres = new double[COMMERCIAL_ZONES.length][];
+        for (int i = 0; i < centres.length; i++) {
+            centres[i] = COMMERCIAL_ZONES[i].clone();
+        }
+        return centres;
     }
 
     /**
@@ -120,6 +154,14 @@ public class LocationAnalyzer {
             // Adjust based on distance from city center
             priorityScore = adjustByDistanceFromCenter(priorityScore, latitude, longitude);
 
+            // Check if inside a hotspot of related reports
+            PriorityBoost boost = priorityBoost;
+            if (boost != null) {
+                int boostScore = boost.boostAt(latitude, longitude);
+                priorityScore += boostScore;
+                Log.d(TAG, "Priority boost: +" + boostScore);
+            }
+
             // Ensure within bounds
             priorityScore = Math.max(1, Math.min(10, priorityScore));
 
@@ -344,14 +386,16 @@ public class LocationAnalyzer {
      * Check if location is valid (within Goa boundaries)
      */
     public boolean isValidGoaLocation(double latitude, double longitude) {
-        // Rough boundaries of Goa
-        double minLat = 14.9;
-        double maxLat = 15.8;
-        double minLon = 73.7;
-        double maxLon = 74.3;
-
-        return latitude >= minLat && latitude <= maxLat &&
-                longitude >= minLon && longitude <= maxLon;
+        return isInGoa(latitude, longitude);
+    }
+
+    /**
+     * Static form of {@link #isValidGoaLocation}, for code that aggregates locations
+     * without an analyzer instance.
+     */
+    public static boolean isInGoa(double latitude, double longitude) {
+        return latitude >= GOA_MIN_LATITUDE && latitude <= GOA_MAX_LATITUDE &&
+                longitude >= GOA_MIN_LONGITUDE && longitude <= GOA_MAX_LONGITUDE;
     }
 
     /**
@@ -0,0 +1,130 @@
+package com.city_i.ai;
+
+import java.io.File;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * The five component scores behind an issue's priority, plus the inputs, or a
+ * fingerprint of them, each one was computed from.
+ *
+ * When an issue is edited, {@link PriorityScorer#extractFeatures} compares inputs
+ * and only recomputes components whose inputs changed. Strings are kept and compared
+ * whole, so two different inputs with the same hash never share a score. Instances
+ * are immutable.
+ */
+public final class PriorityFeatures {
+    // Fingerprint that never matches, forcing the component to be recomputed
+    static final long UNSCORED = Long.MIN_VALUE;
+
+    private final int categoryPriority;
+    private final int imagePriority;
+    private final int textPriority;
+    private final int locationPriority;
+    private final int timePriority;
+
+    private final String category;
+    private final String imagePath;
+    private final long imageKey;
+    private final String text;
+    private final long locationKey;
+    private final long timeKey;
+    private final int timeRulesVersion;
+
+    PriorityFeatures(int categoryPriority, String category,
+                     int imagePriority, String imagePath, long imageKey,
+                     int textPriority, String text,
+                     int locationPriority, long locationKey,
+                     int timePriority, long timeKey, int timeRulesVersion) {
+        this.categoryPriority = categoryPriority;
+        this.category = category;
+        this.imagePriority = imagePriority;
+        this.imagePath = imagePath;
+        this.imageKey = imageKey;
+        this.textPriority = textPriority;
+        this.text = text;
+        this.locationPriority = locationPriority;
+        this.locationKey = locationKey;
+        this.timePriority = timePriority;
+        this.timeKey = timeKey;
+        this.timeRulesVersion = timeRulesVersion;
+    }
+
+    /**
+     * Copy with a new time component, leaving the other four untouched
+     */
+    PriorityFeatures withTimePriority(int timePriority, long timeKey, int timeRulesVersion) {
+        return new PriorityFeatures(categoryPriority, category, imagePriority, imagePath, imageKey,
+                textPriority, text, locationPriority, locationKey,
+                timePriority, timeKey, timeRulesVersion);
+    }
+
+    public int getCategoryPriority() {
+        return categoryPriority;
+    }
+
+    public int getImagePriority() {
+        return imagePriority;
+    }
+
+    public int getTextPriority() {
+        return textPriority;
+    }
+
+    public int getLocationPriority() {
+        return locationPriority;
+    }
+
+    public int getTimePriority() {
+        return timePriority;
+    }
+
+    boolean sameCategory(String category) {
+        return Objects.equals(this.category, category);
+    }
+
+    boolean sameImage(String imagePath, long imageKey) {
+        return this.imageKey == imageKey && Objects.equals(this.imagePath, imagePath);
+    }
+
+    boolean sameText(String text) {
+        return Objects.equals(this.text, text);
+    }
+
+    long getLocationKey() {
+        return locationKey;
+    }
+
+    long getTimeKey() {
+        return timeKey;
+    }
+
+    int getTimeRulesVersion() {
+        return timeRulesVersion;
+    }
+
+    /**
+     * Fingerprint helpers
+     */
+    static long imageKey(String imagePath) {
+        if (imagePath == null || imagePath.isEmpty()) {
+            return 0;
+        }
+
+        // A retaken photo at the same path changes size and modification time
+        File imageFile = new File(imagePath);
+        long key = imageFile.length() * 31 + imageFile.lastModified();
+        return key != UNSCORED ? key : key + 1;
+    }
+
+    static long locationKey(double latitude, double longitude, long boostVersion) {
+        long key = Double.doubleToLongBits(latitude) * 31 + Double.doubleToLongBits(longitude);
+        // A changed hotspot map can change the score at the same spot
+        return key * 31 + boostVersion;
+    }
+
+    static long timeKey(Date createdAt) {
+        // Issues without a timestamp are scored against "now", so never reuse them
+        return createdAt != null ? createdAt.getTime() : UNSCORED;
+    }
+}
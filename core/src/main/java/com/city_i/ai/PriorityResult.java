@@ -0,0 +1,53 @@
+package com.city_i.ai;
+
+/**
+ * Outcome of scoring an issue, with the features that went into it.
+ * A partial result was produced without the image component because the
+ * scoring deadline expired first.
+ */
+public class PriorityResult {
+    private final int priority;
+    private final PriorityFeatures features;
+    private final boolean partial;
+
+    public PriorityResult(int priority, PriorityFeatures features, boolean partial) {
+        this.priority = priority;
+        this.features = features;
+        this.partial = partial;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Keep these to re-score the issue incrementally after an edit
+     */
+    public PriorityFeatures getFeatures() {
+        return features;
+    }
+
+    public int getCategoryPriority() {
+        return features.getCategoryPriority();
+    }
+
+    public int getImagePriority() {
+        return features.getImagePriority();
+    }
+
+    public int getTextPriority() {
+        return features.getTextPriority();
+    }
+
+    public int getLocationPriority() {
+        return features.getLocationPriority();
+    }
+
+    public int getTimePriority() {
+        return features.getTimePriority();
+    }
+
+    public boolean isPartial() {
+        return partial;
+    }
+}
@@ -1,9 +1,9 @@
 package com.city_i.ai;
 
-import android.content.Context;
-import android.util.Log;
+import com.city_i.platform.Log;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -99,10 +99,50 @@ public class TextAnalyzer {
     private static final Pattern EXCLAMATION_PATTERN = Pattern.compile("!+");
     private static final Pattern QUESTION_PATTERN = Pattern.compile("\\?+");
 
-    public TextAnalyzer(Context context) {
+    // Normalisation
+    private static final Pattern URL_PATTERN = Pattern.compile("https?://\\S+\\s?");
+    private static final Pattern NON_ALPHANUMERIC_PATTERN = Pattern.compile("[^a-zA-Z0-9\\s]");
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+
+    // Share of the final score given to the text model at full confidence
+    private static final float MODEL_BLEND_WEIGHT = 0.5f;
+
+    private TextUrgencyModel urgencyModel;
+
+    public TextAnalyzer() {
         Log.d(TAG, "Text analyzer initialized");
     }
 
+    /**
+     * @param urgencyModel optional model-backed urgency path, may be null
+     */
+    public TextAnalyzer(TextUrgencyModel urgencyModel) {
+        this();
+        this.urgencyModel = urgencyModel;
+        if (urgencyModel != null) {
+            Log.d(TAG, "Model-backed urgency enabled");
+        }
+    }
+
+    public boolean isModelEnabled() {
+        return urgencyModel != null;
+    }
+
+    /**
+     * Urgency keywords and their weights (1-3), read-only.
+     */
+    public static Map<String, Integer> getUrgencyKeywords() {
+        return Collections.unmodifiableMap(URGENCY_KEYWORDS);
+    }
+
+    public static Set<String> getNegativeWords() {
+        return Collections.unmodifiableSet(NEGATIVE_WORDS);
+    }
+
+    public static Set<String> getIntensifiers() {
+        return Collections.unmodifiableSet(INTENSIFIERS);
+    }
+
     /**
      * Analyze text urgency and return score (1-10)
      */
@@ -129,6 +169,9 @@ public class TextAnalyzer {
             // Ensure within bounds
             urgencyScore = Math.max(1, Math.min(10, urgencyScore));
 
+            // Blend with the text model when it is keeping within its latency budget
+            urgencyScore = blendWithModel(urgencyScore, text);
+
             Log.d(TAG, "Text urgency score: " + urgencyScore);
 
             return urgencyScore;
@@ -314,6 +357,28 @@ public class TextAnalyzer {
         return 5; // Default if no keywords found
     }
 
+    /**
+     * Blend the keyword score with the text model prediction, weighted by model confidence
+     */
+    private int blendWithModel(int keywordScore, String text) {
+        TextUrgencyModel model = urgencyModel;
+        if (model == null || !model.isWithinBudget()) {
+            return keywordScore;
+        }
+
+        TextUrgencyModel.Prediction prediction = model.predict(text);
+        if (prediction == null) {
+            return keywordScore;
+        }
+
+        float modelWeight = MODEL_BLEND_WEIGHT * prediction.getConfidence();
+        float blended = keywordScore * (1 - modelWeight) + prediction.getUrgency() * modelWeight;
+
+        Log.d(TAG, "Model urgency: " + prediction.getUrgency() + " confidence: " + prediction.getConfidence());
+
+        return Math.max(1, Math.min(10, Math.round(blended)));
+    }
+
     /**
      * Map from keyword weight scale (1-3) to priority scale (1-10)
      */
@@ -399,17 +464,25 @@ public class TextAnalyzer {
      * Preprocess text for analysis
      */
     private String preprocessText(String text) {
+        return normalize(text);
+    }
+
+    /**
+     * Lower-cased text without URLs or punctuation, words separated by single spaces.
+     * The form every text feature is computed from.
+     */
+    public static String normalize(String text) {
         // Convert to lowercase
         String processed = text.toLowerCase();
 
         // Remove URLs
-        processed = processed.replaceAll("https?://\\S+\\s?", "");
+        processed = URL_PATTERN.matcher(processed).replaceAll("");
 
         // Remove special characters but keep spaces
-        processed = processed.replaceAll("[^a-zA-Z0-9\\s]", " ");
+        processed = NON_ALPHANUMERIC_PATTERN.matcher(processed).replaceAll(" ");
 
         // Remove extra whitespace
-        processed = processed.replaceAll("\\s+", " ").trim();
+        processed = WHITESPACE_PATTERN.matcher(processed).replaceAll(" ").trim();
 
         return processed;
     }
@@ -0,0 +1,133 @@
+package com.city_i.ai;
+
+import com.city_i.platform.InferenceRunner;
+import com.city_i.platform.Log;
+
+/**
+ * Model-backed urgency scoring on top of text_analyzer.tflite.
+ *
+ * The model takes 100 token ids and returns 5 urgency class probabilities
+ * (very low .. critical). Input and output tensors are allocated once and reused,
+ * and the tokenizer writes ids straight into the input tensor. The model is skipped
+ * while its average latency is over the per-call budget, with an occasional probe
+ * call to notice recovery.
+ */
+public class TextUrgencyModel {
+    private static final String TAG = "TextUrgencyModel";
+
+    private static final int MAX_TOKENS = 100;
+    private static final int URGENCY_CLASSES = 5;
+
+    // Urgency score (1-10) represented by each output class
+    private static final float[] CLASS_URGENCY = {2f, 4f, 6f, 8f, 10f};
+
+    // Latency budget per call and smoothing for the moving average
+    private static final long DEFAULT_BUDGET_NANOS = 15_000_000L; // 15 ms
+    private static final double LATENCY_SMOOTHING = 0.2;
+    private static final int PROBE_INTERVAL = 20;
+
+    private final InferenceRunner runner;
+    private final VocabularyTrie vocabulary;
+
+    private final int[][] inputIds = new int[1][MAX_TOKENS];
+    private final float[][] output = new float[1][URGENCY_CLASSES];
+
+    private long budgetNanos = DEFAULT_BUDGET_NANOS;
+    private double averageLatencyNanos;
+    private int skippedSinceProbe;
+
+    public TextUrgencyModel(InferenceRunner runner, VocabularyTrie vocabulary) {
+        this.runner = runner;
+        this.vocabulary = vocabulary;
+    }
+
+    /**
+     * Set the per-call latency budget in milliseconds
+     */
+    public synchronized void setLatencyBudgetMs(long budgetMs) {
+        this.budgetNanos = budgetMs * 1_000_000L;
+    }
+
+    /**
+     * Whether the model should be used for the next call. Over budget, every
+     * {@link #PROBE_INTERVAL}th call still goes through so the average can recover.
+     */
+    public synchronized boolean isWithinBudget() {
+        if (averageLatencyNanos <= budgetNanos) {
+            return true;
+        }
+
+        if (++skippedSinceProbe >= PROBE_INTERVAL) {
+            skippedSinceProbe = 0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Predict urgency for the text.
+     *
+     * @return prediction, or null if inference failed
+     */
+    public synchronized Prediction predict(String text) {
+        long start = System.nanoTime();
+        try {
+            int tokenCount = vocabulary.tokenize(text, inputIds[0]);
+            if (tokenCount == 0) {
+                return null;
+            }
+
+            runner.run(inputIds, output);
+
+            float[] probabilities = output[0];
+            float expectedUrgency = 0f;
+            float confidence = 0f;
+            for (int i = 0; i < URGENCY_CLASSES; i++) {
+                expectedUrgency += probabilities[i] * CLASS_URGENCY[i];
+                confidence = Math.max(confidence, probabilities[i]);
+            }
+
+            return new Prediction(expectedUrgency, confidence);
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error in text model prediction: " + e.getMessage());
+            return null;
+
+        } finally {
+            recordLatency(System.nanoTime() - start);
+        }
+    }
+
+    private void recordLatency(long elapsedNanos) {
+        if (averageLatencyNanos == 0) {
+            averageLatencyNanos = elapsedNanos;
+        } else {
+            averageLatencyNanos += LATENCY_SMOOTHING * (elapsedNanos - averageLatencyNanos);
+        }
+
+        if (elapsedNanos > budgetNanos) {
+            Log.w(TAG, "Text model over latency budget: " + (elapsedNanos / 1_000_000) + " ms");
+        }
+    }
+
+    /**
+     * Model output reduced to an urgency score (1-10) and the top class probability
+     */
+    public static class Prediction {
+        private final float urgency;
+        private final float confidence;
+
+        Prediction(float urgency, float confidence) {
+            this.urgency = urgency;
+            this.confidence = confidence;
+        }
+
+        public float getUrgency() {
+            return urgency;
+        }
+
+        public float getConfidence() {
+            return confidence;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.city_i.ai;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Array-backed trie over the text model vocabulary.
+ *
+ * Tokenization walks the raw text once, lower-casing ASCII on the fly and following
+ * trie edges per character, so token ids are produced without creating any
+ * intermediate strings. Word boundaries match {@link TextAnalyzer}'s preprocessing:
+ * anything that is not a letter or digit separates words.
+ */
+public class VocabularyTrie {
+    public static final int PAD_ID = 0;
+    public static final int UNK_ID = 1;
+
+    // a-z followed by 0-9
+    private static final int ALPHABET_SIZE = 36;
+    private static final int NO_TOKEN = -1;
+
+    // children[node * ALPHABET_SIZE + c] is the child node, 0 meaning "no edge"
+    // (the root is node 0 and can never be a child)
+    private int[] children;
+    private int[] tokenIds;
+    private int nodeCount;
+
+    /**
+     * Build from a vocabulary where the token id is the line index
+     */
+    public VocabularyTrie(List<String> vocabulary) {
+        int initialNodes = Math.max(16, vocabulary.size() * 4);
+        children = new int[initialNodes * ALPHABET_SIZE];
+        tokenIds = new int[initialNodes];
+        Arrays.fill(tokenIds, NO_TOKEN);
+        nodeCount = 1;
+
+        for (int id = 0; id < vocabulary.size(); id++) {
+            insert(vocabulary.get(id), id);
+        }
+    }
+
+    private void insert(String token, int id) {
+        if (token == null || token.isEmpty()) {
+            return;
+        }
+
+        // Tokens the tokenizer can never produce (e.g. "<PAD>") only reserve their id
+        for (int i = 0; i < token.length(); i++) {
+            if (charIndex(token.charAt(i)) < 0) {
+                return;
+            }
+        }
+
+        int node = 0;
+        for (int i = 0; i < token.length(); i++) {
+            int slot = node * ALPHABET_SIZE + charIndex(token.charAt(i));
+            int child = children[slot];
+            if (child == 0) {
+                child = newNode();
+                children[slot] = child;
+            }
+            node = child;
+        }
+
+        if (tokenIds[node] == NO_TOKEN) {
+            tokenIds[node] = id;
+        }
+    }
+
+    private int newNode() {
+        if (nodeCount == tokenIds.length) {
+            int capacity = tokenIds.length * 2;
+            children = Arrays.copyOf(children, capacity * ALPHABET_SIZE);
+            tokenIds = Arrays.copyOf(tokenIds, capacity);
+            Arrays.fill(tokenIds, nodeCount, capacity, NO_TOKEN);
+        }
+        return nodeCount++;
+    }
+
+    /**
+     * Look up a single word, returning {@link #UNK_ID} when it is not in the vocabulary
+     */
+    public int lookup(CharSequence word) {
+        int node = 0;
+        for (int i = 0; i < word.length(); i++) {
+            int c = charIndex(word.charAt(i));
+            if (c < 0) {
+                return UNK_ID;
+            }
+            node = children[node * ALPHABET_SIZE + c];
+            if (node == 0) {
+                return UNK_ID;
+            }
+        }
+        return tokenIds[node] != NO_TOKEN ? tokenIds[node] : UNK_ID;
+    }
+
+    /**
+     * Tokenize text into the given array, padding the remainder with {@link #PAD_ID}.
+     * Words beyond the array length are dropped.
+     *
+     * @return number of tokens written
+     */
+    public int tokenize(CharSequence text, int[] ids) {
+        int count = 0;
+        int node = 0;
+        boolean inWord = false;
+        int length = text.length();
+
+        for (int i = 0; i <= length && count < ids.length; i++) {
+            int c = i < length ? charIndex(text.charAt(i)) : -1;
+
+            if (c < 0) {
+                if (inWord) {
+                    ids[count++] = node > 0 && tokenIds[node] != NO_TOKEN ? tokenIds[node] : UNK_ID;
+                    inWord = false;
+                    node = 0;
+                }
+                continue;
+            }
+
+            inWord = true;
+            // node == -1 marks a word that already fell off the trie
+            if (node >= 0) {
+                int child = children[node * ALPHABET_SIZE + c];
+                node = child != 0 ? child : -1;
+            }
+        }
+
+        Arrays.fill(ids, count, ids.length, PAD_ID);
+        return count;
+    }
+
+    public int size() {
+        return nodeCount;
+    }
+
+    private static int charIndex(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= '0' && c <= '9') {
+            return 26 + (c - '0');
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,41 @@
+package com.city_i.corpus;
+
+/**
+ * Layout of corpus files, shared by {@link CorpusWriter} and {@link CorpusReader}.
+ *
+ * <pre>
+ * header:  int magic "CICP", byte version, long seed
+ * record:  byte RECORD_ISSUE, byte flags,
+ *          dict category, dict status, dict department, varint zigzag priority,
+ *          int latitude * 1e6, int longitude * 1e6,
+ *          [string id] [string title] [string description] [string imagePath]
+ *          [string reportedBy] [long createdAt] [varint zigzag updatedAt - createdAt]
+ * trailer: byte RECORD_END
+ * </pre>
+ *
+ * Bracketed fields are present when their flag is set. A dict field is a varint code:
+ * 0 for null, 1..n for an earlier entry, n+1 for a new entry followed by its string.
+ * Strings are a varint byte length followed by UTF-8. The encodings are the ones in
+ * {@link com.city_i.store.WireFormat}.
+ */
+final class CorpusFormat {
+    static final int MAGIC = 0x43494350;
+    static final int VERSION = 1;
+
+    static final int RECORD_END = 0;
+    static final int RECORD_ISSUE = 1;
+
+    static final int FLAG_ID = 1;
+    static final int FLAG_TITLE = 1 << 1;
+    static final int FLAG_TITLE_IS_CATEGORY = 1 << 2;
+    static final int FLAG_DESCRIPTION = 1 << 3;
+    static final int FLAG_IMAGE = 1 << 4;
+    static final int FLAG_REPORTER = 1 << 5;
+    static final int FLAG_CREATED = 1 << 6;
+    static final int FLAG_UPDATED = 1 << 7;
+
+    static final double COORDINATE_SCALE = 1e6;
+
+    private CorpusFormat() {
+    }
+}
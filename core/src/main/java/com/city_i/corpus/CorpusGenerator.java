@@ -0,0 +1,363 @@
+package com.city_i.corpus;
+
+import com.city_i.ai.LocationAnalyzer;
+import com.city_i.ai.PriorityScorer;
+import com.city_i.ai.TextAnalyzer;
+import com.city_i.models.IssueModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded generator of synthetic civic issues for benchmarks and load tests.
+ *
+ * Record {@code i} depends only on the seed, the time window and {@code i}, so any
+ * slice of a corpus can be regenerated (or generated in parallel) and still match.
+ */
+public class CorpusGenerator {
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+    // Goa is UTC+5:30 with no daylight saving
+    private static final long IST_OFFSET_MS = 19_800_000L;
+
+    // 2025-01-01 00:00 IST
+    public static final long DEFAULT_END_MILLIS = 1_735_669_800_000L;
+    public static final int DEFAULT_DAYS = 365;
+
+    // Share of reports around Panaji, Margao and Vasco; the rest land anywhere in Goa
+    private static final double[] CENTRE_SHARE = {0.45, 0.35, 0.20};
+    private static final double SCATTERED_SHARE = 0.10;
+    private static final double CENTRE_SIGMA_DEG = 0.015;  // ~1.6 km
+    private static final double MIN_LAT = 14.9;
+    private static final double MAX_LAT = 15.8;
+    private static final double MIN_LON = 73.7;
+    private static final double MAX_LON = 74.3;
+
+    // Relative report volume by hour of day (IST), busiest in the morning and evening
+    private static final int[] HOURLY_VOLUME = {
+            1, 1, 1, 1, 1, 2, 4, 7, 10, 12, 11, 9,
+            8, 7, 7, 8, 9, 11, 12, 10, 7, 5, 3, 2
+    };
+    private static final double WEEKEND_VOLUME = 0.7;
+
+    private static final String[] LANDMARKS = {
+            "Miramar circle", "the KTC bus stand", "Margao market", "the Vasco railway station",
+            "Panaji church square", "Colva beach road", "the municipal garden", "the fish market",
+            "Porvorim highway", "the primary school", "the district hospital", "Dona Paula jetty"
+    };
+
+    private static final int USER_POOL = 100_000;
+    private static final double IMAGE_SHARE = 0.6;
+    private static final double SHOUTY_SHARE = 0.03;
+
+    private final long seed;
+    private final long endMillis;
+    private final int days;
+
+    private final String[] categories;
+    private final double[] categoryCumulative;
+    private final int[] categoryPriority;
+    private final String[][] keywordsByWeight;  // index 0..2 = weight 1..3
+    private final String[] negatives;
+    private final String[] intensifiers;
+    private final double[][] centres;
+    private final double[] hourCumulative;
+
+    public CorpusGenerator(long seed) {
+        this(seed, DEFAULT_END_MILLIS, DEFAULT_DAYS);
+    }
+
+    /**
+     * @param endMillis end of the createdAt window (exclusive)
+     * @param days length of the createdAt window
+     */
+    public CorpusGenerator(long seed, long endMillis, int days) {
+        if (days <= 0) {
+            throw new IllegalArgumentException("days must be positive: " + days);
+        }
+        this.seed = seed;
+        this.endMillis = endMillis;
+        this.days = days;
+
+        // Sorted so the corpus does not depend on hash iteration order.
+        // Rarer reports for the more severe categories: volume is 11 - base priority.
+        Map<String, Integer> priorities = PriorityScorer.getCategoryPriorities();
+        categories = priorities.keySet().toArray(new String[0]);
+        Arrays.sort(categories);
+        categoryPriority = new int[categories.length];
+        double[] volume = new double[categories.length];
+        for (int i = 0; i < categories.length; i++) {
+            categoryPriority[i] = priorities.get(categories[i]);
+            volume[i] = 11 - categoryPriority[i];
+        }
+        categoryCumulative = cumulative(volume);
+
+        List<List<String>> tiers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            tiers.add(new ArrayList<String>());
+        }
+        for (Map.Entry<String, Integer> entry : TextAnalyzer.getUrgencyKeywords().entrySet()) {
+            tiers.get(entry.getValue() - 1).add(entry.getKey());
+        }
+        keywordsByWeight = new String[3][];
+        for (int i = 0; i < 3; i++) {
+            keywordsByWeight[i] = tiers.get(i).toArray(new String[0]);
+            Arrays.sort(keywordsByWeight[i]);
+        }
+        negatives = sorted(TextAnalyzer.getNegativeWords().toArray(new String[0]));
+        intensifiers = sorted(TextAnalyzer.getIntensifiers().toArray(new String[0]));
+        centres = LocationAnalyzer.getCityCentres();
+
+        double[] hourly = new double[HOURLY_VOLUME.length];
+        for (int i = 0; i < hourly.length; i++) {
+            hourly[i] = HOURLY_VOLUME[i];
+        }
+        hourCumulative = cumulative(hourly);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Generate the issue at the given position in the corpus.
+     */
+    public IssueModel generate(long index) {
+        SplittableRandom random = new SplittableRandom(mix(seed, index));
+
+        int categoryIndex = pick(categoryCumulative, random);
+        String category = categories[categoryIndex];
+
+        IssueModel issue = new IssueModel();
+        issue.setId("ISSUE-" + index);
+        issue.setTitle(category);
+        issue.setCategory(category);
+        issue.setDescription(describe(category, categoryPriority[categoryIndex], random));
+        issue.setDepartmentId(departmentFor(category));
+        // Few users file most of the reports
+        double u = random.nextDouble();
+        issue.setReportedByUserId("user-" + (int) (USER_POOL * u * u));
+        if (random.nextDouble() < IMAGE_SHARE) {
+            issue.setImagePath("images/issue-" + index + ".jpg");
+        }
+
+        double[] point = location(random);
+        issue.setLatitude(point[0]);
+        issue.setLongitude(point[1]);
+
+        long createdAt = createdAt(random);
+        issue.setCreatedAt(new Date(createdAt));
+        applyLifecycle(issue, createdAt, random);
+        return issue;
+    }
+
+    /**
+     * Write issues {@code 0..count-1} to the given writer.
+     */
+    public void writeTo(CorpusWriter writer, long count) throws IOException {
+        for (long i = 0; i < count; i++) {
+            writer.write(generate(i));
+        }
+    }
+
+    private String describe(String category, int priority, SplittableRandom random) {
+        StringBuilder text = new StringBuilder(160);
+        String landmark = LANDMARKS[random.nextInt(LANDMARKS.length)];
+
+        text.append(category).append(" near ").append(landmark).append(": ");
+        if (random.nextDouble() < 0.3) {
+            text.append(intensifiers[random.nextInt(intensifiers.length)]).append(' ');
+        }
+        text.append(keyword(priority, random)).append(" condition.");
+
+        int extraClauses = random.nextInt(4);
+        for (int i = 0; i < extraClauses; i++) {
+            text.append(' ');
+            switch (random.nextInt(4)) {
+                case 0:
+                    text.append("It is ")
+                            .append(intensifiers[random.nextInt(intensifiers.length)]).append(' ')
+                            .append(keyword(priority, random)).append(" since last week.");
+                    break;
+                case 1:
+                    // Negated keyword, which the analyzer should discount
+                    text.append("There is ").append(negatives[random.nextInt(negatives.length)])
+                            .append(' ').append(keyword(priority, random)).append(" so far.");
+                    break;
+                case 2:
+                    text.append("Residents say the ").append(keyword(priority, random))
+                            .append(" problem is getting worse");
+                    text.append(random.nextDouble() < 0.3 ? "!" : ".");
+                    break;
+                default:
+                    text.append("Please send someone to check the ")
+                            .append(keyword(priority, random)).append(" area.");
+                    break;
+            }
+        }
+
+        if (random.nextDouble() < SHOUTY_SHARE) {
+            return text.toString().toUpperCase(Locale.ROOT) + "!!!";
+        }
+        return text.toString();
+    }
+
+    // Severe categories lean towards the heavier urgency keywords
+    private String keyword(int priority, SplittableRandom random) {
+        double r = random.nextDouble();
+        int tier;
+        if (r < priority / 20.0) {
+            tier = 2;
+        } else if (r < priority / 20.0 + 0.4) {
+            tier = 1;
+        } else {
+            tier = 0;
+        }
+        String[] words = keywordsByWeight[tier];
+        return words[random.nextInt(words.length)];
+    }
+
+    private double[] location(SplittableRandom random) {
+        double lat;
+        double lon;
+        if (random.nextDouble() < SCATTERED_SHARE) {
+            lat = MIN_LAT + (MAX_LAT - MIN_LAT) * random.nextDouble();
+            lon = MIN_LON + (MAX_LON - MIN_LON) * random.nextDouble();
+        } else {
+            double r = random.nextDouble();
+            int centre = 0;
+            while (centre < centres.length - 1 && r >= CENTRE_SHARE[centre]) {
+                r -= CENTRE_SHARE[centre];
+                centre++;
+            }
+            lat = centres[centre][0] + gaussian(random) * CENTRE_SIGMA_DEG;
+            lon = centres[centre][1] + gaussian(random) * CENTRE_SIGMA_DEG;
+        }
+        // Micro-degree precision, which the corpus file stores exactly
+        return new double[]{Math.round(lat * 1e6) / 1e6, Math.round(lon * 1e6) / 1e6};
+    }
+
+    private long createdAt(SplittableRandom random) {
+        // Fewer reports on weekends
+        long dayStart;
+        do {
+            dayStart = endMillis - (long) (random.nextInt(days) + 1) * DAY_MS;
+        } while (isWeekend(dayStart) && random.nextDouble() > WEEKEND_VOLUME);
+
+        int hour = pick(hourCumulative, random);
+        return dayStart + hour * 3_600_000L + random.nextInt(3_600_000);
+    }
+
+    private void applyLifecycle(IssueModel issue, long createdAt, SplittableRandom random) {
+        long age = endMillis - createdAt;
+        double resolvedChance = Math.min(0.85, age / (30.0 * DAY_MS));
+        double r = random.nextDouble();
+
+        long updatedAt;
+        if (r < resolvedChance) {
+            issue.setStatus("Resolved");
+            updatedAt = createdAt + exponential(random, 5 * DAY_MS);
+        } else if (r < resolvedChance + 0.2) {
+            issue.setStatus("In Progress");
+            updatedAt = createdAt + exponential(random, DAY_MS);
+        } else {
+            issue.setStatus("Pending");
+            updatedAt = createdAt;
+        }
+        issue.setUpdatedAt(new Date(Math.min(updatedAt, endMillis - 1)));
+    }
+
+    private static String departmentFor(String category) {
+        String lower = category.toLowerCase(Locale.ROOT);
+        if (lower.contains("pothole") || lower.contains("road") || lower.contains("bridge")
+                || lower.contains("building") || lower.contains("accident")) {
+            return "dept-roads";
+        } else if (lower.contains("water") || lower.contains("sewage") || lower.contains("drainage")) {
+            return "dept-water";
+        } else if (lower.contains("electric") || lower.contains("light")) {
+            return "dept-electricity";
+        } else if (lower.contains("garbage") || lower.contains("dumping") || lower.contains("toilet")
+                || lower.contains("pollution") || lower.contains("animals")) {
+            return "dept-sanitation";
+        } else if (lower.contains("fire")) {
+            return "dept-fire";
+        }
+        return "dept-general";
+    }
+
+    private static boolean isWeekend(long dayStartMillis) {
+        // 1970-01-01 was a Thursday
+        long day = Math.floorDiv(dayStartMillis + IST_OFFSET_MS, DAY_MS);
+        int dayOfWeek = (int) Math.floorMod(day + 3, 7L);  // 0 = Monday
+        return dayOfWeek >= 5;
+    }
+
+    private static long exponential(SplittableRandom random, long mean) {
+        return (long) (-Math.log(1 - random.nextDouble()) * mean);
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller, one value per call so each draw consumes a fixed amount of randomness
+        double u1 = 1 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+    private static int pick(double[] cumulative, SplittableRandom random) {
+        double r = random.nextDouble() * cumulative[cumulative.length - 1];
+        int index = Arrays.binarySearch(cumulative, r);
+        index = index >= 0 ? index + 1 : -index - 1;
+        return Math.min(index, cumulative.length - 1);
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] cumulative = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+        return cumulative;
+    }
+
+    private static String[] sorted(String[] values) {
+        Arrays.sort(values);
+        return values;
+    }
+
+    // SplitMix64 finalizer over (seed, index)
+    private static long mix(long seed, long index) {
+        long z = seed + index * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Usage: {@code CorpusGenerator <output> <count> [seed]}. A ".gz" output is compressed.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CorpusGenerator <output> <count> [seed]");
+            System.exit(2);
+        }
+        File output = new File(args[0]);
+        long count = Long.parseLong(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+
+        long start = System.nanoTime();
+        CorpusGenerator generator = new CorpusGenerator(seed);
+        try (CorpusWriter writer = CorpusWriter.open(output, seed)) {
+            generator.writeTo(writer, count);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Wrote " + count + " issues to " + output + " ("
+                + output.length() + " bytes) in " + millis + " ms");
+    }
+}
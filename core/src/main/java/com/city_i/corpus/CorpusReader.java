@@ -0,0 +1,117 @@
+package com.city_i.corpus;
+
+import com.city_i.models.IssueModel;
+import com.city_i.store.StringDictionary;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.zip.GZIPInputStream;
+
+import static com.city_i.corpus.CorpusFormat.*;
+import static com.city_i.store.WireFormat.*;
+
+/**
+ * Reads issues written by {@link CorpusWriter}, one at a time.
+ */
+public class CorpusReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final DataInputStream in;
+    private final long seed;
+    private final StringDictionary dictionary = new StringDictionary();
+    private final byte[] stringBuffer = new byte[256];
+    private boolean finished;
+
+    public CorpusReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+        int magic = this.in.readInt();
+        if (magic != MAGIC) {
+            throw new IOException("Not a corpus file (magic " + Integer.toHexString(magic) + ")");
+        }
+        int version = this.in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported corpus version " + version);
+        }
+        this.seed = this.in.readLong();
+    }
+
+    /**
+     * Open a buffered reader on a file, gunzipping when the name ends in ".gz".
+     */
+    public static CorpusReader open(File file) throws IOException {
+        InputStream stream = new FileInputStream(file);
+        try {
+            if (file.getName().endsWith(".gz")) {
+                stream = new GZIPInputStream(stream, BUFFER_SIZE);
+            }
+            return new CorpusReader(new BufferedInputStream(stream, BUFFER_SIZE));
+        } catch (IOException e) {
+            stream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Seed the corpus was generated with.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the next issue, or null after the last one.
+     *
+     * @throws EOFException if the file ends without a trailer
+     */
+    public IssueModel read() throws IOException {
+        if (finished) {
+            return null;
+        }
+        int record = in.readUnsignedByte();
+        if (record == RECORD_END) {
+            finished = true;
+            return null;
+        }
+        if (record != RECORD_ISSUE) {
+            throw new IOException("Unknown record type " + record);
+        }
+
+        int flags = in.readUnsignedByte();
+        IssueModel issue = new IssueModel();
+        issue.setCategory(readDictionaryValue(in, dictionary, stringBuffer));
+        issue.setStatus(readDictionaryValue(in, dictionary, stringBuffer));
+        issue.setDepartmentId(readDictionaryValue(in, dictionary, stringBuffer));
+        issue.setPriority((int) unzigzag(readVarLong(in)));
+        issue.setLatitude(in.readInt() / COORDINATE_SCALE);
+        issue.setLongitude(in.readInt() / COORDINATE_SCALE);
+
+        if ((flags & FLAG_ID) != 0) issue.setId(readString(in, stringBuffer));
+        if ((flags & FLAG_TITLE) != 0) issue.setTitle(readString(in, stringBuffer));
+        if ((flags & FLAG_TITLE_IS_CATEGORY) != 0) issue.setTitle(issue.getCategory());
+        if ((flags & FLAG_DESCRIPTION) != 0) issue.setDescription(readString(in, stringBuffer));
+        if ((flags & FLAG_IMAGE) != 0) issue.setImagePath(readString(in, stringBuffer));
+        if ((flags & FLAG_REPORTER) != 0) issue.setReportedByUserId(readString(in, stringBuffer));
+
+        long createdAt = 0;
+        if ((flags & FLAG_CREATED) != 0) {
+            createdAt = in.readLong();
+            issue.setCreatedAt(new Date(createdAt));
+        }
+        if ((flags & FLAG_UPDATED) != 0) {
+            issue.setUpdatedAt(new Date(createdAt + unzigzag(readVarLong(in))));
+        }
+        return issue;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
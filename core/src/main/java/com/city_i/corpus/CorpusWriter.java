@@ -0,0 +1,116 @@
+package com.city_i.corpus;
+
+import com.city_i.models.IssueModel;
+import com.city_i.store.StringDictionary;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.city_i.corpus.CorpusFormat.*;
+import static com.city_i.store.WireFormat.*;
+
+/**
+ * Streams issues into the corpus format described in {@link CorpusFormat}.
+ * Coordinates are stored to micro-degree precision (about 0.1 m).
+ */
+public class CorpusWriter implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final DataOutputStream out;
+    private final StringDictionary dictionary = new StringDictionary();
+    private long count;
+    private boolean closed;
+
+    public CorpusWriter(OutputStream out, long seed) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeLong(seed);
+    }
+
+    /**
+     * Open a buffered writer on a file, gzip-compressed when the name ends in ".gz".
+     */
+    public static CorpusWriter open(File file, long seed) throws IOException {
+        OutputStream stream = new FileOutputStream(file);
+        try {
+            if (file.getName().endsWith(".gz")) {
+                stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+            }
+            return new CorpusWriter(new BufferedOutputStream(stream, BUFFER_SIZE), seed);
+        } catch (IOException e) {
+            stream.close();
+            throw e;
+        }
+    }
+
+    public void write(IssueModel issue) throws IOException {
+        String category = issue.getCategory();
+        String title = issue.getTitle();
+        boolean titleIsCategory = title != null && title.equals(category);
+
+        int flags = 0;
+        if (issue.getId() != null) flags |= FLAG_ID;
+        if (titleIsCategory) {
+            flags |= FLAG_TITLE_IS_CATEGORY;
+        } else if (title != null) {
+            flags |= FLAG_TITLE;
+        }
+        if (issue.getDescription() != null) flags |= FLAG_DESCRIPTION;
+        if (issue.getImagePath() != null) flags |= FLAG_IMAGE;
+        if (issue.getReportedByUserId() != null) flags |= FLAG_REPORTER;
+        if (issue.getCreatedAt() != null) flags |= FLAG_CREATED;
+        if (issue.getUpdatedAt() != null) flags |= FLAG_UPDATED;
+
+        out.writeByte(RECORD_ISSUE);
+        out.writeByte(flags);
+        writeDictionaryValue(out, dictionary, category);
+        writeDictionaryValue(out, dictionary, issue.getStatus());
+        writeDictionaryValue(out, dictionary, issue.getDepartmentId());
+        writeVarLong(out, zigzag(issue.getPriority()));
+        out.writeInt((int) Math.round(issue.getLatitude() * COORDINATE_SCALE));
+        out.writeInt((int) Math.round(issue.getLongitude() * COORDINATE_SCALE));
+
+        if ((flags & FLAG_ID) != 0) writeString(out, issue.getId());
+        if ((flags & FLAG_TITLE) != 0) writeString(out, title);
+        if ((flags & FLAG_DESCRIPTION) != 0) writeString(out, issue.getDescription());
+        if ((flags & FLAG_IMAGE) != 0) writeString(out, issue.getImagePath());
+        if ((flags & FLAG_REPORTER) != 0) writeString(out, issue.getReportedByUserId());
+
+        long createdAt = 0;
+        if ((flags & FLAG_CREATED) != 0) {
+            createdAt = issue.getCreatedAt().getTime();
+            out.writeLong(createdAt);
+        }
+        if ((flags & FLAG_UPDATED) != 0) {
+            writeVarLong(out, zigzag(issue.getUpdatedAt().getTime() - createdAt));
+        }
+        count++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Writes the trailer and closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            out.writeByte(RECORD_END);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.city_i.dedup;
+
+/**
+ * An earlier report that probably describes the same incident as the one probed.
+ */
+public final class DuplicateCandidate {
+    private final String issueId;
+    private final double similarity;
+    private final double distanceMeters;
+    private final long timeApartMs;
+
+    DuplicateCandidate(String issueId, double similarity, double distanceMeters, long timeApartMs) {
+        this.issueId = issueId;
+        this.similarity = similarity;
+        this.distanceMeters = distanceMeters;
+        this.timeApartMs = timeApartMs;
+    }
+
+    public String getIssueId() {
+        return issueId;
+    }
+
+    /**
+     * Estimated Jaccard similarity of the two descriptions, 0 to 1
+     */
+    public double getSimilarity() {
+        return similarity;
+    }
+
+    public double getDistanceMeters() {
+        return distanceMeters;
+    }
+
+    /**
+     * Time between the two reports, never negative
+     */
+    public long getTimeApartMs() {
+        return timeApartMs;
+    }
+}
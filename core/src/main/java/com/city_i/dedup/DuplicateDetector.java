@@ -0,0 +1,305 @@
+package com.city_i.dedup;
+
+import com.city_i.ai.LocationAnalyzer;
+import com.city_i.geo.Geohash;
+import com.city_i.models.IssueModel;
+import com.city_i.platform.Log;
+import com.city_i.store.IssueStore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Finds earlier reports of the same incident: close by, close in time and worded
+ * alike.
+ *
+ * Reports are partitioned by grid cell and time window, and within a busy
+ * partition indexed with locality-sensitive hashing of their {@link MinHash}
+ * signatures: the signature is cut into bands and each band is filed under its
+ * hash. A probe only visits the 3x3 cells and three windows around it and looks up
+ * its own bands there, so it touches the handful of reports made nearby at about
+ * that time whose text shares at least one band, and checks those exactly. Windows
+ * older than the retention are dropped whole.
+ */
+public class DuplicateDetector {
+    private static final String TAG = "DuplicateDetector";
+
+    public static final double DEFAULT_MAX_DISTANCE_METERS = 300;
+    public static final long DEFAULT_MAX_TIME_APART_MS = 6 * 60 * 60 * 1000L;
+    public static final double DEFAULT_MIN_SIMILARITY = 0.4;
+    public static final long DEFAULT_RETENTION_MS = 48 * 60 * 60 * 1000L;
+
+    // 32 bands of 2 rows: texts with similarity 0.4 share a band over 99% of the time
+    private static final int BANDS = 32;
+    private static final int ROWS = MinHash.NUM_HASHES / BANDS;
+    private static final double METERS_PER_DEGREE = 111320;
+
+    private final double maxDistanceMeters;
+    private final long maxTimeApartMs;
+    private final double minSimilarity;
+    private final long retentionMs;
+    private final double cellLatitude;
+    private final double cellLongitude;
+
+    private final Map<Long, Partition> partitions = new HashMap<>();
+    private final Map<String, Entry> byId = new HashMap<>();
+    // Partition keys per time window, for eviction
+    private final TreeMap<Long, List<Long>> windows = new TreeMap<>();
+    private long newest = Long.MIN_VALUE;
+    private int probeStamp;
+
+    public DuplicateDetector() {
+        this(DEFAULT_MAX_DISTANCE_METERS, DEFAULT_MAX_TIME_APART_MS, DEFAULT_MIN_SIMILARITY,
+                DEFAULT_RETENTION_MS);
+    }
+
+    public DuplicateDetector(double maxDistanceMeters, long maxTimeApartMs, double minSimilarity,
+                             long retentionMs) {
+        if (maxDistanceMeters <= 0 || maxTimeApartMs <= 0 || retentionMs < maxTimeApartMs) {
+            throw new IllegalArgumentException("Need positive limits and retention >= maxTimeApartMs");
+        }
+        this.maxDistanceMeters = maxDistanceMeters;
+        this.maxTimeApartMs = maxTimeApartMs;
+        this.minSimilarity = minSimilarity;
+        this.retentionMs = retentionMs;
+        // Cells at least maxDistance wide, sized for the middle of Goa
+        double latitude = (LocationAnalyzer.GOA_MIN_LATITUDE + LocationAnalyzer.GOA_MAX_LATITUDE) / 2;
+        this.cellLatitude = maxDistanceMeters / METERS_PER_DEGREE;
+        this.cellLongitude = maxDistanceMeters / (METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude)));
+    }
+
+    /**
+     * Earlier reports that look like the same incident, most similar first. The
+     * issue itself is never returned, and it is not added.
+     */
+    public synchronized List<DuplicateCandidate> probe(IssueModel issue) {
+        int[] signature = MinHash.signature(issue.getDescription());
+        if (signature == null || byId.isEmpty()) {
+            return new ArrayList<>();
+        }
+        long time = timeOf(issue);
+        long cellX = cellX(issue.getLongitude());
+        long cellY = cellY(issue.getLatitude());
+        long window = windowOf(time);
+        long[] bands = bandHashes(signature);
+        int stamp = ++probeStamp;
+
+        List<DuplicateCandidate> candidates = new ArrayList<>();
+        for (long w = window - 1; w <= window + 1; w++) {
+            for (long dy = -1; dy <= 1; dy++) {
+                for (long dx = -1; dx <= 1; dx++) {
+                    Partition partition = partitions.get(partitionKey(cellX + dx, cellY + dy, w));
+                    if (partition == null) {
+                        continue;
+                    }
+                    if (partition.entries.size() <= BANDS) {
+                        // Fewer reports than band lookups: just check them all
+                        collect(partition.entries, issue, signature, time, stamp, candidates);
+                        continue;
+                    }
+                    for (int band = 0; band < BANDS; band++) {
+                        List<Entry> entries = partition.bands.get(bands[band]);
+                        if (entries != null) {
+                            collect(entries, issue, signature, time, stamp, candidates);
+                        }
+                    }
+                }
+            }
+        }
+
+        candidates.sort((a, b) -> a.getSimilarity() != b.getSimilarity()
+                ? Double.compare(b.getSimilarity(), a.getSimilarity())
+                : Double.compare(a.getDistanceMeters(), b.getDistanceMeters()));
+        if (!candidates.isEmpty()) {
+            Log.d(TAG, candidates.size() + " possible duplicates, best " + candidates.get(0).getIssueId());
+        }
+        return candidates;
+    }
+
+    public synchronized void addAll(Collection<IssueModel> issues) {
+        for (IssueModel issue : issues) {
+            add(issue);
+        }
+    }
+
+    /**
+     * Index a report, replacing an earlier version with the same id. Resolved
+     * reports are taken out, as are ones without an id or description words.
+     *
+     * @return true if the report can now be found by {@link #probe}
+     */
+    public synchronized boolean add(IssueModel issue) {
+        String id = issue.getId();
+        if (id == null) {
+            return false;
+        }
+        remove(id);
+        if (IssueStore.STATUS_RESOLVED.equalsIgnoreCase(issue.getStatus())) {
+            return false;
+        }
+        int[] signature = MinHash.signature(issue.getDescription());
+        if (signature == null) {
+            return false;
+        }
+        long time = timeOf(issue);
+        if (time > newest) {
+            newest = time;
+            evictBefore(newest - retentionMs);
+        } else if (time < newest - retentionMs) {
+            return false;
+        }
+
+        Entry entry = new Entry(id, issue.getLatitude(), issue.getLongitude(), time, signature);
+        long cellX = cellX(entry.longitude);
+        long cellY = cellY(entry.latitude);
+        long window = windowOf(time);
+        long key = partitionKey(cellX, cellY, window);
+        Partition partition = partitions.get(key);
+        if (partition == null) {
+            partition = new Partition();
+            partitions.put(key, partition);
+            windows.computeIfAbsent(window, w -> new ArrayList<>()).add(key);
+        }
+        partition.entries.add(entry);
+        long[] bands = bandHashes(signature);
+        for (int band = 0; band < BANDS; band++) {
+            partition.bands.computeIfAbsent(bands[band], k -> new ArrayList<>(2)).add(entry);
+        }
+        byId.put(id, entry);
+        return true;
+    }
+
+    public synchronized boolean remove(String issueId) {
+        Entry entry = byId.remove(issueId);
+        if (entry == null) {
+            return false;
+        }
+        // Left in its partition until the window is evicted
+        entry.removed = true;
+        return true;
+    }
+
+    /**
+     * Drop every time window that ends before {@code timeMs}.
+     */
+    public synchronized void evictBefore(long timeMs) {
+        Iterator<List<Long>> expired = windows.headMap(windowOf(timeMs), false).values().iterator();
+        while (expired.hasNext()) {
+            for (Long key : expired.next()) {
+                Partition partition = partitions.remove(key);
+                if (partition == null) {
+                    continue;
+                }
+                for (Entry entry : partition.entries) {
+                    if (byId.get(entry.id) == entry) {
+                        byId.remove(entry.id);
+                    }
+                }
+            }
+            expired.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    private void collect(List<Entry> entries, IssueModel issue, int[] signature, long time, int stamp,
+                         List<DuplicateCandidate> candidates) {
+        for (Entry entry : entries) {
+            if (entry.seen == stamp || entry.removed) {
+                continue;
+            }
+            entry.seen = stamp;
+            DuplicateCandidate candidate = verify(issue, signature, time, entry);
+            if (candidate != null) {
+                candidates.add(candidate);
+            }
+        }
+    }
+
+    private DuplicateCandidate verify(IssueModel issue, int[] signature, long time, Entry entry) {
+        if (entry.id.equals(issue.getId())) {
+            return null;
+        }
+        long apart = Math.abs(time - entry.time);
+        if (apart > maxTimeApartMs) {
+            return null;
+        }
+        double similarity = MinHash.similarity(signature, entry.signature);
+        if (similarity < minSimilarity) {
+            return null;
+        }
+        double distance = Geohash.distanceMeters(issue.getLatitude(), issue.getLongitude(),
+                entry.latitude, entry.longitude);
+        if (distance > maxDistanceMeters) {
+            return null;
+        }
+        return new DuplicateCandidate(entry.id, similarity, distance, apart);
+    }
+
+    private long cellX(double longitude) {
+        return (long) Math.floor(longitude / cellLongitude);
+    }
+
+    private long cellY(double latitude) {
+        return (long) Math.floor(latitude / cellLatitude);
+    }
+
+    private long windowOf(long timeMs) {
+        return Math.floorDiv(timeMs, maxTimeApartMs);
+    }
+
+    private static long timeOf(IssueModel issue) {
+        return issue.getCreatedAt() != null ? issue.getCreatedAt().getTime() : System.currentTimeMillis();
+    }
+
+    private static long[] bandHashes(int[] signature) {
+        long[] hashes = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long hash = band;
+            for (int row = 0; row < ROWS; row++) {
+                hash = (hash ^ signature[band * ROWS + row]) * 0x9E3779B97F4A7C15L;
+            }
+            hashes[band] = hash;
+        }
+        return hashes;
+    }
+
+    // Two partitions sharing a key would only add candidates, which are checked exactly anyway
+    private static long partitionKey(long cellX, long cellY, long window) {
+        long key = cellX * 0x9E3779B97F4A7C15L;
+        key = (key ^ cellY) * 0xC2B2AE3D27D4EB4FL;
+        key = (key ^ window) * 0x165667B19E3779F9L;
+        return key ^ (key >>> 29);
+    }
+
+    private static final class Entry {
+        final String id;
+        final double latitude;
+        final double longitude;
+        final long time;
+        final int[] signature;
+        boolean removed;
+        int seen;
+
+        Entry(String id, double latitude, double longitude, long time, int[] signature) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.time = time;
+            this.signature = signature;
+        }
+    }
+
+    // Reports from one cell and time window, with their bands indexed
+    private static final class Partition {
+        final List<Entry> entries = new ArrayList<>();
+        final Map<Long, List<Entry>> bands = new HashMap<>();
+    }
+}
@@ -0,0 +1,110 @@
+package com.city_i.dedup;
+
+import com.city_i.ai.TextAnalyzer;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * MinHash signatures of report text. The share of equal slots in two signatures
+ * estimates the Jaccard similarity of their shingle sets.
+ *
+ * Shingles are character 4-grams of the content words, taken within each word with
+ * its boundaries marked, so "pothole near market" and "big potholes near the
+ * market" share most of theirs while "pothole on the road" and "garbage on the road"
+ * share few. Stop words are dropped so filler does not make unrelated reports look
+ * alike.
+ */
+public final class MinHash {
+    public static final int NUM_HASHES = 64;
+
+    private static final int SHINGLE_LENGTH = 4;
+    private static final int MIN_WORD_LENGTH = 3;
+
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "the", "and", "for", "are", "was", "were", "has", "have", "had", "been", "there",
+            "this", "that", "these", "those", "with", "from", "into", "onto", "near", "our",
+            "its", "not", "but", "can", "will", "please", "also", "very", "some", "any", "all",
+            "here", "since", "who", "which", "what", "when", "where", "they", "them", "you",
+            "your", "his", "her", "she", "him", "one", "being", "would", "could", "should"
+    ));
+
+    private MinHash() {
+    }
+
+    /**
+     * Signature of raw report text, or null when it has no content words.
+     */
+    public static int[] signature(String text) {
+        if (text == null) {
+            return null;
+        }
+        String normalized = TextAnalyzer.normalize(text);
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        boolean any = false;
+
+        StringBuilder marked = new StringBuilder();
+        for (String word : normalized.split(" ")) {
+            if (word.length() < MIN_WORD_LENGTH || STOP_WORDS.contains(word)) {
+                continue;
+            }
+            marked.setLength(0);
+            marked.append(' ').append(word).append(' ');
+            for (int start = 0; start + SHINGLE_LENGTH <= marked.length(); start++) {
+                add(signature, hash(marked, start, start + SHINGLE_LENGTH));
+                any = true;
+            }
+        }
+        return any ? signature : null;
+    }
+
+    /**
+     * Estimated Jaccard similarity, 0 to 1.
+     */
+    public static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return equal / (double) NUM_HASHES;
+    }
+
+    // Derive every slot's hash from one 64-bit shingle hash (Kirsch-Mitzenmacher),
+    // remixed so the slots behave like independent permutations
+    private static void add(int[] signature, long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            int value = mix(h1 + i * h2);
+            if (value < signature[i]) {
+                signature[i] = value;
+            }
+        }
+    }
+
+    // FNV-1a over the chars, finished with the murmur3 64-bit mix
+    private static long hash(CharSequence text, int start, int end) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static int mix(int value) {
+        value ^= value >>> 16;
+        value *= 0x85ebca6b;
+        value ^= value >>> 13;
+        value *= 0xc2b2ae35;
+        return value ^ (value >>> 16);
+    }
+}
@@ -0,0 +1,404 @@
+package com.city_i.geo;
+
+import com.city_i.models.IssueModel;
+import com.city_i.platform.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical clustering of issue markers for the city map, after supercluster.
+ *
+ * Issues are projected with {@link WebMercator} and clustered greedily once per
+ * zoom, from the most detailed zoom down, each zoom grouping the clusters of the
+ * one above that lie within a fixed on-screen radius. Every zoom keeps a
+ * {@link KdTree} of its clusters, so a viewport query is one range search at the
+ * requested zoom and does not depend on how many issues there are in total.
+ * Clusters carry the issue count, a priority histogram (for the maximum) and
+ * per-category counts.
+ *
+ * Added issues are folded into the nearest existing cluster at each zoom, and
+ * removed ones are subtracted from the clusters that contain them, without
+ * touching the trees; once enough has changed the index is rebuilt.
+ */
+public class ClusterIndex {
+    private static final String TAG = "ClusterIndex";
+
+    public static final int DEFAULT_MIN_ZOOM = 0;
+    public static final int DEFAULT_MAX_ZOOM = 16;
+    public static final double DEFAULT_RADIUS_PX = 60;
+    public static final int TILE_SIZE_PX = 256;
+
+    private static final int MAX_PRIORITY = 10;
+    private static final String NO_CATEGORY = "Others";
+    // Rebuild once this many changes, or an eighth of the index, are not in the trees
+    private static final int MIN_REBUILD_CHANGES = 256;
+
+    private final int minZoom;
+    private final int maxZoom;
+    private final double radiusPx;
+    private final Map<String, Node> leaves = new HashMap<>();
+    private final Map<String, Integer> categoryIds = new HashMap<>();
+    private final List<String> categoryNames = new ArrayList<>();
+    private Level[] levels;
+    private int changesSinceBuild;
+
+    public ClusterIndex() {
+        this(DEFAULT_MIN_ZOOM, DEFAULT_MAX_ZOOM, DEFAULT_RADIUS_PX);
+    }
+
+    public ClusterIndex(int minZoom, int maxZoom, double radiusPx) {
+        if (minZoom < 0 || maxZoom < minZoom || maxZoom > 24) {
+            throw new IllegalArgumentException("Bad zoom range " + minZoom + ".." + maxZoom);
+        }
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        this.radiusPx = radiusPx;
+        build();
+    }
+
+    /**
+     * Replace the contents of the index. Issues without an id are skipped.
+     */
+    public synchronized void load(Collection<IssueModel> issues) {
+        leaves.clear();
+        for (IssueModel issue : issues) {
+            if (issue.getId() != null) {
+                leaves.put(issue.getId(), leaf(issue));
+            }
+        }
+        build();
+    }
+
+    /**
+     * Add an issue, or update it if its id is already indexed.
+     */
+    public synchronized void put(IssueModel issue) {
+        String id = issue.getId();
+        if (id == null) {
+            throw new IllegalArgumentException("Issue has no id");
+        }
+        Node existing = leaves.get(id);
+        Node leaf = leaf(issue);
+        if (existing != null && existing.x == leaf.x && existing.y == leaf.y) {
+            // Same place: swap the stats along the existing chain of clusters
+            propagate(existing, existing, -1);
+            existing.clear();
+            existing.add(leaf, 1);
+            propagate(existing, existing, 1);
+            return;
+        }
+        if (existing != null) {
+            detach(existing);
+        }
+        leaves.put(id, leaf);
+        attach(leaf);
+        changed();
+    }
+
+    public synchronized boolean remove(String issueId) {
+        Node leaf = leaves.remove(issueId);
+        if (leaf == null) {
+            return false;
+        }
+        detach(leaf);
+        changed();
+        return true;
+    }
+
+    public synchronized int size() {
+        return leaves.size();
+    }
+
+    /**
+     * Markers inside the viewport at {@code zoom}. A viewport with {@code west > east}
+     * crosses the antimeridian.
+     */
+    public synchronized List<IssueCluster> getClusters(double west, double south, double east, double north,
+                                                       int zoom) {
+        Level level = levels[levelIndex(Math.max(minZoom, Math.min(zoom, maxZoom + 1)))];
+        String[] names = categoryNames.toArray(new String[0]);
+        List<IssueCluster> clusters = new ArrayList<>();
+        double minY = WebMercator.y(Math.min(90, north));
+        double maxY = WebMercator.y(Math.max(-90, south));
+        if (west <= east) {
+            collect(level, WebMercator.x(west), minY, WebMercator.x(east), maxY, names, clusters);
+        } else {
+            collect(level, WebMercator.x(west), minY, 1, maxY, names, clusters);
+            collect(level, 0, minY, WebMercator.x(east), maxY, names, clusters);
+        }
+        return clusters;
+    }
+
+    private void collect(Level level, double minX, double minY, double maxX, double maxY,
+                         String[] names, List<IssueCluster> out) {
+        level.tree.range(minX, minY, maxX, maxY, i -> emit(level.nodes[i], level.zoom, names, out));
+        for (Node node : level.extra) {
+            if (node.x >= minX && node.x <= maxX && node.y >= minY && node.y <= maxY) {
+                emit(node, level.zoom, names, out);
+            }
+        }
+    }
+
+    private void emit(Node node, int zoom, String[] names, List<IssueCluster> out) {
+        if (node.count <= 0 || zoom < node.minZoom || zoom > node.maxZoom) {
+            return;
+        }
+        double x = node.sumX / node.count;
+        double y = node.sumY / node.count;
+        out.add(new IssueCluster(WebMercator.latitude(y), WebMercator.longitude(x), node.count,
+                node.maxPriority(), node.issueId, Math.min(node.maxZoom + 1, maxZoom + 1), names,
+                node.categories.clone()));
+    }
+
+    // Greedy clustering of every zoom from the leaves down
+    private void build() {
+        long start = System.nanoTime();
+        levels = new Level[maxZoom + 2 - minZoom];
+        Node[] current = leaves.values().toArray(new Node[0]);
+        for (Node leaf : current) {
+            leaf.parent = null;
+            leaf.minZoom = maxZoom + 1;
+            leaf.visited = Integer.MAX_VALUE;
+        }
+
+        for (int zoom = maxZoom; zoom >= minZoom; zoom--) {
+            Level above = new Level(zoom + 1, current);
+            levels[levelIndex(zoom + 1)] = above;
+            double radius = radiusAt(zoom);
+            List<Node> next = new ArrayList<>(current.length);
+            List<Node> neighbours = new ArrayList<>();
+
+            for (Node node : current) {
+                if (node.visited <= zoom) {
+                    continue;
+                }
+                node.visited = zoom;
+                neighbours.clear();
+                int z = zoom;
+                above.tree.within(node.x, node.y, radius, i -> {
+                    Node other = above.nodes[i];
+                    if (other.visited > z) {
+                        other.visited = z;
+                        neighbours.add(other);
+                    }
+                });
+
+                if (neighbours.isEmpty()) {
+                    node.minZoom = zoom;
+                    next.add(node);
+                    continue;
+                }
+                Node cluster = new Node(zoom);
+                cluster.add(node, 1);
+                node.parent = cluster;
+                for (Node other : neighbours) {
+                    cluster.add(other, 1);
+                    other.parent = cluster;
+                }
+                cluster.x = cluster.sumX / cluster.count;
+                cluster.y = cluster.sumY / cluster.count;
+                next.add(cluster);
+            }
+            current = next.toArray(new Node[0]);
+        }
+        levels[levelIndex(minZoom)] = new Level(minZoom, current);
+        changesSinceBuild = 0;
+        if (!leaves.isEmpty()) {
+            Log.d(TAG, "Clustered " + leaves.size() + " issues in "
+                    + (System.nanoTime() - start) / 1000000 + " ms");
+        }
+    }
+
+    // Fold a new leaf into the nearest cluster at each zoom, from the most detailed down
+    private void attach(Node leaf) {
+        leaf.minZoom = maxZoom + 1;
+        levels[levelIndex(maxZoom + 1)].extra.add(leaf);
+
+        for (int zoom = maxZoom; zoom >= minZoom; zoom--) {
+            Level level = levels[levelIndex(zoom)];
+            Node nearest = nearest(level, leaf, radiusAt(zoom));
+            if (nearest == null) {
+                leaf.minZoom = zoom;
+                level.extra.add(leaf);
+                continue;
+            }
+
+            Node target = nearest;
+            if (nearest.maxZoom > zoom) {
+                // The neighbour is shared with more detailed zooms; group the two in a new cluster here
+                target = new Node(zoom);
+                target.minZoom = nearest.minZoom;
+                target.parent = nearest.parent;
+                target.add(nearest, 1);
+                target.x = nearest.x;
+                target.y = nearest.y;
+                nearest.parent = target;
+                nearest.minZoom = zoom + 1;
+                for (int z = zoom; z >= target.minZoom; z--) {
+                    levels[levelIndex(z)].extra.add(target);
+                }
+            }
+            target.add(leaf, 1);
+            leaf.parent = target;
+            propagate(target, leaf, 1);
+            return;
+        }
+    }
+
+    private void detach(Node leaf) {
+        propagate(leaf, leaf, -1);
+        leaf.clear();
+    }
+
+    private void changed() {
+        if (++changesSinceBuild > Math.max(MIN_REBUILD_CHANGES, leaves.size() / 8)) {
+            build();
+        }
+    }
+
+    private Node nearest(Level level, Node leaf, double radius) {
+        Node[] best = new Node[1];
+        double[] bestDistance = {radius * radius};
+        int zoom = level.zoom;
+        level.tree.within(leaf.x, leaf.y, radius, i -> consider(level.nodes[i], leaf, zoom, best, bestDistance));
+        for (Node node : level.extra) {
+            consider(node, leaf, zoom, best, bestDistance);
+        }
+        return best[0];
+    }
+
+    private static void consider(Node node, Node leaf, int zoom, Node[] best, double[] bestDistance) {
+        if (node == leaf || node.count <= 0 || zoom < node.minZoom || zoom > node.maxZoom) {
+            return;
+        }
+        double dx = node.x - leaf.x;
+        double dy = node.y - leaf.y;
+        double distance = dx * dx + dy * dy;
+        if (distance <= bestDistance[0]) {
+            bestDistance[0] = distance;
+            best[0] = node;
+        }
+    }
+
+    private static void propagate(Node from, Node delta, int sign) {
+        for (Node node = from.parent; node != null; node = node.parent) {
+            node.add(delta, sign);
+        }
+    }
+
+    private Node leaf(IssueModel issue) {
+        Node leaf = new Node(maxZoom + 1);
+        leaf.issueId = issue.getId();
+        leaf.x = WebMercator.x(issue.getLongitude());
+        leaf.y = WebMercator.y(issue.getLatitude());
+        leaf.count = 1;
+        leaf.sumX = leaf.x;
+        leaf.sumY = leaf.y;
+        leaf.priorities[Math.max(0, Math.min(MAX_PRIORITY, issue.getPriority()))] = 1;
+        int category = categoryId(issue.getCategory());
+        leaf.categories = new int[category + 1];
+        leaf.categories[category] = 1;
+        return leaf;
+    }
+
+    private int categoryId(String category) {
+        String name = category != null && !category.isEmpty() ? category : NO_CATEGORY;
+        Integer id = categoryIds.get(name);
+        if (id == null) {
+            id = categoryNames.size();
+            categoryIds.put(name, id);
+            categoryNames.add(name);
+        }
+        return id;
+    }
+
+    // Search radius in projected units: the pixel radius at this zoom's world size
+    private double radiusAt(int zoom) {
+        return radiusPx / (TILE_SIZE_PX * Math.pow(2, zoom));
+    }
+
+    private int levelIndex(int zoom) {
+        return zoom - minZoom;
+    }
+
+    private static final class Level {
+        final int zoom;
+        final Node[] nodes;
+        final KdTree tree;
+        // Clusters created since the tree was built
+        final List<Node> extra = new ArrayList<>();
+
+        Level(int zoom, Node[] nodes) {
+            this.zoom = zoom;
+            this.nodes = nodes;
+            double[] xs = new double[nodes.length];
+            double[] ys = new double[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                xs[i] = nodes[i].x;
+                ys[i] = nodes[i].y;
+            }
+            this.tree = new KdTree(xs, ys);
+        }
+    }
+
+    /**
+     * An issue or cluster. The same node appears at every zoom from {@code maxZoom}
+     * (where it is formed) down to {@code minZoom}, below which {@code parent} holds it.
+     */
+    private static final class Node {
+        final int maxZoom;
+        int minZoom;
+        String issueId;
+        double x;
+        double y;
+        int count;
+        double sumX;
+        double sumY;
+        final int[] priorities = new int[MAX_PRIORITY + 1];
+        int[] categories = new int[0];
+        Node parent;
+        int visited = Integer.MAX_VALUE;
+
+        Node(int maxZoom) {
+            this.maxZoom = maxZoom;
+            this.minZoom = maxZoom;
+        }
+
+        void add(Node other, int sign) {
+            count += sign * other.count;
+            sumX += sign * other.sumX;
+            sumY += sign * other.sumY;
+            for (int i = 0; i < priorities.length; i++) {
+                priorities[i] += sign * other.priorities[i];
+            }
+            if (other.categories.length > categories.length) {
+                categories = Arrays.copyOf(categories, other.categories.length);
+            }
+            for (int i = 0; i < other.categories.length; i++) {
+                categories[i] += sign * other.categories[i];
+            }
+        }
+
+        void clear() {
+            count = 0;
+            sumX = 0;
+            sumY = 0;
+            Arrays.fill(priorities, 0);
+            Arrays.fill(categories, 0);
+        }
+
+        int maxPriority() {
+            for (int i = priorities.length - 1; i > 0; i--) {
+                if (priorities[i] > 0) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+    }
+}
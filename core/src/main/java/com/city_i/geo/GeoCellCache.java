@@ -0,0 +1,177 @@
+package com.city_i.geo;
+
+import com.city_i.models.IssueModel;
+import com.city_i.platform.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * "Issues near me" over a geohash-indexed collection.
+ *
+ * A radius query is covered with geohash cells, the cells not already cached are
+ * fetched as a handful of prefix range scans, and the results are kept per cell,
+ * so panning the map only fetches the cells that scrolled into view. Cost grows
+ * with the area searched, not with the number of issues in the city.
+ */
+public class GeoCellCache {
+    private static final String TAG = "GeoCellCache";
+
+    public static final int DEFAULT_MAX_CELLS = 256;
+    public static final long DEFAULT_TTL_MS = 5 * 60 * 1000;
+
+    /**
+     * Fetches issues whose geohash is in {@code [start, end)}, e.g. a Firestore
+     * query with {@code >=} and {@code <} filters on the geohash field.
+     */
+    public interface CellFetcher {
+        List<IssueModel> fetchRange(String start, String end) throws Exception;
+    }
+
+    private final CellFetcher fetcher;
+    private final int maxCells;
+    private final long ttlMs;
+    private final Map<String, Cell> cells;
+    private int rangeQueries;
+
+    public GeoCellCache(CellFetcher fetcher) {
+        this(fetcher, DEFAULT_MAX_CELLS, DEFAULT_TTL_MS);
+    }
+
+    public GeoCellCache(CellFetcher fetcher, int maxCells, long ttlMs) {
+        this.fetcher = fetcher;
+        this.maxCells = maxCells;
+        this.ttlMs = ttlMs;
+        this.cells = new LinkedHashMap<String, Cell>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cell> eldest) {
+                return size() > GeoCellCache.this.maxCells;
+            }
+        };
+    }
+
+    /**
+     * Issues within {@code radiusMeters}, nearest first.
+     */
+    public List<IssueModel> near(double latitude, double longitude, double radiusMeters) throws Exception {
+        int precision = Geohash.precisionFor(latitude, radiusMeters);
+        List<String> covering = Geohash.coveringCells(latitude, longitude, radiusMeters, precision);
+
+        List<Cell> hits = new ArrayList<>(covering.size());
+        List<String> missing = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            for (String hash : covering) {
+                Cell cell = findFresh(hash, now);
+                if (cell != null) {
+                    hits.add(cell);
+                } else {
+                    missing.add(hash);
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            hits.addAll(fetch(missing, now));
+        }
+
+        Map<String, IssueModel> found = new HashMap<>();
+        final Map<String, Double> distances = new HashMap<>();
+        for (Cell cell : hits) {
+            for (IssueModel issue : cell.issues) {
+                double distance = Geohash.distanceMeters(latitude, longitude,
+                        issue.getLatitude(), issue.getLongitude());
+                if (distance <= radiusMeters && found.put(issue.getId(), issue) == null) {
+                    distances.put(issue.getId(), distance);
+                }
+            }
+        }
+        List<IssueModel> result = new ArrayList<>(found.values());
+        Collections.sort(result, Comparator.comparingDouble(issue -> distances.get(issue.getId())));
+        return result;
+    }
+
+    /**
+     * Drop cached cells that contain the point, e.g. after reporting an issue there.
+     */
+    public synchronized void invalidate(double latitude, double longitude) {
+        String hash = Geohash.encode(latitude, longitude, Geohash.MAX_PRECISION);
+        for (int length = 1; length <= hash.length(); length++) {
+            cells.remove(hash.substring(0, length));
+        }
+    }
+
+    public synchronized void clear() {
+        cells.clear();
+    }
+
+    /**
+     * Range scans issued so far, for tests and metrics.
+     */
+    public synchronized int getRangeQueries() {
+        return rangeQueries;
+    }
+
+    private List<Cell> fetch(List<String> missing, long now) throws Exception {
+        Map<String, List<IssueModel>> buckets = new LinkedHashMap<>();
+        for (String hash : missing) {
+            buckets.put(hash, new ArrayList<>());
+        }
+        int precision = missing.get(0).length();
+        List<String[]> ranges = Geohash.toRanges(missing);
+        for (String[] range : ranges) {
+            for (IssueModel issue : fetcher.fetchRange(range[0], range[1])) {
+                List<IssueModel> bucket = buckets.get(cellOf(issue, precision));
+                if (bucket != null) {
+                    bucket.add(issue);
+                }
+            }
+        }
+        Log.d(TAG, "Fetched " + missing.size() + " cells in " + ranges.size() + " range queries");
+
+        List<Cell> fetched = new ArrayList<>(buckets.size());
+        synchronized (this) {
+            rangeQueries += ranges.size();
+            for (Map.Entry<String, List<IssueModel>> entry : buckets.entrySet()) {
+                Cell cell = new Cell(entry.getValue(), now);
+                cells.put(entry.getKey(), cell);
+                fetched.add(cell);
+            }
+        }
+        return fetched;
+    }
+
+    // A cached ancestor cell holds everything its children would
+    private Cell findFresh(String hash, long now) {
+        for (int length = hash.length(); length >= 1; length--) {
+            Cell cell = cells.get(hash.substring(0, length));
+            if (cell != null && now - cell.fetchedAt <= ttlMs) {
+                return cell;
+            }
+        }
+        return null;
+    }
+
+    private static String cellOf(IssueModel issue, int precision) {
+        String hash = issue.getGeohash();
+        if (hash == null || hash.length() < precision) {
+            hash = Geohash.encode(issue.getLatitude(), issue.getLongitude(), precision);
+        }
+        return hash.substring(0, precision);
+    }
+
+    private static final class Cell {
+        final List<IssueModel> issues;
+        final long fetchedAt;
+
+        Cell(List<IssueModel> issues, long fetchedAt) {
+            this.issues = issues;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.city_i.geo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Geohash encoding and the helpers needed to turn a radius query into a few
+ * prefix range scans over a geohash-ordered index.
+ *
+ * Every geohash of a point inside a cell starts with the cell's hash, and cells
+ * that are consecutive in base-32 order are contiguous in the index, so a run of
+ * such cells becomes one {@code [start, end)} range.
+ */
+public final class Geohash {
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final int[] DECODE = new int[128];
+
+    /** Sorts after every base-32 character, so {@code prefix + RANGE_END} bounds a prefix scan. */
+    public static final char RANGE_END = '~';
+    public static final int MAX_PRECISION = 12;
+
+    private static final double EARTH_RADIUS_METERS = 6371000;
+    private static final double METERS_PER_DEGREE = 111320;
+    private static final int MAX_COVER_CELLS = 64;
+
+    static {
+        java.util.Arrays.fill(DECODE, -1);
+        for (int i = 0; i < BASE32.length(); i++) {
+            DECODE[BASE32.charAt(i)] = i;
+        }
+    }
+
+    private Geohash() {
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be in 1.." + MAX_PRECISION);
+        }
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        char[] hash = new char[precision];
+        boolean lonBit = true;
+        for (int i = 0; i < precision; i++) {
+            int value = 0;
+            for (int bit = 0; bit < 5; bit++) {
+                if (lonBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (longitude >= mid) {
+                        value = value << 1 | 1;
+                        minLon = mid;
+                    } else {
+                        value <<= 1;
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (latitude >= mid) {
+                        value = value << 1 | 1;
+                        minLat = mid;
+                    } else {
+                        value <<= 1;
+                        maxLat = mid;
+                    }
+                }
+                lonBit = !lonBit;
+            }
+            hash[i] = BASE32.charAt(value);
+        }
+        return new String(hash);
+    }
+
+    /**
+     * Cell bounds as {@code {minLat, minLon, maxLat, maxLon}}.
+     */
+    public static double[] bounds(String hash) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        boolean lonBit = true;
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            int value = c < 128 ? DECODE[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Not a geohash: " + hash);
+            }
+            for (int bit = 4; bit >= 0; bit--) {
+                boolean set = (value >> bit & 1) != 0;
+                if (lonBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (set) minLon = mid; else maxLon = mid;
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) minLat = mid; else maxLat = mid;
+                }
+                lonBit = !lonBit;
+            }
+        }
+        return new double[]{minLat, minLon, maxLat, maxLon};
+    }
+
+    /**
+     * Finest precision whose cells cover the circle's bounding box in at most
+     * {@value #MAX_COVER_CELLS} cells. Finer cells mean fewer documents read outside
+     * the circle but more range scans. Depends only on latitude and radius, so a
+     * panning map keeps hitting the same cached cells.
+     */
+    public static int precisionFor(double latitude, double radiusMeters) {
+        for (int precision = 9; precision > 1; precision--) {
+            if (countCells(latitude, radiusMeters, precision) <= MAX_COVER_CELLS) {
+                return precision;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Sorted cells of the given precision that intersect the circle.
+     */
+    public static List<String> coveringCells(double latitude, double longitude, double radiusMeters,
+                                             int precision) {
+        double[] box = boundingBox(latitude, longitude, radiusMeters);
+        double cellLat = cellHeight(precision);
+        double cellLon = cellWidth(precision);
+        List<String> cells = new ArrayList<>();
+
+        for (long row = cellIndex(box[0], -90, cellLat); row <= cellIndex(box[2], -90, cellLat); row++) {
+            double centreLat = -90 + (row + 0.5) * cellLat;
+            if (centreLat > 90) {
+                break;
+            }
+            for (long col = cellIndex(box[1], -180, cellLon); col <= cellIndex(box[3], -180, cellLon); col++) {
+                // Wrap across the antimeridian
+                double centreLon = -180 + (col + 0.5) * cellLon;
+                centreLon = ((centreLon + 540) % 360) - 180;
+                String cell = encode(centreLat, centreLon, precision);
+                if (!cells.contains(cell) && intersects(cell, latitude, longitude, radiusMeters)) {
+                    cells.add(cell);
+                }
+            }
+        }
+        Collections.sort(cells);
+        return cells;
+    }
+
+    /**
+     * The cell and the cells around it, sorted: nine, fewer at the poles, wrapping
+     * across the antimeridian. Together they cover at least one cell's width in
+     * every direction from any point in the middle cell.
+     */
+    public static List<String> neighborhood(String hash) {
+        double[] b = bounds(hash);
+        double height = b[2] - b[0];
+        double width = b[3] - b[1];
+        double centreLat = (b[0] + b[2]) / 2;
+        double centreLon = (b[1] + b[3]) / 2;
+        List<String> cells = new ArrayList<>(9);
+        for (int row = -1; row <= 1; row++) {
+            double lat = centreLat + row * height;
+            if (lat < -90 || lat > 90) {
+                continue;
+            }
+            for (int col = -1; col <= 1; col++) {
+                double lon = ((centreLon + col * width + 540) % 360) - 180;
+                String cell = encode(lat, lon, hash.length());
+                if (!cells.contains(cell)) {
+                    cells.add(cell);
+                }
+            }
+        }
+        Collections.sort(cells);
+        return cells;
+    }
+
+    /**
+     * Collapse sorted same-precision cells into {@code {start, endExclusive}} ranges,
+     * joining cells that follow each other in base-32 order.
+     */
+    public static List<String[]> toRanges(List<String> sortedCells) {
+        List<String[]> ranges = new ArrayList<>();
+        String start = null;
+        String last = null;
+        for (String cell : sortedCells) {
+            if (start != null && cell.equals(successor(last))) {
+                last = cell;
+                continue;
+            }
+            if (start != null) {
+                ranges.add(new String[]{start, last + RANGE_END});
+            }
+            start = cell;
+            last = cell;
+        }
+        if (start != null) {
+            ranges.add(new String[]{start, last + RANGE_END});
+        }
+        return ranges;
+    }
+
+    /**
+     * Great-circle distance in meters.
+     */
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        return EARTH_RADIUS_METERS * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    // Next hash of the same length, or null after "zzz..."
+    static String successor(String hash) {
+        char[] chars = hash.toCharArray();
+        for (int i = chars.length - 1; i >= 0; i--) {
+            int value = DECODE[chars[i]];
+            if (value < 31) {
+                chars[i] = BASE32.charAt(value + 1);
+                return new String(chars);
+            }
+            chars[i] = BASE32.charAt(0);
+        }
+        return null;
+    }
+
+    private static boolean intersects(String cell, double latitude, double longitude, double radiusMeters) {
+        double[] b = bounds(cell);
+        double nearestLat = Math.max(b[0], Math.min(latitude, b[2]));
+        double nearestLon = Math.max(b[1], Math.min(longitude, b[3]));
+        return distanceMeters(latitude, longitude, nearestLat, nearestLon) <= radiusMeters;
+    }
+
+    private static int countCells(double latitude, double radiusMeters, int precision) {
+        double[] box = boundingBox(latitude, 0, radiusMeters);
+        long rows = cellIndex(box[2], -90, cellHeight(precision)) - cellIndex(box[0], -90, cellHeight(precision)) + 1;
+        long cols = (long) Math.ceil((box[3] - box[1]) / cellWidth(precision)) + 1;
+        return (int) Math.min(Integer.MAX_VALUE, rows * cols);
+    }
+
+    private static double[] boundingBox(double latitude, double longitude, double radiusMeters) {
+        double dLat = radiusMeters / METERS_PER_DEGREE;
+        double cos = Math.max(Math.cos(Math.toRadians(latitude)), 1e-6);
+        double dLon = Math.min(180, radiusMeters / (METERS_PER_DEGREE * cos));
+        return new double[]{
+                Math.max(-90, latitude - dLat), longitude - dLon,
+                Math.min(90, latitude + dLat), longitude + dLon};
+    }
+
+    private static long cellIndex(double value, double origin, double size) {
+        return (long) Math.floor((value - origin) / size);
+    }
+
+    private static double cellHeight(int precision) {
+        return 180.0 / (1L << (5 * precision / 2));
+    }
+
+    private static double cellWidth(int precision) {
+        return 360.0 / (1L << (5 * precision - 5 * precision / 2));
+    }
+}
@@ -0,0 +1,213 @@
+package com.city_i.geo;
+
+import com.city_i.ai.LocationAnalyzer;
+import com.city_i.models.IssueModel;
+import com.city_i.platform.Log;
+import com.city_i.store.IssueStore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre-aggregated heatmap of open issues: per-cell issue counts and priority sums
+ * for every map tile with issues in it, at every zoom of the pyramid.
+ *
+ * An issue lands in one cell per zoom, so adding, moving or resolving one costs a
+ * handful of array updates rather than a pass over all the points. Tiles are
+ * served as {@link HeatmapTile} snapshots, cached until a change touches them.
+ * Points are the issue coordinates {@link LocationAnalyzer} scores, and like it
+ * only locations inside Goa are counted.
+ */
+public class HeatmapPyramid {
+    private static final String TAG = "HeatmapPyramid";
+
+    public static final int DEFAULT_MIN_ZOOM = 8;
+    public static final int DEFAULT_MAX_ZOOM = 14;
+    // 8 px cells on a 256 px tile
+    public static final int DEFAULT_CELLS_PER_SIDE = 32;
+
+    private final int minZoom;
+    private final int maxZoom;
+    private final int cellsPerSide;
+    private final Map<Long, Cells> tiles = new HashMap<>();
+    private final Map<Long, HeatmapTile> snapshots = new HashMap<>();
+    private final Map<String, Point> points = new HashMap<>();
+
+    public HeatmapPyramid() {
+        this(DEFAULT_MIN_ZOOM, DEFAULT_MAX_ZOOM, DEFAULT_CELLS_PER_SIDE);
+    }
+
+    public HeatmapPyramid(int minZoom, int maxZoom, int cellsPerSide) {
+        if (minZoom < 0 || maxZoom < minZoom || maxZoom > 22) {
+            throw new IllegalArgumentException("Bad zoom range " + minZoom + ".." + maxZoom);
+        }
+        if (cellsPerSide <= 0 || Integer.bitCount(cellsPerSide) != 1) {
+            throw new IllegalArgumentException("cellsPerSide must be a power of two");
+        }
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        this.cellsPerSide = cellsPerSide;
+    }
+
+    /**
+     * Replace the contents with the given issues.
+     */
+    public synchronized void load(Collection<IssueModel> issues) {
+        tiles.clear();
+        snapshots.clear();
+        points.clear();
+        int skipped = 0;
+        for (IssueModel issue : issues) {
+            if (!apply(issue)) {
+                skipped++;
+            }
+        }
+        Log.d(TAG, "Aggregated " + points.size() + " issues into " + tiles.size() + " tiles, "
+                + skipped + " skipped");
+    }
+
+    /**
+     * Add, move or re-prioritise an issue; a resolved issue, or one outside Goa, is removed.
+     *
+     * @return whether the issue is counted afterwards
+     */
+    public synchronized boolean apply(IssueModel issue) {
+        String id = issue.getId();
+        if (id == null) {
+            return false;
+        }
+        Point previous = points.remove(id);
+        if (previous != null) {
+            add(previous, -1);
+        }
+        if (IssueStore.STATUS_RESOLVED.equalsIgnoreCase(issue.getStatus())
+                || !LocationAnalyzer.isInGoa(issue.getLatitude(), issue.getLongitude())) {
+            return false;
+        }
+        Point point = new Point(WebMercator.x(issue.getLongitude()), WebMercator.y(issue.getLatitude()),
+                Math.max(0, issue.getPriority()));
+        points.put(id, point);
+        add(point, 1);
+        return true;
+    }
+
+    public synchronized boolean remove(String issueId) {
+        Point previous = points.remove(issueId);
+        if (previous == null) {
+            return false;
+        }
+        add(previous, -1);
+        return true;
+    }
+
+    public synchronized int size() {
+        return points.size();
+    }
+
+    /**
+     * The tile at XYZ coordinates, or null if it has no issues. Zooms outside the
+     * pyramid have no tiles.
+     */
+    public synchronized HeatmapTile getTile(int zoom, int x, int y) {
+        if (zoom < minZoom || zoom > maxZoom) {
+            return null;
+        }
+        long key = tileKey(zoom, x, y);
+        HeatmapTile snapshot = snapshots.get(key);
+        if (snapshot == null) {
+            Cells cells = tiles.get(key);
+            if (cells == null) {
+                return null;
+            }
+            snapshot = new HeatmapTile(zoom, x, y, cellsPerSide, cells.counts.clone(),
+                    cells.prioritySums.clone());
+            snapshots.put(key, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Non-empty tiles covering the viewport at {@code zoom}, clamped to the pyramid.
+     */
+    public synchronized List<HeatmapTile> getTiles(double west, double south, double east, double north,
+                                                   int zoom) {
+        int z = Math.max(minZoom, Math.min(zoom, maxZoom));
+        int side = 1 << z;
+        int minX = tileIndex(WebMercator.x(west), side);
+        int maxX = tileIndex(WebMercator.x(east), side);
+        int minY = tileIndex(WebMercator.y(north), side);
+        int maxY = tileIndex(WebMercator.y(south), side);
+        List<HeatmapTile> result = new ArrayList<>();
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                HeatmapTile tile = getTile(z, x, y);
+                if (tile != null) {
+                    result.add(tile);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void add(Point point, int sign) {
+        for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+            long cellsAcross = (long) cellsPerSide << zoom;
+            long cellX = Math.min(cellsAcross - 1, (long) (point.x * cellsAcross));
+            long cellY = Math.min(cellsAcross - 1, (long) (point.y * cellsAcross));
+            int tileX = (int) (cellX / cellsPerSide);
+            int tileY = (int) (cellY / cellsPerSide);
+            int cell = (int) (cellY % cellsPerSide) * cellsPerSide + (int) (cellX % cellsPerSide);
+
+            long key = tileKey(zoom, tileX, tileY);
+            snapshots.remove(key);
+            Cells cells = tiles.get(key);
+            if (cells == null) {
+                if (sign < 0) {
+                    continue;
+                }
+                cells = new Cells(cellsPerSide * cellsPerSide);
+                tiles.put(key, cells);
+            }
+            cells.counts[cell] += sign;
+            cells.prioritySums[cell] += sign * point.priority;
+            cells.total += sign;
+            if (cells.total <= 0) {
+                tiles.remove(key);
+            }
+        }
+    }
+
+    private static int tileIndex(double position, int side) {
+        return Math.max(0, Math.min(side - 1, (int) (position * side)));
+    }
+
+    private static long tileKey(int zoom, int x, int y) {
+        return (long) zoom << 58 | (long) x << 29 | y;
+    }
+
+    private static final class Cells {
+        final int[] counts;
+        final int[] prioritySums;
+        int total;
+
+        Cells(int size) {
+            counts = new int[size];
+            prioritySums = new int[size];
+        }
+    }
+
+    private static final class Point {
+        final double x;
+        final double y;
+        final int priority;
+
+        Point(double x, double y, int priority) {
+            this.x = x;
+            this.y = y;
+            this.priority = priority;
+        }
+    }
+}
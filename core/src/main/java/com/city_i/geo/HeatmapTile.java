@@ -0,0 +1,100 @@
+package com.city_i.geo;
+
+/**
+ * Issue density and severity over one map tile, as a grid of cells in row-major
+ * order (west to east, then north to south). Instances are immutable snapshots.
+ */
+public final class HeatmapTile {
+    private final int zoom;
+    private final int x;
+    private final int y;
+    private final int cellsPerSide;
+    private final int[] counts;
+    private final int[] prioritySums;
+    private final int maxCount;
+    private final int total;
+
+    HeatmapTile(int zoom, int x, int y, int cellsPerSide, int[] counts, int[] prioritySums) {
+        this.zoom = zoom;
+        this.x = x;
+        this.y = y;
+        this.cellsPerSide = cellsPerSide;
+        this.counts = counts;
+        this.prioritySums = prioritySums;
+        int max = 0;
+        int sum = 0;
+        for (int count : counts) {
+            max = Math.max(max, count);
+            sum += count;
+        }
+        this.maxCount = max;
+        this.total = sum;
+    }
+
+    public int getZoom() {
+        return zoom;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getCellsPerSide() {
+        return cellsPerSide;
+    }
+
+    public boolean isEmpty() {
+        return total == 0;
+    }
+
+    /**
+     * Open issues in the cell at column {@code cellX}, row {@code cellY}
+     */
+    public int getCount(int cellX, int cellY) {
+        return counts[cellY * cellsPerSide + cellX];
+    }
+
+    /**
+     * Sum of the priorities of the issues in the cell
+     */
+    public int getPrioritySum(int cellX, int cellY) {
+        return prioritySums[cellY * cellsPerSide + cellX];
+    }
+
+    /**
+     * Mean priority in the cell, 0 for an empty cell
+     */
+    public double getMeanPriority(int cellX, int cellY) {
+        int count = getCount(cellX, cellY);
+        return count == 0 ? 0 : (double) getPrioritySum(cellX, cellY) / count;
+    }
+
+    /**
+     * Largest cell count in the tile, for normalising colours
+     */
+    public int getMaxCount() {
+        return maxCount;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Copy of the per-cell counts, row-major
+     */
+    public int[] getCounts() {
+        return counts.clone();
+    }
+
+    /**
+     * Copy of the per-cell priority sums, row-major
+     */
+    public int[] getPrioritySums() {
+        return prioritySums.clone();
+    }
+}
@@ -0,0 +1,54 @@
+package com.city_i.geo;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A dense group of reports that probably share one cause, e.g. a drainage failure
+ * reported from across a neighbourhood.
+ */
+public final class Hotspot {
+    private final double latitude;
+    private final double longitude;
+    private final double radiusMeters;
+    private final int maxPriority;
+    private final List<String> issueIds;
+
+    Hotspot(double latitude, double longitude, double radiusMeters, int maxPriority, List<String> issueIds) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.radiusMeters = radiusMeters;
+        this.maxPriority = maxPriority;
+        this.issueIds = Collections.unmodifiableList(issueIds);
+    }
+
+    /**
+     * Mean latitude of the reports
+     */
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Distance from the centre to the farthest report
+     */
+    public double getRadiusMeters() {
+        return radiusMeters;
+    }
+
+    public int getMaxPriority() {
+        return maxPriority;
+    }
+
+    public int getCount() {
+        return issueIds.size();
+    }
+
+    public List<String> getIssueIds() {
+        return issueIds;
+    }
+}
@@ -0,0 +1,576 @@
+package com.city_i.geo;
+
+import com.city_i.ai.LocationAnalyzer;
+import com.city_i.models.IssueModel;
+import com.city_i.platform.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * DBSCAN over issue locations: a report with at least {@code minPoints} reports
+ * (itself included) within {@code epsMeters} is a core point, core points within
+ * {@code epsMeters} of each other form one hotspot, and other reports join the
+ * hotspot of a core point next to them.
+ *
+ * Points are kept in a grid of cells with a diagonal of {@code epsMeters}, so all
+ * points in one cell are neighbours and every neighbour of a point is in one of
+ * the 21 cells around it. A full run counts neighbours and links cells in
+ * parallel, stopping a count as soon as it reaches {@code minPoints}. New reports
+ * are added incrementally: only the points around them can become core, and
+ * hotspots only ever merge, so a union-find over the core points stays valid.
+ * Removals are rare (resolved issues) and trigger a full run on the next query.
+ */
+public class HotspotDetector {
+    private static final String TAG = "HotspotDetector";
+
+    public static final double DEFAULT_EPS_METERS = 150;
+    public static final int DEFAULT_MIN_POINTS = 5;
+
+    private static final double METERS_PER_DEGREE = 111320;
+    private static final int[][] NEIGHBOUR_CELLS;
+
+    static {
+        // The 5x5 block of cells minus its corners, which are always more than eps away
+        List<int[]> offsets = new ArrayList<>();
+        for (int dy = -2; dy <= 2; dy++) {
+            for (int dx = -2; dx <= 2; dx++) {
+                if (Math.abs(dx) < 2 || Math.abs(dy) < 2) {
+                    offsets.add(new int[]{dx, dy});
+                }
+            }
+        }
+        NEIGHBOUR_CELLS = offsets.toArray(new int[0][]);
+    }
+
+    private final double eps2;
+    private final double cellSize;
+    private final int minPoints;
+    private final double metersPerDegreeLongitude;
+
+    private final Map<String, Integer> indexById = new HashMap<>();
+    private Map<Long, Cell> cells = new HashMap<>();
+    private int size;
+    private String[] ids = new String[0];
+    private double[] latitudes = new double[0];
+    private double[] longitudes = new double[0];
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private int[] priorities = new int[0];
+    // Neighbour count, capped at minPoints once the point is core
+    private int[] counts = new int[0];
+    private int[] parent = new int[0];
+    private boolean dirty;
+    private long snapshots;
+
+    public HotspotDetector() {
+        this(DEFAULT_EPS_METERS, DEFAULT_MIN_POINTS);
+    }
+
+    public HotspotDetector(double epsMeters, int minPoints) {
+        if (epsMeters <= 0 || minPoints < 2) {
+            throw new IllegalArgumentException("Need epsMeters > 0 and minPoints >= 2");
+        }
+        this.eps2 = epsMeters * epsMeters;
+        this.cellSize = epsMeters / Math.sqrt(2);
+        this.minPoints = minPoints;
+        // Flat projection around the middle of Goa; good to well under 1% over the state
+        double latitude = (LocationAnalyzer.GOA_MIN_LATITUDE + LocationAnalyzer.GOA_MAX_LATITUDE) / 2;
+        this.metersPerDegreeLongitude = METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+    }
+
+    /**
+     * Replace the contents and cluster from scratch, in parallel. Issues without an
+     * id are skipped.
+     */
+    public synchronized void load(Collection<IssueModel> issues) {
+        indexById.clear();
+        size = 0;
+        ensureCapacity(issues.size());
+        for (IssueModel issue : issues) {
+            if (issue.getId() != null && !indexById.containsKey(issue.getId())) {
+                append(issue);
+            }
+        }
+        cluster();
+    }
+
+    /**
+     * Add a new report, or move an existing one.
+     */
+    public synchronized void add(IssueModel issue) {
+        String id = issue.getId();
+        if (id == null) {
+            throw new IllegalArgumentException("Issue has no id");
+        }
+        if (indexById.containsKey(id)) {
+            remove(id);
+        }
+        int point = append(issue);
+        if (dirty) {
+            return;
+        }
+        Cell home = cellAt(point, true);
+        home.add(point);
+        home.nonCore++;
+
+        // Only the new point and its neighbours change counts, and only non-core ones matter
+        List<Integer> newlyCore = new ArrayList<>();
+        int count = 0;
+        long cx = cellX(xs[point]);
+        long cy = cellY(ys[point]);
+        for (int[] offset : NEIGHBOUR_CELLS) {
+            Cell cell = cells.get(cellKey(cx + offset[0], cy + offset[1]));
+            if (cell == null || (cell.nonCore == 0 && count >= minPoints)) {
+                continue;
+            }
+            for (int k = 0; k < cell.size; k++) {
+                int other = cell.points[k];
+                if (other == point || distance2(point, other) > eps2) {
+                    continue;
+                }
+                count++;
+                if (counts[other] < minPoints && ++counts[other] == minPoints) {
+                    cell.nonCore--;
+                    if (cell.core < 0) {
+                        cell.core = other;
+                    }
+                    newlyCore.add(other);
+                }
+            }
+        }
+        counts[point] = Math.min(minPoints, count + 1);
+        if (counts[point] == minPoints) {
+            home.nonCore--;
+            if (home.core < 0) {
+                home.core = point;
+            }
+            newlyCore.add(point);
+        }
+
+        // Core points sharing a cell are already joined, so one older core neighbour per
+        // cell is enough; points that only just became core are not joined to theirs yet
+        for (int core : newlyCore) {
+            long coreX = cellX(xs[core]);
+            long coreY = cellY(ys[core]);
+            for (int[] offset : NEIGHBOUR_CELLS) {
+                Cell cell = cells.get(cellKey(coreX + offset[0], coreY + offset[1]));
+                if (cell == null || cell.core < 0 || find(cell.core) == find(core)) {
+                    continue;
+                }
+                for (int k = 0; k < cell.size; k++) {
+                    int other = cell.points[k];
+                    if (other != core && counts[other] >= minPoints && distance2(core, other) <= eps2) {
+                        union(core, other);
+                        if (!newlyCore.contains(other)) {
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Forget a report, e.g. once it is resolved. Hotspots may split, so the next
+     * query re-clusters everything.
+     */
+    public synchronized boolean remove(String issueId) {
+        Integer point = indexById.remove(issueId);
+        if (point == null) {
+            return false;
+        }
+        ids[point] = null;
+        dirty = true;
+        return true;
+    }
+
+    public synchronized boolean contains(String issueId) {
+        return indexById.containsKey(issueId);
+    }
+
+    public synchronized int size() {
+        return indexById.size();
+    }
+
+    /**
+     * Current hotspots, largest first.
+     */
+    public synchronized List<Hotspot> getHotspots() {
+        return compute(null);
+    }
+
+    /**
+     * Current hotspots as a {@link LocationAnalyzer.PriorityBoost}, fixed at the time of the call.
+     */
+    public synchronized HotspotMap snapshot() {
+        Map<Long, Hotspot> byCell = new HashMap<>();
+        compute(byCell);
+        return new HotspotMap(this, byCell, ++snapshots);
+    }
+
+    // Hotspots, largest first; fills byCell, if given, with the cells holding core points
+    private List<Hotspot> compute(Map<Long, Hotspot> byCell) {
+        if (dirty) {
+            compact();
+            cluster();
+        }
+
+        int[] roots = new int[size];
+        for (int i = 0; i < size; i++) {
+            roots[i] = counts[i] >= minPoints ? find(i) : -1;
+        }
+        // Border points take the hotspot of any core point next to them
+        int[] assigned = new int[size];
+        IntStream.range(0, size).parallel().forEach(i -> {
+            assigned[i] = roots[i] >= 0 ? roots[i] : borderRoot(i, roots);
+        });
+
+        // Group members by root with a counting sort
+        Map<Integer, Integer> groupOfRoot = new HashMap<>();
+        int[] groupOf = new int[size];
+        int[] groupSizes = new int[16];
+        for (int i = 0; i < size; i++) {
+            if (assigned[i] < 0) {
+                groupOf[i] = -1;
+                continue;
+            }
+            Integer group = groupOfRoot.get(assigned[i]);
+            if (group == null) {
+                group = groupOfRoot.size();
+                groupOfRoot.put(assigned[i], group);
+                if (group == groupSizes.length) {
+                    groupSizes = Arrays.copyOf(groupSizes, group * 2);
+                }
+            }
+            groupOf[i] = group;
+            groupSizes[group]++;
+        }
+        int groups = groupOfRoot.size();
+        int[] starts = new int[groups + 1];
+        for (int g = 0; g < groups; g++) {
+            starts[g + 1] = starts[g] + groupSizes[g];
+        }
+        int[] members = new int[starts[groups]];
+        int[] filled = Arrays.copyOf(starts, groups);
+        for (int i = 0; i < size; i++) {
+            if (groupOf[i] >= 0) {
+                members[filled[groupOf[i]]++] = i;
+            }
+        }
+
+        Hotspot[] hotspots = new Hotspot[groups];
+        for (int g = 0; g < groups; g++) {
+            hotspots[g] = hotspot(members, starts[g], starts[g + 1]);
+        }
+        if (byCell != null) {
+            for (int i = 0; i < size; i++) {
+                if (roots[i] >= 0) {
+                    byCell.put(cellKey(cellX(xs[i]), cellY(ys[i])), hotspots[groupOf[i]]);
+                }
+            }
+        }
+        List<Hotspot> result = new ArrayList<>(Arrays.asList(hotspots));
+        result.sort((a, b) -> Integer.compare(b.getCount(), a.getCount()));
+        return result;
+    }
+
+    private Hotspot hotspot(int[] members, int from, int to) {
+        double latitude = 0;
+        double longitude = 0;
+        double x = 0;
+        double y = 0;
+        int maxPriority = 0;
+        List<String> issueIds = new ArrayList<>(to - from);
+        for (int m = from; m < to; m++) {
+            int i = members[m];
+            latitude += latitudes[i];
+            longitude += longitudes[i];
+            x += xs[i];
+            y += ys[i];
+            maxPriority = Math.max(maxPriority, priorities[i]);
+            issueIds.add(ids[i]);
+        }
+        int n = to - from;
+        x /= n;
+        y /= n;
+        double radius2 = 0;
+        for (int m = from; m < to; m++) {
+            int i = members[m];
+            double dx = xs[i] - x;
+            double dy = ys[i] - y;
+            radius2 = Math.max(radius2, dx * dx + dy * dy);
+        }
+        return new Hotspot(latitude / n, longitude / n, Math.sqrt(radius2), maxPriority, issueIds);
+    }
+
+    private int borderRoot(int point, int[] roots) {
+        if (counts[point] <= 1) {
+            return -1;
+        }
+        long cx = cellX(xs[point]);
+        long cy = cellY(ys[point]);
+        for (int[] offset : NEIGHBOUR_CELLS) {
+            Cell cell = cells.get(cellKey(cx + offset[0], cy + offset[1]));
+            if (cell == null) {
+                continue;
+            }
+            for (int k = 0; k < cell.size; k++) {
+                int other = cell.points[k];
+                if (roots[other] >= 0 && distance2(point, other) <= eps2) {
+                    return roots[other];
+                }
+            }
+        }
+        return -1;
+    }
+
+    // Full DBSCAN over the current points
+    private void cluster() {
+        long start = System.nanoTime();
+        cells = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            cellAt(i, true).add(i);
+        }
+        Cell[] all = cells.values().toArray(new Cell[0]);
+
+        // Core points: a cell holding minPoints points is all core, others count neighbours
+        IntStream.range(0, all.length).parallel().forEach(c -> {
+            Cell cell = all[c];
+            for (int k = 0; k < cell.size; k++) {
+                int point = cell.points[k];
+                counts[point] = cell.size >= minPoints ? minPoints : countNeighbours(point);
+                parent[point] = point;
+            }
+        });
+
+        // Core points of a cell are all within eps of each other: link them to the first
+        IntStream.range(0, all.length).parallel().forEach(c -> {
+            Cell cell = all[c];
+            cell.core = -1;
+            cell.nonCore = 0;
+            for (int k = 0; k < cell.size; k++) {
+                int point = cell.points[k];
+                if (counts[point] < minPoints) {
+                    cell.nonCore++;
+                } else if (cell.core < 0) {
+                    cell.core = point;
+                } else {
+                    parent[point] = cell.core;
+                }
+            }
+        });
+
+        // Link cells that have core points within eps of each other
+        List<List<int[]>> links = IntStream.range(0, all.length).parallel()
+                .mapToObj(c -> linkedCores(all[c]))
+                .collect(Collectors.toList());
+        for (List<int[]> cellLinks : links) {
+            for (int[] link : cellLinks) {
+                union(link[0], link[1]);
+            }
+        }
+        dirty = false;
+        Log.d(TAG, "Clustered " + size + " points in " + all.length + " cells in "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+
+    private List<int[]> linkedCores(Cell cell) {
+        if (cell.core < 0) {
+            return Collections.emptyList();
+        }
+        List<int[]> links = new ArrayList<>(2);
+        for (int[] offset : NEIGHBOUR_CELLS) {
+            // Each pair of cells once
+            if (offset[1] < 0 || (offset[1] == 0 && offset[0] <= 0)) {
+                continue;
+            }
+            Cell other = cells.get(cellKey(cell.x + offset[0], cell.y + offset[1]));
+            if (other != null && other.core >= 0 && coresWithinEps(cell, other)) {
+                links.add(new int[]{cell.core, other.core});
+            }
+        }
+        return links;
+    }
+
+    private boolean coresWithinEps(Cell a, Cell b) {
+        for (int i = 0; i < a.size; i++) {
+            int p = a.points[i];
+            if (counts[p] < minPoints) {
+                continue;
+            }
+            for (int j = 0; j < b.size; j++) {
+                int q = b.points[j];
+                if (counts[q] >= minPoints && distance2(p, q) <= eps2) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int countNeighbours(int point) {
+        long cx = cellX(xs[point]);
+        long cy = cellY(ys[point]);
+        int count = 0;
+        for (int[] offset : NEIGHBOUR_CELLS) {
+            Cell cell = cells.get(cellKey(cx + offset[0], cy + offset[1]));
+            if (cell == null) {
+                continue;
+            }
+            for (int k = 0; k < cell.size; k++) {
+                if (distance2(point, cell.points[k]) <= eps2 && ++count >= minPoints) {
+                    return minPoints;
+                }
+            }
+        }
+        return count;
+    }
+
+    private int append(IssueModel issue) {
+        ensureCapacity(size + 1);
+        int point = size++;
+        ids[point] = issue.getId();
+        latitudes[point] = issue.getLatitude();
+        longitudes[point] = issue.getLongitude();
+        xs[point] = issue.getLongitude() * metersPerDegreeLongitude;
+        ys[point] = issue.getLatitude() * METERS_PER_DEGREE;
+        priorities[point] = issue.getPriority();
+        counts[point] = 0;
+        parent[point] = point;
+        indexById.put(issue.getId(), point);
+        return point;
+    }
+
+    // Drop removed points; cluster() rebuilds the grid afterwards
+    private void compact() {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == null) {
+                continue;
+            }
+            ids[kept] = ids[i];
+            latitudes[kept] = latitudes[i];
+            longitudes[kept] = longitudes[i];
+            xs[kept] = xs[i];
+            ys[kept] = ys[i];
+            priorities[kept] = priorities[i];
+            indexById.put(ids[kept], kept);
+            kept++;
+        }
+        size = kept;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length * 3 / 2 + 16);
+        ids = Arrays.copyOf(ids, grown);
+        latitudes = Arrays.copyOf(latitudes, grown);
+        longitudes = Arrays.copyOf(longitudes, grown);
+        xs = Arrays.copyOf(xs, grown);
+        ys = Arrays.copyOf(ys, grown);
+        priorities = Arrays.copyOf(priorities, grown);
+        counts = Arrays.copyOf(counts, grown);
+        parent = Arrays.copyOf(parent, grown);
+    }
+
+    private int find(int point) {
+        int root = point;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        while (parent[point] != root) {
+            int next = parent[point];
+            parent[point] = root;
+            point = next;
+        }
+        return root;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA != rootB) {
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+
+    private double distance2(int a, int b) {
+        double dx = xs[a] - xs[b];
+        double dy = ys[a] - ys[b];
+        return dx * dx + dy * dy;
+    }
+
+    private Cell cellAt(int point, boolean create) {
+        long cx = cellX(xs[point]);
+        long cy = cellY(ys[point]);
+        long key = cellKey(cx, cy);
+        Cell cell = cells.get(key);
+        if (cell == null && create) {
+            cell = new Cell(cx, cy);
+            cells.put(key, cell);
+        }
+        return cell;
+    }
+
+    long cellX(double x) {
+        return (long) Math.floor(x / cellSize);
+    }
+
+    long cellY(double y) {
+        return (long) Math.floor(y / cellSize);
+    }
+
+    double projectX(double longitude) {
+        return longitude * metersPerDegreeLongitude;
+    }
+
+    double projectY(double latitude) {
+        return latitude * METERS_PER_DEGREE;
+    }
+
+    // Multiplying by an odd constant keeps keys unique but spreads neighbouring cells
+    // across hash buckets; Long.hashCode alone would collide on cx ^ cy
+    static long cellKey(long cx, long cy) {
+        return (cx << 32 ^ (cy & 0xffffffffL)) * 0x9E3779B97F4A7C15L;
+    }
+
+    static int[][] neighbourCells() {
+        return NEIGHBOUR_CELLS;
+    }
+
+    int getMinPoints() {
+        return minPoints;
+    }
+
+    private static final class Cell {
+        final long x;
+        final long y;
+        int[] points = new int[4];
+        int size;
+        // Representative core point, or -1
+        int core = -1;
+        int nonCore;
+
+        Cell(long x, long y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        void add(int point) {
+            if (size == points.length) {
+                points = Arrays.copyOf(points, size * 2);
+            }
+            points[size++] = point;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.city_i.geo;
+
+import com.city_i.ai.LocationAnalyzer;
+
+import java.util.Map;
+
+/**
+ * Hotspots found by a {@link HotspotDetector} at one point in time, looked up by
+ * location. As a {@link LocationAnalyzer.PriorityBoost} it raises the priority of
+ * reports made inside a hotspot, more so the larger the hotspot.
+ */
+public final class HotspotMap implements LocationAnalyzer.PriorityBoost {
+    private final HotspotDetector detector;
+    private final Map<Long, Hotspot> byCell;
+    private final long version;
+
+    HotspotMap(HotspotDetector detector, Map<Long, Hotspot> byCell, long version) {
+        this.detector = detector;
+        this.byCell = byCell;
+        this.version = version;
+    }
+
+    /**
+     * The largest hotspot with a core report within about eps of the location, or null.
+     */
+    public Hotspot find(double latitude, double longitude) {
+        if (byCell.isEmpty()) {
+            return null;
+        }
+        long cx = detector.cellX(detector.projectX(longitude));
+        long cy = detector.cellY(detector.projectY(latitude));
+        Hotspot largest = null;
+        for (int[] offset : HotspotDetector.neighbourCells()) {
+            Hotspot hotspot = byCell.get(HotspotDetector.cellKey(cx + offset[0], cy + offset[1]));
+            if (hotspot != null && (largest == null || hotspot.getCount() > largest.getCount())) {
+                largest = hotspot;
+            }
+        }
+        return largest;
+    }
+
+    /**
+     * +1 inside a hotspot, +2 from four times the minimum size, +3 from sixteen times.
+     */
+    @Override
+    public int boostAt(double latitude, double longitude) {
+        Hotspot hotspot = find(latitude, longitude);
+        if (hotspot == null) {
+            return 0;
+        }
+        int minPoints = detector.getMinPoints();
+        if (hotspot.getCount() >= 16 * minPoints) {
+            return 3;
+        }
+        return hotspot.getCount() >= 4 * minPoints ? 2 : 1;
+    }
+
+    /**
+     * Number of the detector snapshot this map was taken from.
+     */
+    @Override
+    public long version() {
+        return version;
+    }
+
+    public boolean isEmpty() {
+        return byCell.isEmpty();
+    }
+}
@@ -0,0 +1,94 @@
+package com.city_i.geo;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One marker on the map: a single issue or a group of nearby issues at some zoom.
+ */
+public final class IssueCluster {
+    private final double latitude;
+    private final double longitude;
+    private final int count;
+    private final int maxPriority;
+    private final String issueId;
+    private final int expansionZoom;
+    private final String[] categoryNames;
+    private final int[] categoryCounts;
+    private Map<String, Integer> categories;
+
+    IssueCluster(double latitude, double longitude, int count, int maxPriority, String issueId,
+                 int expansionZoom, String[] categoryNames, int[] categoryCounts) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.count = count;
+        this.maxPriority = maxPriority;
+        this.issueId = issueId;
+        this.expansionZoom = expansionZoom;
+        this.categoryNames = categoryNames;
+        this.categoryCounts = categoryCounts;
+    }
+
+    /**
+     * Latitude of the issue, or the mean latitude of the issues in the cluster
+     */
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Highest priority among the issues in the cluster
+     */
+    public int getMaxPriority() {
+        return maxPriority;
+    }
+
+    /**
+     * Id of the issue when this is a single issue rather than a cluster, else null
+     */
+    public String getIssueId() {
+        return issueId;
+    }
+
+    public boolean isCluster() {
+        return issueId == null;
+    }
+
+    /**
+     * Zoom at which the cluster breaks up, e.g. to zoom to when it is tapped
+     */
+    public int getExpansionZoom() {
+        return expansionZoom;
+    }
+
+    /**
+     * Number of issues per category, largest first
+     */
+    public synchronized Map<String, Integer> getCategoryCounts() {
+        if (categories == null) {
+            Integer[] order = new Integer[Math.min(categoryCounts.length, categoryNames.length)];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(categoryCounts[b], categoryCounts[a]));
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (int i : order) {
+                if (categoryCounts[i] > 0) {
+                    counts.put(categoryNames[i], categoryCounts[i]);
+                }
+            }
+            categories = Collections.unmodifiableMap(counts);
+        }
+        return categories;
+    }
+}
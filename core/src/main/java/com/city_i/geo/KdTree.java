@@ -0,0 +1,174 @@
+package com.city_i.geo;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Static 2-d tree over points in a flat plane, for bounding box and radius queries.
+ *
+ * The points are sorted in place into an implicit tree (median splits alternating
+ * on x and y, small leaves scanned linearly), so the index is three flat arrays
+ * with no per-node objects. Queries report the position each point had in the
+ * arrays given to the constructor.
+ */
+public final class KdTree {
+    private static final int LEAF_SIZE = 64;
+
+    private final int[] ids;
+    private final double[] xs;
+    private final double[] ys;
+
+    public KdTree(double[] x, double[] y) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("x and y differ in length");
+        }
+        int size = x.length;
+        ids = new int[size];
+        xs = new double[size];
+        ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = i;
+            xs[i] = x[i];
+            ys[i] = y[i];
+        }
+        sort(0, size - 1, 0);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Every point with {@code minX <= x <= maxX} and {@code minY <= y <= maxY}.
+     */
+    public void range(double minX, double minY, double maxX, double maxY, IntConsumer visitor) {
+        search(minX, minY, maxX, maxY, 0, 0, -1, visitor);
+    }
+
+    /**
+     * Every point within Euclidean distance {@code radius} of {@code (x, y)}.
+     */
+    public void within(double x, double y, double radius, IntConsumer visitor) {
+        search(x - radius, y - radius, x + radius, y + radius, x, y, radius * radius, visitor);
+    }
+
+    // Box search; with r2 >= 0 a point must also lie within the circle around (cx, cy)
+    private void search(double minX, double minY, double maxX, double maxY,
+                        double cx, double cy, double r2, IntConsumer visitor) {
+        if (ids.length == 0) {
+            return;
+        }
+        int[] stack = new int[96];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = ids.length - 1;
+        stack[top++] = 0;
+
+        while (top > 0) {
+            int axis = stack[--top];
+            int right = stack[--top];
+            int left = stack[--top];
+
+            if (right - left <= LEAF_SIZE) {
+                for (int i = left; i <= right; i++) {
+                    if (matches(i, minX, minY, maxX, maxY, cx, cy, r2)) {
+                        visitor.accept(ids[i]);
+                    }
+                }
+                continue;
+            }
+
+            int m = (left + right) >> 1;
+            if (matches(m, minX, minY, maxX, maxY, cx, cy, r2)) {
+                visitor.accept(ids[m]);
+            }
+            double split = axis == 0 ? xs[m] : ys[m];
+            if ((axis == 0 ? minX : minY) <= split) {
+                stack = push(stack, top, left, m - 1, 1 - axis);
+                top += 3;
+            }
+            if ((axis == 0 ? maxX : maxY) >= split) {
+                stack = push(stack, top, m + 1, right, 1 - axis);
+                top += 3;
+            }
+        }
+    }
+
+    private boolean matches(int i, double minX, double minY, double maxX, double maxY,
+                            double cx, double cy, double r2) {
+        double x = xs[i];
+        double y = ys[i];
+        if (x < minX || x > maxX || y < minY || y > maxY) {
+            return false;
+        }
+        if (r2 < 0) {
+            return true;
+        }
+        double dx = x - cx;
+        double dy = y - cy;
+        return dx * dx + dy * dy <= r2;
+    }
+
+    private static int[] push(int[] stack, int top, int left, int right, int axis) {
+        if (top + 3 > stack.length) {
+            int[] grown = new int[stack.length * 2];
+            System.arraycopy(stack, 0, grown, 0, top);
+            stack = grown;
+        }
+        stack[top] = left;
+        stack[top + 1] = right;
+        stack[top + 2] = axis;
+        return stack;
+    }
+
+    private void sort(int left, int right, int axis) {
+        if (right - left <= LEAF_SIZE) {
+            return;
+        }
+        int m = (left + right) >> 1;
+        select(m, left, right, axis);
+        sort(left, m - 1, 1 - axis);
+        sort(m + 1, right, 1 - axis);
+    }
+
+    // Hoare-style quickselect: afterwards position k holds the k-th smallest on the axis
+    private void select(int k, int left, int right, int axis) {
+        double[] keys = axis == 0 ? xs : ys;
+        while (right > left) {
+            double pivot = keys[(left + right) >>> 1];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    i++;
+                }
+                while (keys[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        double x = xs[i];
+        xs[i] = xs[j];
+        xs[j] = x;
+        double y = ys[i];
+        ys[i] = ys[j];
+        ys[j] = y;
+    }
+}
@@ -0,0 +1,32 @@
+package com.city_i.geo;
+
+/**
+ * Web Mercator projection with the world mapped to [0, 1] on both axes, x growing
+ * east and y growing south, as in map tile coordinates.
+ */
+public final class WebMercator {
+    private WebMercator() {
+    }
+
+    public static double x(double longitude) {
+        return longitude / 360 + 0.5;
+    }
+
+    /**
+     * Clamped to [0, 1], which cuts the poles off at about 85 degrees.
+     */
+    public static double y(double latitude) {
+        double sin = Math.sin(Math.toRadians(latitude));
+        double y = 0.5 - 0.25 * Math.log((1 + sin) / (1 - sin)) / Math.PI;
+        return y < 0 ? 0 : y > 1 ? 1 : y;
+    }
+
+    public static double longitude(double x) {
+        return (x - 0.5) * 360;
+    }
+
+    public static double latitude(double y) {
+        double y2 = (180 - y * 360) * Math.PI / 180;
+        return 360 * Math.atan(Math.exp(y2)) / Math.PI - 90;
+    }
+}
@@ -0,0 +1,50 @@
+package com.city_i.live;
+
+/**
+ * One document entering, changing in or leaving a live query's result.
+ */
+public final class Change<T> {
+    public enum Type { ADDED, MODIFIED, REMOVED }
+
+    private final Type type;
+    private final String id;
+    private final T value;
+
+    public Change(Type type, String id, T value) {
+        this.type = type;
+        this.id = id;
+        this.value = value;
+    }
+
+    public static <T> Change<T> added(String id, T value) {
+        return new Change<>(Type.ADDED, id, value);
+    }
+
+    public static <T> Change<T> modified(String id, T value) {
+        return new Change<>(Type.MODIFIED, id, value);
+    }
+
+    public static <T> Change<T> removed(String id) {
+        return new Change<>(Type.REMOVED, id, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * New value, null for {@link Type#REMOVED}.
+     */
+    public T getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + id;
+    }
+}
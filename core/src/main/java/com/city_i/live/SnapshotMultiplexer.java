@@ -0,0 +1,382 @@
+package com.city_i.live;
+
+import com.city_i.platform.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * Shares live query listeners between subscribers.
+ *
+ * Each distinct query key has at most one backend listener, however many screens
+ * subscribe to it; the listener is detached a grace period after the last
+ * subscriber leaves, or after the app has been in the background for that long.
+ * Changes arriving within a frame are merged per document and handed out once per
+ * frame, and subscribers only ever see diffs: a re-attached listener's initial
+ * snapshot is compared with what they already have.
+ *
+ * All callbacks, including the backend's, are expected on one thread (the UI
+ * thread on Android); the methods are synchronized for safety, not for speed.
+ */
+public class SnapshotMultiplexer<T> {
+    private static final String TAG = "SnapshotMultiplexer";
+
+    public static final long DEFAULT_GRACE_MS = 30 * 1000;
+
+    /**
+     * Receives merged changes for a query.
+     */
+    public interface Subscriber<T> {
+        void onChanges(List<Change<T>> changes);
+
+        /**
+         * The backend listener failed; it stays detached until the next subscribe.
+         */
+        void onError(Exception error);
+    }
+
+    /**
+     * Backend side, e.g. Firestore snapshot listeners.
+     */
+    public interface Source<T> {
+        /**
+         * Start listening. The first delivery after attaching must describe the
+         * full result, as {@link Change.Type#ADDED} changes.
+         */
+        Registration listen(String query, Sink<T> sink);
+    }
+
+    public interface Sink<T> {
+        void onChanges(List<Change<T>> changes);
+
+        void onError(Exception error);
+    }
+
+    public interface Registration {
+        void remove();
+    }
+
+    /**
+     * Runs work on the delivery thread: at the next frame, or after a delay.
+     */
+    public interface Scheduler {
+        void postFrame(Runnable task);
+
+        Registration postDelayed(Runnable task, long delayMs);
+    }
+
+    private final Source<T> source;
+    private final Scheduler scheduler;
+    private final BiPredicate<T, T> sameContent;
+    private final long graceMs;
+    private final Map<String, Channel> channels = new HashMap<>();
+    private boolean framePosted;
+    private boolean background;
+    private Registration backgroundTimer;
+    private int attaches;
+
+    /**
+     * @param sameContent whether two versions of a document look the same to subscribers,
+     *                    used to drop no-op changes when a listener is re-attached
+     */
+    public SnapshotMultiplexer(Source<T> source, Scheduler scheduler, BiPredicate<T, T> sameContent,
+                               long graceMs) {
+        this.source = source;
+        this.scheduler = scheduler;
+        this.sameContent = sameContent;
+        this.graceMs = graceMs;
+    }
+
+    /**
+     * Subscribe to a query. The subscriber first receives the current result as
+     * added documents, then only changes.
+     *
+     * @return call {@link Registration#remove()} to unsubscribe
+     */
+    public synchronized Registration subscribe(String query, Subscriber<T> subscriber) {
+        Channel channel = channels.get(query);
+        if (channel == null) {
+            channel = new Channel(query);
+            channels.put(query, channel);
+        }
+        channel.cancelDetach();
+        channel.subscribers.add(subscriber);
+        channel.joining.add(subscriber);
+        if (!background) {
+            channel.attach();
+        }
+        postFrame();
+
+        Channel subscribed = channel;
+        return () -> unsubscribe(subscribed, subscriber);
+    }
+
+    /**
+     * App went to the background: listeners are detached after the grace period.
+     */
+    public synchronized void onBackground() {
+        if (background) {
+            return;
+        }
+        background = true;
+        backgroundTimer = scheduler.postDelayed(this::detachAllForBackground, graceMs);
+    }
+
+    /**
+     * App is visible again: re-attach whatever was detached while away.
+     */
+    public synchronized void onForeground() {
+        if (!background) {
+            return;
+        }
+        background = false;
+        if (backgroundTimer != null) {
+            backgroundTimer.remove();
+            backgroundTimer = null;
+        }
+        for (Channel channel : channels.values()) {
+            if (!channel.subscribers.isEmpty()) {
+                channel.attach();
+            }
+        }
+    }
+
+    /**
+     * Backend listeners currently attached.
+     */
+    public synchronized int getAttachedCount() {
+        int attached = 0;
+        for (Channel channel : channels.values()) {
+            if (channel.attached) {
+                attached++;
+            }
+        }
+        return attached;
+    }
+
+    /**
+     * Backend listeners attached so far, for checking how well sharing works.
+     */
+    public synchronized int getAttachCount() {
+        return attaches;
+    }
+
+    private synchronized void unsubscribe(Channel channel, Subscriber<T> subscriber) {
+        channel.subscribers.remove(subscriber);
+        channel.joining.remove(subscriber);
+        if (channel.subscribers.isEmpty()) {
+            channel.scheduleDetach();
+        }
+    }
+
+    private synchronized void detachAllForBackground() {
+        backgroundTimer = null;
+        if (!background) {
+            return;
+        }
+        for (Channel channel : channels.values()) {
+            channel.detach();
+        }
+        Log.d(TAG, "Detached listeners while in background");
+    }
+
+    private void postFrame() {
+        if (!framePosted) {
+            framePosted = true;
+            scheduler.postFrame(this::deliverFrame);
+        }
+    }
+
+    private void deliverFrame() {
+        List<Runnable> deliveries = new ArrayList<>();
+        synchronized (this) {
+            framePosted = false;
+            for (Channel channel : channels.values()) {
+                channel.collect(deliveries);
+            }
+        }
+        // Outside the lock so subscribers may subscribe or unsubscribe in callbacks
+        for (Runnable delivery : deliveries) {
+            delivery.run();
+        }
+    }
+
+    private final class Channel implements Sink<T> {
+        final String query;
+        final List<Subscriber<T>> subscribers = new ArrayList<>();
+        // Subscribers that have not been sent the current result yet
+        final List<Subscriber<T>> joining = new ArrayList<>();
+        // Last known result, as seen by subscribers after the next frame
+        final Map<String, T> documents = new LinkedHashMap<>();
+        final Map<String, Change<T>> pending = new LinkedHashMap<>();
+        Registration registration;
+        boolean attached;
+        Registration detachTimer;
+        boolean awaitingInitial;
+        boolean loaded;
+        Exception error;
+
+        Channel(String query) {
+            this.query = query;
+        }
+
+        void attach() {
+            if (attached) {
+                return;
+            }
+            // Set before listening: a source may deliver the first snapshot synchronously
+            attached = true;
+            awaitingInitial = true;
+            error = null;
+            attaches++;
+            registration = source.listen(query, this);
+        }
+
+        void detach() {
+            attached = false;
+            if (registration != null) {
+                registration.remove();
+                registration = null;
+            }
+        }
+
+        void scheduleDetach() {
+            cancelDetach();
+            detachTimer = scheduler.postDelayed(() -> {
+                synchronized (SnapshotMultiplexer.this) {
+                    detachTimer = null;
+                    if (subscribers.isEmpty()) {
+                        detach();
+                        channels.remove(query, this);
+                    }
+                }
+            }, graceMs);
+        }
+
+        void cancelDetach() {
+            if (detachTimer != null) {
+                detachTimer.remove();
+                detachTimer = null;
+            }
+        }
+
+        @Override
+        public void onChanges(List<Change<T>> changes) {
+            synchronized (SnapshotMultiplexer.this) {
+                if (!attached) {
+                    return;
+                }
+                if (awaitingInitial) {
+                    reconcile(changes);
+                    awaitingInitial = false;
+                    loaded = true;
+                } else {
+                    for (Change<T> change : changes) {
+                        merge(change);
+                    }
+                }
+                postFrame();
+            }
+        }
+
+        @Override
+        public void onError(Exception e) {
+            synchronized (SnapshotMultiplexer.this) {
+                Log.w(TAG, "Listener for " + query + " failed: " + e.getMessage());
+                detach();
+                error = e;
+                postFrame();
+            }
+        }
+
+        // Initial snapshot after (re)attaching: only real differences become changes
+        private void reconcile(List<Change<T>> snapshot) {
+            Map<String, T> fresh = new LinkedHashMap<>();
+            for (Change<T> change : snapshot) {
+                if (change.getType() != Change.Type.REMOVED) {
+                    fresh.put(change.getId(), change.getValue());
+                }
+            }
+            for (String id : new ArrayList<>(documents.keySet())) {
+                if (!fresh.containsKey(id)) {
+                    merge(Change.removed(id));
+                }
+            }
+            for (Map.Entry<String, T> entry : fresh.entrySet()) {
+                T known = documents.get(entry.getKey());
+                if (known == null) {
+                    merge(Change.added(entry.getKey(), entry.getValue()));
+                } else if (!sameContent.test(known, entry.getValue())) {
+                    merge(Change.modified(entry.getKey(), entry.getValue()));
+                }
+            }
+        }
+
+        // Fold a change into the pending batch and the known result
+        private void merge(Change<T> change) {
+            String id = change.getId();
+            boolean known = documents.containsKey(id);
+            Change<T> previous = pending.remove(id);
+            boolean wasKnownBefore = previous != null ? previous.getType() != Change.Type.ADDED : known;
+
+            if (change.getType() == Change.Type.REMOVED) {
+                documents.remove(id);
+                if (wasKnownBefore) {
+                    pending.put(id, change);
+                }
+            } else {
+                documents.put(id, change.getValue());
+                pending.put(id, wasKnownBefore
+                        ? Change.modified(id, change.getValue())
+                        : Change.added(id, change.getValue()));
+            }
+        }
+
+        void collect(List<Runnable> deliveries) {
+            if (error != null) {
+                Exception failure = error;
+                List<Subscriber<T>> failed = new ArrayList<>(subscribers);
+                error = null;
+                joining.clear();
+                deliveries.add(() -> {
+                    for (Subscriber<T> subscriber : failed) {
+                        subscriber.onError(failure);
+                    }
+                });
+                return;
+            }
+
+            if (!pending.isEmpty()) {
+                List<Change<T>> batch = new ArrayList<>(pending.values());
+                pending.clear();
+                List<Subscriber<T>> existing = new ArrayList<>(subscribers);
+                existing.removeAll(joining);
+                if (!existing.isEmpty()) {
+                    deliveries.add(() -> {
+                        for (Subscriber<T> subscriber : existing) {
+                            subscriber.onChanges(batch);
+                        }
+                    });
+                }
+            }
+
+            if (!joining.isEmpty() && loaded) {
+                List<Change<T>> initial = new ArrayList<>(documents.size());
+                for (Map.Entry<String, T> entry : documents.entrySet()) {
+                    initial.add(Change.added(entry.getKey(), entry.getValue()));
+                }
+                List<Subscriber<T>> joined = new ArrayList<>(joining);
+                joining.clear();
+                deliveries.add(() -> {
+                    for (Subscriber<T> subscriber : joined) {
+                        subscriber.onChanges(initial);
+                    }
+                });
+            }
+        }
+    }
+}
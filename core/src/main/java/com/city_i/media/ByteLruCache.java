@@ -0,0 +1,111 @@
+package com.city_i.media;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache bounded by the total size of its values rather than
+ * their number, so a few large entries cannot push memory past the budget.
+ */
+public class ByteLruCache<K, V> {
+    /**
+     * Size of a value in bytes.
+     */
+    public interface Sizer<V> {
+        int sizeOf(V value);
+    }
+
+    /**
+     * Told about values that left the cache because of the budget or a replacement.
+     */
+    public interface EvictionListener<K, V> {
+        void onEvicted(K key, V value);
+    }
+
+    private final long maxBytes;
+    private final Sizer<V> sizer;
+    private final Map<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private EvictionListener<K, V> evictionListener;
+    private long bytes;
+
+    public ByteLruCache(long maxBytes, Sizer<V> sizer) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        this.maxBytes = maxBytes;
+        this.sizer = sizer;
+    }
+
+    public synchronized void setEvictionListener(EvictionListener<K, V> evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Values larger than the whole budget are not kept and are reported as evicted.
+     */
+    public synchronized void put(K key, V value) {
+        int size = sizer.sizeOf(value);
+        V previous = entries.remove(key);
+        if (previous != null) {
+            bytes -= sizer.sizeOf(previous);
+            if (previous != value) {
+                notifyEvicted(key, previous);
+            }
+        }
+        if (size > maxBytes) {
+            notifyEvicted(key, value);
+            return;
+        }
+        entries.put(key, value);
+        bytes += size;
+        trimTo(maxBytes);
+    }
+
+    public synchronized V remove(K key) {
+        V value = entries.remove(key);
+        if (value != null) {
+            bytes -= sizer.sizeOf(value);
+        }
+        return value;
+    }
+
+    /**
+     * Drop everything, e.g. when the system is low on memory.
+     */
+    public synchronized void evictAll() {
+        trimTo(0);
+    }
+
+    public synchronized void trimTo(long targetBytes) {
+        Iterator<Map.Entry<K, V>> eldest = entries.entrySet().iterator();
+        while (bytes > targetBytes && eldest.hasNext()) {
+            Map.Entry<K, V> entry = eldest.next();
+            eldest.remove();
+            bytes -= sizer.sizeOf(entry.getValue());
+            notifyEvicted(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void notifyEvicted(K key, V value) {
+        if (evictionListener != null) {
+            evictionListener.onEvicted(key, value);
+        }
+    }
+}
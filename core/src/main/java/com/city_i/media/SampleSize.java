@@ -0,0 +1,25 @@
+package com.city_i.media;
+
+/**
+ * Decoder sample sizes for scaling images down on decode.
+ */
+public final class SampleSize {
+    private SampleSize() {
+    }
+
+    /**
+     * Largest power of two that still leaves the decoded image at least
+     * {@code targetWidth} by {@code targetHeight}, so the decoder never allocates
+     * the full-size pixels but there is enough left to crop and scale from.
+     */
+    public static int calculate(int sourceWidth, int sourceHeight, int targetWidth, int targetHeight) {
+        if (sourceWidth <= 0 || sourceHeight <= 0 || targetWidth <= 0 || targetHeight <= 0) {
+            return 1;
+        }
+        int sample = 1;
+        while (sourceWidth / (sample * 2) >= targetWidth && sourceHeight / (sample * 2) >= targetHeight) {
+            sample *= 2;
+        }
+        return sample;
+    }
+}
@@ -0,0 +1,135 @@
+package com.city_i.media;
+
+import com.city_i.platform.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Encoded thumbnails on disk, one file per source image, bounded in bytes.
+ *
+ * Reads touch the file's modification time, so trimming removes the thumbnails
+ * that were least recently shown. Files are written to a temporary name and
+ * renamed, so a reader never sees half a thumbnail.
+ */
+public class ThumbnailDiskCache {
+    private static final String TAG = "ThumbnailDiskCache";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File directory;
+    private final String extension;
+    private final long maxBytes;
+    private long bytes = -1;
+
+    public ThumbnailDiskCache(File directory, String extension, long maxBytes) {
+        this.directory = directory;
+        this.extension = extension;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * The cached thumbnail for {@code key}, or null if there is none.
+     */
+    public File get(String key) {
+        File file = fileFor(key);
+        if (!file.isFile()) {
+            return null;
+        }
+        file.setLastModified(System.currentTimeMillis());
+        return file;
+    }
+
+    public boolean contains(String key) {
+        return fileFor(key).isFile();
+    }
+
+    public File put(String key, byte[] encoded) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File file = fileFor(key);
+        File temp = new File(directory, file.getName() + TEMP_SUFFIX);
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(encoded);
+        }
+        synchronized (this) {
+            long replaced = file.length();
+            if (!temp.renameTo(file)) {
+                temp.delete();
+                throw new IOException("Could not replace " + file);
+            }
+            if (bytes >= 0) {
+                bytes += encoded.length - replaced;
+            }
+            trim();
+        }
+        return file;
+    }
+
+    public synchronized void remove(String key) {
+        File file = fileFor(key);
+        long length = file.length();
+        if (file.delete() && bytes >= 0) {
+            bytes -= length;
+        }
+    }
+
+    public synchronized long getBytes() {
+        if (bytes < 0) {
+            bytes = 0;
+            for (File file : listThumbnails()) {
+                bytes += file.length();
+            }
+        }
+        return bytes;
+    }
+
+    // Caller holds the monitor
+    private void trim() {
+        if (getBytes() <= maxBytes) {
+            return;
+        }
+        File[] files = listThumbnails();
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        int removed = 0;
+        for (File file : files) {
+            if (bytes <= maxBytes) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                bytes -= length;
+                removed++;
+            }
+        }
+        Log.d(TAG, "Trimmed " + removed + " thumbnails, " + bytes + " bytes left");
+    }
+
+    private File[] listThumbnails() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(extension));
+        return files != null ? files : new File[0];
+    }
+
+    private File fileFor(String key) {
+        return new File(directory, sha1(key) + extension);
+    }
+
+    private static String sha1(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
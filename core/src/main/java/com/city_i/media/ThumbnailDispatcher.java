@@ -0,0 +1,318 @@
+package com.city_i.media;
+
+import com.city_i.platform.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Binds thumbnails to on-screen targets such as list rows.
+ *
+ * Memory hits are shown synchronously. Misses are loaded on the worker executor,
+ * with one load per key however many targets ask for it, and delivered on the
+ * delivery executor. Rebinding or clearing a target cancels what it was waiting
+ * for, and a load nobody waits for any more is cancelled before it starts, so
+ * rows that scrolled off-screen cost nothing.
+ *
+ * A key whose load failed is not tried again for a while: its targets are just
+ * cleared, so rebinding a row with a broken photo does not queue another load.
+ *
+ * Values are handed to the {@link Recycler} once they are neither cached nor
+ * shown by any target, which makes it safe to reuse their memory for the next
+ * decode. All methods except the loader are meant to be called on the delivery
+ * thread.
+ */
+public class ThumbnailDispatcher<V> {
+    private static final String TAG = "ThumbnailDispatcher";
+    public static final long FAILURE_RETRY_MS = 5 * 60 * 1000;
+    private static final int MAX_FAILURES = 256;
+
+    /**
+     * Produces the thumbnail for a key from its source, e.g. a file path or URL.
+     * Runs on the worker executor.
+     */
+    public interface Loader<V> {
+        V load(String key, String source) throws Exception;
+    }
+
+    /**
+     * Something that shows one thumbnail at a time. Targets are compared by identity.
+     */
+    public interface Target<V> {
+        void show(V value);
+
+        void clear();
+    }
+
+    /**
+     * Takes values that are no longer cached or shown anywhere.
+     */
+    public interface Recycler<V> {
+        void recycle(V value);
+    }
+
+    private final ByteLruCache<String, V> memory;
+    private final Loader<V> loader;
+    private final ExecutorService worker;
+    private final Executor delivery;
+    private final Recycler<V> recycler;
+    private final long failureRetryMs;
+
+    private final Map<String, Job> jobs = new HashMap<>();
+    private final Map<Target<V>, String> waiting = new IdentityHashMap<>();
+    private final Map<Target<V>, V> shown = new IdentityHashMap<>();
+    private final Map<V, Integer> shownCounts = new IdentityHashMap<>();
+    private final Set<V> evictedWhileShown = Collections.newSetFromMap(new IdentityHashMap<>());
+    // Key to when its load failed, oldest first
+    private final Map<String, Long> failures = new LinkedHashMap<String, Long>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_FAILURES;
+        }
+    };
+    private int loads;
+    private int cancelled;
+
+    public ThumbnailDispatcher(long memoryBytes, ByteLruCache.Sizer<V> sizer, Loader<V> loader,
+                               ExecutorService worker, Executor delivery, Recycler<V> recycler) {
+        this(memoryBytes, sizer, loader, worker, delivery, recycler, FAILURE_RETRY_MS);
+    }
+
+    /**
+     * @param failureRetryMs how long a key whose load failed is left alone
+     */
+    public ThumbnailDispatcher(long memoryBytes, ByteLruCache.Sizer<V> sizer, Loader<V> loader,
+                               ExecutorService worker, Executor delivery, Recycler<V> recycler,
+                               long failureRetryMs) {
+        this.failureRetryMs = failureRetryMs;
+        this.memory = new ByteLruCache<>(memoryBytes, sizer);
+        this.loader = loader;
+        this.worker = worker;
+        this.delivery = delivery;
+        this.recycler = recycler;
+        memory.setEvictionListener((key, value) -> onEvicted(value));
+    }
+
+    /**
+     * {@link #load(String, String, Target)} for a key that is its own source.
+     */
+    public synchronized void load(String key, Target<V> target) {
+        load(key, key, target);
+    }
+
+    /**
+     * Show the thumbnail for {@code key} in {@code target}, replacing whatever it
+     * showed or waited for before. On a miss it is made from {@code source}. A null
+     * key or source, or a key that recently failed to load, just clears the target.
+     */
+    public synchronized void load(String key, String source, Target<V> target) {
+        if (key == null || source == null) {
+            clear(target);
+            return;
+        }
+        if (key.equals(waiting.get(target))) {
+            return;
+        }
+        cancel(target);
+
+        V cached = memory.get(key);
+        if (cached != null) {
+            display(target, cached);
+            return;
+        }
+
+        V previous = shown.remove(target);
+        target.clear();
+        if (previous != null) {
+            unref(previous);
+        }
+        if (failedRecently(key)) {
+            return;
+        }
+
+        waiting.put(target, key);
+        Job job = jobs.get(key);
+        if (job != null) {
+            job.targets.add(target);
+            return;
+        }
+        Job started = new Job(key, source);
+        started.targets.add(target);
+        jobs.put(key, started);
+        loads++;
+        started.future = worker.submit(() -> run(started));
+    }
+
+    /**
+     * Stop waiting for a thumbnail, e.g. when a row scrolls off-screen. Whatever the
+     * target already shows stays.
+     */
+    public synchronized void cancel(Target<V> target) {
+        String key = waiting.remove(target);
+        if (key == null) {
+            return;
+        }
+        Job job = jobs.get(key);
+        if (job == null) {
+            return;
+        }
+        job.targets.remove(target);
+        if (job.targets.isEmpty()) {
+            jobs.remove(key);
+            job.future.cancel(false);
+            cancelled++;
+        }
+    }
+
+    /**
+     * Cancel and clear the target, releasing the thumbnail it showed.
+     */
+    public synchronized void clear(Target<V> target) {
+        cancel(target);
+        V previous = shown.remove(target);
+        target.clear();
+        if (previous != null) {
+            unref(previous);
+        }
+    }
+
+    /**
+     * Drop cached thumbnails that are not on screen, e.g. when the system is low on memory.
+     */
+    public synchronized void trimMemory() {
+        memory.evictAll();
+    }
+
+    public synchronized long getMemoryBytes() {
+        return memory.getBytes();
+    }
+
+    /**
+     * Loads started, for diagnostics.
+     */
+    public synchronized int getLoadCount() {
+        return loads;
+    }
+
+    /**
+     * Keys whose last load failed and that are not being retried yet, for diagnostics.
+     */
+    public synchronized int getFailedCount() {
+        return failures.size();
+    }
+
+    /**
+     * Loads cancelled because nobody waited for them any more, for diagnostics.
+     */
+    public synchronized int getCancelledCount() {
+        return cancelled;
+    }
+
+    private void run(Job job) {
+        V value = null;
+        Exception error = null;
+        try {
+            value = loader.load(job.key, job.source);
+        } catch (Exception e) {
+            error = e;
+        }
+        V result = value;
+        Exception failure = error;
+        delivery.execute(() -> complete(job, result, failure));
+    }
+
+    private synchronized void complete(Job job, V value, Exception error) {
+        if (jobs.get(job.key) == job) {
+            jobs.remove(job.key);
+        }
+        if (error != null || value == null) {
+            failures.put(job.key, System.currentTimeMillis());
+            Log.w(TAG, "No thumbnail for " + job.key
+                    + (error != null ? ": " + error.getMessage() : ""));
+        }
+
+        List<Target<V>> targets = new ArrayList<>(job.targets);
+        job.targets.clear();
+        for (Target<V> target : targets) {
+            if (job.key.equals(waiting.get(target))) {
+                waiting.remove(target);
+                if (value != null) {
+                    display(target, value);
+                }
+            }
+        }
+        // Cached after display, so a value too large for the cache is not recycled while shown
+        if (value != null) {
+            failures.remove(job.key);
+            memory.put(job.key, value);
+        }
+    }
+
+    private boolean failedRecently(String key) {
+        Long failedAt = failures.get(key);
+        if (failedAt == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - failedAt < failureRetryMs) {
+            return true;
+        }
+        failures.remove(key);
+        return false;
+    }
+
+    private void display(Target<V> target, V value) {
+        V previous = shown.put(target, value);
+        if (previous == value) {
+            return;
+        }
+        shownCounts.merge(value, 1, Integer::sum);
+        target.show(value);
+        if (previous != null) {
+            unref(previous);
+        }
+    }
+
+    private void unref(V value) {
+        Integer count = shownCounts.get(value);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            shownCounts.put(value, count - 1);
+            return;
+        }
+        shownCounts.remove(value);
+        if (evictedWhileShown.remove(value)) {
+            recycler.recycle(value);
+        }
+    }
+
+    private synchronized void onEvicted(V value) {
+        if (shownCounts.containsKey(value)) {
+            evictedWhileShown.add(value);
+        } else {
+            recycler.recycle(value);
+        }
+    }
+
+    private final class Job {
+        final String key;
+        final String source;
+        final List<Target<V>> targets = new ArrayList<>(2);
+        Future<?> future;
+
+        Job(String key, String source) {
+            this.key = key;
+            this.source = source;
+        }
+    }
+}
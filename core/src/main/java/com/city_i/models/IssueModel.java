@@ -17,6 +17,7 @@ public class IssueModel {
     private String reportedByUserId;
     private double latitude;
     private double longitude;
+    private String geohash;
     private int priority;
     private Date createdAt;
     private Date updatedAt;
@@ -55,6 +56,17 @@ public class IssueModel {
         this.updatedAt = updatedAt;
     }
 
+    /**
+     * Copy, for handing an issue to code that may change it while the original is
+     * still in use elsewhere.
+     */
+    public IssueModel(IssueModel other) {
+        this(other.id, other.title, other.description, other.category, other.status, other.imagePath,
+                other.departmentId, other.reportedByUserId, other.latitude, other.longitude,
+                other.priority, copy(other.createdAt), copy(other.updatedAt));
+        this.geohash = other.geohash;
+    }
+
     public String getId() {
         return id;
     }
@@ -135,6 +147,17 @@ public class IssueModel {
         this.longitude = longitude;
     }
 
+    /**
+     * Geohash of the location, set when the issue is written so it can be range-queried
+     */
+    public String getGeohash() {
+        return geohash;
+    }
+
+    public void setGeohash(String geohash) {
+        this.geohash = geohash;
+    }
+
     public int getPriority() {
         return priority;
     }
@@ -158,5 +181,8 @@ public class IssueModel {
     public void setUpdatedAt(Date updatedAt) {
         this.updatedAt = updatedAt;
     }
-}
 
+    private static Date copy(Date date) {
+        return date != null ? new Date(date.getTime()) : null;
+    }
+}
@@ -0,0 +1,134 @@
+package com.city_i.paging;
+
+import com.city_i.models.IssueModel;
+import com.city_i.platform.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Loads a long, stably ordered issue list a page at a time.
+ *
+ * The next page is requested once the user scrolls within {@code prefetchDistance}
+ * items of the end, so it is usually ready before it is needed. After the data
+ * changes, {@link #invalidate()} reloads everything loaded so far in one go; the
+ * caller is expected to diff the new list against the old one rather than
+ * redraw it.
+ */
+public class IssuePager {
+    private static final String TAG = "IssuePager";
+
+    /**
+     * Reads a slice of the list. Must return the same order for unchanged data.
+     */
+    public interface PageSource {
+        List<IssueModel> load(int offset, int limit) throws Exception;
+    }
+
+    /**
+     * Called on the loading thread with the full list loaded so far.
+     */
+    public interface Listener {
+        void onLoaded(List<IssueModel> items);
+
+        void onError(Exception error);
+    }
+
+    private final PageSource source;
+    private final int pageSize;
+    private final int prefetchDistance;
+    private final Executor executor;
+    private final Listener listener;
+
+    private List<IssueModel> items = Collections.emptyList();
+    private boolean loading;
+    private boolean endReached;
+    private int generation;
+
+    public IssuePager(PageSource source, int pageSize, int prefetchDistance, Executor executor,
+                      Listener listener) {
+        if (pageSize <= 0 || prefetchDistance < 0) {
+            throw new IllegalArgumentException("pageSize must be positive and prefetchDistance non-negative");
+        }
+        this.source = source;
+        this.pageSize = pageSize;
+        this.prefetchDistance = prefetchDistance;
+        this.executor = executor;
+        this.listener = listener;
+    }
+
+    /**
+     * Load the first page.
+     */
+    public synchronized void start() {
+        if (items.isEmpty() && !loading) {
+            load(0, pageSize, false);
+        }
+    }
+
+    /**
+     * Tell the pager a position was shown, e.g. from {@code onBindViewHolder}.
+     */
+    public synchronized void onItemVisible(int position) {
+        if (!loading && !endReached && position >= items.size() - prefetchDistance) {
+            load(items.size(), pageSize, false);
+        }
+    }
+
+    /**
+     * Reload every loaded position because the underlying data changed. A page
+     * load still in flight is dropped.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        load(0, Math.max(items.size(), pageSize), true);
+    }
+
+    public synchronized List<IssueModel> getItems() {
+        return items;
+    }
+
+    public synchronized boolean isEndReached() {
+        return endReached;
+    }
+
+    // Caller holds the monitor
+    private void load(int offset, int limit, boolean replace) {
+        loading = true;
+        int expected = generation;
+        executor.execute(() -> {
+            List<IssueModel> page;
+            try {
+                page = source.load(offset, limit);
+            } catch (Exception e) {
+                Log.w(TAG, "Loading " + offset + "+" + limit + " failed: " + e.getMessage());
+                synchronized (this) {
+                    if (expected == generation) {
+                        loading = false;
+                    }
+                }
+                listener.onError(e);
+                return;
+            }
+
+            List<IssueModel> loaded;
+            synchronized (this) {
+                if (expected != generation) {
+                    return;
+                }
+                List<IssueModel> next = new ArrayList<>(replace ? page.size() : items.size() + page.size());
+                if (!replace) {
+                    next.addAll(items);
+                }
+                next.addAll(page);
+                items = Collections.unmodifiableList(next);
+                endReached = page.size() < limit;
+                loading = false;
+                loaded = items;
+            }
+            listener.onLoaded(loaded);
+        });
+    }
+}
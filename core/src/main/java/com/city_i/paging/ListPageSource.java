@@ -0,0 +1,51 @@
+package com.city_i.paging;
+
+import com.city_i.models.IssueModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * {@link IssuePager.PageSource} over an in-memory collection such as the sync
+ * mirror, newest first with the id as tie-break so the order is stable.
+ */
+public class ListPageSource implements IssuePager.PageSource {
+    public static final Comparator<IssueModel> NEWEST_FIRST = Comparator
+            .comparing((IssueModel issue) -> issue.getUpdatedAt() != null
+                    ? issue.getUpdatedAt().getTime()
+                    : issue.getCreatedAt() != null ? issue.getCreatedAt().getTime() : Long.MIN_VALUE)
+            .reversed()
+            .thenComparing(issue -> issue.getId() != null ? issue.getId() : "");
+
+    private final Supplier<List<IssueModel>> issues;
+    private final Predicate<IssueModel> filter;
+    private List<IssueModel> sorted;
+
+    public ListPageSource(Supplier<List<IssueModel>> issues, Predicate<IssueModel> filter) {
+        this.issues = issues;
+        this.filter = filter;
+    }
+
+    @Override
+    public synchronized List<IssueModel> load(int offset, int limit) {
+        // Sort when paging starts over from the top; later pages reuse it
+        if (offset == 0 || sorted == null) {
+            List<IssueModel> matching = new ArrayList<>();
+            for (IssueModel issue : issues.get()) {
+                if (filter.test(issue)) {
+                    matching.add(issue);
+                }
+            }
+            Collections.sort(matching, NEWEST_FIRST);
+            sorted = matching;
+        }
+        if (offset >= sorted.size()) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(sorted.subList(offset, Math.min(sorted.size(), offset + limit)));
+    }
+}
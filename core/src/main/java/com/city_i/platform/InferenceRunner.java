@@ -0,0 +1,10 @@
+package com.city_i.platform;
+
+/**
+ * Runs one model invocation, filling the output tensor from the input tensor.
+ * Backed by a TensorFlow Lite interpreter in the app.
+ */
+public interface InferenceRunner {
+
+    void run(Object input, Object output);
+}
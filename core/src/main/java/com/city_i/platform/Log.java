@@ -0,0 +1,27 @@
+package com.city_i.platform;
+
+/**
+ * Static logging facade with the same shape as android.util.Log, so core
+ * classes log the same way on device and on a plain JVM.
+ */
+public final class Log {
+    private static volatile Logger logger = Logger.NONE;
+
+    private Log() {}
+
+    public static void setLogger(Logger newLogger) {
+        logger = newLogger != null ? newLogger : Logger.NONE;
+    }
+
+    public static void d(String tag, String message) {
+        logger.d(tag, message);
+    }
+
+    public static void w(String tag, String message) {
+        logger.w(tag, message);
+    }
+
+    public static void e(String tag, String message) {
+        logger.e(tag, message);
+    }
+}
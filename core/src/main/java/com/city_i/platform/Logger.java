@@ -0,0 +1,28 @@
+package com.city_i.platform;
+
+/**
+ * Logging backend behind {@link Log}. The app plugs in android.util.Log;
+ * on a plain JVM the default discards everything.
+ */
+public interface Logger {
+
+    Logger NONE = new Logger() {
+        @Override
+        public void d(String tag, String message) {
+        }
+
+        @Override
+        public void w(String tag, String message) {
+        }
+
+        @Override
+        public void e(String tag, String message) {
+        }
+    };
+
+    void d(String tag, String message);
+
+    void w(String tag, String message);
+
+    void e(String tag, String message);
+}
@@ -0,0 +1,14 @@
+package com.city_i.platform;
+
+/**
+ * Read-only access to an image's pixels, as packed ARGB ints.
+ * Backed by android.graphics.Bitmap in the app.
+ */
+public interface PixelSource {
+
+    int getWidth();
+
+    int getHeight();
+
+    int getPixel(int x, int y);
+}
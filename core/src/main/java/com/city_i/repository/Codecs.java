@@ -0,0 +1,89 @@
+package com.city_i.repository;
+
+import com.city_i.models.IssueModel;
+import com.city_i.models.UserModel;
+import com.city_i.store.IssueCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * {@link FileDisk.Codec}s for the models kept in repositories.
+ */
+public final class Codecs {
+    public static final FileDisk.Codec<IssueModel> ISSUE = new FileDisk.Codec<IssueModel>() {
+        @Override
+        public byte[] encode(IssueModel value) {
+            return IssueCodec.toBytes(value);
+        }
+
+        @Override
+        public IssueModel decode(byte[] bytes) {
+            return IssueCodec.fromBytes(bytes, 0, bytes.length);
+        }
+    };
+
+    public static final FileDisk.Codec<UserModel> USER = new FileDisk.Codec<UserModel>() {
+        private static final int VERSION = 1;
+
+        @Override
+        public byte[] encode(UserModel value) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeByte(VERSION);
+                writeString(out, value.getId());
+                writeString(out, value.getName());
+                writeString(out, value.getEmail());
+                writeString(out, value.getPhone());
+                writeString(out, value.getRole());
+                writeString(out, value.getDepartmentId());
+                out.writeBoolean(value.isActive());
+                out.writeLong(value.getCreatedAt() != null ? value.getCreatedAt().getTime() : Long.MIN_VALUE);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            return bytes.toByteArray();
+        }
+
+        @Override
+        public UserModel decode(byte[] bytes) {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+                int version = in.readByte();
+                if (version != VERSION) {
+                    throw new IllegalArgumentException("Unknown user record version " + version);
+                }
+                UserModel user = new UserModel();
+                user.setId(readString(in));
+                user.setName(readString(in));
+                user.setEmail(readString(in));
+                user.setPhone(readString(in));
+                user.setRole(readString(in));
+                user.setDepartmentId(readString(in));
+                user.setActive(in.readBoolean());
+                long createdAt = in.readLong();
+                user.setCreatedAt(createdAt != Long.MIN_VALUE ? new Date(createdAt) : null);
+                return user;
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Truncated user record", e);
+            }
+        }
+    };
+
+    private Codecs() {
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
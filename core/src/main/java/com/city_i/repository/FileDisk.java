@@ -0,0 +1,89 @@
+package com.city_i.repository;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+
+/**
+ * {@link Repository.Disk} that keeps one file per key in a directory. Files are
+ * written to a temporary name and renamed, so a crash never leaves half a value.
+ */
+public class FileDisk<V> implements Repository.Disk<V> {
+    /**
+     * Converts values to and from file contents.
+     */
+    public interface Codec<V> {
+        byte[] encode(V value);
+
+        /**
+         * @throws IllegalArgumentException if the bytes are malformed
+         */
+        V decode(byte[] bytes);
+    }
+
+    private final File directory;
+    private final Codec<V> codec;
+
+    public FileDisk(File directory, Codec<V> codec) {
+        this.directory = directory;
+        this.codec = codec;
+    }
+
+    @Override
+    public V read(String key) throws IOException {
+        File file = fileFor(key);
+        if (!file.exists()) {
+            return null;
+        }
+        byte[] bytes = new byte[(int) file.length()];
+        try (InputStream in = new FileInputStream(file)) {
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) {
+                    throw new IOException("Short read from " + file);
+                }
+                read += n;
+            }
+        }
+        return codec.decode(bytes);
+    }
+
+    @Override
+    public long writtenAt(String key) {
+        return fileFor(key).lastModified();
+    }
+
+    @Override
+    public void write(String key, V value) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File file = fileFor(key);
+        File temp = new File(directory, file.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(codec.encode(value));
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Could not replace " + file);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        fileFor(key).delete();
+    }
+
+    private File fileFor(String key) {
+        try {
+            return new File(directory, URLEncoder.encode(key, "UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
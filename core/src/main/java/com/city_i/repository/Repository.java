@@ -0,0 +1,286 @@
+package com.city_i.repository;
+
+import com.city_i.platform.Log;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through cache over three tiers: an in-memory LRU, an optional disk tier and
+ * the remote backend.
+ *
+ * Concurrent requests for the same key share one load (single flight). Memory
+ * entries are served without a round trip while younger than {@code freshMs}; up
+ * to {@code maxStaleMs} they are still returned immediately but refreshed in the
+ * background (stale-while-revalidate). Disk hits are aged by when they were written
+ * and treated the same way, so a screen can show the last known value at once and
+ * update when the refresh lands. A document the remote no longer has is dropped
+ * from both tiers.
+ */
+public class Repository<V> {
+    private static final String TAG = "Repository";
+
+    /**
+     * Backend fetch; may block, it runs on the repository's executor.
+     * Returns null if the document does not exist.
+     */
+    public interface Remote<V> {
+        V fetch(String key) throws Exception;
+    }
+
+    /**
+     * Persistent tier that survives restarts.
+     */
+    public interface Disk<V> {
+        V read(String key) throws IOException;
+
+        /**
+         * When the key's value was written, in epoch milliseconds; 0 if unknown.
+         */
+        long writtenAt(String key) throws IOException;
+
+        void write(String key, V value) throws IOException;
+
+        void delete(String key) throws IOException;
+    }
+
+    private final String name;
+    private final Remote<V> remote;
+    private final Disk<V> disk;
+    private final Executor executor;
+    private final long freshMs;
+    private final long maxStaleMs;
+    private final Map<String, CacheEntry<V>> memory;
+    private final ConcurrentHashMap<String, CompletableFuture<V>> loads = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<V>> refreshes = new ConcurrentHashMap<>();
+    private final AtomicLong remoteFetches = new AtomicLong();
+
+    public Repository(String name, Remote<V> remote, Disk<V> disk, Executor executor,
+                      final int maxEntries, long freshMs, long maxStaleMs) {
+        this.name = name;
+        this.remote = remote;
+        this.disk = disk;
+        this.executor = executor;
+        this.freshMs = freshMs;
+        this.maxStaleMs = maxStaleMs;
+        this.memory = new LinkedHashMap<String, CacheEntry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Value for the key, completing immediately when memory has a usable copy.
+     * Completes with null if the document does not exist.
+     */
+    public CompletableFuture<V> get(String key) {
+        CacheEntry<V> entry = memoryEntry(key);
+        if (entry != null) {
+            long age = System.currentTimeMillis() - entry.loadedAt;
+            if (age <= freshMs) {
+                return CompletableFuture.completedFuture(entry.value);
+            }
+            if (age <= maxStaleMs) {
+                refresh(key);
+                return CompletableFuture.completedFuture(entry.value);
+            }
+        }
+        return singleFlight(loads, key, this::load);
+    }
+
+    /**
+     * Memory copy if any, however old; never does I/O. Handy for drawing a screen
+     * before {@link #get} completes.
+     */
+    public V peek(String key) {
+        CacheEntry<V> entry = memoryEntry(key);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * Fetch from the remote even if a fresh copy is cached. Shares an in-flight refresh.
+     */
+    public CompletableFuture<V> refresh(String key) {
+        return singleFlight(refreshes, key, k -> {
+            CompletableFuture<V> fetched = CompletableFuture.supplyAsync(() -> fetchRemote(k), executor);
+            fetched.whenComplete((value, error) -> {
+                if (error != null) {
+                    Log.w(TAG, name + " refresh of " + k + " failed: " + error.getMessage());
+                }
+            });
+            return fetched;
+        });
+    }
+
+    /**
+     * Store a value we already have, e.g. after writing it. Safe on the UI thread:
+     * the disk write happens on the repository's executor.
+     */
+    public void put(String key, V value) {
+        remember(key, value, System.currentTimeMillis());
+        if (disk != null) {
+            executor.execute(() -> writeDisk(key, value));
+        }
+    }
+
+    public void invalidate(String key) {
+        synchronized (memory) {
+            memory.remove(key);
+        }
+        if (disk != null) {
+            executor.execute(() -> deleteDisk(key));
+        }
+    }
+
+    /**
+     * Number of remote fetches so far, for checking how much coalescing saved.
+     */
+    public long getRemoteFetches() {
+        return remoteFetches.get();
+    }
+
+    private CompletableFuture<V> load(String key) {
+        return CompletableFuture.supplyAsync(() -> readDisk(key), executor).thenCompose(stored -> {
+            if (stored == null) {
+                return refresh(key);
+            }
+            long age = System.currentTimeMillis() - stored.loadedAt;
+            if (age > maxStaleMs) {
+                // Too old to show even for a moment
+                return refresh(key);
+            }
+            // Remembered at its real age, so gets before a refresh lands do not go back to disk
+            remember(key, stored.value, stored.loadedAt);
+            if (age > freshMs) {
+                refresh(key);
+            }
+            return CompletableFuture.completedFuture(stored.value);
+        });
+    }
+
+    // Callers asking for a key that is already loading get the same future
+    private CompletableFuture<V> singleFlight(ConcurrentHashMap<String, CompletableFuture<V>> flights,
+                                              String key, Function<String, CompletableFuture<V>> start) {
+        CompletableFuture<V> existing = flights.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<V> started;
+        try {
+            started = start.apply(key);
+        } catch (RuntimeException e) {
+            // Otherwise every later caller would wait on a flight that never lands
+            flights.remove(key, flight);
+            flight.completeExceptionally(e);
+            return flight;
+        }
+        started.whenComplete((value, error) -> {
+            flights.remove(key, flight);
+            if (error != null) {
+                flight.completeExceptionally(error);
+            } else {
+                flight.complete(value);
+            }
+        });
+        return flight;
+    }
+
+    private V fetchRemote(String key) {
+        remoteFetches.incrementAndGet();
+        V value;
+        try {
+            value = remote.fetch(key);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+        if (value != null) {
+            remember(key, value, System.currentTimeMillis());
+            writeDisk(key, value);
+        } else {
+            // Deleted upstream: stop serving the cached copies
+            synchronized (memory) {
+                memory.remove(key);
+            }
+            deleteDisk(key);
+        }
+        return value;
+    }
+
+    // The stored value, stamped with when it was written
+    private CacheEntry<V> readDisk(String key) {
+        if (disk == null) {
+            return null;
+        }
+        try {
+            V value = disk.read(key);
+            return value != null ? new CacheEntry<>(value, disk.writtenAt(key)) : null;
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, name + " disk read of " + key + " failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeDisk(String key, V value) {
+        if (disk == null) {
+            return;
+        }
+        try {
+            disk.write(key, value);
+        } catch (IOException e) {
+            Log.w(TAG, name + " disk write of " + key + " failed: " + e.getMessage());
+        }
+    }
+
+    private void deleteDisk(String key) {
+        if (disk == null) {
+            return;
+        }
+        try {
+            disk.delete(key);
+        } catch (IOException e) {
+            Log.w(TAG, name + " could not delete " + key + ": " + e.getMessage());
+        }
+    }
+
+    private CacheEntry<V> memoryEntry(String key) {
+        synchronized (memory) {
+            return memory.get(key);
+        }
+    }
+
+    private void remember(String key, V value, long loadedAt) {
+        synchronized (memory) {
+            CacheEntry<V> current = memory.get(key);
+            // A disk copy must not replace something fetched meanwhile
+            if (current == null || current.loadedAt <= loadedAt) {
+                memory.put(key, new CacheEntry<>(value, loadedAt));
+            }
+        }
+    }
+
+    private static final class CacheEntry<V> {
+        final V value;
+        final long loadedAt;
+
+        CacheEntry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
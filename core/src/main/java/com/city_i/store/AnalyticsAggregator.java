@@ -0,0 +1,202 @@
+package com.city_i.store;
+
+import com.city_i.live.Change;
+import com.city_i.models.AnalyticsModel;
+import com.city_i.models.IssueModel;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running dashboard totals, updated as issues are created, change status or are
+ * resolved, so an {@link AnalyticsModel} costs one pass over the categories instead
+ * of a scan over every issue. The totals are the same as {@link IssueStore#summarize}.
+ *
+ * Counters are {@link LongAdder}s, which spread concurrent updates over cells, and
+ * categories are dictionary-encoded into an array of them. Only a small record of
+ * what each issue currently contributes is kept, so an update can take back the old
+ * contribution before adding the new one. Safe for concurrent use; a snapshot
+ * taken while updates are in flight may be off by those updates.
+ */
+public class AnalyticsAggregator {
+    private final ConcurrentHashMap<String, Contribution> byId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Short> categoryCodes = new ConcurrentHashMap<>();
+    private final StringDictionary categories = new StringDictionary();
+    private volatile LongAdder[] byCategory = {new LongAdder()};
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder resolved = new LongAdder();
+    // Resolved issues with both timestamps, and the sum of their resolution times
+    private final LongAdder timedResolved = new LongAdder();
+    private final LongAdder resolutionSumMs = new LongAdder();
+
+    /**
+     * Count a new issue, or the current state of one already counted. Issues without
+     * an id are ignored.
+     */
+    public void put(IssueModel issue) {
+        String id = issue.getId();
+        if (id == null) {
+            return;
+        }
+        Contribution next = new Contribution(encode(issue.getCategory()), time(issue.getCreatedAt()),
+                IssueStore.STATUS_RESOLVED.equals(issue.getStatus()), time(issue.getUpdatedAt()));
+        byId.compute(id, (key, previous) -> {
+            if (previous != null) {
+                subtract(previous);
+            }
+            add(next);
+            return next;
+        });
+    }
+
+    /**
+     * A status change for an issue already counted, e.g. from triage. Resolving at
+     * {@code changedAtMs} counts its resolution time from the creation time.
+     *
+     * @return false if the issue is not counted
+     */
+    public boolean statusChanged(String issueId, String status, long changedAtMs) {
+        boolean resolvedNow = IssueStore.STATUS_RESOLVED.equals(status);
+        return byId.computeIfPresent(issueId, (key, previous) -> {
+            Contribution next = new Contribution(previous.category, previous.createdAt, resolvedNow,
+                    changedAtMs);
+            subtract(previous);
+            add(next);
+            return next;
+        }) != null;
+    }
+
+    public boolean remove(String issueId) {
+        boolean[] removed = new boolean[1];
+        byId.computeIfPresent(issueId, (key, previous) -> {
+            subtract(previous);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Follow a live query of issues.
+     */
+    public void apply(Change<IssueModel> change) {
+        if (change.getType() == Change.Type.REMOVED) {
+            remove(change.getId());
+            return;
+        }
+        IssueModel issue = change.getValue();
+        if (issue.getId() == null) {
+            issue.setId(change.getId());
+        }
+        put(issue);
+    }
+
+    /**
+     * Current totals; O(categories), whatever the number of issues.
+     */
+    public AnalyticsModel snapshot(String analyticsId, Date generatedAt) {
+        // Read resolved before total so concurrent creates cannot make open negative
+        int resolvedCount = (int) resolved.sum();
+        long timedCount = timedResolved.sum();
+        long resolutionSum = resolutionSumMs.sum();
+        int totalCount = (int) total.sum();
+        long avgResolution = timedCount > 0 ? resolutionSum / timedCount : 0;
+
+        LongAdder[] counters = byCategory;
+        Map<String, Integer> counts = new HashMap<>();
+        synchronized (categories) {
+            for (int code = 1; code < counters.length; code++) {
+                long count = counters[code].sum();
+                if (count > 0) {
+                    counts.put(categories.decode(code), (int) count);
+                }
+            }
+        }
+        return new AnalyticsModel(analyticsId, generatedAt, totalCount,
+                Math.max(0, totalCount - resolvedCount), resolvedCount, avgResolution, counts);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    private void add(Contribution contribution) {
+        total.increment();
+        byCategory[contribution.category].increment();
+        if (contribution.resolved) {
+            resolved.increment();
+            if (contribution.timed()) {
+                timedResolved.increment();
+                resolutionSumMs.add(contribution.resolutionMs());
+            }
+        }
+    }
+
+    // Counters are taken back in reverse, so resolved never runs ahead of total
+    private void subtract(Contribution contribution) {
+        if (contribution.resolved) {
+            if (contribution.timed()) {
+                resolutionSumMs.add(-contribution.resolutionMs());
+                timedResolved.decrement();
+            }
+            resolved.decrement();
+        }
+        byCategory[contribution.category].decrement();
+        total.decrement();
+    }
+
+    private short encode(String category) {
+        if (category == null) {
+            return StringDictionary.NULL_CODE;
+        }
+        Short code = categoryCodes.get(category);
+        if (code != null) {
+            return code;
+        }
+        synchronized (categories) {
+            short encoded = categories.encode(category);
+            if (encoded >= byCategory.length) {
+                LongAdder[] grown = Arrays.copyOf(byCategory, encoded + 1);
+                for (int i = byCategory.length; i < grown.length; i++) {
+                    grown[i] = new LongAdder();
+                }
+                byCategory = grown;
+            }
+            // Published after the counter exists, so a cached code is always in range
+            categoryCodes.put(category, encoded);
+            return encoded;
+        }
+    }
+
+    private static long time(Date date) {
+        return date != null ? date.getTime() : IssueStore.NO_TIME;
+    }
+
+    private static final class Contribution {
+        final short category;
+        final long createdAt;
+        final boolean resolved;
+        final long changedAt;
+
+        Contribution(short category, long createdAt, boolean resolved, long changedAt) {
+            this.category = category;
+            this.createdAt = createdAt;
+            this.resolved = resolved;
+            this.changedAt = changedAt;
+        }
+
+        // Only issues with both timestamps count towards the mean, as in IssueStore#summarize
+        boolean timed() {
+            return createdAt != IssueStore.NO_TIME && changedAt != IssueStore.NO_TIME;
+        }
+
+        long resolutionMs() {
+            return changedAt - createdAt;
+        }
+    }
+}
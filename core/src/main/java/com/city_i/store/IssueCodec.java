@@ -0,0 +1,307 @@
+package com.city_i.store;
+
+import com.city_i.models.IssueModel;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static com.city_i.store.WireFormat.*;
+
+/**
+ * Compact tagged binary encoding of {@link IssueModel}.
+ *
+ * Each present field is written as a varint key {@code (field << 3) | wireType}
+ * followed by its value; null fields are simply left out. Readers skip fields they
+ * do not know by wire type, so fields can be added without breaking old caches.
+ * Category, status and department are written as codes into a shared
+ * {@link StringDictionary}, which the container (see {@link IssueSnapshot}) stores once.
+ *
+ * Not thread-safe: the codec reuses a scratch buffer for strings.
+ */
+public class IssueCodec {
+    static final int WIRE_VARINT = 0;
+    static final int WIRE_FIXED64 = 1;
+    static final int WIRE_BYTES = 2;
+
+    // Field numbers are part of the format: never reuse or renumber them
+    static final int FIELD_ID = 1;
+    static final int FIELD_TITLE = 2;
+    static final int FIELD_DESCRIPTION = 3;
+    static final int FIELD_CATEGORY = 4;
+    static final int FIELD_STATUS = 5;
+    static final int FIELD_IMAGE_PATH = 6;
+    static final int FIELD_DEPARTMENT = 7;
+    static final int FIELD_REPORTED_BY = 8;
+    static final int FIELD_LATITUDE = 9;
+    static final int FIELD_LONGITUDE = 10;
+    static final int FIELD_PRIORITY = 11;
+    static final int FIELD_CREATED_AT = 12;
+    static final int FIELD_UPDATED_AT = 13;
+    static final int FIELD_GEOHASH = 14;
+
+    private final StringDictionary dictionary;
+    private byte[] scratch = new byte[256];
+
+    public IssueCodec(StringDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Encode one issue on its own, with the dictionary values it uses written in
+     * front of the record. For logs and caches that store issues one at a time.
+     */
+    public static byte[] toBytes(IssueModel issue) {
+        IssueCodec codec = new IssueCodec(new StringDictionary());
+        int recordSize = codec.encodedSize(issue);
+        ByteBuffer out = ByteBuffer.allocate(dictionaryTableSize(codec.dictionary) + recordSize);
+        writeDictionaryTable(out, codec.dictionary);
+        codec.encode(issue, out);
+        return out.array();
+    }
+
+    /**
+     * Inverse of {@link #toBytes}.
+     *
+     * @throws IllegalArgumentException if the bytes are malformed
+     */
+    public static IssueModel fromBytes(byte[] bytes, int offset, int length) {
+        ByteBuffer in = ByteBuffer.wrap(bytes, offset, length);
+        IssueCodec codec = new IssueCodec(new StringDictionary());
+        codec.readDictionaryTable(in);
+        return codec.decode(in, offset + length - in.position());
+    }
+
+    /**
+     * Add the values written by {@link WireFormat#writeDictionaryTable} to this
+     * codec's dictionary, which should be empty so codes match the writer's.
+     *
+     * @throws IllegalArgumentException if the table is malformed
+     */
+    void readDictionaryTable(ByteBuffer in) {
+        try {
+            long values = readVarLong(in);
+            if (values < 0 || values > in.remaining()) {
+                throw new IllegalArgumentException("Bad dictionary size " + values);
+            }
+            for (long i = 0; i < values; i++) {
+                dictionary.encode(readUtf8(in));
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated issue dictionary", e);
+        }
+    }
+
+    /**
+     * Exact number of bytes {@link #encode} will write. Adds any new dictionary values.
+     */
+    public int encodedSize(IssueModel issue) {
+        int size = 0;
+        size += stringSize(FIELD_ID, issue.getId());
+        size += stringSize(FIELD_TITLE, issue.getTitle());
+        size += stringSize(FIELD_DESCRIPTION, issue.getDescription());
+        size += codeSize(FIELD_CATEGORY, issue.getCategory());
+        size += codeSize(FIELD_STATUS, issue.getStatus());
+        size += stringSize(FIELD_IMAGE_PATH, issue.getImagePath());
+        size += codeSize(FIELD_DEPARTMENT, issue.getDepartmentId());
+        size += stringSize(FIELD_REPORTED_BY, issue.getReportedByUserId());
+        size += 2 * (1 + 8);
+        size += 1 + varLongSize(zigzag(issue.getPriority()));
+        if (issue.getCreatedAt() != null) {
+            size += 1 + varLongSize(zigzag(issue.getCreatedAt().getTime()));
+        }
+        if (issue.getUpdatedAt() != null) {
+            size += 1 + varLongSize(zigzag(issue.getUpdatedAt().getTime()));
+        }
+        size += stringSize(FIELD_GEOHASH, issue.getGeohash());
+        return size;
+    }
+
+    /**
+     * Write the issue at the buffer's position.
+     *
+     * @throws java.nio.BufferOverflowException if fewer than {@link #encodedSize} bytes remain
+     */
+    public void encode(IssueModel issue, ByteBuffer out) {
+        writeString(out, FIELD_ID, issue.getId());
+        writeString(out, FIELD_TITLE, issue.getTitle());
+        writeString(out, FIELD_DESCRIPTION, issue.getDescription());
+        writeCode(out, FIELD_CATEGORY, issue.getCategory());
+        writeCode(out, FIELD_STATUS, issue.getStatus());
+        writeString(out, FIELD_IMAGE_PATH, issue.getImagePath());
+        writeCode(out, FIELD_DEPARTMENT, issue.getDepartmentId());
+        writeString(out, FIELD_REPORTED_BY, issue.getReportedByUserId());
+
+        writeKey(out, FIELD_LATITUDE, WIRE_FIXED64);
+        out.putDouble(issue.getLatitude());
+        writeKey(out, FIELD_LONGITUDE, WIRE_FIXED64);
+        out.putDouble(issue.getLongitude());
+
+        writeKey(out, FIELD_PRIORITY, WIRE_VARINT);
+        writeVarLong(out, zigzag(issue.getPriority()));
+        if (issue.getCreatedAt() != null) {
+            writeKey(out, FIELD_CREATED_AT, WIRE_VARINT);
+            writeVarLong(out, zigzag(issue.getCreatedAt().getTime()));
+        }
+        if (issue.getUpdatedAt() != null) {
+            writeKey(out, FIELD_UPDATED_AT, WIRE_VARINT);
+            writeVarLong(out, zigzag(issue.getUpdatedAt().getTime()));
+        }
+        writeString(out, FIELD_GEOHASH, issue.getGeohash());
+    }
+
+    /**
+     * Read one issue of {@code length} bytes from the buffer's position.
+     *
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    public IssueModel decode(ByteBuffer in, int length) {
+        int end = in.position() + length;
+        IssueModel issue = new IssueModel();
+        try {
+            while (in.position() < end) {
+                int key = (int) readVarLong(in);
+                int field = key >>> 3;
+                int wireType = key & 7;
+                switch (field) {
+                    case FIELD_ID: issue.setId(readString(in, wireType)); break;
+                    case FIELD_TITLE: issue.setTitle(readString(in, wireType)); break;
+                    case FIELD_DESCRIPTION: issue.setDescription(readString(in, wireType)); break;
+                    case FIELD_CATEGORY: issue.setCategory(readCode(in, wireType)); break;
+                    case FIELD_STATUS: issue.setStatus(readCode(in, wireType)); break;
+                    case FIELD_IMAGE_PATH: issue.setImagePath(readString(in, wireType)); break;
+                    case FIELD_DEPARTMENT: issue.setDepartmentId(readCode(in, wireType)); break;
+                    case FIELD_REPORTED_BY: issue.setReportedByUserId(readString(in, wireType)); break;
+                    case FIELD_LATITUDE: issue.setLatitude(readDouble(in, wireType)); break;
+                    case FIELD_LONGITUDE: issue.setLongitude(readDouble(in, wireType)); break;
+                    case FIELD_PRIORITY: issue.setPriority((int) readSigned(in, wireType)); break;
+                    case FIELD_CREATED_AT: issue.setCreatedAt(new Date(readSigned(in, wireType))); break;
+                    case FIELD_UPDATED_AT: issue.setUpdatedAt(new Date(readSigned(in, wireType))); break;
+                    case FIELD_GEOHASH: issue.setGeohash(readString(in, wireType)); break;
+                    default: skip(in, wireType); break;
+                }
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated issue record", e);
+        }
+        if (in.position() != end) {
+            throw new IllegalArgumentException("Issue record overran its length");
+        }
+        return issue;
+    }
+
+    // Writing
+
+    private int stringSize(int field, String value) {
+        if (value == null) {
+            return 0;
+        }
+        int bytes = utf8Length(value);
+        return varLongSize(key(field, WIRE_BYTES)) + varLongSize(bytes) + bytes;
+    }
+
+    private int codeSize(int field, String value) {
+        if (value == null) {
+            return 0;
+        }
+        return varLongSize(key(field, WIRE_VARINT)) + varLongSize(dictionary.encode(value));
+    }
+
+    private void writeString(ByteBuffer out, int field, String value) {
+        if (value == null) {
+            return;
+        }
+        writeKey(out, field, WIRE_BYTES);
+        writeVarLong(out, utf8Length(value));
+        putUtf8(out, value);
+    }
+
+    private void writeCode(ByteBuffer out, int field, String value) {
+        if (value == null) {
+            return;
+        }
+        writeKey(out, field, WIRE_VARINT);
+        writeVarLong(out, dictionary.encode(value));
+    }
+
+    private static void writeKey(ByteBuffer out, int field, int wireType) {
+        writeVarLong(out, key(field, wireType));
+    }
+
+    private static long key(int field, int wireType) {
+        return ((long) field << 3) | wireType;
+    }
+
+    // Reading
+
+    private String readString(ByteBuffer in, int wireType) {
+        expectWireType(wireType, WIRE_BYTES);
+        return readUtf8(in);
+    }
+
+    String readUtf8(ByteBuffer in) {
+        int length = (int) readVarLong(in);
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Bad string length " + length);
+        }
+        if (in.hasArray()) {
+            String value = new String(in.array(), in.arrayOffset() + in.position(), length,
+                    StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return value;
+        }
+        // Direct and mapped buffers go through a reused scratch array
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        in.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private String readCode(ByteBuffer in, int wireType) {
+        expectWireType(wireType, WIRE_VARINT);
+        long code = readVarLong(in);
+        if (code <= 0 || code >= dictionary.size()) {
+            throw new IllegalArgumentException("Unknown dictionary code " + code);
+        }
+        return dictionary.decode((int) code);
+    }
+
+    private static double readDouble(ByteBuffer in, int wireType) {
+        expectWireType(wireType, WIRE_FIXED64);
+        return in.getDouble();
+    }
+
+    private static long readSigned(ByteBuffer in, int wireType) {
+        expectWireType(wireType, WIRE_VARINT);
+        return unzigzag(readVarLong(in));
+    }
+
+    private static void skip(ByteBuffer in, int wireType) {
+        switch (wireType) {
+            case WIRE_VARINT:
+                readVarLong(in);
+                break;
+            case WIRE_FIXED64:
+                in.position(in.position() + 8);
+                break;
+            case WIRE_BYTES:
+                int length = (int) readVarLong(in);
+                in.position(in.position() + length);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown wire type " + wireType);
+        }
+    }
+
+    private static void expectWireType(int actual, int expected) {
+        if (actual != expected) {
+            throw new IllegalArgumentException("Wire type " + actual + ", expected " + expected);
+        }
+    }
+}
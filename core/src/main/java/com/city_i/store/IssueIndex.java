@@ -0,0 +1,310 @@
+package com.city_i.store;
+
+import com.city_i.models.AnalyticsModel;
+import com.city_i.models.IssueModel;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compressed bitmap indexes over an {@link IssueStore}, kept up to date as issues
+ * are added and changed.
+ *
+ * There is one Roaring bitmap of store rows per status, category, department,
+ * priority value and creation day. Queries combine them with AND/OR, and counts
+ * come from bitmap cardinalities instead of row scans. All changes must go through
+ * the index so the bitmaps stay in step with the store.
+ */
+public class IssueIndex {
+    private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+    private static final int MAX_PRIORITY = 10;
+
+    private final IssueStore store;
+    private final TimeZone timeZone;
+
+    // Indexed by dictionary code
+    private final List<RoaringBitmap> byStatus = new ArrayList<>();
+    private final List<RoaringBitmap> byCategory = new ArrayList<>();
+    private final List<RoaringBitmap> byDepartment = new ArrayList<>();
+    private final RoaringBitmap[] byPriority = new RoaringBitmap[MAX_PRIORITY + 1];
+    // Local day number -> rows created that day
+    private final NavigableMap<Long, RoaringBitmap> byDay = new TreeMap<>();
+    private final RoaringBitmap all = new RoaringBitmap();
+
+    public IssueIndex(IssueStore store) {
+        this(store, TimeZone.getDefault());
+    }
+
+    /**
+     * Index an existing store; day buckets use the given zone's calendar days.
+     */
+    public IssueIndex(IssueStore store, TimeZone timeZone) {
+        this.store = store;
+        this.timeZone = timeZone;
+        for (int i = 0; i < byPriority.length; i++) {
+            byPriority[i] = new RoaringBitmap();
+        }
+        for (int row = 0; row < store.size(); row++) {
+            addRow(row);
+        }
+        runOptimize();
+    }
+
+    public IssueStore getStore() {
+        return store;
+    }
+
+    /**
+     * Append or upsert an issue into the store and index it.
+     */
+    public int add(IssueModel issue) {
+        int existing = issue.getId() != null ? store.rowOf(issue.getId()) : -1;
+        if (existing >= 0) {
+            update(existing, issue);
+            return existing;
+        }
+        int row = store.append(issue);
+        addRow(row);
+        return row;
+    }
+
+    public void update(int row, IssueModel issue) {
+        removeRow(row);
+        store.update(row, issue);
+        addRow(row);
+    }
+
+    public void setStatus(int row, String status) {
+        bitmap(byStatus, store.getStatuses().lookup(store.getStatus(row))).remove(row);
+        store.setStatus(row, status);
+        bitmap(byStatus, store.getStatuses().lookup(status)).add(row);
+    }
+
+    public void setPriority(int row, int priority) {
+        byPriority[priorityBucket(store.getPriority(row))].remove(row);
+        store.setPriority(row, priority);
+        byPriority[priorityBucket(priority)].add(row);
+    }
+
+    /**
+     * Convert bitmaps to run containers where that is smaller. Worth calling after
+     * bulk loads.
+     */
+    public void runOptimize() {
+        all.runOptimize();
+        for (RoaringBitmap bitmap : byStatus) bitmap.runOptimize();
+        for (RoaringBitmap bitmap : byCategory) bitmap.runOptimize();
+        for (RoaringBitmap bitmap : byDepartment) bitmap.runOptimize();
+        for (RoaringBitmap bitmap : byPriority) bitmap.runOptimize();
+        for (RoaringBitmap bitmap : byDay.values()) bitmap.runOptimize();
+    }
+
+    public Query query() {
+        return new Query();
+    }
+
+    /**
+     * Issue count per category among the given rows.
+     */
+    public Map<String, Integer> countByCategory(RoaringBitmap rows) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int code = 1; code < byCategory.size(); code++) {
+            int count = RoaringBitmap.andCardinality(byCategory.get(code), rows);
+            if (count > 0) {
+                counts.put(store.getCategories().decode(code), count);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Same totals as {@link IssueStore#summarize}, from bitmap counts. Only the
+     * resolution time visits rows, and only the resolved ones.
+     */
+    public AnalyticsModel summarize(String analyticsId, Date generatedAt) {
+        RoaringBitmap resolved = query().status(IssueStore.STATUS_RESOLVED).rows();
+        long resolutionSum = 0;
+        int timed = 0;
+        for (int row : resolved) {
+            long created = store.getCreatedAt(row);
+            long updated = store.getUpdatedAt(row);
+            if (created != IssueStore.NO_TIME && updated != IssueStore.NO_TIME) {
+                resolutionSum += updated - created;
+                timed++;
+            }
+        }
+        int total = all.getCardinality();
+        int resolvedCount = resolved.getCardinality();
+        long avgResolution = timed > 0 ? resolutionSum / timed : 0;
+        return new AnalyticsModel(analyticsId, generatedAt, total, total - resolvedCount,
+                resolvedCount, avgResolution, countByCategory(all));
+    }
+
+    private void addRow(int row) {
+        all.add(row);
+        bitmap(byStatus, store.getStatuses().lookup(store.getStatus(row))).add(row);
+        bitmap(byCategory, store.getCategories().lookup(store.getCategory(row))).add(row);
+        bitmap(byDepartment, store.getDepartments().lookup(store.getDepartment(row))).add(row);
+        byPriority[priorityBucket(store.getPriority(row))].add(row);
+        long createdAt = store.getCreatedAt(row);
+        if (createdAt != IssueStore.NO_TIME) {
+            byDay.computeIfAbsent(dayOf(createdAt), day -> new RoaringBitmap()).add(row);
+        }
+    }
+
+    private void removeRow(int row) {
+        bitmap(byStatus, store.getStatuses().lookup(store.getStatus(row))).remove(row);
+        bitmap(byCategory, store.getCategories().lookup(store.getCategory(row))).remove(row);
+        bitmap(byDepartment, store.getDepartments().lookup(store.getDepartment(row))).remove(row);
+        byPriority[priorityBucket(store.getPriority(row))].remove(row);
+        long createdAt = store.getCreatedAt(row);
+        if (createdAt != IssueStore.NO_TIME) {
+            RoaringBitmap day = byDay.get(dayOf(createdAt));
+            if (day != null) {
+                day.remove(row);
+            }
+        }
+    }
+
+    private static RoaringBitmap bitmap(List<RoaringBitmap> bitmaps, int code) {
+        while (bitmaps.size() <= code) {
+            bitmaps.add(new RoaringBitmap());
+        }
+        return bitmaps.get(code);
+    }
+
+    // Unscored (0) and out-of-range values share the edge buckets
+    private static int priorityBucket(int priority) {
+        return Math.max(0, Math.min(MAX_PRIORITY, priority));
+    }
+
+    private long dayOf(long millis) {
+        return Math.floorDiv(millis + timeZone.getOffset(millis), DAY_MS);
+    }
+
+    /**
+     * Conjunction of predicates; values within one predicate are OR-ed.
+     * Predicates on values the index has never seen match nothing.
+     */
+    public final class Query {
+        // Terms may be the index's own bitmaps and are never modified
+        private final List<RoaringBitmap> terms = new ArrayList<>();
+        private final List<RoaringBitmap> exclusions = new ArrayList<>();
+
+        private Query() {
+        }
+
+        public Query status(String... statuses) {
+            return add(union(byStatus, store.getStatuses(), statuses));
+        }
+
+        /**
+         * Anything not resolved.
+         */
+        public Query open() {
+            exclusions.add(union(byStatus, store.getStatuses(), IssueStore.STATUS_RESOLVED));
+            return this;
+        }
+
+        public Query category(String... categories) {
+            return add(union(byCategory, store.getCategories(), categories));
+        }
+
+        public Query department(String... departments) {
+            return add(union(byDepartment, store.getDepartments(), departments));
+        }
+
+        public Query priorityBetween(int min, int max) {
+            List<RoaringBitmap> buckets = new ArrayList<>();
+            for (int p = priorityBucket(min); p <= priorityBucket(max); p++) {
+                buckets.add(byPriority[p]);
+            }
+            return add(or(buckets));
+        }
+
+        public Query priorityAtLeast(int min) {
+            return priorityBetween(min, MAX_PRIORITY);
+        }
+
+        /**
+         * Created on or after the start of the local day containing {@code fromMillis}.
+         */
+        public Query createdSince(long fromMillis) {
+            return add(or(new ArrayList<>(byDay.tailMap(dayOf(fromMillis), true).values())));
+        }
+
+        /**
+         * Created within the last {@code days} local days, counting today.
+         */
+        public Query createdInLastDays(int days, long nowMillis) {
+            return createdSince(nowMillis - (days - 1) * DAY_MS);
+        }
+
+        public RoaringBitmap rows() {
+            RoaringBitmap result;
+            if (terms.isEmpty()) {
+                result = all.clone();
+            } else {
+                // Smallest first keeps the intermediate results small
+                terms.sort((a, b) -> Integer.compare(a.getCardinality(), b.getCardinality()));
+                result = terms.get(0).clone();
+                for (int i = 1; i < terms.size() && !result.isEmpty(); i++) {
+                    result.and(terms.get(i));
+                }
+            }
+            for (RoaringBitmap exclusion : exclusions) {
+                result.andNot(exclusion);
+            }
+            return result;
+        }
+
+        public int count() {
+            if (exclusions.isEmpty()) {
+                if (terms.isEmpty()) {
+                    return all.getCardinality();
+                } else if (terms.size() == 2) {
+                    return RoaringBitmap.andCardinality(terms.get(0), terms.get(1));
+                }
+            } else if (terms.isEmpty() && exclusions.size() == 1) {
+                RoaringBitmap excluded = exclusions.get(0);
+                return all.getCardinality() - RoaringBitmap.andCardinality(all, excluded);
+            }
+            return rows().getCardinality();
+        }
+
+        private Query add(RoaringBitmap term) {
+            terms.add(term);
+            return this;
+        }
+
+        private RoaringBitmap union(List<RoaringBitmap> bitmaps, StringDictionary dictionary,
+                                    String... values) {
+            List<RoaringBitmap> matches = new ArrayList<>(values.length);
+            for (String value : values) {
+                int code = dictionary.lookup(value);
+                if (code >= 0 && code < bitmaps.size()) {
+                    matches.add(bitmaps.get(code));
+                }
+            }
+            return or(matches);
+        }
+
+        // A single bitmap is used as is rather than copied
+        private RoaringBitmap or(List<RoaringBitmap> bitmaps) {
+            if (bitmaps.isEmpty()) {
+                return new RoaringBitmap();
+            }
+            return bitmaps.size() == 1 ? bitmaps.get(0) : FastAggregation.or(bitmaps.iterator());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.city_i.store;
+
+import com.city_i.models.IssueModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only snapshot of cached issues, laid out so it can be memory-mapped and
+ * read in place.
+ *
+ * <pre>
+ * int magic "CISS", int version, int count, int dictionaryLength
+ * dictionary: varint size, then size strings (varint length + UTF-8), codes 1..size
+ * int[count + 1] record offsets, relative to the start of the records
+ * records encoded with {@link IssueCodec}
+ * </pre>
+ *
+ * Opening a snapshot only reads the header and dictionary; each issue is decoded
+ * when it is asked for.
+ */
+public final class IssueSnapshot {
+    static final int MAGIC = 0x43495353;
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private final ByteBuffer buffer;
+    private final IssueCodec codec;
+    private final int count;
+    private final int offsetsStart;
+    private final int recordsStart;
+
+    private IssueSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an issue snapshot");
+        }
+        int version = buffer.getInt(4);
+        if (version > VERSION) {
+            throw new IOException("Snapshot version " + version + " is newer than " + VERSION);
+        }
+        count = buffer.getInt(8);
+        int dictionaryLength = buffer.getInt(12);
+        if (count < 0 || dictionaryLength < 0 || dictionaryLength > buffer.limit() - HEADER_BYTES) {
+            throw new IOException("Truncated snapshot");
+        }
+
+        StringDictionary dictionary = new StringDictionary();
+        codec = new IssueCodec(dictionary);
+        ByteBuffer header = buffer.duplicate();
+        header.position(HEADER_BYTES).limit(HEADER_BYTES + dictionaryLength);
+        try {
+            codec.readDictionaryTable(header);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt snapshot dictionary", e);
+        }
+
+        offsetsStart = HEADER_BYTES + dictionaryLength;
+        long offsetsEnd = offsetsStart + (count + 1L) * 4;
+        if (offsetsEnd > buffer.limit()) {
+            throw new IOException("Truncated snapshot");
+        }
+        recordsStart = (int) offsetsEnd;
+        int recordsLength = buffer.getInt(offsetsStart + count * 4);
+        if (recordsLength < 0 || recordsLength > buffer.limit() - recordsStart) {
+            throw new IOException("Truncated snapshot");
+        }
+    }
+
+    /**
+     * Map a snapshot file read-only.
+     */
+    public static IssueSnapshot open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            return new IssueSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Read a snapshot held in memory, starting at position 0.
+     */
+    public static IssueSnapshot wrap(ByteBuffer buffer) throws IOException {
+        return new IssueSnapshot(buffer.duplicate());
+    }
+
+    /**
+     * Write a snapshot, replacing the file atomically so readers never see a
+     * partial one.
+     */
+    public static void write(File file, List<IssueModel> issues) throws IOException {
+        ByteBuffer snapshot = encode(issues);
+        File temp = new File(file.getPath() + ".tmp");
+        try (RandomAccessFile raf = new RandomAccessFile(temp, "rw");
+             FileChannel channel = raf.getChannel()) {
+            channel.truncate(0);
+            while (snapshot.hasRemaining()) {
+                channel.write(snapshot);
+            }
+            channel.force(false);
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Could not replace " + file);
+        }
+    }
+
+    /**
+     * Encode issues into a heap buffer in snapshot layout, positioned at 0.
+     */
+    public static ByteBuffer encode(List<IssueModel> issues) {
+        StringDictionary dictionary = new StringDictionary();
+        IssueCodec codec = new IssueCodec(dictionary);
+
+        int[] offsets = new int[issues.size() + 1];
+        for (int i = 0; i < issues.size(); i++) {
+            offsets[i + 1] = offsets[i] + codec.encodedSize(issues.get(i));
+        }
+
+        // Dictionary is complete once every record has been sized
+        int dictionaryLength = WireFormat.dictionaryTableSize(dictionary);
+
+        int total = HEADER_BYTES + dictionaryLength + offsets.length * 4 + offsets[issues.size()];
+        ByteBuffer out = ByteBuffer.allocate(total);
+        out.putInt(MAGIC).putInt(VERSION).putInt(issues.size()).putInt(dictionaryLength);
+        WireFormat.writeDictionaryTable(out, dictionary);
+        for (int offset : offsets) {
+            out.putInt(offset);
+        }
+        for (IssueModel issue : issues) {
+            codec.encode(issue, out);
+        }
+        out.flip();
+        return out;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Decode the issue at the given index.
+     */
+    public synchronized IssueModel get(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + count);
+        }
+        int start = buffer.getInt(offsetsStart + index * 4);
+        int end = buffer.getInt(offsetsStart + (index + 1) * 4);
+        buffer.position(recordsStart + start);
+        return codec.decode(buffer, end - start);
+    }
+
+    public List<IssueModel> readAll() {
+        List<IssueModel> issues = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            issues.add(get(i));
+        }
+        return issues;
+    }
+}
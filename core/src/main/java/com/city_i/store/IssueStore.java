@@ -0,0 +1,421 @@
+package com.city_i.store;
+
+import com.city_i.models.AnalyticsModel;
+import com.city_i.models.IssueModel;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Column-oriented in-memory issue table for dashboards.
+ *
+ * Each field lives in its own primitive array: coordinates as double, priority as
+ * byte, category/status/department as dictionary codes and timestamps as epoch
+ * millis ({@link #NO_TIME} for null). Repeated text (titles, reporters)
+ * is interned. Scans are tight loops over single columns and write matching row
+ * numbers into a caller-supplied array.
+ *
+ * Rows are never removed, so row numbers are stable. Not thread-safe; callers
+ * that share a store must guard it.
+ */
+public class IssueStore {
+    public static final long NO_TIME = Long.MIN_VALUE;
+    public static final String STATUS_RESOLVED = "Resolved";
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final StringDictionary categories = new StringDictionary();
+    private final StringDictionary statuses = new StringDictionary();
+    private final StringDictionary departments = new StringDictionary();
+    private final Map<String, String> internPool = new HashMap<>();
+    private final Map<String, Integer> rowsById = new HashMap<>();
+
+    private int size;
+    private double[] latitude;
+    private double[] longitude;
+    private byte[] priority;
+    private short[] category;
+    private short[] status;
+    private short[] department;
+    private long[] createdAt;
+    private long[] updatedAt;
+    private String[] id;
+    private String[] title;
+    private String[] description;
+    private String[] imagePath;
+    private String[] reportedBy;
+
+    public IssueStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IssueStore(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        latitude = new double[capacity];
+        longitude = new double[capacity];
+        priority = new byte[capacity];
+        category = new short[capacity];
+        status = new short[capacity];
+        department = new short[capacity];
+        createdAt = new long[capacity];
+        updatedAt = new long[capacity];
+        id = new String[capacity];
+        title = new String[capacity];
+        description = new String[capacity];
+        imagePath = new String[capacity];
+        reportedBy = new String[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Append an issue. If an issue with the same id is already stored it is updated
+     * in place instead.
+     *
+     * @return the issue's row
+     */
+    public int append(IssueModel issue) {
+        if (issue.getId() != null) {
+            Integer existing = rowsById.get(issue.getId());
+            if (existing != null) {
+                update(existing, issue);
+                return existing;
+            }
+        }
+        if (size == latitude.length) {
+            grow();
+        }
+        int row = size++;
+        write(row, issue);
+        if (issue.getId() != null) {
+            rowsById.put(issue.getId(), row);
+        }
+        return row;
+    }
+
+    /**
+     * Overwrite a row with the issue's fields.
+     */
+    public void update(int row, IssueModel issue) {
+        checkRow(row);
+        String oldId = id[row];
+        if (oldId != null && !oldId.equals(issue.getId())) {
+            rowsById.remove(oldId);
+        }
+        write(row, issue);
+        if (issue.getId() != null) {
+            rowsById.put(issue.getId(), row);
+        }
+    }
+
+    /**
+     * Row holding the issue with this id, or -1.
+     */
+    public int rowOf(String issueId) {
+        Integer row = rowsById.get(issueId);
+        return row != null ? row : -1;
+    }
+
+    public void setStatus(int row, String newStatus) {
+        checkRow(row);
+        status[row] = statuses.encode(newStatus);
+    }
+
+    public void setPriority(int row, int newPriority) {
+        checkRow(row);
+        priority[row] = (byte) newPriority;
+    }
+
+    public void setUpdatedAt(int row, long millis) {
+        checkRow(row);
+        updatedAt[row] = millis;
+    }
+
+    /**
+     * Materialize a row as a model object.
+     */
+    public IssueModel get(int row) {
+        checkRow(row);
+        return new IssueModel(id[row], title[row], description[row],
+                categories.decode(category[row]), statuses.decode(status[row]), imagePath[row],
+                departments.decode(department[row]), reportedBy[row],
+                latitude[row], longitude[row], priority[row],
+                toDate(createdAt[row]), toDate(updatedAt[row]));
+    }
+
+    // Column accessors
+
+    public String getCategory(int row) {
+        checkRow(row);
+        return categories.decode(category[row]);
+    }
+
+    public String getStatus(int row) {
+        checkRow(row);
+        return statuses.decode(status[row]);
+    }
+
+    public String getDepartment(int row) {
+        checkRow(row);
+        return departments.decode(department[row]);
+    }
+
+    public int getPriority(int row) {
+        checkRow(row);
+        return priority[row];
+    }
+
+    public double getLatitude(int row) {
+        checkRow(row);
+        return latitude[row];
+    }
+
+    public double getLongitude(int row) {
+        checkRow(row);
+        return longitude[row];
+    }
+
+    public long getCreatedAt(int row) {
+        checkRow(row);
+        return createdAt[row];
+    }
+
+    public long getUpdatedAt(int row) {
+        checkRow(row);
+        return updatedAt[row];
+    }
+
+    public StringDictionary getCategories() {
+        return categories;
+    }
+
+    public StringDictionary getStatuses() {
+        return statuses;
+    }
+
+    public StringDictionary getDepartments() {
+        return departments;
+    }
+
+    // Scans. Each writes matching rows into out (sized at least size()) and
+    // returns how many matched.
+
+    public int selectStatus(String value, int[] out) {
+        int code = statuses.lookup(value);
+        return code < 0 ? 0 : selectCode(status, (short) code, out);
+    }
+
+    public int selectCategory(String value, int[] out) {
+        int code = categories.lookup(value);
+        return code < 0 ? 0 : selectCode(category, (short) code, out);
+    }
+
+    public int selectDepartment(String value, int[] out) {
+        int code = departments.lookup(value);
+        return code < 0 ? 0 : selectCode(department, (short) code, out);
+    }
+
+    public int selectPriorityAtLeast(int minPriority, int[] out) {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            // Branch-free compaction: always write, advance only on a match
+            out[count] = row;
+            count += priority[row] >= minPriority ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Rows created in [fromMillis, toMillis).
+     */
+    public int selectCreatedBetween(long fromMillis, long toMillis, int[] out) {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            long t = createdAt[row];
+            out[count] = row;
+            count += t >= fromMillis && t < toMillis ? 1 : 0;
+        }
+        return count;
+    }
+
+    public int selectWithin(double minLat, double maxLat, double minLon, double maxLon, int[] out) {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            double lat = latitude[row];
+            double lon = longitude[row];
+            out[count] = row;
+            count += lat >= minLat && lat <= maxLat && lon >= minLon && lon <= maxLon ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Keep only the selected rows that have the given status. Filters in place.
+     */
+    public int refineStatus(int[] rows, int count, String value) {
+        int code = statuses.lookup(value);
+        if (code < 0) {
+            return 0;
+        }
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            rows[kept] = row;
+            kept += status[row] == code ? 1 : 0;
+        }
+        return kept;
+    }
+
+    /**
+     * Keep only the selected rows with at least the given priority. Filters in place.
+     */
+    public int refinePriorityAtLeast(int[] rows, int count, int minPriority) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            rows[kept] = row;
+            kept += priority[row] >= minPriority ? 1 : 0;
+        }
+        return kept;
+    }
+
+    // Aggregations
+
+    public int countStatus(String value) {
+        int code = statuses.lookup(value);
+        return code < 0 ? 0 : countCode(status, (short) code);
+    }
+
+    /**
+     * Issue count per category code, indexed like {@link #getCategories()}.
+     */
+    public int[] countByCategoryCode() {
+        int[] counts = new int[categories.size()];
+        for (int row = 0; row < size; row++) {
+            counts[category[row]]++;
+        }
+        return counts;
+    }
+
+    public Map<String, Integer> countByCategory() {
+        int[] counts = countByCategoryCode();
+        Map<String, Integer> byName = new LinkedHashMap<>();
+        for (int code = 1; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                byName.put(categories.decode(code), counts[code]);
+            }
+        }
+        return byName;
+    }
+
+    public double averagePriority(int[] rows, int count) {
+        if (count == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += priority[rows[i]];
+        }
+        return (double) sum / count;
+    }
+
+    /**
+     * Dashboard totals over the whole store. Resolution time is the mean of
+     * updatedAt - createdAt over resolved issues that have both timestamps.
+     */
+    public AnalyticsModel summarize(String analyticsId, Date generatedAt) {
+        int resolvedCode = statuses.lookup(STATUS_RESOLVED);
+        int resolved = 0;
+        int timed = 0;
+        long resolutionSum = 0;
+        for (int row = 0; row < size; row++) {
+            if (status[row] == resolvedCode) {
+                resolved++;
+                if (createdAt[row] != NO_TIME && updatedAt[row] != NO_TIME) {
+                    resolutionSum += updatedAt[row] - createdAt[row];
+                    timed++;
+                }
+            }
+        }
+        long avgResolution = timed > 0 ? resolutionSum / timed : 0;
+        return new AnalyticsModel(analyticsId, generatedAt, size, size - resolved, resolved,
+                avgResolution, new HashMap<>(countByCategory()));
+    }
+
+    private int selectCode(short[] column, short code, int[] out) {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            out[count] = row;
+            count += column[row] == code ? 1 : 0;
+        }
+        return count;
+    }
+
+    private int countCode(short[] column, short code) {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            count += column[row] == code ? 1 : 0;
+        }
+        return count;
+    }
+
+    private void write(int row, IssueModel issue) {
+        latitude[row] = issue.getLatitude();
+        longitude[row] = issue.getLongitude();
+        priority[row] = (byte) issue.getPriority();
+        category[row] = categories.encode(issue.getCategory());
+        status[row] = statuses.encode(issue.getStatus());
+        department[row] = departments.encode(issue.getDepartmentId());
+        createdAt[row] = toMillis(issue.getCreatedAt());
+        updatedAt[row] = toMillis(issue.getUpdatedAt());
+        id[row] = issue.getId();
+        title[row] = intern(issue.getTitle());
+        description[row] = issue.getDescription();
+        imagePath[row] = issue.getImagePath();
+        reportedBy[row] = intern(issue.getReportedByUserId());
+    }
+
+    private String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = internPool.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+
+    private void grow() {
+        int capacity = latitude.length + (latitude.length >> 1) + 1;
+        latitude = Arrays.copyOf(latitude, capacity);
+        longitude = Arrays.copyOf(longitude, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+        category = Arrays.copyOf(category, capacity);
+        status = Arrays.copyOf(status, capacity);
+        department = Arrays.copyOf(department, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        updatedAt = Arrays.copyOf(updatedAt, capacity);
+        id = Arrays.copyOf(id, capacity);
+        title = Arrays.copyOf(title, capacity);
+        description = Arrays.copyOf(description, capacity);
+        imagePath = Arrays.copyOf(imagePath, capacity);
+        reportedBy = Arrays.copyOf(reportedBy, capacity);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + ", size " + size);
+        }
+    }
+
+    private static long toMillis(Date date) {
+        return date != null ? date.getTime() : NO_TIME;
+    }
+
+    private static Date toDate(long millis) {
+        return millis != NO_TIME ? new Date(millis) : null;
+    }
+}
@@ -0,0 +1,64 @@
+package com.city_i.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns dense short codes to a small set of strings. Code 0 is reserved for null.
+ */
+public final class StringDictionary {
+    public static final short NULL_CODE = 0;
+
+    private final Map<String, Short> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    public StringDictionary() {
+        values.add(null);
+    }
+
+    /**
+     * Code for the value, adding it if it is new.
+     *
+     * @throws IllegalStateException if the dictionary already holds Short.MAX_VALUE values
+     */
+    public short encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Short code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        if (values.size() > Short.MAX_VALUE) {
+            throw new IllegalStateException("Dictionary full, cannot add " + value);
+        }
+        short next = (short) values.size();
+        codes.put(value, next);
+        values.add(value);
+        return next;
+    }
+
+    /**
+     * Code for the value, or -1 if it has never been encoded.
+     */
+    public int lookup(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Short code = codes.get(value);
+        return code != null ? code : -1;
+    }
+
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    /**
+     * Number of codes in use, including the null code.
+     */
+    public int size() {
+        return values.size();
+    }
+}
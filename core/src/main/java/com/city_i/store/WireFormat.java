@@ -0,0 +1,219 @@
+package com.city_i.store;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Primitives shared by the binary formats: {@link IssueCodec} and
+ * {@link IssueSnapshot} over buffers, and the corpus files over streams.
+ *
+ * Integers are unsigned LEB128 varints, signed ones zigzag-encoded first so small
+ * negative numbers stay short. Strings are a varint byte length followed by UTF-8.
+ * Small sets of repeated strings go through a {@link StringDictionary}, either as a
+ * table written up front or as codes whose values are written inline the first
+ * time they appear.
+ */
+public final class WireFormat {
+    private WireFormat() {
+    }
+
+    public static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    public static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+
+    // Buffers
+
+    public static void writeVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the varint runs past 64 bits
+     */
+    public static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    /**
+     * Number of bytes {@link #putUtf8} writes for the value.
+     */
+    public static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Encode straight into the buffer instead of through an intermediate byte[].
+     * Writes the same bytes as {@code String.getBytes(UTF_8)}.
+     */
+    public static void putUtf8(ByteBuffer out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                out.put((byte) (0xF0 | (cp >> 18)));
+                out.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                out.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (cp & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, same replacement as String.getBytes
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * Bytes {@link #writeDictionaryTable} needs for the dictionary as it is now.
+     */
+    public static int dictionaryTableSize(StringDictionary dictionary) {
+        int size = varLongSize(dictionary.size() - 1);
+        for (int code = 1; code < dictionary.size(); code++) {
+            int bytes = utf8Length(dictionary.decode(code));
+            size += varLongSize(bytes) + bytes;
+        }
+        return size;
+    }
+
+    /**
+     * Write every value in code order, so reading them back into an empty
+     * dictionary assigns the same codes. See {@link IssueCodec#readDictionaryTable}.
+     */
+    public static void writeDictionaryTable(ByteBuffer out, StringDictionary dictionary) {
+        writeVarLong(out, dictionary.size() - 1);
+        for (int code = 1; code < dictionary.size(); code++) {
+            String value = dictionary.decode(code);
+            writeVarLong(out, utf8Length(value));
+            putUtf8(out, value);
+        }
+    }
+
+    // Streams
+
+    public static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    public static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read a string, decoding through {@code scratch} when it is large enough so
+     * that hot loops need not allocate a byte[] per string.
+     */
+    public static String readString(DataInput in, byte[] scratch) throws IOException {
+        long length = readVarLong(in);
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new IOException("Bad string length " + length);
+        }
+        byte[] bytes = length <= scratch.length ? scratch : new byte[(int) length];
+        in.readFully(bytes, 0, (int) length);
+        return new String(bytes, 0, (int) length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write a value as its dictionary code: 0 for null, an earlier code, or the
+     * next code followed by the value the first time it is seen.
+     */
+    public static void writeDictionaryValue(DataOutput out, StringDictionary dictionary, String value)
+            throws IOException {
+        int next = dictionary.size();
+        int code = dictionary.encode(value);
+        writeVarLong(out, code);
+        if (code == next) {
+            writeString(out, value);
+        }
+    }
+
+    /**
+     * Inverse of {@link #writeDictionaryValue}, given a dictionary that has read
+     * every earlier value.
+     */
+    public static String readDictionaryValue(DataInput in, StringDictionary dictionary, byte[] scratch)
+            throws IOException {
+        long code = readVarLong(in);
+        if (code < 0 || code > dictionary.size()) {
+            throw new IOException("Corrupt dictionary code " + code);
+        }
+        if (code < dictionary.size()) {
+            return dictionary.decode((int) code);
+        }
+        String value = readString(in, scratch);
+        if (dictionary.encode(value) != code) {
+            throw new IOException("Repeated dictionary value " + value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,16 @@
+package com.city_i.sync;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Applies a chunk of document writes atomically, e.g. one Firestore {@code WriteBatch}.
+ */
+public interface BatchCommitter {
+    /**
+     * Commit the writes, merging fields into existing documents. Writes to documents
+     * that no longer exist are dropped rather than creating them. The future fails
+     * if none of the writes were applied.
+     */
+    CompletableFuture<Void> commit(List<DocumentWrite> writes);
+}
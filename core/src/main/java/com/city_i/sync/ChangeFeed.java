@@ -0,0 +1,50 @@
+package com.city_i.sync;
+
+import com.city_i.models.IssueModel;
+
+import java.util.List;
+
+/**
+ * Server-side query for issues that changed after a watermark, e.g. a Firestore
+ * query ordered by {@code updatedAt} and document id with {@code startAfter}.
+ */
+public interface ChangeFeed {
+    /**
+     * Up to {@code limit} issues strictly after {@code after}, in (updatedAt, id)
+     * order. Fewer than {@code limit} results means the feed is exhausted.
+     */
+    Page changesAfter(Watermark after, int limit) throws Exception;
+
+    /**
+     * One page of changes and the exact feed position of its last issue.
+     */
+    final class Page {
+        private final List<IssueModel> issues;
+        private final Watermark end;
+
+        /**
+         * @param end position of the last document, at the precision the server orders
+         *            by; null for an empty page
+         */
+        public Page(List<IssueModel> issues, Watermark end) {
+            this.issues = issues;
+            this.end = end;
+        }
+
+        /**
+         * Page whose position comes from the last issue's {@code updatedAt}, for
+         * feeds that order by millisecond times.
+         */
+        public static Page of(List<IssueModel> issues) {
+            return new Page(issues, issues.isEmpty() ? null : Watermark.of(issues.get(issues.size() - 1)));
+        }
+
+        public List<IssueModel> getIssues() {
+            return issues;
+        }
+
+        public Watermark getEnd() {
+            return end;
+        }
+    }
+}
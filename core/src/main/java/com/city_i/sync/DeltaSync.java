@@ -0,0 +1,81 @@
+package com.city_i.sync;
+
+import com.city_i.models.IssueModel;
+import com.city_i.platform.Log;
+
+import java.util.List;
+
+/**
+ * Brings an {@link IssueMirror} up to date from one or more {@link ChangeFeed}s.
+ *
+ * Each scope (say "mine") keeps its own watermark; a sync pages through only the
+ * issues updated since then and moves the watermark forward, so the work done is
+ * proportional to the number of changes rather than the size of the collection.
+ */
+public class DeltaSync {
+    private static final String TAG = "DeltaSync";
+
+    public static final int DEFAULT_PAGE_SIZE = 200;
+
+    private final IssueMirror mirror;
+    private final int pageSize;
+
+    public DeltaSync(IssueMirror mirror) {
+        this(mirror, DEFAULT_PAGE_SIZE);
+    }
+
+    public DeltaSync(IssueMirror mirror, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        this.mirror = mirror;
+        this.pageSize = pageSize;
+    }
+
+    public IssueMirror getMirror() {
+        return mirror;
+    }
+
+    /**
+     * Fetch and apply every change in the scope since its watermark, then save.
+     * If a page fails, the pages already applied are kept and the next sync
+     * resumes after them.
+     *
+     * @return number of issues that changed in the mirror
+     */
+    public int sync(String scope, ChangeFeed feed) throws Exception {
+        Watermark watermark = mirror.getWatermark(scope);
+        int changed = 0;
+        int fetched = 0;
+        try {
+            while (true) {
+                Watermark before = watermark;
+                ChangeFeed.Page page = feed.changesAfter(watermark, pageSize);
+                List<IssueModel> issues = page.getIssues();
+                for (IssueModel issue : issues) {
+                    if (mirror.apply(issue)) {
+                        changed++;
+                    }
+                }
+                if (page.getEnd() != null && page.getEnd().isAfter(watermark)) {
+                    watermark = page.getEnd();
+                }
+                fetched += issues.size();
+                mirror.setWatermark(scope, watermark);
+                if (issues.size() < pageSize) {
+                    break;
+                }
+                if (!watermark.isAfter(before)) {
+                    // A full page that does not move the cursor would be fetched forever
+                    Log.w(TAG, "Feed for " + scope + " did not advance past " + watermark);
+                    break;
+                }
+            }
+        } finally {
+            mirror.save();
+        }
+        Log.d(TAG, "Synced " + scope + ": " + fetched + " fetched, " + changed + " changed, now at "
+                + watermark);
+        return changed;
+    }
+}
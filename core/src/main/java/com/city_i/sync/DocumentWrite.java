@@ -0,0 +1,28 @@
+package com.city_i.sync;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Merged field updates for one document, as handed to a {@link BatchCommitter}.
+ */
+public final class DocumentWrite {
+    private final String path;
+    private final Map<String, Object> fields;
+
+    DocumentWrite(String path, Map<String, Object> fields) {
+        this.path = path;
+        this.fields = Collections.unmodifiableMap(fields);
+    }
+
+    /**
+     * Document path, e.g. {@code issues/ISSUE-42}
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public Map<String, Object> getFields() {
+        return fields;
+    }
+}
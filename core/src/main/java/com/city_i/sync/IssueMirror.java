@@ -0,0 +1,182 @@
+package com.city_i.sync;
+
+import com.city_i.models.IssueModel;
+import com.city_i.platform.Log;
+import com.city_i.store.IssueSnapshot;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Local copy of the issues a device cares about, plus the sync watermark of each
+ * scope that feeds it. Stored as an {@link IssueSnapshot} and a small properties
+ * file in one directory.
+ *
+ * The watermarks are saved after the issues, so a crash in between only means the
+ * next sync fetches some changes again; {@link #apply} makes that harmless.
+ */
+public class IssueMirror {
+    private static final String TAG = "IssueMirror";
+    private static final String ISSUES_FILE = "issues.snap";
+    private static final String WATERMARKS_FILE = "watermarks.properties";
+
+    private final File directory;
+    private final Map<String, IssueModel> issues = new LinkedHashMap<>();
+    private final Map<String, Watermark> watermarks = new LinkedHashMap<>();
+    private boolean dirty;
+
+    private IssueMirror(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Load the mirror from {@code directory}, creating it if needed.
+     */
+    public static IssueMirror open(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        IssueMirror mirror = new IssueMirror(directory);
+        mirror.load();
+        return mirror;
+    }
+
+    /**
+     * Insert or replace an issue unless the mirror already has this version or a
+     * newer one. {@code updatedAt} only has millisecond precision, so two updates
+     * in the same millisecond tie; the one seen later wins unless it is identical
+     * to what the mirror holds.
+     *
+     * @return true if the mirror changed
+     */
+    public synchronized boolean apply(IssueModel issue) {
+        if (issue.getId() == null) {
+            return false;
+        }
+        IssueModel current = issues.get(issue.getId());
+        if (current != null && current.getUpdatedAt() != null && issue.getUpdatedAt() != null) {
+            int order = issue.getUpdatedAt().compareTo(current.getUpdatedAt());
+            if (order < 0 || (order == 0 && sameContent(issue, current))) {
+                return false;
+            }
+        }
+        issues.put(issue.getId(), issue);
+        dirty = true;
+        return true;
+    }
+
+    /**
+     * Drop an issue that no longer exists upstream.
+     */
+    public synchronized boolean remove(String id) {
+        if (issues.remove(id) == null) {
+            return false;
+        }
+        dirty = true;
+        return true;
+    }
+
+    public synchronized IssueModel get(String id) {
+        return issues.get(id);
+    }
+
+    public synchronized List<IssueModel> getIssues() {
+        return new ArrayList<>(issues.values());
+    }
+
+    public synchronized int size() {
+        return issues.size();
+    }
+
+    public synchronized Watermark getWatermark(String scope) {
+        Watermark watermark = watermarks.get(scope);
+        return watermark != null ? watermark : Watermark.START;
+    }
+
+    public synchronized void setWatermark(String scope, Watermark watermark) {
+        watermarks.put(scope, watermark);
+        dirty = true;
+    }
+
+    /**
+     * Write issues and watermarks to disk if anything changed since the last save.
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        IssueSnapshot.write(new File(directory, ISSUES_FILE), new ArrayList<>(issues.values()));
+
+        Properties properties = new Properties();
+        for (Map.Entry<String, Watermark> entry : watermarks.entrySet()) {
+            properties.setProperty(entry.getKey(), entry.getValue().toString());
+        }
+        File target = new File(directory, WATERMARKS_FILE);
+        File temp = new File(directory, WATERMARKS_FILE + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            properties.store(out, null);
+            out.getFD().sync();
+        }
+        if (!temp.renameTo(target)) {
+            throw new IOException("Could not replace " + target);
+        }
+        dirty = false;
+    }
+
+    private void load() throws IOException {
+        File issuesFile = new File(directory, ISSUES_FILE);
+        File watermarksFile = new File(directory, WATERMARKS_FILE);
+        if (!issuesFile.exists()) {
+            // Watermarks without the issues they cover would skip those issues forever
+            return;
+        }
+        try {
+            putAll(IssueSnapshot.open(issuesFile).readAll());
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Discarding unreadable mirror: " + e.getMessage());
+            issues.clear();
+            return;
+        }
+        if (watermarksFile.exists()) {
+            Properties properties = new Properties();
+            try (InputStream in = new FileInputStream(watermarksFile)) {
+                properties.load(in);
+            }
+            for (String scope : properties.stringPropertyNames()) {
+                watermarks.put(scope, Watermark.parse(properties.getProperty(scope)));
+            }
+        }
+        Log.d(TAG, "Loaded " + issues.size() + " mirrored issues, " + watermarks.size() + " scopes");
+    }
+
+    private static boolean sameContent(IssueModel a, IssueModel b) {
+        return Objects.equals(a.getTitle(), b.getTitle())
+                && Objects.equals(a.getDescription(), b.getDescription())
+                && Objects.equals(a.getCategory(), b.getCategory())
+                && Objects.equals(a.getStatus(), b.getStatus())
+                && Objects.equals(a.getImagePath(), b.getImagePath())
+                && Objects.equals(a.getDepartmentId(), b.getDepartmentId())
+                && Objects.equals(a.getReportedByUserId(), b.getReportedByUserId())
+                && Double.compare(a.getLatitude(), b.getLatitude()) == 0
+                && Double.compare(a.getLongitude(), b.getLongitude()) == 0
+                && Objects.equals(a.getGeohash(), b.getGeohash())
+                && a.getPriority() == b.getPriority()
+                && Objects.equals(a.getCreatedAt(), b.getCreatedAt());
+    }
+
+    private void putAll(Collection<IssueModel> loaded) {
+        for (IssueModel issue : loaded) {
+            issues.put(issue.getId(), issue);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.city_i.sync;
+
+import com.city_i.models.IssueModel;
+
+/**
+ * A report waiting in the {@link SubmissionLog}.
+ */
+public final class Submission {
+    private final String key;
+    private final IssueModel issue;
+    private final String imageRef;
+    private final long queuedAtMillis;
+
+    Submission(String key, IssueModel issue, String imageRef, long queuedAtMillis) {
+        this.key = key;
+        this.issue = issue;
+        this.imageRef = imageRef;
+        this.queuedAtMillis = queuedAtMillis;
+    }
+
+    /**
+     * Idempotency key; senders should use it as the document id so a retried
+     * send overwrites instead of duplicating.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public IssueModel getIssue() {
+        return issue;
+    }
+
+    /**
+     * Local path or URI of the photo, may be null
+     */
+    public String getImageRef() {
+        return imageRef;
+    }
+
+    public long getQueuedAtMillis() {
+        return queuedAtMillis;
+    }
+}
@@ -0,0 +1,125 @@
+package com.city_i.sync;
+
+import com.city_i.platform.Log;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background thread that pushes pending {@link SubmissionLog} entries to a
+ * {@link SubmissionSender} in batches.
+ *
+ * After a failed send the next attempt waits a random time up to
+ * {@code baseDelayMs * 2^failures}, capped at {@code maxDelayMs}, so a fleet of
+ * phones coming back online does not retry in lockstep. {@link #kick()} skips the
+ * wait, e.g. when connectivity returns.
+ */
+public class SubmissionDrainer implements Closeable {
+    private static final String TAG = "SubmissionDrainer";
+
+    public static final int DEFAULT_BATCH_SIZE = 20;
+    public static final long DEFAULT_BASE_DELAY_MS = 1000;
+    public static final long DEFAULT_MAX_DELAY_MS = 5 * 60 * 1000;
+
+    private final SubmissionLog log;
+    private final SubmissionSender sender;
+    private final int batchSize;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final ScheduledExecutorService executor;
+
+    private ScheduledFuture<?> scheduled;
+    private int failures;
+
+    public SubmissionDrainer(SubmissionLog log, SubmissionSender sender) {
+        this(log, sender, DEFAULT_BATCH_SIZE, DEFAULT_BASE_DELAY_MS, DEFAULT_MAX_DELAY_MS);
+    }
+
+    public SubmissionDrainer(SubmissionLog log, SubmissionSender sender,
+                             int batchSize, long baseDelayMs, long maxDelayMs) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.log = log;
+        this.sender = sender;
+        this.batchSize = batchSize;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "submission-drainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Drain now, cancelling any backoff wait. Safe to call from any thread.
+     */
+    public synchronized void kick() {
+        if (executor.isShutdown()) {
+            return;
+        }
+        // A drain that is already running may be about to see an empty log, so
+        // always queue another one behind it; only a backoff wait is cancelled
+        if (scheduled != null && scheduled.getDelay(TimeUnit.MILLISECONDS) > 0) {
+            scheduled.cancel(false);
+        }
+        failures = 0;
+        scheduled = executor.schedule(this::drain, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Consecutive failed attempts since the last successful batch.
+     */
+    public synchronized int getFailures() {
+        return failures;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void drain() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Submission> batch = log.pending(batchSize);
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                Collection<String> accepted = sender.send(batch);
+                log.acknowledge(accepted);
+                if (accepted.size() < batch.size()) {
+                    retryLater("server accepted " + accepted.size() + " of " + batch.size());
+                    return;
+                }
+                synchronized (this) {
+                    failures = 0;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                retryLater(e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private synchronized void retryLater(String reason) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(failures, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        failures++;
+        Log.w(TAG, "Send failed (" + reason + "), retry " + failures + " in " + delay + "ms");
+        scheduled = executor.schedule(this::drain, delay, TimeUnit.MILLISECONDS);
+    }
+}
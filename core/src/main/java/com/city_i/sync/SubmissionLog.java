@@ -0,0 +1,341 @@
+package com.city_i.sync;
+
+import com.city_i.models.IssueModel;
+import com.city_i.platform.Log;
+import com.city_i.store.IssueCodec;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Durable append-only log of issue reports that have not reached the server yet.
+ *
+ * Every record is framed as {@code int length, int crc32, payload}. A submit record
+ * holds the idempotency key, image reference and the issue encoded with
+ * {@link IssueCodec#toBytes}; an ack record holds only the key. On open the log is replayed
+ * and anything after the first torn or corrupt frame is cut off.
+ *
+ * Appends return once the record is on disk. Concurrent appenders share fsyncs:
+ * whoever syncs first makes everything written so far durable for the others too.
+ * Once enough of the log is acknowledged it is rewritten with only the pending
+ * records.
+ */
+public class SubmissionLog implements Closeable {
+    private static final String TAG = "SubmissionLog";
+
+    private static final byte TYPE_SUBMIT = 1;
+    private static final byte TYPE_ACK = 2;
+    private static final int FRAME_HEADER = 8;
+    private static final int MAX_RECORD = 1 << 20;
+
+    // Compact once this many records are acknowledged and they are most of the file
+    private static final int COMPACT_MIN_ACKED = 64;
+
+    private final File file;
+    private final Map<String, Submission> pending = new LinkedHashMap<>();
+    private final Object syncLock = new Object();
+    private FileChannel channel;
+    private long writePosition;
+    private long durablePosition;
+    private int ackedRecords;
+
+    private SubmissionLog(File file) throws IOException {
+        this.file = file;
+        this.channel = new RandomAccessFile(file, "rw").getChannel();
+        replay();
+    }
+
+    public static SubmissionLog open(File file) throws IOException {
+        return new SubmissionLog(file);
+    }
+
+    /**
+     * Queue a report. Returns after the record has been fsynced.
+     *
+     * The submission holds its own copy of the issue, with the id set to the key
+     * if it had none, so the caller can keep using {@code issue} while senders
+     * read the copy.
+     */
+    public Submission append(IssueModel issue, String imageRef) throws IOException {
+        String key = UUID.randomUUID().toString();
+        IssueModel queued = new IssueModel(issue);
+        if (queued.getId() == null) {
+            queued.setId(key);
+        }
+        Submission submission = new Submission(key, queued, imageRef, System.currentTimeMillis());
+        ByteBuffer record = encodeSubmit(submission);
+        long end;
+        synchronized (this) {
+            end = write(record);
+            pending.put(submission.getKey(), submission);
+        }
+        sync(end);
+        return submission;
+    }
+
+    /**
+     * Oldest pending submissions first, at most {@code limit}.
+     */
+    public synchronized List<Submission> pending(int limit) {
+        List<Submission> batch = new ArrayList<>(Math.min(limit, pending.size()));
+        for (Submission submission : pending.values()) {
+            if (batch.size() == limit) {
+                break;
+            }
+            batch.add(submission);
+        }
+        return batch;
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Mark submissions as delivered. Unknown keys are ignored.
+     */
+    public void acknowledge(Collection<String> keys) throws IOException {
+        long end = -1;
+        synchronized (this) {
+            for (String key : keys) {
+                if (pending.remove(key) != null) {
+                    end = write(encodeAck(key));
+                    ackedRecords += 2;
+                }
+            }
+        }
+        if (end >= 0) {
+            sync(end);
+            maybeCompact();
+        }
+    }
+
+    /**
+     * Rewrite the log with only the pending submissions.
+     */
+    public synchronized void compact() throws IOException {
+        File temp = new File(file.getPath() + ".compact");
+        long size = 0;
+        try (FileChannel out = new RandomAccessFile(temp, "rw").getChannel()) {
+            out.truncate(0);
+            for (Submission submission : pending.values()) {
+                ByteBuffer record = encodeSubmit(submission);
+                while (record.hasRemaining()) {
+                    size += out.write(record);
+                }
+            }
+            out.force(true);
+        }
+        synchronized (syncLock) {
+            channel.close();
+            if (!temp.renameTo(file)) {
+                // Keep using the old log; it is still complete
+                temp.delete();
+                channel = new RandomAccessFile(file, "rw").getChannel();
+                throw new IOException("Could not replace " + file);
+            }
+            channel = new RandomAccessFile(file, "rw").getChannel();
+            syncDirectory(file.getAbsoluteFile().getParentFile());
+            writePosition = size;
+            durablePosition = size;
+        }
+        Log.d(TAG, "Compacted log, " + ackedRecords + " acknowledged records dropped");
+        ackedRecords = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        synchronized (syncLock) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private void maybeCompact() throws IOException {
+        synchronized (this) {
+            if (ackedRecords >= COMPACT_MIN_ACKED && ackedRecords > pending.size()) {
+                compact();
+            }
+        }
+    }
+
+    // Caller holds the monitor; returns the end offset of the record
+    private long write(ByteBuffer record) throws IOException {
+        synchronized (syncLock) {
+            while (record.hasRemaining()) {
+                writePosition += channel.write(record, writePosition);
+            }
+            return writePosition;
+        }
+    }
+
+    // Group commit: one force covers every record written before it started
+    private void sync(long end) throws IOException {
+        synchronized (syncLock) {
+            if (durablePosition >= end) {
+                return;
+            }
+            long target = writePosition;
+            channel.force(false);
+            durablePosition = target;
+        }
+    }
+
+    // A rename is only durable once the directory is; not every platform can sync one
+    private static void syncDirectory(File directory) {
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            Log.d(TAG, "Could not sync " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private void replay() throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER);
+        int acked = 0;
+
+        while (position + FRAME_HEADER <= size) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            int crc = header.getInt();
+            if (length <= 0 || length > MAX_RECORD || position + FRAME_HEADER + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            while (payload.hasRemaining()) {
+                if (channel.read(payload, position + FRAME_HEADER + payload.position()) < 0) {
+                    break;
+                }
+            }
+            payload.flip();
+            if (crc32(payload) != crc) {
+                break;
+            }
+            try {
+                byte type = payload.get();
+                if (type == TYPE_SUBMIT) {
+                    Submission submission = decodeSubmit(payload);
+                    pending.put(submission.getKey(), submission);
+                } else if (type == TYPE_ACK) {
+                    if (pending.remove(readString(payload)) != null) {
+                        acked += 2;
+                    }
+                } else {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Unreadable record at " + position + ": " + e.getMessage());
+                break;
+            }
+            position += FRAME_HEADER + length;
+        }
+
+        if (position < size) {
+            Log.w(TAG, "Discarding " + (size - position) + " bytes of torn log tail");
+            channel.truncate(position);
+            channel.force(false);
+        }
+        writePosition = position;
+        durablePosition = position;
+        ackedRecords = acked;
+        Log.d(TAG, "Replayed log, " + pending.size() + " pending submissions");
+    }
+
+    private static ByteBuffer encodeSubmit(Submission submission) {
+        byte[] key = utf8(submission.getKey());
+        byte[] imageRef = submission.getImageRef() != null ? utf8(submission.getImageRef()) : null;
+        byte[] issue = IssueCodec.toBytes(submission.getIssue());
+
+        int length = 1 + 4 + key.length + 8 + 4 + (imageRef != null ? imageRef.length : 0)
+                + 4 + issue.length;
+        ByteBuffer buffer = ByteBuffer.allocate(FRAME_HEADER + length);
+        buffer.position(FRAME_HEADER);
+        buffer.put(TYPE_SUBMIT);
+        putBytes(buffer, key);
+        buffer.putLong(submission.getQueuedAtMillis());
+        putBytes(buffer, imageRef);
+        putBytes(buffer, issue);
+        return frame(buffer, length);
+    }
+
+    private static Submission decodeSubmit(ByteBuffer payload) {
+        String key = readString(payload);
+        long queuedAt = payload.getLong();
+        String imageRef = readString(payload);
+        int issueSize = payload.getInt();
+        if (issueSize < 0 || issueSize > payload.remaining()) {
+            throw new IllegalArgumentException("Bad issue length " + issueSize);
+        }
+        IssueModel issue = IssueCodec.fromBytes(payload.array(),
+                payload.arrayOffset() + payload.position(), issueSize);
+        payload.position(payload.position() + issueSize);
+        return new Submission(key, issue, imageRef, queuedAt);
+    }
+
+    private static ByteBuffer encodeAck(String key) {
+        byte[] bytes = utf8(key);
+        int length = 1 + 4 + bytes.length;
+        ByteBuffer buffer = ByteBuffer.allocate(FRAME_HEADER + length);
+        buffer.position(FRAME_HEADER);
+        buffer.put(TYPE_ACK);
+        putBytes(buffer, bytes);
+        return frame(buffer, length);
+    }
+
+    private static ByteBuffer frame(ByteBuffer buffer, int length) {
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(FRAME_HEADER);
+        payload.limit(FRAME_HEADER + length);
+        buffer.putInt(0, length);
+        buffer.putInt(4, crc32(payload));
+        buffer.position(0);
+        return buffer;
+    }
+
+    private static int crc32(ByteBuffer payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,16 @@
+package com.city_i.sync;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Delivers queued reports to the backend. Called from the drainer thread, so
+ * implementations may block.
+ */
+public interface SubmissionSender {
+    /**
+     * Send a batch and return the keys the server accepted. Keys left out are
+     * retried later; throwing retries the whole batch.
+     */
+    Collection<String> send(List<Submission> batch) throws Exception;
+}
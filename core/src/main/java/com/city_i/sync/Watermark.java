@@ -0,0 +1,104 @@
+package com.city_i.sync;
+
+import com.city_i.models.IssueModel;
+
+/**
+ * Position in an {@code updatedAt}-ordered change feed. The document id breaks
+ * ties, so issues sharing a timestamp are neither skipped nor fetched twice.
+ *
+ * The time is kept as seconds and nanoseconds, like a Firestore Timestamp: server
+ * timestamps have microsecond precision, and a cursor rounded to milliseconds sorts
+ * before the document it came from, which would then be fetched again on every sync.
+ */
+public final class Watermark {
+    public static final Watermark START = new Watermark(Long.MIN_VALUE, 0, "");
+
+    private static final int NANOS_PER_MILLI = 1_000_000;
+
+    private final long seconds;
+    private final int nanos;
+    private final String id;
+
+    /**
+     * @param nanos 0 to 999,999,999
+     */
+    public Watermark(long seconds, int nanos, String id) {
+        if (nanos < 0 || nanos >= 1_000_000_000) {
+            throw new IllegalArgumentException("nanos out of range: " + nanos);
+        }
+        this.seconds = seconds;
+        this.nanos = nanos;
+        this.id = id != null ? id : "";
+    }
+
+    /**
+     * Watermark at a millisecond time, for feeds that only have {@link java.util.Date}s.
+     */
+    public static Watermark ofMillis(long updatedAtMillis, String id) {
+        return new Watermark(Math.floorDiv(updatedAtMillis, 1000),
+                Math.floorMod(updatedAtMillis, 1000) * NANOS_PER_MILLI, id);
+    }
+
+    /**
+     * Watermark just past the given issue, to the millisecond.
+     */
+    public static Watermark of(IssueModel issue) {
+        if (issue.getUpdatedAt() == null) {
+            return new Watermark(Long.MIN_VALUE, 0, issue.getId());
+        }
+        return ofMillis(issue.getUpdatedAt().getTime(), issue.getId());
+    }
+
+    public long getSeconds() {
+        return seconds;
+    }
+
+    public int getNanos() {
+        return nanos;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public boolean isStart() {
+        return seconds == Long.MIN_VALUE && nanos == 0 && id.isEmpty();
+    }
+
+    /**
+     * True if this watermark is past {@code other} in feed order.
+     */
+    public boolean isAfter(Watermark other) {
+        if (seconds != other.seconds) {
+            return seconds > other.seconds;
+        }
+        if (nanos != other.nanos) {
+            return nanos > other.nanos;
+        }
+        return id.compareTo(other.id) > 0;
+    }
+
+    @Override
+    public String toString() {
+        return seconds + ":" + nanos + "/" + id;
+    }
+
+    /**
+     * Inverse of {@link #toString()}. Also reads the older {@code millis/id} form.
+     */
+    public static Watermark parse(String value) {
+        int slash = value.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("Bad watermark: " + value);
+        }
+        String time = value.substring(0, slash);
+        String id = value.substring(slash + 1);
+        int colon = time.indexOf(':');
+        if (colon < 0) {
+            long millis = Long.parseLong(time);
+            return millis == Long.MIN_VALUE ? new Watermark(Long.MIN_VALUE, 0, id) : ofMillis(millis, id);
+        }
+        return new Watermark(Long.parseLong(time.substring(0, colon)),
+                Integer.parseInt(time.substring(colon + 1)), id);
+    }
+}
@@ -0,0 +1,228 @@
+package com.city_i.sync;
+
+import com.city_i.platform.Log;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers field updates per document and commits them in batches.
+ *
+ * Repeated updates to a document before it is flushed are merged, later values
+ * winning, so a document is written once per flush. A flush starts when
+ * {@code maxBatchSize} documents are pending or {@code lingerMs} after the first
+ * buffered update, and is split into chunks of at most {@code maxBatchSize} writes.
+ * Flushes run one at a time, so two writes to the same document are never in
+ * flight together and land in the order they were made.
+ *
+ * Every update returns a future for its document's outcome; updates merged into
+ * the same write share it.
+ */
+public class WriteCoalescer implements AutoCloseable {
+    private static final String TAG = "WriteCoalescer";
+
+    /** Firestore's limit on operations in one WriteBatch. */
+    public static final int MAX_BATCH_SIZE = 500;
+    public static final long DEFAULT_LINGER_MS = 50;
+
+    private final BatchCommitter committer;
+    private final int maxBatchSize;
+    private final long lingerMs;
+    private final ScheduledExecutorService scheduler;
+
+    private Map<String, PendingWrite> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> lingerTimer;
+    private CompletableFuture<Void> inFlight;
+    // A flush came due while one was running, so the next one starts without lingering
+    private boolean flushDue;
+    private boolean closed;
+
+    public WriteCoalescer(BatchCommitter committer) {
+        this(committer, MAX_BATCH_SIZE, DEFAULT_LINGER_MS);
+    }
+
+    public WriteCoalescer(BatchCommitter committer, int maxBatchSize, long lingerMs) {
+        if (maxBatchSize <= 0 || maxBatchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("maxBatchSize must be in 1.." + MAX_BATCH_SIZE);
+        }
+        this.committer = committer;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMs = lingerMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "write-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Merge fields into the pending write for a document.
+     *
+     * @return completes when the write is committed, or fails with the batch error
+     */
+    public synchronized CompletableFuture<Void> update(String path, Map<String, Object> fields) {
+        if (closed) {
+            CompletableFuture<Void> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new RejectedExecutionException("WriteCoalescer closed"));
+            return rejected;
+        }
+        PendingWrite write = pending.get(path);
+        if (write == null) {
+            write = new PendingWrite();
+            pending.put(path, write);
+        }
+        write.fields.putAll(fields);
+
+        if (pending.size() >= maxBatchSize) {
+            scheduleFlush(0);
+        } else if (lingerTimer == null) {
+            scheduleFlush(lingerMs);
+        }
+        return write.result;
+    }
+
+    public CompletableFuture<Void> update(String path, String field, Object value) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put(field, value);
+        return update(path, fields);
+    }
+
+    /**
+     * Number of documents waiting for the next flush.
+     */
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Commit everything buffered so far without waiting for the linger time.
+     *
+     * @return completes once those writes have been attempted
+     */
+    public synchronized CompletableFuture<Void> flush() {
+        List<CompletableFuture<Void>> results = new ArrayList<>(pending.size());
+        for (PendingWrite write : pending.values()) {
+            results.add(write.result);
+        }
+        if (!results.isEmpty()) {
+            scheduleFlush(0);
+        }
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+                .handle((ignored, error) -> null);
+    }
+
+    /**
+     * Flush what is buffered and stop accepting updates.
+     */
+    @Override
+    public void close() {
+        CompletableFuture<Void> drained;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            drained = flush();
+            closed = true;
+        }
+        drained.whenComplete((ignored, error) -> scheduler.shutdown());
+    }
+
+    // Caller holds the monitor
+    private void scheduleFlush(long delayMs) {
+        if (lingerTimer != null) {
+            if (lingerTimer.getDelay(TimeUnit.MILLISECONDS) <= delayMs) {
+                return;
+            }
+            lingerTimer.cancel(false);
+        }
+        try {
+            lingerTimer = scheduler.schedule(this::startFlush, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            lingerTimer = null;
+        }
+    }
+
+    private void startFlush() {
+        Map<String, PendingWrite> batch;
+        synchronized (this) {
+            lingerTimer = null;
+            if (inFlight != null) {
+                // The running flush picks these up when it completes
+                flushDue = true;
+                return;
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        List<DocumentWrite> writes = new ArrayList<>(Math.min(batch.size(), maxBatchSize));
+        List<PendingWrite> owners = new ArrayList<>(writes.size());
+        for (Map.Entry<String, PendingWrite> entry : batch.entrySet()) {
+            writes.add(new DocumentWrite(entry.getKey(), entry.getValue().fields));
+            owners.add(entry.getValue());
+            if (writes.size() == maxBatchSize) {
+                chunks.add(commit(writes, owners));
+                writes = new ArrayList<>(maxBatchSize);
+                owners = new ArrayList<>(maxBatchSize);
+            }
+        }
+        if (!writes.isEmpty()) {
+            chunks.add(commit(writes, owners));
+        }
+
+        CompletableFuture<Void> done = CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0]));
+        synchronized (this) {
+            inFlight = done;
+        }
+        done.whenComplete((ignored, error) -> {
+            synchronized (this) {
+                inFlight = null;
+                boolean due = flushDue || pending.size() >= maxBatchSize;
+                flushDue = false;
+                if (!pending.isEmpty()) {
+                    scheduleFlush(due ? 0 : lingerMs);
+                }
+            }
+        });
+    }
+
+    private CompletableFuture<Void> commit(List<DocumentWrite> writes, List<PendingWrite> owners) {
+        CompletableFuture<Void> committed;
+        try {
+            committed = committer.commit(writes);
+        } catch (RuntimeException e) {
+            committed = new CompletableFuture<>();
+            committed.completeExceptionally(e);
+        }
+        return committed.handle((ignored, error) -> {
+            if (error != null) {
+                Log.w(TAG, "Batch of " + writes.size() + " writes failed: " + error.getMessage());
+            }
+            for (PendingWrite owner : owners) {
+                if (error == null) {
+                    owner.result.complete(null);
+                } else {
+                    owner.result.completeExceptionally(error);
+                }
+            }
+            return null;
+        });
+    }
+
+    private static final class PendingWrite {
+        final Map<String, Object> fields = new LinkedHashMap<>();
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+    }
+}
@@ -0,0 +1,113 @@
+package com.city_i.ai;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InferenceMetricsTest {
+    private static final long NANOS_PER_MICRO = 1000;
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    @Test
+    public void everyLatencyFallsInsideItsBucket() {
+        for (long micros = 0; micros < 2_000_000; micros += micros < 1000 ? 1 : 997) {
+            int index = InferenceMetrics.bucketIndex(micros);
+            assertTrue(micros + " above bucket " + index, micros <= InferenceMetrics.bucketUpperBound(index));
+            if (index > 0) {
+                assertTrue(micros + " below bucket " + index,
+                        micros > InferenceMetrics.bucketUpperBound(index - 1));
+            }
+        }
+    }
+
+    @Test
+    public void bucketsAreWithinAnEighthOfTheLatency() {
+        for (long micros = 8; micros < 60_000_000; micros = micros * 3 / 2 + 1) {
+            long upper = InferenceMetrics.bucketUpperBound(InferenceMetrics.bucketIndex(micros));
+            assertTrue(micros + " rounded up to " + upper, upper - micros <= micros / 8);
+        }
+    }
+
+    @Test
+    public void slowAndNegativeLatenciesAreClamped() {
+        assertEquals(0, InferenceMetrics.bucketIndex(-5));
+        int last = InferenceMetrics.bucketIndex(Long.MAX_VALUE);
+        assertEquals(last, InferenceMetrics.bucketIndex(10L * 60 * 1_000_000));
+        assertTrue(InferenceMetrics.bucketUpperBound(last) >= 60_000_000);
+    }
+
+    @Test
+    public void percentilesFollowTheRecordedLatencies() {
+        InferenceMetrics metrics = new InferenceMetrics();
+        for (int ms = 1; ms <= 100; ms++) {
+            metrics.record("classifier", ms * NANOS_PER_MILLI, ms != 100);
+        }
+
+        InferenceMetrics.ModelSnapshot snapshot = metrics.snapshot().get(0);
+        assertEquals(100, snapshot.getCount());
+        assertEquals(1, snapshot.getErrorCount());
+        assertEquals(50_500, snapshot.getMeanMicros(), 0.001);
+        assertEquals(100_000, snapshot.getMaxMicros());
+        assertWithinAnEighth(50_000, snapshot.getP50Micros());
+        assertWithinAnEighth(95_000, snapshot.getP95Micros());
+        assertWithinAnEighth(99_000, snapshot.getP99Micros());
+        // Never reported above the slowest call seen
+        assertTrue(snapshot.getP99Micros() <= snapshot.getMaxMicros());
+    }
+
+    @Test
+    public void modelsAreKeptApartAndSortedByName() {
+        InferenceMetrics metrics = new InferenceMetrics();
+        metrics.record("text", 200 * NANOS_PER_MICRO, true);
+        metrics.record("image", 5 * NANOS_PER_MILLI, true);
+        metrics.record("image", 7 * NANOS_PER_MILLI, true);
+        metrics.setDelegate("image", "GPU");
+
+        List<InferenceMetrics.ModelSnapshot> snapshots = metrics.snapshot();
+        assertEquals(2, snapshots.size());
+        assertEquals("image", snapshots.get(0).getModelName());
+        assertEquals("GPU", snapshots.get(0).getDelegate());
+        assertEquals(2, snapshots.get(0).getCount());
+        assertEquals("text", snapshots.get(1).getModelName());
+        assertEquals("CPU", snapshots.get(1).getDelegate());
+        assertEquals(200, snapshots.get(1).getMaxMicros());
+    }
+
+    @Test
+    public void resetForgetsEverything() {
+        InferenceMetrics metrics = new InferenceMetrics();
+        metrics.record("text", NANOS_PER_MILLI, true);
+        metrics.reset();
+
+        assertTrue(metrics.snapshot().isEmpty());
+        assertTrue(metrics.dump().contains("No inferences recorded"));
+    }
+
+    @Test
+    public void concurrentRecordsAreAllCounted() throws InterruptedException {
+        InferenceMetrics metrics = new InferenceMetrics();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    metrics.record("text", (i % 500) * NANOS_PER_MICRO, true);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40_000, metrics.snapshot().get(0).getCount());
+        assertEquals(499, metrics.snapshot().get(0).getMaxMicros());
+    }
+
+    private static void assertWithinAnEighth(long expected, long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual,
+                actual >= expected && actual - expected <= expected / 8);
+    }
+}
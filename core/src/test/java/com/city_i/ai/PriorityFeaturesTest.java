@@ -0,0 +1,108 @@
+package com.city_i.ai;
+
+import com.city_i.models.IssueModel;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PriorityFeaturesTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<String> analyzedTexts = new ArrayList<>();
+    private final List<String> analyzedImages = new ArrayList<>();
+    private final PriorityScorer scorer = new PriorityScorer(new TextAnalyzer() {
+        @Override
+        public int analyzeUrgency(String text) {
+            analyzedTexts.add(text);
+            return super.analyzeUrgency(text);
+        }
+    }, new LocationAnalyzer(), imagePath -> {
+        analyzedImages.add(imagePath);
+        return 7;
+    }, null);
+
+    @Test
+    public void unchangedIssueReusesEveryComponent() {
+        IssueModel issue = issue("Water main burst, street flooding");
+        PriorityFeatures first = scorer.extractFeatures(issue, null);
+        PriorityFeatures second = scorer.extractFeatures(issue, first);
+
+        assertEquals(1, analyzedTexts.size());
+        assertEquals(scorer.combine(first), scorer.combine(second));
+    }
+
+    @Test
+    public void textWithTheSameHashIsScoredAgain() {
+        // Same hashCode and length, different text
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        PriorityFeatures first = scorer.extractFeatures(issue("Aa"), null);
+        scorer.extractFeatures(issue("BB"), first);
+
+        assertEquals(2, analyzedTexts.size());
+        assertEquals("BB", analyzedTexts.get(1));
+    }
+
+    @Test
+    public void categoryIsComparedByValue() {
+        IssueModel issue = issue("Broken streetlight");
+        issue.setCategory("Aa");
+        PriorityFeatures features = scorer.extractFeatures(issue, null);
+
+        assertTrue(features.sameCategory("Aa"));
+        assertFalse(features.sameCategory("BB"));
+        assertFalse(features.sameCategory(null));
+    }
+
+    @Test
+    public void emptyAndMissingTextAreDifferentInputs() {
+        PriorityFeatures first = scorer.extractFeatures(issue(null), null);
+        scorer.extractFeatures(issue(""), first);
+
+        assertEquals(2, analyzedTexts.size());
+    }
+
+    @Test
+    public void retakenPhotoAtTheSamePathIsScoredAgain() throws IOException {
+        File photo = folder.newFile("photo.jpg");
+        write(photo, 10);
+        IssueModel issue = issue("Garbage pile");
+        issue.setImagePath(photo.getPath());
+
+        PriorityFeatures first = scorer.extractFeatures(issue, null);
+        PriorityFeatures unchanged = scorer.extractFeatures(issue, first);
+        assertEquals(1, analyzedImages.size());
+
+        write(photo, 20);
+        scorer.extractFeatures(issue, unchanged);
+        assertEquals(2, analyzedImages.size());
+    }
+
+    private static void write(File file, int bytes) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[bytes]);
+        }
+    }
+
+    private static IssueModel issue(String description) {
+        IssueModel issue = new IssueModel();
+        issue.setDescription(description);
+        issue.setCategory("Roads");
+        issue.setLatitude(15.4909);
+        issue.setLongitude(73.8278);
+        issue.setCreatedAt(new Date(1_700_000_000_000L));
+        return issue;
+    }
+}
@@ -0,0 +1,147 @@
+package com.city_i.ai;
+
+import com.city_i.platform.InferenceRunner;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TextUrgencyModelTest {
+    private static final List<String> VOCABULARY =
+            Arrays.asList("<PAD>", "<UNK>", "water", "leak", "wa", "burst", "pipe", "24");
+
+    private final VocabularyTrie vocabulary = new VocabularyTrie(VOCABULARY);
+
+    @Test
+    public void tokenizeMatchesWholeWordsCaseInsensitively() {
+        int[] ids = new int[6];
+
+        int count = vocabulary.tokenize("Water LEAK, since 24h -- wat?", ids);
+
+        assertEquals(5, count);
+        // "since", "24h" and "wat" are not in the vocabulary; only prefixes of it
+        assertArrayEquals(new int[]{2, 3, VocabularyTrie.UNK_ID, VocabularyTrie.UNK_ID, VocabularyTrie.UNK_ID,
+                VocabularyTrie.PAD_ID}, ids);
+    }
+
+    @Test
+    public void tokenizeStopsAtTheArrayLength() {
+        int[] ids = new int[2];
+
+        assertEquals(2, vocabulary.tokenize("burst pipe water leak", ids));
+        assertArrayEquals(new int[]{5, 6}, ids);
+    }
+
+    @Test
+    public void lookupAgreesWithTokenize() {
+        assertEquals(4, vocabulary.lookup("wa"));
+        assertEquals(4, vocabulary.lookup("WA"));
+        assertEquals(7, vocabulary.lookup("24"));
+        assertEquals(VocabularyTrie.UNK_ID, vocabulary.lookup("w"));
+        assertEquals(VocabularyTrie.UNK_ID, vocabulary.lookup("water!"));
+        // Special tokens reserve their ids but cannot be produced from text
+        assertEquals(VocabularyTrie.UNK_ID, vocabulary.lookup("<PAD>"));
+    }
+
+    @Test
+    public void predictionIsTheExpectedUrgencyOfTheClasses() {
+        FakeRunner runner = new FakeRunner(0f, 0f, 0f, 0.25f, 0.75f);
+        TextUrgencyModel model = new TextUrgencyModel(runner, vocabulary);
+
+        TextUrgencyModel.Prediction prediction = model.predict("burst pipe");
+
+        assertNotNull(prediction);
+        assertEquals(0.25f * 8 + 0.75f * 10, prediction.getUrgency(), 0.0001f);
+        assertEquals(0.75f, prediction.getConfidence(), 0.0001f);
+        assertEquals(5, runner.lastIds[0]);
+        assertEquals(6, runner.lastIds[1]);
+        assertEquals(VocabularyTrie.PAD_ID, runner.lastIds[2]);
+    }
+
+    @Test
+    public void textWithoutWordsSkipsTheModel() {
+        FakeRunner runner = new FakeRunner(1f, 0f, 0f, 0f, 0f);
+        TextUrgencyModel model = new TextUrgencyModel(runner, vocabulary);
+
+        assertNull(model.predict("?!"));
+        assertEquals(0, runner.calls);
+    }
+
+    @Test
+    public void failedInferenceReturnsNull() {
+        TextUrgencyModel model = new TextUrgencyModel((input, output) -> {
+            throw new IllegalStateException("interpreter closed");
+        }, vocabulary);
+
+        assertNull(model.predict("water leak"));
+    }
+
+    @Test
+    public void overBudgetModelIsOnlyProbed() {
+        TextUrgencyModel model = new TextUrgencyModel(new FakeRunner(1f, 0f, 0f, 0f, 0f), vocabulary);
+        assertTrue(model.isWithinBudget());
+        model.setLatencyBudgetMs(0);
+        model.predict("water");
+
+        int allowed = 0;
+        for (int i = 0; i < 40; i++) {
+            if (model.isWithinBudget()) {
+                allowed++;
+            }
+        }
+        assertEquals(2, allowed);
+    }
+
+    @Test
+    public void confidentModelPullsTheKeywordScore() {
+        String text = "There is a small crack in the pavement";
+        int keywordOnly = new TextAnalyzer().analyzeUrgency(text);
+
+        TextAnalyzer critical = new TextAnalyzer(
+                new TextUrgencyModel(new FakeRunner(0f, 0f, 0f, 0f, 1f), vocabulary));
+        TextAnalyzer calm = new TextAnalyzer(
+                new TextUrgencyModel(new FakeRunner(1f, 0f, 0f, 0f, 0f), vocabulary));
+
+        assertTrue(critical.isModelEnabled());
+        // Half weight at full confidence: halfway between the keyword score and the class urgency
+        assertEquals(Math.round((keywordOnly + 10) / 2f), critical.analyzeUrgency(text));
+        assertEquals(Math.round((keywordOnly + 2) / 2f), calm.analyzeUrgency(text));
+    }
+
+    @Test
+    public void failedModelLeavesTheKeywordScore() {
+        String text = "Water leak near the school";
+        TextAnalyzer analyzer = new TextAnalyzer(new TextUrgencyModel((input, output) -> {
+            throw new IllegalStateException("interpreter closed");
+        }, vocabulary));
+
+        assertEquals(new TextAnalyzer().analyzeUrgency(text), analyzer.analyzeUrgency(text));
+        assertFalse(new TextAnalyzer().isModelEnabled());
+    }
+
+    // Returns fixed class probabilities and keeps the ids it was given
+    private static final class FakeRunner implements InferenceRunner {
+        private final float[] probabilities;
+        int[] lastIds;
+        int calls;
+
+        FakeRunner(float... probabilities) {
+            this.probabilities = probabilities;
+        }
+
+        @Override
+        public void run(Object input, Object output) {
+            calls++;
+            lastIds = ((int[][]) input)[0].clone();
+            System.arraycopy(probabilities, 0, ((float[][]) output)[0], 0, probabilities.length);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.city_i.dedup;
+
+import com.city_i.geo.Geohash;
+import com.city_i.models.IssueModel;
+import com.city_i.store.IssueStore;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DuplicateDetectorTest {
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+    private static final long START = 1_700_000_000_000L;
+    private static final String[] SUBJECTS = {
+            "pothole", "garbage pile", "broken streetlight", "water leakage", "sewage overflow",
+            "fallen tree", "stray cattle", "open manhole"};
+    private static final String[] PLACES = {
+            "market road", "bus stand", "temple junction", "school gate", "church square", "fish market"};
+    private static final String[] EXTRAS = {"", "urgent", "again today", "since morning", "dangerous"};
+
+    @Test
+    public void probeFindsWhatAFullScanFinds() {
+        Random random = new Random(5);
+        List<IssueModel> reports = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            reports.add(randomReport("r" + i, random));
+        }
+        DuplicateDetector detector = new DuplicateDetector();
+        detector.addAll(reports);
+        assertEquals(reports.size(), detector.size());
+
+        for (int i = 0; i < 200; i++) {
+            IssueModel probe = randomReport("probe" + i, random);
+            Set<String> found = new HashSet<>();
+            for (DuplicateCandidate candidate : detector.probe(probe)) {
+                found.add(candidate.getIssueId());
+                // Nothing is returned that the limits reject
+                assertTrue(candidate.getSimilarity() >= DuplicateDetector.DEFAULT_MIN_SIMILARITY);
+                assertTrue(candidate.getDistanceMeters() <= DuplicateDetector.DEFAULT_MAX_DISTANCE_METERS);
+                assertTrue(candidate.getTimeApartMs() <= DuplicateDetector.DEFAULT_MAX_TIME_APART_MS);
+            }
+            // Banding may miss a borderline pair, but not one this alike
+            for (IssueModel report : reports) {
+                if (matches(probe, report, 0.6)) {
+                    assertTrue(probe.getDescription() + " missed " + report.getDescription(),
+                            found.contains(report.getId()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void candidatesAreOrderedMostSimilarFirst() {
+        DuplicateDetector detector = new DuplicateDetector();
+        detector.add(report("exact", "Pothole on market road", 15.4909, 73.8278, START));
+        detector.add(report("close", "Potholes on the market road, again today", 15.4910, 73.8279, START));
+        IssueModel probe = report("new", "pothole market road", 15.4909, 73.8278, START + HOUR_MS);
+
+        List<DuplicateCandidate> candidates = detector.probe(probe);
+
+        assertEquals(2, candidates.size());
+        assertEquals("exact", candidates.get(0).getIssueId());
+        assertEquals(1.0, candidates.get(0).getSimilarity(), 0);
+        assertEquals(HOUR_MS, candidates.get(0).getTimeApartMs());
+        assertTrue(candidates.get(1).getSimilarity() < 1.0);
+    }
+
+    @Test
+    public void farApartOrLateReportsAreNotDuplicates() {
+        DuplicateDetector detector = new DuplicateDetector();
+        detector.add(report("a", "Garbage pile at bus stand", 15.4909, 73.8278, START));
+
+        // About 1 km north
+        assertTrue(detector.probe(report("far", "Garbage pile at bus stand", 15.5, 73.8278, START)).isEmpty());
+        assertTrue(detector.probe(report("late", "Garbage pile at bus stand", 15.4909, 73.8278,
+                START + DuplicateDetector.DEFAULT_MAX_TIME_APART_MS + 1)).isEmpty());
+        assertTrue(detector.probe(report("other", "Fallen tree", 15.4909, 73.8278, START)).isEmpty());
+        // A report is never its own duplicate
+        assertTrue(detector.probe(report("a", "Garbage pile at bus stand", 15.4909, 73.8278, START)).isEmpty());
+    }
+
+    @Test
+    public void resolvedRemovedAndWordlessReportsAreNotIndexed() {
+        DuplicateDetector detector = new DuplicateDetector();
+        IssueModel resolved = report("resolved", "Open manhole at school gate", 15.4909, 73.8278, START);
+        resolved.setStatus(IssueStore.STATUS_RESOLVED);
+        IssueModel probe = report("new", "Open manhole at school gate", 15.4909, 73.8278, START);
+
+        assertFalse(detector.add(resolved));
+        assertFalse(detector.add(report("wordless", "?!", 15.4909, 73.8278, START)));
+        assertTrue(detector.add(report("removed", "Open manhole at school gate", 15.4909, 73.8278, START)));
+        assertTrue(detector.remove("removed"));
+
+        assertTrue(detector.probe(probe).isEmpty());
+        assertEquals(0, detector.size());
+    }
+
+    @Test
+    public void resolvingAnIndexedReportTakesItOut() {
+        DuplicateDetector detector = new DuplicateDetector();
+        IssueModel report = report("a", "Stray cattle on fish market road", 15.4909, 73.8278, START);
+        detector.add(report);
+        report.setStatus(IssueStore.STATUS_RESOLVED);
+
+        assertFalse(detector.add(report));
+        assertTrue(detector.probe(report("b", "Stray cattle on fish market road", 15.4909, 73.8278, START))
+                .isEmpty());
+    }
+
+    @Test
+    public void newerReportsEvictWindowsPastTheRetention() {
+        DuplicateDetector detector = new DuplicateDetector();
+        detector.add(report("old", "Water leakage at temple junction", 15.4909, 73.8278, START));
+        long later = START + DuplicateDetector.DEFAULT_RETENTION_MS + DuplicateDetector.DEFAULT_MAX_TIME_APART_MS;
+
+        detector.add(report("new", "Sewage overflow at church square", 15.4909, 73.8278, later));
+
+        assertEquals(1, detector.size());
+        // Reports from before the retention are not taken any more
+        assertFalse(detector.add(report("stale", "Pothole", 15.4909, 73.8278, START)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void retentionShorterThanTheTimeLimitIsRejected() {
+        new DuplicateDetector(300, 6 * HOUR_MS, 0.4, HOUR_MS);
+    }
+
+    private static boolean matches(IssueModel probe, IssueModel report, double minSimilarity) {
+        double similarity = MinHash.similarity(MinHash.signature(probe.getDescription()),
+                MinHash.signature(report.getDescription()));
+        return similarity >= minSimilarity
+                && Math.abs(probe.getCreatedAt().getTime() - report.getCreatedAt().getTime())
+                <= DuplicateDetector.DEFAULT_MAX_TIME_APART_MS
+                && Geohash.distanceMeters(probe.getLatitude(), probe.getLongitude(),
+                report.getLatitude(), report.getLongitude()) <= DuplicateDetector.DEFAULT_MAX_DISTANCE_METERS;
+    }
+
+    // Templated reports over about 2 km square and 24 hours, so partitions fill past the band count
+    private static IssueModel randomReport(String id, Random random) {
+        String description = SUBJECTS[random.nextInt(SUBJECTS.length)] + " at "
+                + PLACES[random.nextInt(PLACES.length)] + " " + EXTRAS[random.nextInt(EXTRAS.length)];
+        return report(id, description, 15.49 + random.nextDouble() * 0.018, 73.82 + random.nextDouble() * 0.018,
+                START + (long) (random.nextDouble() * 24 * HOUR_MS));
+    }
+
+    private static IssueModel report(String id, String description, double latitude, double longitude,
+                                     long createdAt) {
+        IssueModel issue = new IssueModel();
+        issue.setId(id);
+        issue.setDescription(description);
+        issue.setStatus("Pending");
+        issue.setLatitude(latitude);
+        issue.setLongitude(longitude);
+        issue.setCreatedAt(new Date(createdAt));
+        return issue;
+    }
+}
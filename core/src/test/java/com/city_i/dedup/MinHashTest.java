@@ -0,0 +1,75 @@
+package com.city_i.dedup;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MinHashTest {
+    @Test
+    public void sameWordsGiveTheSameSignature() {
+        int[] a = MinHash.signature("Pothole, near the MARKET!");
+        int[] b = MinHash.signature("pothole market");
+
+        assertArrayEquals(a, b);
+        assertEquals(1.0, MinHash.similarity(a, b), 0);
+    }
+
+    @Test
+    public void textWithoutContentWordsHasNoSignature() {
+        assertNull(MinHash.signature(null));
+        assertNull(MinHash.signature(""));
+        assertNull(MinHash.signature("It is on the... so, please!"));
+    }
+
+    @Test
+    public void estimateTracksTheExactJaccardSimilarity() {
+        String[][] pairs = {
+                {"pothole market road", "big potholes market road"},
+                {"garbage dumped beside bus stand", "garbage dumped beside temple"},
+                {"streetlight broken junction", "water pipeline burst junction"},
+                {"sewage overflowing drain", "sewage overflowing drain school"},
+                {"fallen tree blocking road", "power outage whole colony"},
+        };
+        for (String[] pair : pairs) {
+            double exact = jaccard(shingles(pair[0]), shingles(pair[1]));
+            double estimate = MinHash.similarity(MinHash.signature(pair[0]), MinHash.signature(pair[1]));
+            assertEquals(pair[0] + " / " + pair[1], exact, estimate, 0.2);
+        }
+    }
+
+    @Test
+    public void rewordedReportsScoreAboveUnrelatedOnes() {
+        int[] report = MinHash.signature("Huge pothole on the main road near the market");
+        int[] reworded = MinHash.signature("big potholes on main road by market");
+        int[] unrelated = MinHash.signature("Garbage not collected on the main road");
+
+        assertTrue(MinHash.similarity(report, reworded) > MinHash.similarity(report, unrelated));
+        assertTrue(MinHash.similarity(report, reworded) >= DuplicateDetector.DEFAULT_MIN_SIMILARITY);
+    }
+
+    // Boundary-marked 4-grams of each word, as MinHash takes them
+    private static Set<String> shingles(String text) {
+        Set<String> shingles = new HashSet<>();
+        for (String word : text.split(" ")) {
+            String marked = " " + word + " ";
+            for (int start = 0; start + 4 <= marked.length(); start++) {
+                shingles.add(marked.substring(start, start + 4));
+            }
+        }
+        return shingles;
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        Set<String> union = new HashSet<>(a);
+        union.addAll(b);
+        Set<String> both = new HashSet<>(a);
+        both.retainAll(b);
+        return both.size() / (double) union.size();
+    }
+}
@@ -0,0 +1,184 @@
+package com.city_i.geo;
+
+import com.city_i.models.IssueModel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ClusterIndexTest {
+    private static final int MAX_ZOOM = 16;
+    private static final String[] CATEGORIES = {"Roads", "Water", "Waste"};
+
+    @Test
+    public void everyZoomAccountsForEveryIssue() {
+        ClusterIndex index = new ClusterIndex();
+        List<IssueModel> issues = scatter(1500, new Random(21));
+        index.load(issues);
+
+        for (int zoom = 0; zoom <= MAX_ZOOM + 1; zoom++) {
+            assertEquals("zoom " + zoom, issues.size(), total(world(index, zoom)));
+        }
+        // Past the last zoom every issue is its own marker
+        List<IssueCluster> leaves = world(index, MAX_ZOOM + 1);
+        assertEquals(issues.size(), leaves.size());
+        assertFalse(leaves.get(0).isCluster());
+        // The whole city is one marker from far away
+        assertEquals(1, world(index, 0).size());
+    }
+
+    @Test
+    public void nearbyIssuesFormOneClusterWithTheirStats() {
+        ClusterIndex index = new ClusterIndex();
+        List<IssueModel> issues = new ArrayList<>();
+        issues.add(issue("a", 15.4909, 73.8278, "Roads", 3));
+        issues.add(issue("b", 15.4910, 73.8279, "Roads", 9));
+        issues.add(issue("c", 15.4911, 73.8277, "Water", 5));
+        issues.add(issue("far", -33.86, 151.2, "Waste", 1));
+        index.load(issues);
+
+        List<IssueCluster> markers = index.getClusters(70, 10, 80, 20, 10);
+
+        assertEquals(1, markers.size());
+        IssueCluster cluster = markers.get(0);
+        assertTrue(cluster.isCluster());
+        assertNull(cluster.getIssueId());
+        assertEquals(3, cluster.getCount());
+        assertEquals(9, cluster.getMaxPriority());
+        assertEquals(2, (int) cluster.getCategoryCounts().get("Roads"));
+        assertEquals("Roads", cluster.getCategoryCounts().keySet().iterator().next());
+        assertEquals(15.4910, cluster.getLatitude(), 0.001);
+        assertTrue(cluster.getExpansionZoom() > 10);
+        // Zooming to where it breaks up shows more than one marker
+        assertTrue(index.getClusters(70, 10, 80, 20, cluster.getExpansionZoom()).size() > 1);
+    }
+
+    @Test
+    public void addedAndRemovedIssuesKeepEveryZoomConsistent() {
+        ClusterIndex index = new ClusterIndex();
+        Random random = new Random(23);
+        List<IssueModel> issues = scatter(500, random);
+        index.load(issues);
+
+        Map<String, IssueModel> current = new HashMap<>();
+        for (IssueModel issue : issues) {
+            current.put(issue.getId(), issue);
+        }
+        // Few enough changes that none of them triggers a rebuild
+        for (int i = 0; i < 100; i++) {
+            if (i % 3 == 0) {
+                String id = "i" + random.nextInt(500);
+                assertEquals(current.remove(id) != null, index.remove(id));
+            } else {
+                IssueModel added = near(random, "new" + i);
+                current.put(added.getId(), added);
+                index.put(added);
+            }
+        }
+
+        assertEquals(current.size(), index.size());
+        for (int zoom = 0; zoom <= MAX_ZOOM + 1; zoom++) {
+            assertEquals("zoom " + zoom, current.size(), total(world(index, zoom)));
+        }
+        Set<String> ids = new HashSet<>();
+        for (IssueCluster leaf : world(index, MAX_ZOOM + 1)) {
+            ids.add(leaf.getIssueId());
+        }
+        assertEquals(current.keySet(), ids);
+    }
+
+    @Test
+    public void updatingAnIssueInPlaceChangesItsStats() {
+        ClusterIndex index = new ClusterIndex();
+        List<IssueModel> issues = new ArrayList<>();
+        issues.add(issue("a", 15.4909, 73.8278, "Roads", 3));
+        issues.add(issue("b", 15.4910, 73.8279, "Roads", 4));
+        index.load(issues);
+
+        index.put(issue("a", 15.4909, 73.8278, "Water", 10));
+
+        IssueCluster cluster = index.getClusters(70, 10, 80, 20, 5).get(0);
+        assertEquals(2, cluster.getCount());
+        assertEquals(10, cluster.getMaxPriority());
+        assertEquals(1, (int) cluster.getCategoryCounts().get("Water"));
+        assertEquals(1, (int) cluster.getCategoryCounts().get("Roads"));
+    }
+
+    @Test
+    public void movedIssueIsOnlyCountedAtItsNewPlace() {
+        ClusterIndex index = new ClusterIndex();
+        List<IssueModel> issues = new ArrayList<>();
+        issues.add(issue("a", 15.4909, 73.8278, "Roads", 3));
+        index.load(issues);
+
+        index.put(issue("a", 48.85, 2.35, "Roads", 3));
+
+        assertEquals(1, index.size());
+        assertEquals(0, total(index.getClusters(70, 10, 80, 20, 12)));
+        assertEquals(1, total(index.getClusters(0, 45, 5, 50, 12)));
+    }
+
+    @Test
+    public void viewportAcrossTheAntimeridian() {
+        ClusterIndex index = new ClusterIndex();
+        List<IssueModel> issues = new ArrayList<>();
+        issues.add(issue("east", 0, 179.5, "Roads", 1));
+        issues.add(issue("west", 0, -179.5, "Roads", 1));
+        issues.add(issue("elsewhere", 0, 0, "Roads", 1));
+        index.load(issues);
+
+        assertEquals(2, total(index.getClusters(179, -1, -179, 1, MAX_ZOOM + 1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void issuesNeedAnId() {
+        new ClusterIndex().put(new IssueModel());
+    }
+
+    private static List<IssueCluster> world(ClusterIndex index, int zoom) {
+        return index.getClusters(-180, -85, 180, 85, zoom);
+    }
+
+    private static int total(List<IssueCluster> clusters) {
+        int total = 0;
+        for (IssueCluster cluster : clusters) {
+            total += cluster.getCount();
+        }
+        return total;
+    }
+
+    private static List<IssueModel> scatter(int count, Random random) {
+        List<IssueModel> issues = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            issues.add(near(random, "i" + i));
+        }
+        return issues;
+    }
+
+    // Somewhere in Goa
+    private static IssueModel near(Random random, String id) {
+        return issue(id, 15.0 + random.nextDouble() * 0.8, 73.7 + random.nextDouble() * 0.5,
+                CATEGORIES[random.nextInt(CATEGORIES.length)], 1 + random.nextInt(10));
+    }
+
+    private static IssueModel issue(String id, double latitude, double longitude, String category, int priority) {
+        IssueModel issue = new IssueModel();
+        issue.setId(id);
+        issue.setLatitude(latitude);
+        issue.setLongitude(longitude);
+        issue.setCategory(category);
+        issue.setPriority(priority);
+        return issue;
+    }
+}
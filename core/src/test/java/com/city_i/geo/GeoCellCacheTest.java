@@ -0,0 +1,144 @@
+package com.city_i.geo;
+
+import com.city_i.models.IssueModel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GeoCellCacheTest {
+    private static final double LAT = 15.4909;
+    private static final double LON = 73.8278;
+    private static final double RADIUS = 1500;
+
+    private final FakeFetcher fetcher = new FakeFetcher(scatter(2000, new Random(2)));
+
+    @Test
+    public void findsExactlyTheIssuesInTheCircleNearestFirst() throws Exception {
+        GeoCellCache cache = new GeoCellCache(fetcher);
+
+        List<IssueModel> near = cache.near(LAT, LON, RADIUS);
+
+        int expected = 0;
+        for (IssueModel issue : fetcher.issues) {
+            if (distance(issue) <= RADIUS) {
+                expected++;
+            }
+        }
+        assertEquals(expected, near.size());
+        for (int i = 1; i < near.size(); i++) {
+            assertTrue(distance(near.get(i - 1)) <= distance(near.get(i)));
+        }
+        // Runs of cells are fetched together rather than one query per cell
+        int cells = Geohash.coveringCells(LAT, LON, RADIUS, Geohash.precisionFor(LAT, RADIUS)).size();
+        assertTrue(cache.getRangeQueries() < cells);
+    }
+
+    @Test
+    public void repeatedQueriesAreServedFromCache() throws Exception {
+        GeoCellCache cache = new GeoCellCache(fetcher);
+        int first = cache.near(LAT, LON, RADIUS).size();
+        int queries = cache.getRangeQueries();
+
+        assertEquals(first, cache.near(LAT, LON, RADIUS).size());
+        assertEquals(queries, cache.getRangeQueries());
+        assertEquals(queries, fetcher.calls);
+    }
+
+    @Test
+    public void panningOnlyFetchesNewCells() throws Exception {
+        GeoCellCache cache = new GeoCellCache(fetcher);
+        cache.near(LAT, LON, RADIUS);
+        int precision = Geohash.precisionFor(LAT, RADIUS);
+        List<String> before = Geohash.coveringCells(LAT, LON, RADIUS, precision);
+        double pannedLon = LON + 0.005;
+        List<String> after = Geohash.coveringCells(LAT, pannedLon, RADIUS, precision);
+        after.removeAll(before);
+        int queries = cache.getRangeQueries();
+
+        cache.near(LAT, pannedLon, RADIUS);
+
+        assertTrue(cache.getRangeQueries() - queries <= after.size());
+        for (String[] range : fetcher.rangesSince(queries)) {
+            assertTrue(range[0], after.contains(range[0]));
+        }
+    }
+
+    @Test
+    public void invalidatedCellsAreFetchedAgain() throws Exception {
+        GeoCellCache cache = new GeoCellCache(fetcher);
+        cache.near(LAT, LON, RADIUS);
+        IssueModel reported = issue("new", LAT, LON);
+        fetcher.issues.add(reported);
+
+        cache.invalidate(LAT, LON);
+        List<IssueModel> near = cache.near(LAT, LON, RADIUS);
+
+        assertEquals("new", near.get(0).getId());
+    }
+
+    @Test
+    public void expiredCellsAreFetchedAgain() throws Exception {
+        GeoCellCache cache = new GeoCellCache(fetcher, GeoCellCache.DEFAULT_MAX_CELLS, -1);
+        cache.near(LAT, LON, RADIUS);
+        int queries = cache.getRangeQueries();
+
+        cache.near(LAT, LON, RADIUS);
+
+        assertEquals(2 * queries, cache.getRangeQueries());
+    }
+
+    private static double distance(IssueModel issue) {
+        return Geohash.distanceMeters(LAT, LON, issue.getLatitude(), issue.getLongitude());
+    }
+
+    private static List<IssueModel> scatter(int count, Random random) {
+        List<IssueModel> issues = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            issues.add(issue("i" + i, LAT + (random.nextDouble() - 0.5) * 0.1, LON + (random.nextDouble() - 0.5) * 0.1));
+        }
+        return issues;
+    }
+
+    private static IssueModel issue(String id, double latitude, double longitude) {
+        IssueModel issue = new IssueModel();
+        issue.setId(id);
+        issue.setLatitude(latitude);
+        issue.setLongitude(longitude);
+        issue.setGeohash(Geohash.encode(latitude, longitude, Geohash.MAX_PRECISION));
+        return issue;
+    }
+
+    // Range scan over geohashes, like the Firestore query it stands in for
+    private static final class FakeFetcher implements GeoCellCache.CellFetcher {
+        final List<IssueModel> issues;
+        final List<String[]> ranges = new ArrayList<>();
+        int calls;
+
+        FakeFetcher(List<IssueModel> issues) {
+            this.issues = issues;
+        }
+
+        @Override
+        public List<IssueModel> fetchRange(String start, String end) {
+            calls++;
+            ranges.add(new String[]{start, end});
+            List<IssueModel> found = new ArrayList<>();
+            for (IssueModel issue : issues) {
+                if (issue.getGeohash().compareTo(start) >= 0 && issue.getGeohash().compareTo(end) < 0) {
+                    found.add(issue);
+                }
+            }
+            return found;
+        }
+
+        List<String[]> rangesSince(int index) {
+            return ranges.subList(index, ranges.size());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.city_i.geo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GeohashTest {
+    private static final double PANJIM_LAT = 15.4909;
+    private static final double PANJIM_LON = 73.8278;
+
+    @Test
+    public void encodesKnownPoints() {
+        assertEquals("u4pruydqqvj", Geohash.encode(57.64911, 10.40744, 11));
+        assertEquals("s0000", Geohash.encode(0, 0, 5));
+        assertEquals("t", Geohash.encode(PANJIM_LAT, PANJIM_LON, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsPrecisionOutOfRange() {
+        Geohash.encode(0, 0, Geohash.MAX_PRECISION + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCharactersOutsideTheAlphabet() {
+        Geohash.bounds("u4a");
+    }
+
+    @Test
+    public void boundsContainTheEncodedPoint() {
+        Random random = new Random(5);
+        for (int i = 0; i < 1000; i++) {
+            double lat = random.nextDouble() * 180 - 90;
+            double lon = random.nextDouble() * 360 - 180;
+            String hash = Geohash.encode(lat, lon, 1 + random.nextInt(Geohash.MAX_PRECISION));
+            double[] b = Geohash.bounds(hash);
+            assertTrue(hash, lat >= b[0] && lat <= b[2] && lon >= b[1] && lon <= b[3]);
+            // A point in the cell encodes to the same hash
+            assertEquals(hash, Geohash.encode((b[0] + b[2]) / 2, (b[1] + b[3]) / 2, hash.length()));
+        }
+    }
+
+    @Test
+    public void neighborhoodSurroundsTheCell() {
+        String cell = Geohash.encode(PANJIM_LAT, PANJIM_LON, 5);
+        List<String> around = Geohash.neighborhood(cell);
+
+        assertEquals(9, around.size());
+        assertTrue(around.contains(cell));
+        List<String> sorted = new ArrayList<>(around);
+        Collections.sort(sorted);
+        assertEquals(sorted, around);
+
+        // Any point within one cell's size of the middle cell is in the neighborhood
+        double[] b = Geohash.bounds(cell);
+        double height = b[2] - b[0];
+        double width = b[3] - b[1];
+        for (double lat = b[0] - height * 0.99; lat < b[2] + height; lat += height / 4) {
+            for (double lon = b[1] - width * 0.99; lon < b[3] + width; lon += width / 4) {
+                assertTrue(around.contains(Geohash.encode(lat, lon, 5)));
+            }
+        }
+    }
+
+    @Test
+    public void neighborhoodWrapsAndStopsAtThePoles() {
+        List<String> antimeridian = Geohash.neighborhood(Geohash.encode(0.1, 179.99, 4));
+        assertEquals(9, antimeridian.size());
+        assertTrue(antimeridian.contains(Geohash.encode(0.1, -179.99, 4)));
+
+        List<String> pole = Geohash.neighborhood(Geohash.encode(89.99, 10, 4));
+        assertEquals(6, pole.size());
+    }
+
+    @Test
+    public void coveringCellsCoverTheCircle() {
+        double radius = 2000;
+        int precision = Geohash.precisionFor(PANJIM_LAT, radius);
+        List<String> cells = Geohash.coveringCells(PANJIM_LAT, PANJIM_LON, radius, precision);
+
+        assertTrue(cells.size() <= 64);
+        Random random = new Random(9);
+        for (int i = 0; i < 500; i++) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double distance = random.nextDouble() * radius;
+            double lat = PANJIM_LAT + distance * Math.cos(angle) / 111320;
+            double lon = PANJIM_LON + distance * Math.sin(angle) / (111320 * Math.cos(Math.toRadians(PANJIM_LAT)));
+            if (Geohash.distanceMeters(PANJIM_LAT, PANJIM_LON, lat, lon) <= radius) {
+                assertTrue(cells.contains(Geohash.encode(lat, lon, precision)));
+            }
+        }
+    }
+
+    @Test
+    public void largerRadiusUsesCoarserCells() {
+        assertTrue(Geohash.precisionFor(PANJIM_LAT, 50_000) < Geohash.precisionFor(PANJIM_LAT, 500));
+        assertEquals(1, Geohash.precisionFor(0, 20_000_000));
+    }
+
+    @Test
+    public void consecutiveCellsCollapseIntoOneRange() {
+        List<String[]> ranges = Geohash.toRanges(Arrays.asList("tdr0", "tdr1", "tdr2", "tdr8", "tdrz", "tds0"));
+
+        assertEquals(3, ranges.size());
+        assertArrayEquals(new String[]{"tdr0", "tdr2" + Geohash.RANGE_END}, ranges.get(0));
+        assertArrayEquals(new String[]{"tdr8", "tdr8" + Geohash.RANGE_END}, ranges.get(1));
+        // Carries over into the next prefix
+        assertArrayEquals(new String[]{"tdrz", "tds0" + Geohash.RANGE_END}, ranges.get(2));
+        assertTrue(Geohash.toRanges(Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    public void successorCarriesAndEnds() {
+        assertEquals("tdr1", Geohash.successor("tdr0"));
+        assertEquals("tds0", Geohash.successor("tdrz"));
+        assertNull(Geohash.successor("zzz"));
+    }
+
+    @Test
+    public void distanceBetweenKnownPoints() {
+        // One degree of latitude
+        assertEquals(111_195, Geohash.distanceMeters(0, 0, 1, 0), 1);
+        assertEquals(0, Geohash.distanceMeters(PANJIM_LAT, PANJIM_LON, PANJIM_LAT, PANJIM_LON), 0);
+    }
+}
@@ -0,0 +1,179 @@
+package com.city_i.geo;
+
+import com.city_i.ai.LocationAnalyzer;
+import com.city_i.models.IssueModel;
+import com.city_i.store.IssueStore;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class HeatmapPyramidTest {
+    private static final int MIN_ZOOM = HeatmapPyramid.DEFAULT_MIN_ZOOM;
+    private static final int MAX_ZOOM = HeatmapPyramid.DEFAULT_MAX_ZOOM;
+
+    @Test
+    public void incrementalUpdatesMatchARebuild() {
+        Random random = new Random(29);
+        HeatmapPyramid incremental = new HeatmapPyramid();
+        Map<String, IssueModel> current = new HashMap<>();
+        for (int i = 0; i < 400; i++) {
+            IssueModel issue = issue("i" + i, random);
+            incremental.apply(issue);
+            current.put(issue.getId(), issue);
+        }
+        for (int i = 0; i < 300; i++) {
+            String id = "i" + random.nextInt(400);
+            switch (random.nextInt(4)) {
+                case 0:
+                    // Moved and re-prioritised
+                    IssueModel moved = issue(id, random);
+                    incremental.apply(moved);
+                    current.put(id, moved);
+                    break;
+                case 1:
+                    IssueModel resolved = issue(id, random);
+                    resolved.setStatus(IssueStore.STATUS_RESOLVED);
+                    assertFalse(incremental.apply(resolved));
+                    current.remove(id);
+                    break;
+                case 2:
+                    assertEquals(current.remove(id) != null, incremental.remove(id));
+                    break;
+                default:
+                    IssueModel added = issue("new" + i, random);
+                    incremental.apply(added);
+                    current.put(added.getId(), added);
+            }
+        }
+
+        HeatmapPyramid rebuilt = new HeatmapPyramid();
+        rebuilt.load(current.values());
+
+        assertEquals(current.size(), incremental.size());
+        for (int zoom = MIN_ZOOM; zoom <= MAX_ZOOM; zoom++) {
+            List<HeatmapTile> expected = goa(rebuilt, zoom);
+            List<HeatmapTile> actual = goa(incremental, zoom);
+            assertEquals("zoom " + zoom, expected.size(), actual.size());
+            int total = 0;
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getX(), actual.get(i).getX());
+                assertEquals(expected.get(i).getY(), actual.get(i).getY());
+                assertArrayEquals(expected.get(i).getCounts(), actual.get(i).getCounts());
+                assertArrayEquals(expected.get(i).getPrioritySums(), actual.get(i).getPrioritySums());
+                total += actual.get(i).getTotal();
+            }
+            assertEquals(current.size(), total);
+        }
+    }
+
+    @Test
+    public void resolvedAndOutOfAreaIssuesAreNotCounted() {
+        HeatmapPyramid pyramid = new HeatmapPyramid();
+        IssueModel issue = issue("a", 15.4909, 73.8278, 5);
+        assertTrue(pyramid.apply(issue));
+
+        issue.setStatus("resolved");
+        assertFalse(pyramid.apply(issue));
+        assertFalse(pyramid.apply(issue("mumbai", 19.07, 72.87, 5)));
+        assertFalse(pyramid.apply(new IssueModel()));
+
+        assertEquals(0, pyramid.size());
+        assertTrue(goa(pyramid, MAX_ZOOM).isEmpty());
+    }
+
+    @Test
+    public void cellsSumCountsAndPriorities() {
+        HeatmapPyramid pyramid = new HeatmapPyramid();
+        pyramid.apply(issue("a", 15.4909, 73.8278, 4));
+        pyramid.apply(issue("b", 15.49091, 73.82781, 8));
+
+        HeatmapTile tile = goa(pyramid, MAX_ZOOM).get(0);
+
+        assertEquals(2, tile.getTotal());
+        assertEquals(2, tile.getMaxCount());
+        int[] counts = tile.getCounts();
+        int cell = 0;
+        while (counts[cell] == 0) {
+            cell++;
+        }
+        int side = tile.getCellsPerSide();
+        assertEquals(12, tile.getPrioritySum(cell % side, cell / side));
+        assertEquals(6.0, tile.getMeanPriority(cell % side, cell / side), 0);
+    }
+
+    @Test
+    public void tileSnapshotsAreReusedUntilTheyChange() {
+        HeatmapPyramid pyramid = new HeatmapPyramid();
+        pyramid.apply(issue("north", 15.7, 73.8, 5));
+        pyramid.apply(issue("south", 15.0, 74.2, 5));
+        HeatmapTile north = goa(pyramid, MAX_ZOOM).get(0);
+        HeatmapTile south = goa(pyramid, MAX_ZOOM).get(1);
+        assertSame(north, pyramid.getTile(MAX_ZOOM, north.getX(), north.getY()));
+
+        pyramid.apply(issue("north", 15.7, 73.8, 9));
+
+        HeatmapTile changed = pyramid.getTile(MAX_ZOOM, north.getX(), north.getY());
+        assertNotSame(north, changed);
+        assertEquals(5, north.getPrioritySums()[firstNonEmpty(north)]);
+        assertEquals(9, changed.getPrioritySums()[firstNonEmpty(changed)]);
+        assertSame(south, pyramid.getTile(MAX_ZOOM, south.getX(), south.getY()));
+    }
+
+    @Test
+    public void zoomsOutsideThePyramidHaveNoTiles() {
+        HeatmapPyramid pyramid = new HeatmapPyramid();
+        pyramid.apply(issue("a", 15.4909, 73.8278, 5));
+        HeatmapTile tile = goa(pyramid, MIN_ZOOM).get(0);
+
+        assertNull(pyramid.getTile(MIN_ZOOM - 1, tile.getX() / 2, tile.getY() / 2));
+        // Viewport queries clamp to the nearest zoom the pyramid has
+        assertEquals(MIN_ZOOM, goa(pyramid, 2).get(0).getZoom());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cellsPerSideMustBeAPowerOfTwo() {
+        new HeatmapPyramid(MIN_ZOOM, MAX_ZOOM, 24);
+    }
+
+    private static List<HeatmapTile> goa(HeatmapPyramid pyramid, int zoom) {
+        return pyramid.getTiles(LocationAnalyzer.GOA_MIN_LONGITUDE, LocationAnalyzer.GOA_MIN_LATITUDE,
+                LocationAnalyzer.GOA_MAX_LONGITUDE, LocationAnalyzer.GOA_MAX_LATITUDE, zoom);
+    }
+
+    private static int firstNonEmpty(HeatmapTile tile) {
+        int[] counts = tile.getCounts();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static IssueModel issue(String id, Random random) {
+        return issue(id, 15.0 + random.nextDouble() * 0.7, 73.75 + random.nextDouble() * 0.5,
+                1 + random.nextInt(10));
+    }
+
+    private static IssueModel issue(String id, double latitude, double longitude, int priority) {
+        IssueModel issue = new IssueModel();
+        issue.setId(id);
+        issue.setStatus("Pending");
+        issue.setLatitude(latitude);
+        issue.setLongitude(longitude);
+        issue.setPriority(priority);
+        return issue;
+    }
+}
@@ -0,0 +1,239 @@
+package com.city_i.geo;
+
+import com.city_i.models.IssueModel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HotspotDetectorTest {
+    private static final double EPS = HotspotDetector.DEFAULT_EPS_METERS;
+    private static final int MIN_POINTS = HotspotDetector.DEFAULT_MIN_POINTS;
+    private static final double METERS_PER_DEGREE = 111320;
+
+    @Test
+    public void fullRunMatchesTextbookDbscan() {
+        List<IssueModel> issues = blobsAndNoise(new Random(31));
+        HotspotDetector detector = new HotspotDetector();
+        detector.load(issues);
+
+        assertMatchesReference(detector, issues);
+    }
+
+    @Test
+    public void incrementalAddsMatchTextbookDbscan() {
+        List<IssueModel> issues = blobsAndNoise(new Random(37));
+        HotspotDetector detector = new HotspotDetector();
+        detector.load(issues.subList(0, issues.size() / 3));
+
+        for (IssueModel issue : issues.subList(issues.size() / 3, issues.size())) {
+            detector.add(issue);
+        }
+
+        assertEquals(issues.size(), detector.size());
+        assertMatchesReference(detector, issues);
+    }
+
+    @Test
+    public void removingABridgeSplitsAHotspot() {
+        List<IssueModel> issues = new ArrayList<>();
+        // Two tight groups 260 m apart, joined only through the middle report
+        issues.addAll(group("west", 15.4909, 73.8278, MIN_POINTS));
+        issues.addAll(group("east", 15.4909, 73.8278 + meters(260, 15.4909), MIN_POINTS));
+        IssueModel bridge = issue("bridge", 15.4909, 73.8278 + meters(130, 15.4909), 1);
+        issues.add(bridge);
+        issues.addAll(group("bridge-support", 15.4909, 73.8278 + meters(130, 15.4909), MIN_POINTS - 1));
+        HotspotDetector detector = new HotspotDetector();
+        detector.load(issues);
+        assertEquals(1, detector.getHotspots().size());
+
+        for (IssueModel issue : issues) {
+            if (issue.getId().startsWith("bridge")) {
+                assertTrue(detector.remove(issue.getId()));
+            }
+        }
+
+        assertEquals(2, detector.getHotspots().size());
+        assertFalse(detector.contains("bridge"));
+    }
+
+    @Test
+    public void movedReportLeavesItsOldHotspot() {
+        List<IssueModel> issues = group("g", 15.4909, 73.8278, MIN_POINTS);
+        HotspotDetector detector = new HotspotDetector();
+        detector.load(issues);
+        assertEquals(1, detector.getHotspots().size());
+
+        detector.add(issue("g0", 15.6, 73.9, 1));
+
+        assertTrue(detector.getHotspots().isEmpty());
+        assertEquals(MIN_POINTS, detector.size());
+    }
+
+    @Test
+    public void hotspotSummaryAndLookup() {
+        List<IssueModel> issues = group("g", 15.4909, 73.8278, 4 * MIN_POINTS);
+        issues.get(3).setPriority(9);
+        HotspotDetector detector = new HotspotDetector();
+        detector.load(issues);
+
+        Hotspot hotspot = detector.getHotspots().get(0);
+        assertEquals(4 * MIN_POINTS, hotspot.getCount());
+        assertEquals(9, hotspot.getMaxPriority());
+        assertEquals(15.4909, hotspot.getLatitude(), 0.001);
+        assertTrue(hotspot.getRadiusMeters() <= EPS);
+
+        HotspotMap map = detector.snapshot();
+        assertNotNull(map.find(15.4909, 73.8278));
+        assertEquals(2, map.boostAt(15.4909, 73.8278));
+        assertNull(map.find(15.6, 73.9));
+        assertEquals(0, map.boostAt(15.6, 73.9));
+        assertTrue(detector.snapshot().version() > map.version());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTooSmallMinimum() {
+        new HotspotDetector(EPS, 1);
+    }
+
+    private static void assertMatchesReference(HotspotDetector detector, List<IssueModel> issues) {
+        int n = issues.size();
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = detector.projectX(issues.get(i).getLongitude());
+            ys[i] = detector.projectY(issues.get(i).getLatitude());
+        }
+        boolean[] core = new boolean[n];
+        List<List<Integer>> neighbours = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            List<Integer> near = new ArrayList<>();
+            for (int j = 0; j < n; j++) {
+                double dx = xs[i] - xs[j];
+                double dy = ys[i] - ys[j];
+                if (dx * dx + dy * dy <= EPS * EPS) {
+                    near.add(j);
+                }
+            }
+            neighbours.add(near);
+            core[i] = near.size() >= MIN_POINTS;
+        }
+        // Components of core points, by flood fill
+        int[] component = new int[n];
+        Arrays.fill(component, -1);
+        int components = 0;
+        for (int i = 0; i < n; i++) {
+            if (!core[i] || component[i] >= 0) {
+                continue;
+            }
+            List<Integer> stack = new ArrayList<>();
+            stack.add(i);
+            component[i] = components;
+            while (!stack.isEmpty()) {
+                int p = stack.remove(stack.size() - 1);
+                for (int q : neighbours.get(p)) {
+                    if (core[q] && component[q] < 0) {
+                        component[q] = components;
+                        stack.add(q);
+                    }
+                }
+            }
+            components++;
+        }
+
+        List<Hotspot> hotspots = detector.getHotspots();
+        assertEquals(components, hotspots.size());
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            index.put(issues.get(i).getId(), i);
+        }
+        Set<String> seen = new HashSet<>();
+        for (Hotspot hotspot : hotspots) {
+            int expectedComponent = -1;
+            for (String id : hotspot.getIssueIds()) {
+                assertTrue("in two hotspots: " + id, seen.add(id));
+                int i = index.get(id);
+                if (core[i]) {
+                    if (expectedComponent < 0) {
+                        expectedComponent = component[i];
+                    }
+                    assertEquals(expectedComponent, component[i]);
+                }
+            }
+            for (String id : hotspot.getIssueIds()) {
+                int i = index.get(id);
+                if (!core[i]) {
+                    // A border report sits next to a core report of its hotspot
+                    boolean attached = false;
+                    for (int q : neighbours.get(i)) {
+                        attached |= core[q] && component[q] == expectedComponent;
+                    }
+                    assertTrue("stray border report " + id, attached);
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            boolean reachable = core[i];
+            for (int q : neighbours.get(i)) {
+                reachable |= core[q];
+            }
+            assertEquals(issues.get(i).getId(), reachable, seen.contains(issues.get(i).getId()));
+        }
+    }
+
+    private static List<IssueModel> blobsAndNoise(Random random) {
+        List<IssueModel> issues = new ArrayList<>();
+        int id = 0;
+        for (int blob = 0; blob < 6; blob++) {
+            double lat = 15.0 + random.nextDouble() * 0.7;
+            double lon = 73.8 + random.nextDouble() * 0.4;
+            double spread = 50 + random.nextDouble() * 250;
+            for (int i = 0; i < 40; i++) {
+                issues.add(issue("p" + id++, lat + random.nextGaussian() * spread / METERS_PER_DEGREE,
+                        lon + meters(random.nextGaussian() * spread, lat), 1 + random.nextInt(10)));
+            }
+        }
+        for (int i = 0; i < 300; i++) {
+            issues.add(issue("p" + id++, 15.0 + random.nextDouble() * 0.7, 73.8 + random.nextDouble() * 0.4,
+                    1 + random.nextInt(10)));
+        }
+        Collections.shuffle(issues, random);
+        return issues;
+    }
+
+    // Reports within a few meters of each other
+    private static List<IssueModel> group(String prefix, double latitude, double longitude, int count) {
+        List<IssueModel> issues = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            issues.add(issue(prefix + i, latitude + i * 1e-5, longitude, 1));
+        }
+        return issues;
+    }
+
+    private static double meters(double meters, double latitude) {
+        return meters / (METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude)));
+    }
+
+    private static IssueModel issue(String id, double latitude, double longitude, int priority) {
+        IssueModel issue = new IssueModel();
+        issue.setId(id);
+        issue.setLatitude(latitude);
+        issue.setLongitude(longitude);
+        issue.setPriority(priority);
+        return issue;
+    }
+}
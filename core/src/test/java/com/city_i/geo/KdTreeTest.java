@@ -0,0 +1,87 @@
+package com.city_i.geo;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class KdTreeTest {
+    private static final int POINTS = 5000;
+
+    private final double[] xs = new double[POINTS];
+    private final double[] ys = new double[POINTS];
+
+    public KdTreeTest() {
+        Random random = new Random(13);
+        for (int i = 0; i < POINTS; i++) {
+            // Some duplicates, which median splits have to cope with
+            xs[i] = i % 10 == 0 ? 0.5 : random.nextDouble();
+            ys[i] = i % 10 == 0 ? 0.5 : random.nextDouble();
+        }
+    }
+
+    @Test
+    public void rangeFindsExactlyThePointsInTheBox() {
+        KdTree tree = new KdTree(xs, ys);
+        Random random = new Random(17);
+        for (int query = 0; query < 100; query++) {
+            double minX = random.nextDouble() * 0.8;
+            double minY = random.nextDouble() * 0.8;
+            double maxX = minX + random.nextDouble() * 0.2;
+            double maxY = minY + random.nextDouble() * 0.2;
+
+            TreeSet<Integer> found = new TreeSet<>();
+            tree.range(minX, minY, maxX, maxY, i -> assertTrue("reported twice: " + i, found.add(i)));
+
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = 0; i < POINTS; i++) {
+                if (xs[i] >= minX && xs[i] <= maxX && ys[i] >= minY && ys[i] <= maxY) {
+                    expected.add(i);
+                }
+            }
+            assertEquals(expected, found);
+        }
+    }
+
+    @Test
+    public void withinFindsExactlyThePointsInTheCircle() {
+        KdTree tree = new KdTree(xs, ys);
+        Random random = new Random(19);
+        for (int query = 0; query < 100; query++) {
+            double x = random.nextDouble();
+            double y = random.nextDouble();
+            double radius = random.nextDouble() * 0.1;
+
+            TreeSet<Integer> found = new TreeSet<>();
+            tree.within(x, y, radius, found::add);
+
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = 0; i < POINTS; i++) {
+                double dx = xs[i] - x;
+                double dy = ys[i] - y;
+                if (dx * dx + dy * dy <= radius * radius) {
+                    expected.add(i);
+                }
+            }
+            assertEquals(expected, found);
+        }
+    }
+
+    @Test
+    public void emptyTreeFindsNothing() {
+        KdTree tree = new KdTree(new double[0], new double[0]);
+
+        tree.range(0, 0, 1, 1, i -> {
+            throw new AssertionError("found " + i);
+        });
+        assertEquals(0, tree.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMismatchedArrays() {
+        new KdTree(new double[2], new double[3]);
+    }
+}
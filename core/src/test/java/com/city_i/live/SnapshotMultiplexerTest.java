@@ -0,0 +1,222 @@
+package com.city_i.live;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotMultiplexerTest {
+    private static final long GRACE_MS = 1000;
+
+    private final FakeSource source = new FakeSource();
+    private final FakeScheduler scheduler = new FakeScheduler();
+    private final SnapshotMultiplexer<String> multiplexer =
+            new SnapshotMultiplexer<>(source, scheduler, String::equals, GRACE_MS);
+
+    @Test
+    public void subscribersOfAQueryShareOneListener() {
+        RecordingSubscriber first = new RecordingSubscriber();
+        RecordingSubscriber second = new RecordingSubscriber();
+        multiplexer.subscribe("open", first);
+        source.deliver("open", Change.added("a", "Pothole"));
+        scheduler.runFrames();
+        multiplexer.subscribe("open", second);
+        scheduler.runFrames();
+
+        assertEquals(1, multiplexer.getAttachCount());
+        assertEquals(Collections.singletonList("ADDED a=Pothole"), first.received());
+        // A late subscriber is sent the current result, not a fresh listener's
+        assertEquals(Collections.singletonList("ADDED a=Pothole"), second.received());
+
+        multiplexer.subscribe("resolved", new RecordingSubscriber());
+        assertEquals(2, multiplexer.getAttachedCount());
+    }
+
+    @Test
+    public void changesWithinAFrameAreMergedPerDocument() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        multiplexer.subscribe("open", subscriber);
+        source.deliver("open", Change.added("a", "Pothole"));
+        scheduler.runFrames();
+        subscriber.clear();
+
+        source.deliver("open", Change.modified("a", "Deep pothole"));
+        source.deliver("open", Change.modified("a", "Deeper pothole"));
+        source.deliver("open", Change.added("b", "Leak"));
+        source.deliver("open", Change.removed("b"));
+        scheduler.runFrames();
+
+        assertEquals(Collections.singletonList("MODIFIED a=Deeper pothole"), subscriber.received());
+        assertEquals(1, subscriber.batches);
+    }
+
+    @Test
+    public void listenerOutlivesItsLastSubscriberByTheGracePeriod() {
+        SnapshotMultiplexer.Registration registration = multiplexer.subscribe("open", new RecordingSubscriber());
+        registration.remove();
+        assertEquals(1, multiplexer.getAttachedCount());
+
+        // Back within the grace period: the same listener is reused
+        multiplexer.subscribe("open", new RecordingSubscriber()).remove();
+        assertEquals(1, multiplexer.getAttachCount());
+
+        scheduler.runDelayed();
+        assertEquals(0, multiplexer.getAttachedCount());
+        assertEquals(1, source.removed);
+    }
+
+    @Test
+    public void lateDetachTimerLeavesAResubscribedQueryAlone() {
+        scheduler.cancellable = false;
+        multiplexer.subscribe("open", new RecordingSubscriber()).remove();
+        RecordingSubscriber back = new RecordingSubscriber();
+        multiplexer.subscribe("open", back);
+
+        // The first timer still fires, e.g. it was already queued when cancelled
+        scheduler.runDelayed();
+        source.deliver("open", Change.added("a", "Pothole"));
+        scheduler.runFrames();
+
+        assertEquals(1, multiplexer.getAttachedCount());
+        assertEquals(Collections.singletonList("ADDED a=Pothole"), back.received());
+    }
+
+    @Test
+    public void backgroundDetachesAndForegroundOnlySendsRealChanges() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        multiplexer.subscribe("open", subscriber);
+        source.deliver("open", Change.added("a", "Pothole"), Change.added("b", "Leak"));
+        scheduler.runFrames();
+        subscriber.clear();
+
+        multiplexer.onBackground();
+        scheduler.runDelayed();
+        assertEquals(0, multiplexer.getAttachedCount());
+
+        multiplexer.onForeground();
+        assertEquals(2, multiplexer.getAttachCount());
+        // The re-attached listener starts over with the full result
+        source.deliver("open", Change.added("a", "Pothole"), Change.added("c", "Streetlight"));
+        scheduler.runFrames();
+
+        assertEquals(Arrays.asList("REMOVED b", "ADDED c=Streetlight"), subscriber.received());
+    }
+
+    @Test
+    public void shortTripToTheBackgroundKeepsListeners() {
+        multiplexer.subscribe("open", new RecordingSubscriber());
+        multiplexer.onBackground();
+        multiplexer.onForeground();
+        scheduler.runDelayed();
+
+        assertEquals(1, multiplexer.getAttachedCount());
+        assertEquals(1, multiplexer.getAttachCount());
+    }
+
+    @Test
+    public void errorsReachSubscribersAndTheNextSubscribeReattaches() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        multiplexer.subscribe("open", subscriber);
+        IllegalStateException failure = new IllegalStateException("permission denied");
+
+        source.sinks.get(0).onError(failure);
+        scheduler.runFrames();
+
+        assertSame(failure, subscriber.error);
+        assertEquals(0, multiplexer.getAttachedCount());
+        multiplexer.subscribe("open", new RecordingSubscriber());
+        assertEquals(1, multiplexer.getAttachedCount());
+        assertEquals(2, multiplexer.getAttachCount());
+    }
+
+    private static final class RecordingSubscriber implements SnapshotMultiplexer.Subscriber<String> {
+        private final List<String> changes = new ArrayList<>();
+        int batches;
+        Exception error;
+
+        @Override
+        public void onChanges(List<Change<String>> batch) {
+            batches++;
+            for (Change<String> change : batch) {
+                changes.add(change.getType() + " " + change.getId()
+                        + (change.getType() != Change.Type.REMOVED ? "=" + change.getValue() : ""));
+            }
+        }
+
+        @Override
+        public void onError(Exception e) {
+            error = e;
+        }
+
+        List<String> received() {
+            return changes;
+        }
+
+        void clear() {
+            changes.clear();
+            batches = 0;
+        }
+    }
+
+    private static final class FakeSource implements SnapshotMultiplexer.Source<String> {
+        final List<String> queries = new ArrayList<>();
+        final List<SnapshotMultiplexer.Sink<String>> sinks = new ArrayList<>();
+        int removed;
+
+        @Override
+        public SnapshotMultiplexer.Registration listen(String query, SnapshotMultiplexer.Sink<String> sink) {
+            queries.add(query);
+            sinks.add(sink);
+            return () -> removed++;
+        }
+
+        // To the most recent listener for the query
+        @SafeVarargs
+        final void deliver(String query, Change<String>... changes) {
+            int index = queries.lastIndexOf(query);
+            assertTrue("no listener for " + query, index >= 0);
+            sinks.get(index).onChanges(Arrays.asList(changes));
+        }
+    }
+
+    private static final class FakeScheduler implements SnapshotMultiplexer.Scheduler {
+        private final List<Runnable> frames = new ArrayList<>();
+        private final List<Runnable> delayed = new ArrayList<>();
+        boolean cancellable = true;
+
+        @Override
+        public void postFrame(Runnable task) {
+            frames.add(task);
+        }
+
+        @Override
+        public SnapshotMultiplexer.Registration postDelayed(Runnable task, long delayMs) {
+            delayed.add(task);
+            return () -> {
+                if (cancellable) {
+                    delayed.remove(task);
+                }
+            };
+        }
+
+        void runFrames() {
+            while (!frames.isEmpty()) {
+                frames.remove(0).run();
+            }
+        }
+
+        void runDelayed() {
+            List<Runnable> due = new ArrayList<>(delayed);
+            delayed.clear();
+            for (Runnable task : due) {
+                task.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.city_i.media;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ByteLruCacheTest {
+    private final List<String> evicted = new ArrayList<>();
+
+    @Test
+    public void evictsLeastRecentlyUsedPastTheBudget() {
+        ByteLruCache<String, byte[]> cache = cache(10);
+        cache.put("a", new byte[4]);
+        cache.put("b", new byte[4]);
+        cache.get("a");
+
+        cache.put("c", new byte[4]);
+
+        assertNull(cache.get("b"));
+        assertEquals(List.of("b"), evicted);
+        assertEquals(8, cache.getBytes());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void replacingAValueEvictsTheOldOne() {
+        ByteLruCache<String, byte[]> cache = cache(10);
+        cache.put("a", new byte[4]);
+        cache.put("a", new byte[6]);
+
+        assertEquals(List.of("a"), evicted);
+        assertEquals(6, cache.getBytes());
+    }
+
+    @Test
+    public void valueLargerThanTheBudgetIsNotKept() {
+        ByteLruCache<String, byte[]> cache = cache(10);
+        cache.put("a", new byte[4]);
+
+        cache.put("huge", new byte[11]);
+
+        assertNull(cache.get("huge"));
+        assertEquals(List.of("huge"), evicted);
+        assertEquals(4, cache.getBytes());
+    }
+
+    @Test
+    public void removeIsNotAnEviction() {
+        ByteLruCache<String, byte[]> cache = cache(10);
+        cache.put("a", new byte[4]);
+
+        cache.remove("a");
+        cache.evictAll();
+
+        assertEquals(0, cache.getBytes());
+        assertEquals(List.of(), evicted);
+    }
+
+    @Test
+    public void trimToEvictsOldestFirst() {
+        ByteLruCache<String, byte[]> cache = cache(100);
+        for (String key : new String[]{"a", "b", "c", "d"}) {
+            cache.put(key, new byte[10]);
+        }
+
+        cache.trimTo(25);
+
+        assertEquals(List.of("a", "b"), evicted);
+        assertEquals(20, cache.getBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAnEmptyBudget() {
+        new ByteLruCache<String, byte[]>(0, value -> value.length);
+    }
+
+    private ByteLruCache<String, byte[]> cache(long maxBytes) {
+        ByteLruCache<String, byte[]> cache = new ByteLruCache<>(maxBytes, value -> value.length);
+        cache.setEvictionListener((key, value) -> evicted.add(key));
+        return cache;
+    }
+}
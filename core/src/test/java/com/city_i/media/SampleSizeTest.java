@@ -0,0 +1,26 @@
+package com.city_i.media;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SampleSizeTest {
+    @Test
+    public void largestPowerOfTwoThatStaysAboveTheTarget() {
+        // A 12 MP camera photo for a 256 px thumbnail
+        assertEquals(8, SampleSize.calculate(4000, 3000, 256, 256));
+        assertEquals(2, SampleSize.calculate(1024, 512, 256, 256));
+        assertEquals(1, SampleSize.calculate(511, 511, 256, 256));
+    }
+
+    @Test
+    public void theShorterSideDecides() {
+        assertEquals(1, SampleSize.calculate(8000, 300, 256, 256));
+    }
+
+    @Test
+    public void unknownSizesAreNotSampled() {
+        assertEquals(1, SampleSize.calculate(0, 3000, 256, 256));
+        assertEquals(1, SampleSize.calculate(4000, 3000, 0, 256));
+    }
+}
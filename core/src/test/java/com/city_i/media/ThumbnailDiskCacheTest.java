@@ -0,0 +1,81 @@
+package com.city_i.media;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ThumbnailDiskCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void storesThumbnailsUnderAnyKey() throws IOException {
+        File directory = new File(folder.getRoot(), "thumbnails");
+        ThumbnailDiskCache cache = new ThumbnailDiskCache(directory, ".webp", 1000);
+        String url = "https://firebasestorage.example/o/issues%2Fa.jpg?alt=media&token=1";
+
+        cache.put(url, new byte[]{1, 2, 3});
+
+        File file = cache.get(url);
+        assertNotNull(file);
+        assertTrue(file.getName().endsWith(".webp"));
+        assertEquals(directory, file.getParentFile());
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(file.toPath()));
+        assertNull(cache.get("issue:a"));
+        assertEquals(3, cache.getBytes());
+    }
+
+    @Test
+    public void replacingAndRemovingKeepTheByteCount() throws IOException {
+        ThumbnailDiskCache cache = new ThumbnailDiskCache(folder.getRoot(), ".webp", 1000);
+        cache.put("a", new byte[100]);
+        cache.put("b", new byte[50]);
+
+        cache.put("a", new byte[30]);
+        assertEquals(80, cache.getBytes());
+        cache.remove("b");
+        assertEquals(30, cache.getBytes());
+        assertFalse(cache.contains("b"));
+
+        // A fresh instance counts what is already on disk
+        assertEquals(30, new ThumbnailDiskCache(folder.getRoot(), ".webp", 1000).getBytes());
+    }
+
+    @Test
+    public void trimsLeastRecentlyShownFirst() throws IOException {
+        ThumbnailDiskCache cache = new ThumbnailDiskCache(folder.getRoot(), ".webp", 250);
+        long now = System.currentTimeMillis();
+        cache.put("old", new byte[100]).setLastModified(now - 30_000);
+        cache.put("shown", new byte[100]).setLastModified(now - 20_000);
+        // Reading touches the file, so it counts as recently shown
+        cache.get("shown");
+
+        cache.put("new", new byte[100]);
+
+        assertFalse(cache.contains("old"));
+        assertTrue(cache.contains("shown"));
+        assertTrue(cache.contains("new"));
+        assertEquals(200, cache.getBytes());
+    }
+
+    @Test
+    public void leavesNoTemporaryFiles() throws IOException {
+        ThumbnailDiskCache cache = new ThumbnailDiskCache(folder.getRoot(), ".webp", 1000);
+        cache.put("a", new byte[10]);
+
+        String[] names = folder.getRoot().list();
+        assertEquals(1, names.length);
+        assertTrue(names[0].endsWith(".webp"));
+    }
+}
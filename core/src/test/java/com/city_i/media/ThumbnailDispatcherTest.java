@@ -0,0 +1,219 @@
+package com.city_i.media;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ThumbnailDispatcherTest {
+    private static final long MEMORY_BYTES = 1000;
+    private static final long NEVER_RETRY_MS = 60_000;
+
+    private final QueuedExecutor worker = new QueuedExecutor();
+    private final List<String> loaded = new ArrayList<>();
+    private final List<Thumb> recycled = new ArrayList<>();
+
+    @Test
+    public void targetsWaitingForTheSameKeyShareOneLoad() {
+        ThumbnailDispatcher<Thumb> dispatcher = dispatcher(NEVER_RETRY_MS);
+        FakeTarget first = new FakeTarget();
+        FakeTarget second = new FakeTarget();
+
+        dispatcher.load("a", first);
+        dispatcher.load("a", second);
+        worker.runAll();
+
+        assertEquals(1, dispatcher.getLoadCount());
+        assertEquals("a", first.shown.source);
+        assertSame(first.shown, second.shown);
+
+        // Now cached, so a third target is shown without loading
+        FakeTarget third = new FakeTarget();
+        dispatcher.load("a", third);
+        assertSame(first.shown, third.shown);
+        assertEquals(1, dispatcher.getLoadCount());
+    }
+
+    @Test
+    public void loadNobodyWaitsForIsCancelledBeforeItStarts() {
+        ThumbnailDispatcher<Thumb> dispatcher = dispatcher(NEVER_RETRY_MS);
+        FakeTarget row = new FakeTarget();
+
+        dispatcher.load("a", row);
+        // The row is recycled and rebound before the worker got to it
+        dispatcher.load("b", row);
+        worker.runAll();
+
+        assertEquals(1, dispatcher.getCancelledCount());
+        assertEquals(List.of("b"), loaded);
+        assertEquals("b", row.shown.source);
+    }
+
+    @Test
+    public void thumbnailIsKeyedSeparatelyFromItsSource() {
+        ThumbnailDispatcher<Thumb> dispatcher = dispatcher(NEVER_RETRY_MS);
+        FakeTarget row = new FakeTarget();
+
+        dispatcher.load("issue:1", "https://example.invalid/1.jpg", row);
+        worker.runAll();
+        assertEquals(List.of("issue:1 <- https://example.invalid/1.jpg"), loaded);
+
+        // The same issue through another URL is still a memory hit
+        FakeTarget other = new FakeTarget();
+        dispatcher.load("issue:1", "https://example.invalid/1.jpg?token=2", other);
+        assertSame(row.shown, other.shown);
+        assertEquals(1, dispatcher.getLoadCount());
+    }
+
+    @Test
+    public void failedKeyIsNotLoadedAgainOnRebind() {
+        ThumbnailDispatcher<Thumb> dispatcher = dispatcher(NEVER_RETRY_MS);
+        FakeTarget row = new FakeTarget();
+
+        dispatcher.load("broken", row);
+        worker.runAll();
+        assertNull(row.shown);
+        assertEquals(1, dispatcher.getFailedCount());
+
+        dispatcher.clear(row);
+        dispatcher.load("broken", row);
+        worker.runAll();
+
+        assertEquals(1, dispatcher.getLoadCount());
+        assertNull(row.shown);
+        assertTrue(row.clears >= 2);
+    }
+
+    @Test
+    public void failedKeyIsRetriedOnceTheWindowHasPassed() {
+        ThumbnailDispatcher<Thumb> dispatcher = dispatcher(0);
+        FakeTarget row = new FakeTarget();
+
+        dispatcher.load("broken", row);
+        worker.runAll();
+        dispatcher.clear(row);
+        dispatcher.load("broken", row);
+        worker.runAll();
+
+        assertEquals(2, dispatcher.getLoadCount());
+    }
+
+    @Test
+    public void evictedThumbnailIsRecycledOnlyOnceNothingShowsIt() {
+        ThumbnailDispatcher<Thumb> dispatcher = dispatcher(NEVER_RETRY_MS);
+        FakeTarget row = new FakeTarget();
+        dispatcher.load("a", row);
+        worker.runAll();
+        Thumb shown = row.shown;
+
+        dispatcher.trimMemory();
+        assertTrue(recycled.isEmpty());
+
+        dispatcher.clear(row);
+        assertEquals(List.of(shown), recycled);
+        assertNull(row.shown);
+    }
+
+    @Test
+    public void cachedThumbnailIsRecycledWhenEvicted() {
+        ThumbnailDispatcher<Thumb> dispatcher = dispatcher(NEVER_RETRY_MS);
+        FakeTarget row = new FakeTarget();
+        dispatcher.load("a", row);
+        worker.runAll();
+        Thumb first = row.shown;
+        dispatcher.load("b", row);
+        worker.runAll();
+
+        // "a" is cached but no longer shown
+        dispatcher.trimMemory();
+
+        assertEquals(1, recycled.size());
+        assertSame(first, recycled.get(0));
+        assertEquals(0, dispatcher.getMemoryBytes());
+    }
+
+    private ThumbnailDispatcher<Thumb> dispatcher(long failureRetryMs) {
+        ThumbnailDispatcher.Loader<Thumb> loader = (key, source) -> {
+            loaded.add(key.equals(source) ? key : key + " <- " + source);
+            if (key.equals("broken")) {
+                throw new IOException("Not an image: " + source);
+            }
+            return new Thumb(source);
+        };
+        return new ThumbnailDispatcher<>(MEMORY_BYTES, thumb -> Thumb.BYTES, loader,
+                worker, Runnable::run, recycled::add, failureRetryMs);
+    }
+
+    private static final class Thumb {
+        static final int BYTES = 100;
+        final String source;
+
+        Thumb(String source) {
+            this.source = source;
+        }
+    }
+
+    private static final class FakeTarget implements ThumbnailDispatcher.Target<Thumb> {
+        Thumb shown;
+        int clears;
+
+        @Override
+        public void show(Thumb value) {
+            shown = value;
+        }
+
+        @Override
+        public void clear() {
+            shown = null;
+            clears++;
+        }
+    }
+
+    // Runs submitted work only when asked, so tests control what a load races with
+    private static final class QueuedExecutor extends AbstractExecutorService {
+        private final List<Runnable> queue = new ArrayList<>();
+
+        void runAll() {
+            while (!queue.isEmpty()) {
+                queue.remove(0).run();
+            }
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            queue.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return new ArrayList<>(queue);
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.city_i.paging;
+
+import com.city_i.models.IssueModel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IssuePagerTest {
+    private static final int PAGE = 10;
+    private static final int PREFETCH = 3;
+
+    private final List<IssueModel> data = issues(25);
+    private final List<String> requests = new ArrayList<>();
+    private final RecordingListener listener = new RecordingListener();
+
+    @Test
+    public void loadsTheNextPageNearTheEnd() {
+        IssuePager pager = new IssuePager(source(), PAGE, PREFETCH, Runnable::run, listener);
+        pager.start();
+        assertEquals(PAGE, pager.getItems().size());
+
+        pager.onItemVisible(PAGE - PREFETCH - 1);
+        assertEquals(1, requests.size());
+
+        pager.onItemVisible(PAGE - PREFETCH);
+        assertEquals(2 * PAGE, pager.getItems().size());
+        pager.onItemVisible(2 * PAGE - 1);
+        assertEquals(25, pager.getItems().size());
+        assertTrue(pager.isEndReached());
+
+        pager.onItemVisible(24);
+        assertEquals(List.of("0+10", "10+10", "20+10"), requests);
+        assertSame(pager.getItems(), listener.last);
+        assertEquals("issue-24", pager.getItems().get(24).getId());
+    }
+
+    @Test
+    public void invalidateReloadsEverythingLoadedInOneGo() {
+        IssuePager pager = new IssuePager(source(), PAGE, PREFETCH, Runnable::run, listener);
+        pager.start();
+        pager.onItemVisible(PAGE - 1);
+        data.get(3).setTitle("Changed");
+
+        pager.invalidate();
+
+        assertEquals("0+20", requests.get(requests.size() - 1));
+        assertEquals(2 * PAGE, pager.getItems().size());
+        assertEquals("Changed", pager.getItems().get(3).getTitle());
+    }
+
+    @Test
+    public void pageInFlightDuringInvalidateIsDropped() {
+        QueuedExecutor executor = new QueuedExecutor();
+        IssuePager pager = new IssuePager(source(), PAGE, PREFETCH, executor, listener);
+        pager.start();
+        executor.runAll();
+        pager.onItemVisible(PAGE - 1);
+
+        pager.invalidate();
+        executor.runAll();
+
+        assertEquals(List.of("0+10", "10+10", "0+10"), requests);
+        assertEquals(PAGE, pager.getItems().size());
+        assertEquals(2, listener.loads);
+        assertFalse(pager.isEndReached());
+    }
+
+    @Test
+    public void failedPageCanBeRetried() {
+        boolean[] fail = {true};
+        IssuePager pager = new IssuePager((offset, limit) -> {
+            if (fail[0]) {
+                throw new IllegalStateException("offline");
+            }
+            return source().load(offset, limit);
+        }, PAGE, PREFETCH, Runnable::run, listener);
+
+        pager.start();
+        assertTrue(listener.error instanceof IllegalStateException);
+        assertTrue(pager.getItems().isEmpty());
+
+        fail[0] = false;
+        pager.start();
+        assertEquals(PAGE, pager.getItems().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyPages() {
+        new IssuePager(source(), 0, PREFETCH, Runnable::run, listener);
+    }
+
+    @Test
+    public void listSourceIsNewestFirstWithStableTies() {
+        List<IssueModel> issues = new ArrayList<>();
+        issues.add(issue("b", 1000));
+        issues.add(issue("a", 1000));
+        issues.add(issue("c", 3000));
+        IssueModel undated = new IssueModel();
+        undated.setId("undated");
+        issues.add(undated);
+        IssueModel hidden = issue("hidden", 5000);
+        issues.add(hidden);
+        ListPageSource source = new ListPageSource(() -> issues, issue -> issue != hidden);
+
+        assertEquals(List.of("c", "a", "b", "undated"), ids(source.load(0, 10)));
+        assertEquals(List.of("a", "b"), ids(source.load(1, 2)));
+        assertTrue(source.load(4, 10).isEmpty());
+    }
+
+    @Test
+    public void listSourceKeepsItsOrderUntilPagingStartsOver() {
+        List<IssueModel> issues = new ArrayList<>(List.of(issue("a", 2000), issue("b", 1000)));
+        ListPageSource source = new ListPageSource(() -> issues, issue -> true);
+        source.load(0, 1);
+
+        // Arrives mid-scroll: later pages do not shift under the user
+        issues.add(issue("new", 9000));
+        assertEquals(List.of("b"), ids(source.load(1, 1)));
+        assertEquals(List.of("new"), ids(source.load(0, 1)));
+    }
+
+    private IssuePager.PageSource source() {
+        return (offset, limit) -> {
+            requests.add(offset + "+" + limit);
+            List<IssueModel> page = new ArrayList<>();
+            for (int i = offset; i < Math.min(data.size(), offset + limit); i++) {
+                page.add(data.get(i));
+            }
+            return page;
+        };
+    }
+
+    private static List<IssueModel> issues(int count) {
+        List<IssueModel> issues = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            issues.add(issue("issue-" + i, 1_700_000_000_000L - i));
+        }
+        return issues;
+    }
+
+    private static IssueModel issue(String id, long updatedAt) {
+        IssueModel issue = new IssueModel();
+        issue.setId(id);
+        issue.setUpdatedAt(new Date(updatedAt));
+        return issue;
+    }
+
+    private static List<String> ids(List<IssueModel> issues) {
+        List<String> ids = new ArrayList<>();
+        for (IssueModel issue : issues) {
+            ids.add(issue.getId());
+        }
+        return ids;
+    }
+
+    private static final class RecordingListener implements IssuePager.Listener {
+        List<IssueModel> last;
+        int loads;
+        Exception error;
+
+        @Override
+        public void onLoaded(List<IssueModel> items) {
+            last = items;
+            loads++;
+        }
+
+        @Override
+        public void onError(Exception e) {
+            error = e;
+        }
+    }
+
+    private static final class QueuedExecutor implements Executor {
+        private final List<Runnable> queue = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            queue.add(command);
+        }
+
+        void runAll() {
+            while (!queue.isEmpty()) {
+                queue.remove(0).run();
+            }
+        }
+    }
+}
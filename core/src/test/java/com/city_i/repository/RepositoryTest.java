@@ -0,0 +1,179 @@
+package com.city_i.repository;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RepositoryTest {
+    private static final long TIMEOUT_SECONDS = 5;
+    private static final long FRESH_MS = 60_000;
+    private static final long MAX_STALE_MS = 60 * 60_000;
+    private static final Executor DIRECT = Runnable::run;
+
+    private static final FileDisk.Codec<String> TEXT = new FileDisk.Codec<String>() {
+        @Override
+        public byte[] encode(String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decode(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // What the backend currently has; a missing key is a deleted document
+    private final Map<String, String> backend = new ConcurrentHashMap<>();
+
+    @Test
+    public void freshValuesAreServedFromMemory() throws Exception {
+        backend.put("a", "v1");
+        Repository<String> repository = repository(disk(), DIRECT);
+
+        assertEquals("v1", repository.get("a").get());
+        backend.put("a", "v2");
+        assertEquals("v1", repository.get("a").get());
+        assertEquals(1, repository.getRemoteFetches());
+    }
+
+    @Test
+    public void concurrentGetsShareOneFetch() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Repository<String> repository = new Repository<>("test", key -> {
+                release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                return "value of " + key;
+            }, null, executor, 10, FRESH_MS, MAX_STALE_MS);
+
+            List<CompletableFuture<String>> gets = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                gets.add(repository.get("a"));
+            }
+            release.countDown();
+            for (CompletableFuture<String> get : gets) {
+                assertEquals("value of a", get.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+            assertEquals(1, repository.getRemoteFetches());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void deletedDocumentIsDroppedFromBothTiers() throws Exception {
+        FileDisk<String> disk = disk();
+        Repository<String> repository = repository(disk, DIRECT);
+        repository.put("a", "cached");
+        assertEquals("cached", disk.read("a"));
+
+        // Gone upstream
+        assertNull(repository.refresh("a").get());
+
+        assertNull(repository.peek("a"));
+        assertNull(disk.read("a"));
+        assertNull(repository.get("a").get());
+    }
+
+    @Test
+    public void freshDiskCopyIsServedWithoutFetching() throws Exception {
+        FileDisk<String> disk = disk();
+        disk.write("a", "from disk");
+        backend.put("a", "from remote");
+
+        Repository<String> repository = repository(disk, DIRECT);
+
+        assertEquals("from disk", repository.get("a").get());
+        assertEquals(0, repository.getRemoteFetches());
+    }
+
+    @Test
+    public void staleDiskCopyIsServedAndRevalidated() throws Exception {
+        FileDisk<String> disk = disk();
+        disk.write("a", "from disk");
+        age("a", FRESH_MS * 2);
+        backend.put("a", "from remote");
+
+        Repository<String> repository = repository(disk, DIRECT);
+
+        assertEquals("from disk", repository.get("a").get());
+        assertEquals(1, repository.getRemoteFetches());
+        assertEquals("from remote", repository.peek("a"));
+        assertEquals("from remote", disk.read("a"));
+    }
+
+    @Test
+    public void diskCopyPastMaxStaleIsNotServed() throws Exception {
+        FileDisk<String> disk = disk();
+        disk.write("a", "ancient");
+        age("a", MAX_STALE_MS * 2);
+        backend.put("a", "current");
+
+        Repository<String> repository = repository(disk, DIRECT);
+
+        assertEquals("current", repository.get("a").get());
+    }
+
+    @Test
+    public void failedStartDoesNotWedgeTheKey() throws Exception {
+        AtomicBoolean reject = new AtomicBoolean(true);
+        Executor flaky = command -> {
+            if (reject.getAndSet(false)) {
+                throw new RejectedExecutionException("busy");
+            }
+            command.run();
+        };
+        backend.put("a", "v1");
+        Repository<String> repository = repository(null, flaky);
+
+        try {
+            repository.get("a").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            fail("Expected the first load to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        assertEquals("v1", repository.get("a").get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    private Repository<String> repository(Repository.Disk<String> disk, Executor executor) {
+        return new Repository<>("test", backend::get, disk, executor, 10, FRESH_MS, MAX_STALE_MS);
+    }
+
+    private FileDisk<String> disk() {
+        return new FileDisk<>(cacheDir(), TEXT);
+    }
+
+    private File cacheDir() {
+        return new File(folder.getRoot(), "cache");
+    }
+
+    // Backdate a value written by disk(); plain keys are their own file names
+    private void age(String key, long ageMs) {
+        File file = new File(cacheDir(), key);
+        assertTrue(file.setLastModified(System.currentTimeMillis() - ageMs));
+    }
+}
@@ -0,0 +1,160 @@
+package com.city_i.store;
+
+import com.city_i.live.Change;
+import com.city_i.models.AnalyticsModel;
+import com.city_i.models.IssueModel;
+
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.city_i.store.IssueCodecTest.issue;
+import static com.city_i.store.IssueStoreTest.resolved;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AnalyticsAggregatorTest {
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+    private static final String[] CATEGORIES = {"Roads", "Water", "Electricity", "Waste"};
+    private static final String[] STATUSES = {"Pending", "In Progress", IssueStore.STATUS_RESOLVED};
+
+    @Test
+    public void runningTotalsMatchAFullScan() {
+        Random random = new Random(17);
+        AnalyticsAggregator aggregator = new AnalyticsAggregator();
+        Map<String, IssueModel> current = new LinkedHashMap<>();
+
+        for (int step = 0; step < 5000; step++) {
+            String id = "i" + random.nextInt(400);
+            int action = random.nextInt(10);
+            if (action < 6) {
+                IssueModel issue = randomIssue(id, random);
+                aggregator.put(issue);
+                current.put(id, new IssueModel(issue));
+            } else if (action < 9) {
+                String status = STATUSES[random.nextInt(STATUSES.length)];
+                IssueModel issue = current.get(id);
+                long changedAt = issue != null ? issue.getCreatedAt().getTime() + random.nextInt(50) * HOUR_MS : 0;
+                assertEquals(issue != null, aggregator.statusChanged(id, status, changedAt));
+                if (issue != null) {
+                    issue.setStatus(status);
+                    issue.setUpdatedAt(new Date(changedAt));
+                }
+            } else {
+                assertEquals(current.remove(id) != null, aggregator.remove(id));
+            }
+            if (step % 500 == 0) {
+                assertSameSummary(scan(current), aggregator.snapshot("s", new Date()));
+            }
+        }
+        assertEquals(current.size(), aggregator.size());
+        assertSameSummary(scan(current), aggregator.snapshot("s", new Date()));
+    }
+
+    @Test
+    public void untimedResolvedIssuesStayOutOfTheAverage() {
+        AnalyticsAggregator aggregator = new AnalyticsAggregator();
+        aggregator.put(resolved("fast", 2 * HOUR_MS));
+        aggregator.put(resolved("slow", 6 * HOUR_MS));
+        IssueModel untimed = issue("untimed");
+        untimed.setStatus(IssueStore.STATUS_RESOLVED);
+        aggregator.put(untimed);
+
+        AnalyticsModel summary = aggregator.snapshot("today", new Date());
+
+        assertEquals(3, summary.getResolvedIssues());
+        assertEquals(4 * HOUR_MS, summary.getAvgResolutionTimeMs());
+
+        // Reopening the slow one takes its time back out
+        aggregator.statusChanged("slow", "In Progress", 0);
+        assertEquals(2 * HOUR_MS, aggregator.snapshot("today", new Date()).getAvgResolutionTimeMs());
+    }
+
+    @Test
+    public void changesFromALiveQueryAreApplied() {
+        AnalyticsAggregator aggregator = new AnalyticsAggregator();
+        IssueModel water = issue(null);
+        water.setCategory("Water");
+
+        aggregator.apply(Change.added("a", issue("a")));
+        aggregator.apply(Change.added("b", water));
+        aggregator.apply(Change.modified("a", resolved("a", HOUR_MS)));
+        aggregator.apply(Change.removed("b"));
+
+        AnalyticsModel summary = aggregator.snapshot("live", new Date());
+        assertEquals(1, summary.getTotalIssues());
+        assertEquals(1, summary.getResolvedIssues());
+        assertEquals(HOUR_MS, summary.getAvgResolutionTimeMs());
+        // Emptied categories are left out, as a scan would
+        assertFalse(summary.getIssuesByCategory().containsKey("Water"));
+    }
+
+    @Test
+    public void issuesWithoutAnIdAreIgnored() {
+        AnalyticsAggregator aggregator = new AnalyticsAggregator();
+
+        aggregator.put(new IssueModel());
+
+        assertEquals(0, aggregator.size());
+        assertFalse(aggregator.statusChanged("missing", IssueStore.STATUS_RESOLVED, 0));
+        assertTrue(aggregator.snapshot("s", new Date()).getIssuesByCategory().isEmpty());
+    }
+
+    @Test
+    public void concurrentPutsAreAllCounted() throws InterruptedException {
+        AnalyticsAggregator aggregator = new AnalyticsAggregator();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                Random random = new Random(thread);
+                for (int i = 0; i < 2000; i++) {
+                    aggregator.put(randomIssue("t" + thread + "-" + i, random));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        AnalyticsModel summary = aggregator.snapshot("s", new Date());
+        assertEquals(8000, summary.getTotalIssues());
+        int categorized = 0;
+        for (int count : summary.getIssuesByCategory().values()) {
+            categorized += count;
+        }
+        assertEquals(8000, categorized);
+    }
+
+    private static AnalyticsModel scan(Map<String, IssueModel> current) {
+        IssueStore store = new IssueStore();
+        for (IssueModel issue : current.values()) {
+            store.append(issue);
+        }
+        return store.summarize("s", new Date());
+    }
+
+    private static void assertSameSummary(AnalyticsModel expected, AnalyticsModel actual) {
+        assertEquals(expected.getTotalIssues(), actual.getTotalIssues());
+        assertEquals(expected.getOpenIssues(), actual.getOpenIssues());
+        assertEquals(expected.getResolvedIssues(), actual.getResolvedIssues());
+        assertEquals(expected.getAvgResolutionTimeMs(), actual.getAvgResolutionTimeMs());
+        assertEquals(expected.getIssuesByCategory(), actual.getIssuesByCategory());
+    }
+
+    // Some resolved issues lack updatedAt, so the timed denominator differs from the resolved count
+    private static IssueModel randomIssue(String id, Random random) {
+        String status = STATUSES[random.nextInt(STATUSES.length)];
+        IssueModel issue = IssueStore.STATUS_RESOLVED.equals(status) && random.nextInt(4) > 0
+                ? resolved(id, random.nextInt(100) * HOUR_MS)
+                : issue(id);
+        issue.setStatus(status);
+        issue.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        return issue;
+    }
+}
@@ -0,0 +1,131 @@
+package com.city_i.store;
+
+import com.city_i.models.IssueModel;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class IssueCodecTest {
+    @Test
+    public void roundTripsEveryField() {
+        IssueModel issue = issue("issue-1");
+        issue.setTitle("Pothole");
+        issue.setDescription("Deep pothole near the market, café side 🚧");
+        issue.setImagePath("/photos/a.jpg");
+        issue.setDepartmentId("roads");
+        issue.setReportedByUserId("user-9");
+        issue.setGeohash("tdr1y2z3p");
+        issue.setPriority(-3);
+        issue.setUpdatedAt(new Date(1_700_000_123_456L));
+
+        byte[] bytes = IssueCodec.toBytes(issue);
+        IssueModel decoded = IssueCodec.fromBytes(bytes, 0, bytes.length);
+
+        assertSameIssue(issue, decoded);
+    }
+
+    @Test
+    public void unsetFieldsStayUnset() {
+        IssueModel issue = new IssueModel();
+        issue.setId("bare");
+
+        byte[] bytes = IssueCodec.toBytes(issue);
+        IssueModel decoded = IssueCodec.fromBytes(bytes, 0, bytes.length);
+
+        assertEquals("bare", decoded.getId());
+        assertNull(decoded.getCategory());
+        assertNull(decoded.getCreatedAt());
+        assertNull(decoded.getGeohash());
+    }
+
+    @Test
+    public void decodesAtAnOffset() {
+        byte[] record = IssueCodec.toBytes(issue("offset"));
+        byte[] padded = new byte[record.length + 7];
+        System.arraycopy(record, 0, padded, 3, record.length);
+
+        assertEquals("offset", IssueCodec.fromBytes(padded, 3, record.length).getId());
+    }
+
+    @Test
+    public void sharedDictionaryEncodesRepeatedValuesOnce() {
+        IssueCodec codec = new IssueCodec(new StringDictionary());
+        int first = codec.encodedSize(issue("a"));
+        int second = codec.encodedSize(issue("b"));
+        // Category and status are dictionary codes, so both records are the same size
+        assertEquals(first, second);
+        assertEquals(3, codec.getDictionary().size());
+
+        ByteBuffer out = ByteBuffer.allocate(first + second);
+        codec.encode(issue("a"), out);
+        codec.encode(issue("b"), out);
+        out.flip();
+        assertEquals("a", codec.decode(out, first).getId());
+        assertEquals("b", codec.decode(out, second).getId());
+    }
+
+    @Test
+    public void skipsFieldsItDoesNotKnow() {
+        IssueCodec codec = new IssueCodec(new StringDictionary());
+        IssueModel issue = issue("newer");
+        int size = codec.encodedSize(issue);
+        ByteBuffer out = ByteBuffer.allocate(size + 16);
+        // Field 30 as a varint and field 31 as bytes, as a newer writer might add
+        WireFormat.writeVarLong(out, 30 << 3 | IssueCodec.WIRE_VARINT);
+        WireFormat.writeVarLong(out, 12345);
+        WireFormat.writeVarLong(out, 31 << 3 | IssueCodec.WIRE_BYTES);
+        WireFormat.writeVarLong(out, 2);
+        out.put((byte) 1).put((byte) 2);
+        int unknown = out.position();
+        codec.encode(issue, out);
+        out.flip();
+
+        assertSameIssue(issue, codec.decode(out, unknown + size));
+    }
+
+    @Test
+    public void truncatedRecordIsRejected() {
+        byte[] bytes = IssueCodec.toBytes(issue("cut"));
+        try {
+            IssueCodec.fromBytes(Arrays.copyOf(bytes, bytes.length - 3), 0, bytes.length - 3);
+            fail("Expected a truncated record to be rejected");
+        } catch (IllegalArgumentException expected) {
+            // Malformed input is reported as one exception type
+        }
+    }
+
+    static IssueModel issue(String id) {
+        IssueModel issue = new IssueModel();
+        issue.setId(id);
+        issue.setCategory("Roads");
+        issue.setStatus("Pending");
+        issue.setLatitude(15.4909);
+        issue.setLongitude(73.8278);
+        issue.setCreatedAt(new Date(1_700_000_000_000L));
+        return issue;
+    }
+
+    static void assertSameIssue(IssueModel expected, IssueModel actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getCategory(), actual.getCategory());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getImagePath(), actual.getImagePath());
+        assertEquals(expected.getDepartmentId(), actual.getDepartmentId());
+        assertEquals(expected.getReportedByUserId(), actual.getReportedByUserId());
+        assertEquals(expected.getLatitude(), actual.getLatitude(), 0);
+        assertEquals(expected.getLongitude(), actual.getLongitude(), 0);
+        assertEquals(expected.getGeohash(), actual.getGeohash());
+        assertEquals(expected.getPriority(), actual.getPriority());
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        assertEquals(expected.getUpdatedAt(), actual.getUpdatedAt());
+    }
+}
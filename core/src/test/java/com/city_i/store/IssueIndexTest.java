@@ -0,0 +1,149 @@
+package com.city_i.store;
+
+import com.city_i.models.AnalyticsModel;
+import com.city_i.models.IssueModel;
+
+import org.junit.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static com.city_i.store.IssueCodecTest.issue;
+import static com.city_i.store.IssueStoreTest.reported;
+import static com.city_i.store.IssueStoreTest.resolved;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class IssueIndexTest {
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final String[] CATEGORIES = {"Roads", "Water", "Electricity", "Waste"};
+    private static final String[] STATUSES = {"Pending", "In Progress", IssueStore.STATUS_RESOLVED};
+
+    @Test
+    public void queriesMatchStoreScans() {
+        IssueIndex index = new IssueIndex(randomStore(2000, new Random(7)));
+        IssueStore store = index.getStore();
+        int[] rows = new int[store.size()];
+
+        for (String category : CATEGORIES) {
+            for (String status : STATUSES) {
+                int count = store.selectCategory(category, rows);
+                count = store.refineStatus(rows, count, status);
+                count = store.refinePriorityAtLeast(rows, count, 6);
+
+                IssueIndex.Query query = index.query().category(category).status(status).priorityAtLeast(6);
+                assertArrayEquals(category + "/" + status, copy(rows, count), query.rows().toArray());
+                assertEquals(count, index.query().category(category).status(status).priorityAtLeast(6).count());
+            }
+        }
+    }
+
+    @Test
+    public void openExcludesResolved() {
+        IssueIndex index = new IssueIndex(randomStore(500, new Random(3)));
+        IssueStore store = index.getStore();
+
+        assertEquals(store.size() - store.countStatus(IssueStore.STATUS_RESOLVED), index.query().open().count());
+        RoaringBitmap open = index.query().open().category("Roads").rows();
+        for (int row : open) {
+            assertEquals("Roads", store.getCategory(row));
+            assertFalse(IssueStore.STATUS_RESOLVED.equals(store.getStatus(row)));
+        }
+    }
+
+    @Test
+    public void unknownValuesMatchNothing() {
+        IssueIndex index = new IssueIndex(randomStore(100, new Random(1)));
+
+        assertEquals(0, index.query().category("Parks").count());
+        assertEquals(0, index.query().status("Pending").department("nowhere").rows().getCardinality());
+    }
+
+    @Test
+    public void summaryMatchesTheStoreSummary() {
+        IssueStore store = randomStore(1000, new Random(11));
+        IssueModel untimed = issue("untimed");
+        untimed.setStatus(IssueStore.STATUS_RESOLVED);
+        store.append(untimed);
+        IssueIndex index = new IssueIndex(store);
+        Date now = new Date();
+
+        AnalyticsModel expected = store.summarize("s", now);
+        AnalyticsModel actual = index.summarize("s", now);
+
+        assertEquals(expected.getTotalIssues(), actual.getTotalIssues());
+        assertEquals(expected.getOpenIssues(), actual.getOpenIssues());
+        assertEquals(expected.getResolvedIssues(), actual.getResolvedIssues());
+        assertEquals(expected.getAvgResolutionTimeMs(), actual.getAvgResolutionTimeMs());
+        assertEquals(expected.getIssuesByCategory(), actual.getIssuesByCategory());
+    }
+
+    @Test
+    public void changesThroughTheIndexMoveRowsBetweenBitmaps() {
+        IssueIndex index = new IssueIndex(new IssueStore());
+        int row = index.add(reported("a", "Roads", "Pending", 3, 15.0, 73.0));
+        index.add(reported("b", "Roads", "Pending", 9, 15.0, 73.0));
+
+        index.setStatus(row, IssueStore.STATUS_RESOLVED);
+        index.setPriority(row, 10);
+        assertEquals(1, index.query().status("Pending").count());
+        assertEquals(2, index.query().priorityAtLeast(9).count());
+
+        // Re-adding a known id replaces its row's entries instead of adding a row
+        assertEquals(row, index.add(reported("a", "Water", "Pending", 1, 15.0, 73.0)));
+        assertEquals(2, index.getStore().size());
+        assertEquals(1, index.query().category("Roads").count());
+        assertEquals(1, index.query().category("Water").priorityBetween(0, 2).count());
+        assertEquals(0, index.query().status(IssueStore.STATUS_RESOLVED).count());
+    }
+
+    @Test
+    public void creationDaysFollowTheIndexTimeZone() {
+        TimeZone zone = TimeZone.getTimeZone("Asia/Kolkata");
+        long offset = zone.getRawOffset();
+        // Local midnight at the start of some day
+        long midnight = (1_700_000_000_000L / DAY_MS) * DAY_MS - offset;
+        IssueStore store = new IssueStore();
+        store.append(created("before", midnight - 1));
+        store.append(created("at", midnight));
+        store.append(created("later", midnight + DAY_MS + 1));
+        store.append(new IssueModel());
+        IssueIndex index = new IssueIndex(store, zone);
+
+        assertEquals(2, index.query().createdSince(midnight + 5).count());
+        // Today and yesterday, seen from the day after midnight
+        assertEquals(2, index.query().createdInLastDays(2, midnight + DAY_MS + 10).count());
+        assertEquals(3, index.query().createdInLastDays(3, midnight + DAY_MS + 10).count());
+    }
+
+    private static IssueModel created(String id, long millis) {
+        IssueModel issue = issue(id);
+        issue.setCreatedAt(new Date(millis));
+        return issue;
+    }
+
+    private static IssueStore randomStore(int size, Random random) {
+        IssueStore store = new IssueStore();
+        for (int i = 0; i < size; i++) {
+            String status = STATUSES[random.nextInt(STATUSES.length)];
+            IssueModel issue = IssueStore.STATUS_RESOLVED.equals(status)
+                    ? resolved("i" + i, random.nextInt(100) * 3_600_000L)
+                    : issue("i" + i);
+            issue.setStatus(status);
+            issue.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            issue.setPriority(random.nextInt(11));
+            issue.setDepartmentId("d" + random.nextInt(3));
+            store.append(issue);
+        }
+        return store;
+    }
+
+    private static int[] copy(int[] rows, int count) {
+        int[] copy = new int[count];
+        System.arraycopy(rows, 0, copy, 0, count);
+        return copy;
+    }
+}
@@ -0,0 +1,92 @@
+package com.city_i.store;
+
+import com.city_i.models.IssueModel;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.city_i.store.IssueCodecTest.assertSameIssue;
+import static com.city_i.store.IssueCodecTest.issue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class IssueSnapshotTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writesAndMapsIssues() throws IOException {
+        List<IssueModel> issues = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            IssueModel issue = issue("issue-" + i);
+            issue.setCategory(i % 2 == 0 ? "Roads" : "Water");
+            issue.setDescription("Report " + i);
+            issue.setPriority(i % 10);
+            issues.add(issue);
+        }
+        File file = new File(folder.getRoot(), "issues.snap");
+        IssueSnapshot.write(file, issues);
+
+        IssueSnapshot snapshot = IssueSnapshot.open(file);
+        assertEquals(50, snapshot.size());
+        // Random access decodes just the one record
+        assertSameIssue(issues.get(37), snapshot.get(37));
+        List<IssueModel> all = snapshot.readAll();
+        for (int i = 0; i < issues.size(); i++) {
+            assertSameIssue(issues.get(i), all.get(i));
+        }
+    }
+
+    @Test
+    public void emptySnapshot() throws IOException {
+        IssueSnapshot snapshot = IssueSnapshot.wrap(IssueSnapshot.encode(Collections.emptyList()));
+        assertEquals(0, snapshot.size());
+        assertTrue(snapshot.readAll().isEmpty());
+    }
+
+    @Test
+    public void rejectsOtherFiles() {
+        assertRejected(ByteBuffer.wrap("definitely not a snapshot".getBytes()));
+    }
+
+    @Test
+    public void rejectsDictionaryLengthPastTheEnd() {
+        ByteBuffer buffer = IssueSnapshot.encode(Collections.singletonList(issue("a")));
+        buffer.putInt(12, buffer.limit());
+        assertRejected(buffer);
+        buffer.putInt(12, -1);
+        assertRejected(buffer);
+    }
+
+    @Test
+    public void rejectsCountPastTheEnd() {
+        ByteBuffer buffer = IssueSnapshot.encode(Collections.singletonList(issue("a")));
+        buffer.putInt(8, Integer.MAX_VALUE);
+        assertRejected(buffer);
+    }
+
+    @Test
+    public void rejectsTruncatedRecords() {
+        ByteBuffer buffer = IssueSnapshot.encode(Collections.singletonList(issue("a")));
+        buffer.limit(buffer.limit() - 4);
+        assertRejected(buffer);
+    }
+
+    private static void assertRejected(ByteBuffer buffer) {
+        try {
+            IssueSnapshot.wrap(buffer);
+            fail("Expected the snapshot to be rejected");
+        } catch (IOException expected) {
+            // Corrupt files surface as IOException, never a runtime exception
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.city_i.store;
+
+import com.city_i.models.AnalyticsModel;
+import com.city_i.models.IssueModel;
+
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.Map;
+
+import static com.city_i.store.IssueCodecTest.assertSameIssue;
+import static com.city_i.store.IssueCodecTest.issue;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class IssueStoreTest {
+    private static final long HOUR_MS = 60 * 60 * 1000;
+    private static final long CREATED = 1_700_000_000_000L;
+
+    @Test
+    public void rowsReadBackAsTheIssuesStored() {
+        IssueStore store = new IssueStore(1);
+        IssueModel full = issue("a");
+        full.setTitle("Pothole");
+        full.setDescription("Deep one");
+        full.setImagePath("/photos/a.jpg");
+        full.setDepartmentId("pwd");
+        full.setReportedByUserId("user-1");
+        full.setPriority(7);
+        full.setUpdatedAt(new Date(CREATED + HOUR_MS));
+        IssueModel sparse = new IssueModel();
+
+        // Past the initial capacity, so the columns have to grow
+        int first = store.append(full);
+        int second = store.append(sparse);
+
+        assertEquals(2, store.size());
+        assertSameIssue(full, store.get(first));
+        assertSameIssue(sparse, store.get(second));
+        assertEquals(first, store.rowOf("a"));
+    }
+
+    @Test
+    public void appendingAKnownIdUpdatesItsRow() {
+        IssueStore store = new IssueStore();
+        int row = store.append(issue("a"));
+        store.append(issue("b"));
+        IssueModel changed = issue("a");
+        changed.setStatus(IssueStore.STATUS_RESOLVED);
+
+        assertEquals(row, store.append(changed));
+        assertEquals(2, store.size());
+        assertEquals(IssueStore.STATUS_RESOLVED, store.getStatus(row));
+    }
+
+    @Test
+    public void updateUnderANewIdMovesTheLookup() {
+        IssueStore store = new IssueStore();
+        int row = store.append(issue("a"));
+
+        store.update(row, issue("renamed"));
+
+        assertEquals(-1, store.rowOf("a"));
+        assertEquals(row, store.rowOf("renamed"));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rowsPastTheEndAreRejected() {
+        new IssueStore().setPriority(0, 3);
+    }
+
+    @Test
+    public void scansAndRefinementsSelectMatchingRows() {
+        IssueStore store = new IssueStore();
+        store.append(reported("a", "Roads", "Pending", 8, 15.0, 73.0));
+        store.append(reported("b", "Water", "Pending", 3, 15.5, 73.5));
+        store.append(reported("c", "Roads", IssueStore.STATUS_RESOLVED, 9, 16.0, 74.0));
+        store.append(reported("d", "Roads", "Pending", 5, 15.2, 73.2));
+        int[] rows = new int[store.size()];
+
+        assertArrayEquals(new int[]{0, 2, 3}, select(rows, store.selectCategory("Roads", rows)));
+        assertEquals(0, store.selectCategory("Parks", rows));
+        assertArrayEquals(new int[]{0, 2}, select(rows, store.selectPriorityAtLeast(8, rows)));
+        assertArrayEquals(new int[]{0, 1, 3}, select(rows, store.selectWithin(14.9, 15.6, 72.9, 73.6, rows)));
+
+        int count = store.selectCategory("Roads", rows);
+        count = store.refineStatus(rows, count, "Pending");
+        assertArrayEquals(new int[]{0, 3}, select(rows, count));
+        count = store.refinePriorityAtLeast(rows, count, 6);
+        assertArrayEquals(new int[]{0}, select(rows, count));
+        assertEquals(0, store.refineStatus(rows, count, "Unknown"));
+    }
+
+    @Test
+    public void createdBetweenIsHalfOpen() {
+        IssueStore store = new IssueStore();
+        for (int i = 0; i < 4; i++) {
+            IssueModel issue = issue("i" + i);
+            issue.setCreatedAt(new Date(CREATED + i * HOUR_MS));
+            store.append(issue);
+        }
+        store.append(new IssueModel());
+        int[] rows = new int[store.size()];
+
+        int count = store.selectCreatedBetween(CREATED + HOUR_MS, CREATED + 3 * HOUR_MS, rows);
+
+        assertArrayEquals(new int[]{1, 2}, select(rows, count));
+    }
+
+    @Test
+    public void countsAndAverages() {
+        IssueStore store = new IssueStore();
+        store.append(reported("a", "Roads", "Pending", 8, 15.0, 73.0));
+        store.append(reported("b", "Water", "Pending", 3, 15.0, 73.0));
+        store.append(reported("c", "Roads", "In Progress", 4, 15.0, 73.0));
+        int[] rows = new int[store.size()];
+
+        assertEquals(2, store.countStatus("Pending"));
+        assertEquals(0, store.countStatus(IssueStore.STATUS_RESOLVED));
+        Map<String, Integer> byCategory = store.countByCategory();
+        assertEquals(2, (int) byCategory.get("Roads"));
+        assertEquals(1, (int) byCategory.get("Water"));
+        assertEquals(6.0, store.averagePriority(rows, store.selectCategory("Roads", rows)), 0.0001);
+        assertEquals(0, store.averagePriority(rows, 0), 0);
+    }
+
+    @Test
+    public void summaryAveragesOnlyResolvedIssuesWithBothTimestamps() {
+        IssueStore store = new IssueStore();
+        store.append(resolved("fast", 2 * HOUR_MS));
+        store.append(resolved("slow", 6 * HOUR_MS));
+        IssueModel untimed = issue("untimed");
+        untimed.setStatus(IssueStore.STATUS_RESOLVED);
+        store.append(untimed);
+        // Open issues never count, even with both timestamps
+        IssueModel open = resolved("open", 100 * HOUR_MS);
+        open.setStatus("Pending");
+        store.append(open);
+
+        Date generatedAt = new Date();
+        AnalyticsModel summary = store.summarize("today", generatedAt);
+
+        assertEquals("today", summary.getId());
+        assertEquals(generatedAt, summary.getGeneratedAt());
+        assertEquals(4, summary.getTotalIssues());
+        assertEquals(3, summary.getResolvedIssues());
+        assertEquals(1, summary.getOpenIssues());
+        // The resolved issue without updatedAt is not averaged in as zero
+        assertEquals(4 * HOUR_MS, summary.getAvgResolutionTimeMs());
+        assertEquals(4, (int) summary.getIssuesByCategory().get("Roads"));
+    }
+
+    @Test
+    public void summaryOfAStoreWithoutResolvedIssues() {
+        IssueStore store = new IssueStore();
+        store.append(issue("a"));
+
+        AnalyticsModel summary = store.summarize("empty", new Date());
+
+        assertEquals(1, summary.getOpenIssues());
+        assertEquals(0, summary.getResolvedIssues());
+        assertEquals(0, summary.getAvgResolutionTimeMs());
+    }
+
+    static IssueModel reported(String id, String category, String status, int priority,
+                               double latitude, double longitude) {
+        IssueModel issue = issue(id);
+        issue.setCategory(category);
+        issue.setStatus(status);
+        issue.setPriority(priority);
+        issue.setLatitude(latitude);
+        issue.setLongitude(longitude);
+        return issue;
+    }
+
+    static IssueModel resolved(String id, long resolutionMs) {
+        IssueModel issue = issue(id);
+        issue.setStatus(IssueStore.STATUS_RESOLVED);
+        issue.setUpdatedAt(new Date(issue.getCreatedAt().getTime() + resolutionMs));
+        return issue;
+    }
+
+    private static int[] select(int[] rows, int count) {
+        int[] selected = new int[count];
+        System.arraycopy(rows, 0, selected, 0, count);
+        return selected;
+    }
+}
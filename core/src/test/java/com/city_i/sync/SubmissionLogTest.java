@@ -0,0 +1,195 @@
+package com.city_i.sync;
+
+import com.city_i.models.IssueModel;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SubmissionLogTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replaysPendingSubmissions() throws IOException {
+        File file = folder.newFile();
+        Submission first;
+        Submission second;
+        try (SubmissionLog log = SubmissionLog.open(file)) {
+            first = log.append(issue("Pothole"), "/photos/a.jpg");
+            second = log.append(issue("Streetlight"), null);
+        }
+
+        try (SubmissionLog log = SubmissionLog.open(file)) {
+            List<Submission> pending = log.pending(10);
+            assertEquals(2, pending.size());
+            assertEquals(first.getKey(), pending.get(0).getKey());
+            assertEquals("Pothole", pending.get(0).getIssue().getDescription());
+            assertEquals(first.getKey(), pending.get(0).getIssue().getId());
+            assertEquals("/photos/a.jpg", pending.get(0).getImageRef());
+            assertEquals(second.getKey(), pending.get(1).getKey());
+            assertNull(pending.get(1).getImageRef());
+        }
+    }
+
+    @Test
+    public void submissionKeepsItsOwnCopyOfTheIssue() throws IOException {
+        IssueModel issue = issue("Original");
+        try (SubmissionLog log = SubmissionLog.open(folder.newFile())) {
+            Submission submission = log.append(issue, null);
+            issue.setDescription("Changed by the caller");
+            issue.setImagePath("https://example.invalid/photo.webp");
+
+            IssueModel queued = log.pending(1).get(0).getIssue();
+            assertNotSame(issue, queued);
+            assertEquals("Original", queued.getDescription());
+            assertNull(queued.getImagePath());
+            // Stored under its key, so the copy carries it as its id
+            assertEquals(submission.getKey(), queued.getId());
+            assertNull(issue.getId());
+        }
+    }
+
+    @Test
+    public void acknowledgedSubmissionsAreNotReplayed() throws IOException {
+        File file = folder.newFile();
+        Submission kept;
+        try (SubmissionLog log = SubmissionLog.open(file)) {
+            Submission sent = log.append(issue("Sent"), null);
+            kept = log.append(issue("Kept"), null);
+            log.acknowledge(Collections.singletonList(sent.getKey()));
+            assertEquals(1, log.pendingCount());
+        }
+
+        try (SubmissionLog log = SubmissionLog.open(file)) {
+            List<Submission> pending = log.pending(10);
+            assertEquals(1, pending.size());
+            assertEquals(kept.getKey(), pending.get(0).getKey());
+        }
+    }
+
+    @Test
+    public void tornTailIsTruncated() throws IOException {
+        File file = folder.newFile();
+        long firstEnd;
+        try (SubmissionLog log = SubmissionLog.open(file)) {
+            log.append(issue("Complete"), null);
+            firstEnd = file.length();
+            log.append(issue("Torn"), null);
+        }
+        // Cut the second record short, as a crash in the middle of a write would
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.setLength(raw.length() - 5);
+        }
+
+        try (SubmissionLog log = SubmissionLog.open(file)) {
+            assertEquals(1, log.pendingCount());
+            assertEquals("Complete", log.pending(10).get(0).getIssue().getDescription());
+            assertEquals(firstEnd, file.length());
+            log.append(issue("After"), null);
+        }
+
+        try (SubmissionLog log = SubmissionLog.open(file)) {
+            assertEquals(2, log.pendingCount());
+            assertEquals("After", log.pending(10).get(1).getIssue().getDescription());
+        }
+    }
+
+    @Test
+    public void corruptRecordAndEverythingAfterItAreDropped() throws IOException {
+        File file = folder.newFile();
+        long firstEnd;
+        try (SubmissionLog log = SubmissionLog.open(file)) {
+            log.append(issue("Intact"), null);
+            firstEnd = file.length();
+            log.append(issue("Corrupt"), null);
+            log.append(issue("Behind the corrupt one"), null);
+        }
+        // Flip a payload byte of the second record, past its length and checksum
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            long position = firstEnd + 12;
+            raw.seek(position);
+            int value = raw.read();
+            raw.seek(position);
+            raw.write(value ^ 0xFF);
+        }
+
+        try (SubmissionLog log = SubmissionLog.open(file)) {
+            assertEquals(1, log.pendingCount());
+            assertEquals("Intact", log.pending(10).get(0).getIssue().getDescription());
+            assertEquals(firstEnd, file.length());
+        }
+    }
+
+    @Test
+    public void compactionKeepsOnlyPendingSubmissions() throws IOException {
+        File file = folder.newFile();
+        List<String> pendingKeys = new ArrayList<>();
+        long fullSize;
+        try (SubmissionLog log = SubmissionLog.open(file)) {
+            List<String> sentKeys = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                Submission submission = log.append(issue("Report " + i), null);
+                (i < 70 ? sentKeys : pendingKeys).add(submission.getKey());
+            }
+            fullSize = file.length();
+            log.acknowledge(sentKeys);
+            // Enough acknowledged records to compact on its own
+            assertTrue(file.length() < fullSize);
+            assertEquals(30, log.pendingCount());
+            assertFalse(new File(file.getPath() + ".compact").exists());
+
+            log.append(issue("After compaction"), null);
+        }
+
+        try (SubmissionLog log = SubmissionLog.open(file)) {
+            List<Submission> pending = log.pending(100);
+            assertEquals(31, pending.size());
+            for (int i = 0; i < pendingKeys.size(); i++) {
+                assertEquals(pendingKeys.get(i), pending.get(i).getKey());
+            }
+            assertEquals("After compaction", pending.get(30).getIssue().getDescription());
+        }
+    }
+
+    @Test
+    public void explicitCompactionCanBeReplayed() throws IOException {
+        File file = folder.newFile();
+        Submission kept;
+        try (SubmissionLog log = SubmissionLog.open(file)) {
+            Submission sent = log.append(issue("Sent"), null);
+            kept = log.append(issue("Kept"), "/photos/kept.jpg");
+            log.acknowledge(Collections.singletonList(sent.getKey()));
+            log.compact();
+        }
+
+        try (SubmissionLog log = SubmissionLog.open(file)) {
+            List<Submission> pending = log.pending(10);
+            assertEquals(1, pending.size());
+            assertEquals(kept.getKey(), pending.get(0).getKey());
+            assertEquals("/photos/kept.jpg", pending.get(0).getImageRef());
+        }
+    }
+
+    private static IssueModel issue(String description) {
+        IssueModel issue = new IssueModel();
+        issue.setDescription(description);
+        issue.setCategory("Roads");
+        issue.setLatitude(15.4909);
+        issue.setLongitude(73.8278);
+        return issue;
+    }
+}
@@ -0,0 +1,189 @@
+package com.city_i.sync;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WriteCoalescerTest {
+    private static final long TIMEOUT_SECONDS = 5;
+    // Long enough that only explicit flushes and full batches send anything
+    private static final long NO_LINGER_MS = 60_000;
+
+    private final FakeCommitter committer = new FakeCommitter();
+    private WriteCoalescer coalescer;
+
+    @After
+    public void close() {
+        if (coalescer != null) {
+            coalescer.close();
+        }
+    }
+
+    @Test
+    public void mergesUpdatesToTheSameDocument() throws Exception {
+        coalescer = new WriteCoalescer(committer, WriteCoalescer.MAX_BATCH_SIZE, NO_LINGER_MS);
+        CompletableFuture<Void> first = coalescer.update("issues/1", "status", "Open");
+        CompletableFuture<Void> second = coalescer.update("issues/1", "priority", 7);
+        CompletableFuture<Void> third = coalescer.update("issues/1", "status", "In Progress");
+        coalescer.update("issues/2", "status", "Resolved");
+        assertEquals(2, coalescer.pendingCount());
+
+        coalescer.flush().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        List<List<DocumentWrite>> batches = committer.batches();
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+        DocumentWrite write = batches.get(0).get(0);
+        assertEquals("issues/1", write.getPath());
+        Map<String, Object> fields = write.getFields();
+        assertEquals(2, fields.size());
+        assertEquals("In Progress", fields.get("status"));
+        assertEquals(7, fields.get("priority"));
+        assertSame(first, second);
+        assertSame(first, third);
+        assertTrue(first.isDone() && !first.isCompletedExceptionally());
+    }
+
+    @Test
+    public void splitsLargeFlushesIntoFullBatches() throws Exception {
+        coalescer = new WriteCoalescer(committer, WriteCoalescer.MAX_BATCH_SIZE, NO_LINGER_MS);
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            results.add(coalescer.update("issues/" + i, "priority", i % 10));
+        }
+        coalescer.flush().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        List<List<DocumentWrite>> batches = committer.batches();
+        // Reaching the limit sends right away, without waiting for the linger time
+        assertEquals(WriteCoalescer.MAX_BATCH_SIZE, batches.get(0).size());
+        Set<String> paths = new HashSet<>();
+        for (List<DocumentWrite> batch : batches) {
+            assertTrue(batch.size() <= WriteCoalescer.MAX_BATCH_SIZE);
+            for (DocumentWrite write : batch) {
+                assertTrue("written twice: " + write.getPath(), paths.add(write.getPath()));
+            }
+        }
+        assertEquals(1200, paths.size());
+    }
+
+    @Test
+    public void lingerSendsWithoutFlush() throws Exception {
+        long lingerMs = 100;
+        coalescer = new WriteCoalescer(committer, WriteCoalescer.MAX_BATCH_SIZE, lingerMs);
+        long start = System.nanoTime();
+        CompletableFuture<Void> result = coalescer.update("issues/1", "status", "Open");
+        coalescer.update("issues/2", "status", "Open");
+
+        result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= lingerMs);
+        assertEquals(1, committer.batches().size());
+        assertEquals(2, committer.batches().get(0).size());
+        assertEquals(0, coalescer.pendingCount());
+    }
+
+    @Test
+    public void flushDuringCommitIsSentRightAfter() throws Exception {
+        CompletableFuture<Void> slowCommit = new CompletableFuture<>();
+        CountDownLatch committing = new CountDownLatch(1);
+        List<List<DocumentWrite>> batches = new ArrayList<>();
+        coalescer = new WriteCoalescer(writes -> {
+            synchronized (batches) {
+                batches.add(new ArrayList<>(writes));
+                committing.countDown();
+                return batches.size() == 1 ? slowCommit : CompletableFuture.completedFuture(null);
+            }
+        }, WriteCoalescer.MAX_BATCH_SIZE, NO_LINGER_MS);
+        coalescer.update("issues/1", "status", "Open");
+        coalescer.flush();
+        assertTrue(committing.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        CompletableFuture<Void> second = coalescer.update("issues/2", "status", "Open");
+        CompletableFuture<Void> flushed = coalescer.flush();
+
+        slowCommit.complete(null);
+
+        // Not held back for the linger time once the first commit is done
+        flushed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertTrue(second.isDone() && !second.isCompletedExceptionally());
+        synchronized (batches) {
+            assertEquals(2, batches.size());
+        }
+    }
+
+    @Test
+    public void batchFailureFailsEveryWriteInIt() throws Exception {
+        committer.failPath = "issues/2";
+        coalescer = new WriteCoalescer(committer, 2, NO_LINGER_MS);
+        CompletableFuture<Void> first = coalescer.update("issues/1", "status", "Open");
+        CompletableFuture<Void> second = coalescer.update("issues/2", "status", "Open");
+        CompletableFuture<Void> third = coalescer.update("issues/3", "status", "Open");
+
+        // A flush completes normally; the failure is reported per write
+        coalescer.flush().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertFailed(first);
+        assertFailed(second);
+        third.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void committerExceptionFailsTheBatch() throws Exception {
+        coalescer = new WriteCoalescer(writes -> {
+            throw new IllegalStateException("offline");
+        }, WriteCoalescer.MAX_BATCH_SIZE, NO_LINGER_MS);
+        CompletableFuture<Void> result = coalescer.update("issues/1", "status", "Open");
+
+        coalescer.flush().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertFailed(result);
+    }
+
+    private static void assertFailed(CompletableFuture<Void> result) throws Exception {
+        try {
+            result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            fail("Expected the write to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    // Records every batch; fails those containing failPath
+    private static final class FakeCommitter implements BatchCommitter {
+        private final List<List<DocumentWrite>> batches = new ArrayList<>();
+        volatile String failPath;
+
+        @Override
+        public synchronized CompletableFuture<Void> commit(List<DocumentWrite> writes) {
+            batches.add(new ArrayList<>(writes));
+            CompletableFuture<Void> result = new CompletableFuture<>();
+            for (DocumentWrite write : writes) {
+                if (write.getPath().equals(failPath)) {
+                    result.completeExceptionally(new IllegalStateException("rejected " + failPath));
+                    return result;
+                }
+            }
+            result.complete(null);
+            return result;
+        }
+
+        synchronized List<List<DocumentWrite>> batches() {
+            return new ArrayList<>(batches);
+        }
+    }
+}
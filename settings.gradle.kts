@@ -21,3 +21,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "City-I"
 include(":app")
+include(":core")
+include(":benchmark")
+include(":tools")
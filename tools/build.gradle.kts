@@ -0,0 +1,49 @@
+plugins {
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    implementation(project(":core"))
+    implementation(libs.gson)
+    testImplementation(libs.junit)
+}
+
+application {
+    mainClass.set("com.city_i.tools.TriageCli")
+    applicationName = "city-i-triage"
+}
+
+// Extra launchers for the HTTP triage service and its load generator
+val extraLaunchers = mapOf(
+    "city-i-triage-server" to "com.city_i.tools.TriageServer",
+    "city-i-load-test" to "com.city_i.tools.LoadTestClient"
+)
+val extraStartScripts = extraLaunchers.map { (name, main) ->
+    tasks.register<CreateStartScripts>("startScripts-$name") {
+        applicationName = name
+        mainClass.set(main)
+        outputDir = layout.buildDirectory.dir("scripts-$name").get().asFile
+        classpath = tasks.named<CreateStartScripts>("startScripts").get().classpath
+    }
+}
+
+distributions {
+    main {
+        contents {
+            extraStartScripts.forEach { scripts ->
+                from(scripts) {
+                    into("bin")
+                }
+            }
+        }
+    }
+}
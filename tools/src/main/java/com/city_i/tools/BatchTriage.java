@@ -0,0 +1,122 @@
+package com.city_i.tools;
+
+import com.city_i.ai.PriorityScorer;
+import com.city_i.models.IssueModel;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Re-scores a stream of issues on a worker pool.
+ *
+ * The calling thread reads batches and hands results to the sink in input order.
+ * At most {@code 2 * threads} batches are in flight, so memory stays bounded no
+ * matter how large the export is.
+ */
+public class BatchTriage {
+
+    /**
+     * Receives every issue with its stored and recomputed priority, in input order.
+     */
+    public interface Sink {
+        void accept(IssueModel issue, int previousPriority, int priority) throws IOException;
+    }
+
+    private final PriorityScorer scorer;
+    private final int threads;
+    private final int batchSize;
+
+    public BatchTriage(PriorityScorer scorer, int threads, int batchSize) {
+        if (threads < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("threads and batchSize must be positive");
+        }
+        this.scorer = scorer;
+        this.threads = threads;
+        this.batchSize = batchSize;
+    }
+
+    public TriageSummary run(IssueSource source, Sink sink) throws IOException, InterruptedException {
+        TriageSummary summary = new TriageSummary(scorer);
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "triage-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        int maxInFlight = threads * 2;
+        ArrayDeque<Future<Batch>> inFlight = new ArrayDeque<>(maxInFlight);
+        long start = System.nanoTime();
+        try {
+            Batch batch;
+            while ((batch = readBatch(source)) != null) {
+                Batch pending = batch;
+                inFlight.add(pool.submit(() -> score(pending)));
+                if (inFlight.size() >= maxInFlight) {
+                    emit(await(inFlight.poll()), sink, summary);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                emit(await(inFlight.poll()), sink, summary);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        summary.setElapsedNanos(System.nanoTime() - start);
+        return summary;
+    }
+
+    private Batch readBatch(IssueSource source) throws IOException {
+        IssueModel[] issues = new IssueModel[batchSize];
+        int size = 0;
+        IssueModel issue;
+        while (size < batchSize && (issue = source.next()) != null) {
+            issues[size++] = issue;
+        }
+        return size > 0 ? new Batch(issues, size) : null;
+    }
+
+    private Batch score(Batch batch) {
+        for (int i = 0; i < batch.size; i++) {
+            batch.priorities[i] = scorer.calculateIssuePriority(batch.issues[i]);
+        }
+        return batch;
+    }
+
+    private static void emit(Batch batch, Sink sink, TriageSummary summary) throws IOException {
+        for (int i = 0; i < batch.size; i++) {
+            IssueModel issue = batch.issues[i];
+            sink.accept(issue, issue.getPriority(), batch.priorities[i]);
+            summary.record(issue.getPriority(), batch.priorities[i]);
+        }
+    }
+
+    private static Batch await(Future<Batch> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Scoring failed", cause);
+        }
+    }
+
+    private static final class Batch {
+        final IssueModel[] issues;
+        final int size;
+        final int[] priorities;
+
+        Batch(IssueModel[] issues, int size) {
+            this.issues = issues;
+            this.size = size;
+            this.priorities = new int[size];
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.city_i.tools;
+
+import com.city_i.corpus.CorpusReader;
+import com.city_i.models.IssueModel;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Issues from a binary corpus file written by {@link com.city_i.corpus.CorpusWriter}.
+ */
+class CorpusIssueSource implements IssueSource {
+    private static final byte[] MAGIC = {'C', 'I', 'C', 'P'};
+
+    private final CorpusReader reader;
+
+    CorpusIssueSource(InputStream in) throws IOException {
+        this.reader = new CorpusReader(in);
+    }
+
+    static boolean isCorpus(byte[] header) {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public IssueModel next() throws IOException {
+        return reader.read();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,145 @@
+package com.city_i.tools;
+
+import com.city_i.models.IssueModel;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+/**
+ * Reads and writes an {@link IssueModel} as a JSON object.
+ *
+ * Field names follow {@link IssueModel}; unknown fields are skipped. Dates may be
+ * epoch milliseconds, ISO-8601 strings or Firestore timestamps
+ * ({"_seconds": .., "_nanoseconds": ..}).
+ */
+final class IssueJson {
+
+    private IssueJson() {
+    }
+
+    static IssueModel read(JsonReader reader) throws IOException {
+        IssueModel issue = new IssueModel();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id":
+                    issue.setId(reader.nextString());
+                    break;
+                case "title":
+                    issue.setTitle(reader.nextString());
+                    break;
+                case "description":
+                    issue.setDescription(reader.nextString());
+                    break;
+                case "category":
+                    issue.setCategory(reader.nextString());
+                    break;
+                case "status":
+                    issue.setStatus(reader.nextString());
+                    break;
+                case "imagePath":
+                    issue.setImagePath(reader.nextString());
+                    break;
+                case "departmentId":
+                    issue.setDepartmentId(reader.nextString());
+                    break;
+                case "reportedByUserId":
+                    issue.setReportedByUserId(reader.nextString());
+                    break;
+                case "latitude":
+                    issue.setLatitude(reader.nextDouble());
+                    break;
+                case "longitude":
+                    issue.setLongitude(reader.nextDouble());
+                    break;
+                case "priority":
+                    issue.setPriority(reader.nextInt());
+                    break;
+                case "createdAt":
+                    issue.setCreatedAt(readDate(reader));
+                    break;
+                case "updatedAt":
+                    issue.setUpdatedAt(readDate(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return issue;
+    }
+
+    /**
+     * Write an issue; dates are written as epoch milliseconds and null fields are omitted.
+     */
+    static void write(JsonWriter writer, IssueModel issue) throws IOException {
+        writer.beginObject();
+        writeString(writer, "id", issue.getId());
+        writeString(writer, "title", issue.getTitle());
+        writeString(writer, "description", issue.getDescription());
+        writeString(writer, "category", issue.getCategory());
+        writeString(writer, "status", issue.getStatus());
+        writeString(writer, "imagePath", issue.getImagePath());
+        writeString(writer, "departmentId", issue.getDepartmentId());
+        writeString(writer, "reportedByUserId", issue.getReportedByUserId());
+        writer.name("latitude").value(issue.getLatitude());
+        writer.name("longitude").value(issue.getLongitude());
+        writer.name("priority").value(issue.getPriority());
+        if (issue.getCreatedAt() != null) {
+            writer.name("createdAt").value(issue.getCreatedAt().getTime());
+        }
+        if (issue.getUpdatedAt() != null) {
+            writer.name("updatedAt").value(issue.getUpdatedAt().getTime());
+        }
+        writer.endObject();
+    }
+
+    private static void writeString(JsonWriter writer, String name, String value) throws IOException {
+        if (value != null) {
+            writer.name(name).value(value);
+        }
+    }
+
+    private static Date readDate(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NUMBER:
+                return new Date(reader.nextLong());
+            case STRING:
+                String text = reader.nextString();
+                try {
+                    return Date.from(OffsetDateTime.parse(text).toInstant());
+                } catch (DateTimeParseException e) {
+                    throw new IOException("Bad date '" + text + "' at " + reader.getPath(), e);
+                }
+            case BEGIN_OBJECT:
+                long seconds = 0;
+                long nanos = 0;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if ("_seconds".equals(name) || "seconds".equals(name)) {
+                        seconds = reader.nextLong();
+                    } else if ("_nanoseconds".equals(name) || "nanos".equals(name)) {
+                        nanos = reader.nextLong();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                return new Date(seconds * 1000 + nanos / 1_000_000);
+            default:
+                throw new IOException("Unexpected date value at " + reader.getPath());
+        }
+    }
+}
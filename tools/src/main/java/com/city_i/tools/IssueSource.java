@@ -0,0 +1,51 @@
+package com.city_i.tools;
+
+import com.city_i.models.IssueModel;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A stream of issues read from an export.
+ */
+public interface IssueSource extends Closeable {
+
+    /**
+     * Returns the next issue, or null when the source is exhausted.
+     */
+    IssueModel next() throws IOException;
+
+    /**
+     * Open an export, detecting gzip and the corpus binary format from the content;
+     * anything else is read as JSON lines.
+     */
+    static IssueSource open(File file) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file), 64 * 1024);
+        try {
+            in.mark(2);
+            int b0 = in.read();
+            int b1 = in.read();
+            in.reset();
+            if (b0 == 0x1f && b1 == 0x8b) {
+                in = new BufferedInputStream(new GZIPInputStream(in, 64 * 1024), 64 * 1024);
+            }
+
+            in.mark(4);
+            byte[] magic = new byte[4];
+            int read = in.readNBytes(magic, 0, magic.length);
+            in.reset();
+            if (read == 4 && CorpusIssueSource.isCorpus(magic)) {
+                return new CorpusIssueSource(in);
+            }
+            return new JsonLinesIssueSource(in);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+}
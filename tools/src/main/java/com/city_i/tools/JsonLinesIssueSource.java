@@ -0,0 +1,39 @@
+package com.city_i.tools;
+
+import com.city_i.models.IssueModel;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Issues from a JSON-lines export, one object per line, parsed as a stream.
+ * See {@link IssueJson} for the accepted fields.
+ */
+class JsonLinesIssueSource implements IssueSource {
+    private final JsonReader reader;
+
+    JsonLinesIssueSource(InputStream in) {
+        reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        // Lenient mode accepts a sequence of top-level objects
+        reader.setStrictness(Strictness.LENIENT);
+    }
+
+    @Override
+    public IssueModel next() throws IOException {
+        if (reader.peek() == JsonToken.END_DOCUMENT) {
+            return null;
+        }
+
+        return IssueJson.read(reader);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,43 @@
+package com.city_i.tools;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fails once more than a fixed number of bytes have been read, so an oversized
+ * request body cannot exhaust the heap.
+ */
+class LimitedInputStream extends FilterInputStream {
+    private long remaining;
+
+    LimitedInputStream(InputStream in, long limit) {
+        super(in);
+        this.remaining = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            consume(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            consume(read);
+        }
+        return read;
+    }
+
+    private void consume(int count) throws IOException {
+        remaining -= count;
+        if (remaining < 0) {
+            throw new IOException("Request body too large");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.city_i.tools;
+
+import com.city_i.ai.InferenceMetrics;
+import com.city_i.corpus.CorpusGenerator;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Closed-loop load generator for {@link TriageServer}: each worker sends the next
+ * synthetic issue as soon as the previous response arrives.
+ *
+ * <pre>
+ * city-i-load-test [--url URL] [--concurrency N] [--duration S] [--warmup S] [--seed N]
+ * </pre>
+ */
+public final class LoadTestClient {
+    private static final String METRIC = "POST /v1/priority";
+    private static final int PAYLOADS = 10_000;
+
+    private LoadTestClient() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = "http://localhost:8080/v1/priority";
+        int concurrency = 64;
+        int durationSeconds = 30;
+        int warmupSeconds = 5;
+        long seed = 42L;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--url":
+                        url = args[++i];
+                        break;
+                    case "--concurrency":
+                        concurrency = Integer.parseInt(args[++i]);
+                        break;
+                    case "--duration":
+                        durationSeconds = Integer.parseInt(args[++i]);
+                        break;
+                    case "--warmup":
+                        warmupSeconds = Integer.parseInt(args[++i]);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: city-i-load-test [--url URL] [--concurrency N]"
+                    + " [--duration S] [--warmup S] [--seed N]");
+            System.exit(2);
+            return;
+        }
+
+        String[] payloads = payloads(seed);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        URI uri = URI.create(url);
+
+        // Swapped after warmup so only the measured window is reported
+        AtomicReference<InferenceMetrics> metrics = new AtomicReference<>(new InferenceMetrics());
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds + durationSeconds);
+
+        ExecutorService workers = TriageServer.newRequestExecutor();
+        for (int w = 0; w < concurrency; w++) {
+            int offset = w * (PAYLOADS / concurrency + 1);
+            workers.execute(() -> {
+                int next = offset;
+                while (System.nanoTime() < end) {
+                    HttpRequest request = HttpRequest.newBuilder(uri)
+                            .timeout(Duration.ofSeconds(10))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(payloads[next++ % PAYLOADS]))
+                            .build();
+                    long start = System.nanoTime();
+                    boolean success;
+                    try {
+                        success = client.send(request, HttpResponse.BodyHandlers.ofString())
+                                .statusCode() == 200;
+                    } catch (IOException e) {
+                        success = false;
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    metrics.get().record(METRIC, System.nanoTime() - start, success);
+                }
+            });
+        }
+
+        System.out.println("Warming up for " + warmupSeconds + " s with " + concurrency + " workers");
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        metrics.set(new InferenceMetrics());
+        System.out.println("Measuring for " + durationSeconds + " s");
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        List<InferenceMetrics.ModelSnapshot> measured = metrics.getAndSet(new InferenceMetrics()).snapshot();
+
+        workers.shutdown();
+        workers.awaitTermination(15, TimeUnit.SECONDS);
+
+        for (InferenceMetrics.ModelSnapshot snapshot : measured) {
+            System.out.println(String.format(Locale.US,
+                    "%s: %d requests, %d errors, %.0f req/s%n"
+                            + "latency ms: mean %.2f  p50 %.2f  p95 %.2f  p99 %.2f  max %.2f",
+                    snapshot.getModelName(), snapshot.getCount(), snapshot.getErrorCount(),
+                    snapshot.getThroughputPerSecond(), snapshot.getMeanMicros() / 1000.0,
+                    snapshot.getP50Micros() / 1000.0, snapshot.getP95Micros() / 1000.0,
+                    snapshot.getP99Micros() / 1000.0, snapshot.getMaxMicros() / 1000.0));
+        }
+    }
+
+    private static String[] payloads(long seed) throws IOException {
+        CorpusGenerator generator = new CorpusGenerator(seed);
+        String[] payloads = new String[PAYLOADS];
+        for (int i = 0; i < PAYLOADS; i++) {
+            StringWriter out = new StringWriter(512);
+            try (JsonWriter writer = new JsonWriter(out)) {
+                IssueJson.write(writer, generator.generate(i));
+            }
+            payloads[i] = out.toString();
+        }
+        return payloads;
+    }
+}
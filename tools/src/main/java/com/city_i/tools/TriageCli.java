@@ -0,0 +1,168 @@
+package com.city_i.tools;
+
+import com.city_i.ai.LocationAnalyzer;
+import com.city_i.ai.PriorityScorer;
+import com.city_i.ai.TextAnalyzer;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.TimeZone;
+
+/**
+ * Headless batch re-prioritisation of an exported issue dump.
+ *
+ * <pre>
+ * city-i-triage [options] &lt;input&gt; &lt;output.csv&gt;
+ *   --threads N          worker threads (default: available processors)
+ *   --batch-size N       issues per work unit (default 1024)
+ *   --changed-only       only write issues whose priority changed
+ *   --summary FILE       also write the band-change summary to FILE
+ *   --time-rules R,N,W,E time priorities for rush hour, night, weekday, weekend
+ *   --timezone ZONE      zone for time-of-day rules (default Asia/Kolkata, as on device)
+ * </pre>
+ *
+ * The input is JSON lines or a corpus binary file, optionally gzipped. The output is
+ * CSV with {@code id,previous_priority,priority}; issues without an id use their
+ * position in the input.
+ */
+public final class TriageCli {
+    private static final int DEFAULT_BATCH_SIZE = 1024;
+    private static final String DEFAULT_TIMEZONE = "Asia/Kolkata";
+
+    private TriageCli() {
+    }
+
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int batchSize = DEFAULT_BATCH_SIZE;
+        boolean changedOnly = false;
+        File summaryFile = null;
+        int[] timeRules = null;
+        String timezone = DEFAULT_TIMEZONE;
+        File input = null;
+        File output = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--batch-size":
+                        batchSize = Integer.parseInt(args[++i]);
+                        break;
+                    case "--changed-only":
+                        changedOnly = true;
+                        break;
+                    case "--summary":
+                        summaryFile = new File(args[++i]);
+                        break;
+                    case "--time-rules":
+                        timeRules = parseTimeRules(args[++i]);
+                        break;
+                    case "--timezone":
+                        timezone = args[++i];
+                        break;
+                    default:
+                        if (args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown option " + args[i]);
+                        } else if (input == null) {
+                            input = new File(args[i]);
+                        } else if (output == null) {
+                            output = new File(args[i]);
+                        } else {
+                            throw new IllegalArgumentException("Unexpected argument " + args[i]);
+                        }
+                }
+            }
+            if (input == null || output == null) {
+                throw new IllegalArgumentException("Input and output are required");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            usage();
+            System.exit(2);
+            return;
+        }
+
+        // Time priority reads the hour in the default zone, like the app does on device
+        TimeZone.setDefault(TimeZone.getTimeZone(timezone));
+
+        PriorityScorer scorer = new PriorityScorer(new TextAnalyzer(), new LocationAnalyzer(), null, null);
+        if (timeRules != null) {
+            scorer.setTimePriorities(timeRules[0], timeRules[1], timeRules[2], timeRules[3]);
+        }
+
+        try {
+            TriageSummary summary = run(scorer, input, output, threads, batchSize, changedOnly);
+            String report = summary.format();
+            System.out.print(report);
+            if (summaryFile != null) {
+                Files.write(summaryFile.toPath(), report.getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            System.err.println("Triage failed: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(1);
+        } finally {
+            scorer.close();
+        }
+    }
+
+    static TriageSummary run(PriorityScorer scorer, File input, File output, int threads,
+                             int batchSize, boolean changedOnly)
+            throws IOException, InterruptedException {
+        BatchTriage triage = new BatchTriage(scorer, threads, batchSize);
+        try (IssueSource source = IssueSource.open(input);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(
+                     new FileOutputStream(output), StandardCharsets.UTF_8), 64 * 1024)) {
+            writer.write("id,previous_priority,priority\n");
+            long[] position = {0};
+            return triage.run(source, (issue, previous, priority) -> {
+                long index = position[0]++;
+                if (changedOnly && previous == priority) {
+                    return;
+                }
+                String id = issue.getId() != null ? csv(issue.getId()) : Long.toString(index);
+                writer.write(id);
+                writer.write(',');
+                writer.write(Integer.toString(previous));
+                writer.write(',');
+                writer.write(Integer.toString(priority));
+                writer.write('\n');
+            });
+        }
+    }
+
+    private static int[] parseTimeRules(String value) {
+        String[] parts = value.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("--time-rules needs four values");
+        }
+        int[] rules = new int[4];
+        for (int i = 0; i < 4; i++) {
+            rules[i] = Integer.parseInt(parts[i].trim());
+        }
+        return rules;
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static void usage() {
+        System.err.println("Usage: city-i-triage [--threads N] [--batch-size N] [--changed-only]"
+                + " [--summary FILE] [--time-rules R,N,W,E] [--timezone ZONE] <input> <output.csv>");
+    }
+}
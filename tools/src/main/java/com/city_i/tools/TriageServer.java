@@ -0,0 +1,211 @@
+package com.city_i.tools;
+
+import com.city_i.ai.InferenceMetrics;
+import com.city_i.ai.LocationAnalyzer;
+import com.city_i.ai.PriorityScorer;
+import com.city_i.ai.TextAnalyzer;
+import com.city_i.models.IssueModel;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP triage endpoint on the JDK HTTP server.
+ *
+ * <pre>
+ * POST /v1/priority   issue JSON (see {@link IssueJson}) -> priority, label, color, explanation
+ * GET  /metrics       request latency histogram
+ * GET  /healthz       liveness
+ * </pre>
+ *
+ * Each request runs on its own virtual thread where the JDK has them (21+), otherwise
+ * on a fixed pool, and is scored there from start to finish. The server scores with
+ * the keyword and rule stages only: the priority model needs TensorFlow Lite, which
+ * only the app ships. Image paths in requests are ignored, since they would name
+ * files on this machine rather than the client's.
+ */
+public final class TriageServer implements Closeable {
+    private static final String REQUEST_METRIC = "POST /v1/priority";
+    private static final int FALLBACK_THREADS = 64;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final PriorityScorer scorer;
+    private final HttpServer server;
+    private final ExecutorService requestExecutor;
+    private final InferenceMetrics metrics = new InferenceMetrics();
+
+    public TriageServer(PriorityScorer scorer, int port) throws IOException {
+        this.scorer = scorer;
+        this.requestExecutor = newRequestExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(requestExecutor);
+        server.createContext("/v1/priority", this::handlePriority);
+        server.createContext("/metrics", exchange -> handleGet(exchange, metrics.dump()));
+        server.createContext("/healthz", exchange -> handleGet(exchange, "ok\n"));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public InferenceMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        server.stop(1);
+        requestExecutor.shutdownNow();
+    }
+
+    /**
+     * Virtual thread per task on JDK 21+, looked up reflectively so the tool still
+     * builds and runs on Java 11; a fixed platform pool otherwise.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(FALLBACK_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "triage-http-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void handlePriority(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, "text/plain", "POST only\n");
+                return;
+            }
+
+            IssueModel issue;
+            try (JsonReader reader = new JsonReader(new InputStreamReader(
+                    new LimitedInputStream(exchange.getRequestBody(), MAX_BODY_BYTES),
+                    StandardCharsets.UTF_8))) {
+                issue = IssueJson.read(reader);
+            } catch (IOException | JsonParseException | IllegalStateException e) {
+                send(exchange, 400, "text/plain", "Invalid issue: " + e.getMessage() + "\n");
+                return;
+            }
+            if (issue.getCategory() == null || issue.getCategory().trim().isEmpty()) {
+                send(exchange, 400, "text/plain", "Invalid issue: category is required\n");
+                return;
+            }
+            // A server-side path would let clients probe this machine's files
+            issue.setImagePath(null);
+
+            int priority = scorer.combine(scorer.extractFeatures(issue, null));
+
+            send(exchange, 200, "application/json", toJson(issue, priority));
+            success = true;
+        } finally {
+            exchange.close();
+            metrics.record(REQUEST_METRIC, System.nanoTime() - start, success);
+        }
+    }
+
+    private String toJson(IssueModel issue, int priority) throws IOException {
+        StringWriter out = new StringWriter(256);
+        try (JsonWriter writer = new JsonWriter(out)) {
+            writer.beginObject();
+            if (issue.getId() != null) {
+                writer.name("id").value(issue.getId());
+            }
+            writer.name("priority").value(priority);
+            writer.name("label").value(scorer.getPriorityLabel(priority));
+            writer.name("color").value(String.format(Locale.US, "#%08X", scorer.getPriorityColor(priority)));
+            writer.name("explanation").value(scorer.getPriorityExplanation(priority, issue.getCategory()));
+            writer.endObject();
+        }
+        return out.toString();
+    }
+
+    private static void handleGet(HttpExchange exchange, String body) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, "text/plain", "GET only\n");
+                return;
+            }
+            send(exchange, 200, "text/plain", body);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Usage: {@code city-i-triage-server [--port N] [--timezone ZONE]}
+     */
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        String timezone = "Asia/Kolkata";
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--timezone":
+                        timezone = args[++i];
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: city-i-triage-server [--port N] [--timezone ZONE]");
+            System.exit(2);
+            return;
+        }
+
+        // Time priority reads the hour in the default zone, like the app does on device
+        TimeZone.setDefault(TimeZone.getTimeZone(timezone));
+
+        PriorityScorer scorer = new PriorityScorer(new TextAnalyzer(), new LocationAnalyzer(), null, null);
+        TriageServer server = new TriageServer(scorer, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            scorer.close();
+        }));
+        server.start();
+        System.out.println("Triage server listening on port " + server.getPort());
+    }
+}
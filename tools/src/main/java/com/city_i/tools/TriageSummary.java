@@ -0,0 +1,107 @@
+package com.city_i.tools;
+
+import com.city_i.ai.PriorityScorer;
+
+import java.util.Locale;
+
+/**
+ * Counts of priority-band transitions from a triage run.
+ */
+public class TriageSummary {
+    // Issues exported before they were ever scored carry priority 0
+    private static final String UNSCORED = "Unscored";
+    private static final String[] BANDS = {UNSCORED, "Low Priority", "Medium Priority", "High Priority"};
+
+    private final PriorityScorer scorer;
+    private final long[][] transitions = new long[BANDS.length][BANDS.length];
+    private long total;
+    private long changed;
+    private long raised;
+    private long lowered;
+    private long elapsedNanos;
+
+    TriageSummary(PriorityScorer scorer) {
+        this.scorer = scorer;
+    }
+
+    void record(int previousPriority, int priority) {
+        total++;
+        if (priority != previousPriority) {
+            changed++;
+            if (priority > previousPriority) {
+                raised++;
+            } else {
+                lowered++;
+            }
+        }
+        transitions[band(previousPriority)][band(priority)]++;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getChanged() {
+        return changed;
+    }
+
+    /**
+     * Issues whose band differs before and after re-scoring.
+     */
+    public long getBandChanges() {
+        long moved = 0;
+        for (int from = 0; from < BANDS.length; from++) {
+            for (int to = 0; to < BANDS.length; to++) {
+                if (from != to) {
+                    moved += transitions[from][to];
+                }
+            }
+        }
+        return moved;
+    }
+
+    public long getTransitions(String fromBand, String toBand) {
+        return transitions[indexOf(fromBand)][indexOf(toBand)];
+    }
+
+    public String format() {
+        StringBuilder out = new StringBuilder();
+        double seconds = elapsedNanos / 1e9;
+        out.append(String.format(Locale.US, "Scored %d issues in %.1f s (%.0f issues/s)%n",
+                total, seconds, seconds > 0 ? total / seconds : 0));
+        out.append(String.format(Locale.US, "Priority changed: %d (raised %d, lowered %d)%n",
+                changed, raised, lowered));
+        out.append(String.format(Locale.US, "Band changes: %d%n%n", getBandChanges()));
+
+        out.append(String.format(Locale.US, "%-18s", "previous \\ new"));
+        for (String band : BANDS) {
+            out.append(String.format(Locale.US, "%16s", band));
+        }
+        out.append(String.format("%n"));
+        for (int from = 0; from < BANDS.length; from++) {
+            out.append(String.format(Locale.US, "%-18s", BANDS[from]));
+            for (int to = 0; to < BANDS.length; to++) {
+                out.append(String.format(Locale.US, "%16d", transitions[from][to]));
+            }
+            out.append(String.format("%n"));
+        }
+        return out.toString();
+    }
+
+    private int band(int priority) {
+        return priority <= 0 ? 0 : indexOf(scorer.getPriorityLabel(priority));
+    }
+
+    private static int indexOf(String band) {
+        for (int i = 0; i < BANDS.length; i++) {
+            if (BANDS[i].equals(band)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown band: " + band);
+    }
+}